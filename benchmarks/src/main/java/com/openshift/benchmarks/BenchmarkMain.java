@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler so that the allocation rate
+ * (gc.alloc.rate and gc.alloc.rate.norm per operation) is reported along
+ * with the throughput. Takes the usual jmh command line options, ex.
+ * <code>java -jar benchmarks.jar ResourceDTOFactory -p sample=get-api.json</code>
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		if (commandLineOptions.shouldHelp()
+				|| commandLineOptions.shouldList()
+				|| commandLineOptions.shouldListProfilers()
+				|| commandLineOptions.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		new Runner(new OptionsBuilder()
+				.parent(commandLineOptions)
+				.addProfiler(GCProfiler.class)
+				.build())
+				.run();
+	}
+}
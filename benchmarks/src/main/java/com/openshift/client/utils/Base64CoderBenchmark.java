@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes with Base64Coder, which the client uses for basic
+ * authentication (small) and public ssh keys (large).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Base64CoderBenchmark {
+
+	@Param({ "32", "1024", "16384" })
+	public int size;
+
+	private byte[] decoded;
+	private String encoded;
+
+	@Setup
+	public void setUp() {
+		this.decoded = new byte[size];
+		new Random(size).nextBytes(decoded);
+		this.encoded = new String(Base64Coder.encode(decoded));
+	}
+
+	@Benchmark
+	public char[] encode() {
+		return Base64Coder.encode(decoded);
+	}
+
+	@Benchmark
+	public byte[] decode() {
+		return Base64Coder.decode(encoded);
+	}
+}
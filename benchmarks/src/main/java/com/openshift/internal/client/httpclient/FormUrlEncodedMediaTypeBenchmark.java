@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes request parameters the way they're posted to the broker. The ssh key
+ * parameter is the largest value that the client posts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormUrlEncodedMediaTypeBenchmark {
+
+	@Param({ "1", "5", "20" })
+	public int parameters;
+
+	private Map<String, Object> parameterMap;
+	private FormUrlEncodedMediaType mediaType;
+
+	@Setup
+	public void setUp() {
+		this.mediaType = new FormUrlEncodedMediaType();
+		this.parameterMap = new LinkedHashMap<String, Object>();
+		parameterMap.put("content", createSSHKey());
+		for (int i = 1; i < parameters; i++) {
+			parameterMap.put("parameter" + i, "value " + i + " with reserved characters &=+/");
+		}
+	}
+
+	private String createSSHKey() {
+		StringBuilder builder = new StringBuilder("AAAAB3NzaC1yc2EAAAADAQABAAABAQ");
+		for (int i = 0; i < 350; i++) {
+			builder.append((char) ('A' + i % 26)).append(i % 3 == 0 ? "+/" : "");
+		}
+		return builder.toString();
+	}
+
+	@Benchmark
+	public String encodeParameters() throws UnsupportedEncodingException {
+		return mediaType.encodeParameters(parameterMap);
+	}
+}
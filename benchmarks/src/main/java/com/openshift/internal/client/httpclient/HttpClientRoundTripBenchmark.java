@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.internal.client.IRestService;
+import com.openshift.internal.client.RestService;
+import com.openshift.internal.client.response.Link;
+import com.openshift.internal.client.response.RestResponse;
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * Requests a list of applications from a local server:
+ * <ul>
+ * <li>{@link #get()}: the http client only, returns the response body</li>
+ * <li>{@link #request()}: the rest service, the response is unmarshalled to
+ * DTOs</li>
+ * </ul>
+ * Both are run with a new connection per request (<code>urlconnection</code>)
+ * and with pooled keep-alive connections (<code>pooled</code>).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpClientRoundTripBenchmark {
+
+	private static final String RESPONSE = "/samples/get-applications-with2apps.json";
+
+	@Param({ "urlconnection", "pooled" })
+	public String client;
+
+	private LocalHttpServer server;
+	private IHttpClient httpClient;
+	private IRestService service;
+	private URL url;
+	private Link link;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.server = new LocalHttpServer(readResponse());
+		server.start();
+		this.httpClient = new UrlConnectionHttpClientBuilder()
+				.setUserAgent("com.openshift.client.benchmark")
+				.setCredentials("benchmark", "benchmark")
+				.setPooledConnections("pooled".equals(client))
+				.client();
+		this.url = new URL(server.getUrl() + "broker/rest/domains/benchmark/applications");
+		this.service = new RestService(server.getUrl(), "benchmark", httpClient);
+		this.link = new Link("applications", url.toString(), HttpMethod.GET);
+	}
+
+	private String readResponse() throws IOException {
+		InputStream in = getClass().getResourceAsStream(RESPONSE);
+		try {
+			return StreamUtils.readToString(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (httpClient instanceof PooledHttpClient) {
+			((PooledHttpClient) httpClient).shutdown();
+		}
+		server.stop();
+	}
+
+	@Benchmark
+	public String get() throws Exception {
+		return httpClient.get(url);
+	}
+
+	@Benchmark
+	public RestResponse request() throws Exception {
+		return service.request(link);
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * Compares the latency and the bytes on the wire of plain and gzip encoded
+ * responses for the largest broker payloads. The local server sends at
+ * 1 Mbit/s to simulate a remote broker, on loopback the transfer time is
+ * negligible. Pooled connections are used so that connection setup does not
+ * blur the transfer time. The bytes sent per request are reported in the
+ * <code>bytesPerRequest</code> counter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpCompressionBenchmark {
+
+	private static final String SAMPLES_FOLDER = "/samples/";
+
+	/** 1 Mbit/s */
+	private static final int BANDWIDTH = 128 * 1024;
+
+	@Param({
+			"get-applications-with2apps.json",
+			"get-application-2cartridges-2aliases.json",
+			"add-application.json",
+			"get-domains-1existing.json" })
+	public String payload;
+
+	@Param({ "false", "true" })
+	public boolean acceptCompression;
+
+	private LocalHttpServer server;
+	private PooledHttpClient httpClient;
+	private URL url;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Bytes {
+
+		/** the response is the same for each request */
+		public long bytesPerRequest;
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		this.server = new LocalHttpServer(readPayload(), BANDWIDTH);
+		server.start();
+		this.httpClient = (PooledHttpClient) new UrlConnectionHttpClientBuilder()
+				.setUserAgent("com.openshift.client.benchmark")
+				.setPooledConnections(true)
+				.setAcceptCompression(acceptCompression)
+				.client();
+		this.url = new URL(server.getUrl() + "broker/rest/domains");
+	}
+
+	private String readPayload() throws IOException {
+		InputStream in = getClass().getResourceAsStream(SAMPLES_FOLDER + payload);
+		try {
+			return StreamUtils.readToString(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		httpClient.shutdown();
+		server.stop();
+	}
+
+	@Benchmark
+	public String get(Bytes bytes) throws Exception {
+		long before = server.getBytesSent();
+		String response = httpClient.get(url);
+		bytes.bytesPerRequest = server.getBytesSent() - before;
+		return response;
+	}
+}
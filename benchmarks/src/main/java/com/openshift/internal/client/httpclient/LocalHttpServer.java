@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.text.MessageFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local HTTP/1.1 server that answers every request with the same json body.
+ * The body is gzip encoded if the request accepts it. Connections are kept
+ * alive until the client closes them.
+ */
+public class LocalHttpServer {
+
+	private final byte[] response;
+	private final byte[] gzipResponse;
+	private final int bandwidth;
+	private final AtomicLong bytesSent = new AtomicLong();
+	private ServerSocket serverSocket;
+	private ExecutorService executor;
+
+	public LocalHttpServer(String body) throws IOException {
+		this(body, -1);
+	}
+
+	/**
+	 * Creates a server that sends at most the given bytes per second to
+	 * simulate a remote broker, no limit if it is not positive.
+	 */
+	public LocalHttpServer(String body, int bandwidth) throws IOException {
+		byte[] content = body.getBytes("UTF-8");
+		this.response = createResponse(content, null);
+		this.gzipResponse = createResponse(gzip(content), "gzip");
+		this.bandwidth = bandwidth;
+	}
+
+	private byte[] createResponse(byte[] content, String contentEncoding) throws IOException {
+		byte[] header = ("HTTP/1.1 200 OK\r\n"
+				+ "Content-Type: application/json\r\n"
+				+ (contentEncoding == null ? "" : "Content-Encoding: " + contentEncoding + "\r\n")
+				+ "Content-Length: " + content.length + "\r\n"
+				+ "\r\n").getBytes("UTF-8");
+		byte[] response = new byte[header.length + content.length];
+		System.arraycopy(header, 0, response, 0, header.length);
+		System.arraycopy(content, 0, response, header.length, content.length);
+		return response;
+	}
+
+	private byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		gzip.write(content);
+		gzip.close();
+		return out.toByteArray();
+	}
+
+	public void start() throws IOException {
+		this.serverSocket = new ServerSocket(0);
+		this.executor = Executors.newCachedThreadPool();
+		executor.submit(new Runnable() {
+
+			public void run() {
+				while (!serverSocket.isClosed()) {
+					try {
+						final Socket socket = serverSocket.accept();
+						executor.submit(new Runnable() {
+
+							public void run() {
+								serve(socket);
+							}
+						});
+					} catch (IOException e) {
+						// closed
+					}
+				}
+			}
+		});
+	}
+
+	public String getUrl() {
+		return MessageFormat.format("http://localhost:{0}/", String.valueOf(serverSocket.getLocalPort()));
+	}
+
+	/**
+	 * Returns the bytes sent (headers and body) since the server was created.
+	 */
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	public void stop() throws IOException {
+		serverSocket.close();
+		executor.shutdownNow();
+	}
+
+	private void serve(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+			Boolean acceptsGzip;
+			while ((acceptsGzip = readRequest(in)) != null) {
+				write(acceptsGzip ? gzipResponse : response, out);
+			}
+		} catch (IOException e) {
+			// client went away
+		} catch (InterruptedException e) {
+			// stopped
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private void write(byte[] response, OutputStream out) throws IOException, InterruptedException {
+		bytesSent.addAndGet(response.length);
+		if (bandwidth <= 0) {
+			out.write(response);
+		} else {
+			// 10 chunks per second at the given bandwidth
+			int chunkSize = Math.max(1, bandwidth / 10);
+			for (int offset = 0; offset < response.length; offset += chunkSize) {
+				int length = Math.min(chunkSize, response.length - offset);
+				out.write(response, offset, length);
+				out.flush();
+				Thread.sleep(length * 1000L / bandwidth);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads the request headers and body. Returns whether the client accepts
+	 * a gzip encoded response or <code>null</code> if the client closed the
+	 * connection.
+	 */
+	private Boolean readRequest(InputStream in) throws IOException {
+		int contentLength = 0;
+		boolean acceptsGzip = false;
+		String line;
+		while ((line = readLine(in)) != null
+				&& line.length() > 0) {
+			String header = line.toLowerCase();
+			if (header.startsWith("content-length:")) {
+				contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+			} else if (header.startsWith("accept-encoding:")) {
+				acceptsGzip = header.contains("gzip");
+			}
+		}
+		if (line == null) {
+			return null;
+		}
+		for (int i = 0; i < contentLength; i++) {
+			in.read();
+		}
+		return acceptsGzip;
+	}
+
+	private String readLine(InputStream in) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		int character;
+		while ((character = in.read()) != -1) {
+			if (character == '\n') {
+				return builder.toString().trim();
+			}
+			builder.append((char) character);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures tls handshakes per second against a local server when sslChecks
+ * are disabled:
+ * <ul>
+ * <li>{@link #newContextPerConnection()}: what UrlConnectionHttpClient used to
+ * do, a new ssl context (and secure random) for each connection, every
+ * handshake is a full one</li>
+ * <li>{@link #cachedContext()}: the socket factory that the client now
+ * creates once, sessions are resumed (abbreviated handshakes)</li>
+ * </ul>
+ * The protocol that the server accepts may be chosen with
+ * <code>-p protocol=TLSv1.2,TLSv1.3</code>, resumption saves considerably
+ * more with TLSv1.2.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SSLHandshakeBenchmark {
+
+	private static final String KEYSTORE = "/benchmark.jks";
+	private static final char[] KEYSTORE_PASSWORD = "benchmark".toCharArray();
+	private static final String HOST = "localhost";
+
+	@Param({ "TLSv1.2" })
+	public String protocol;
+
+	private SSLServerSocket serverSocket;
+	private ExecutorService executor;
+	private SSLSocketFactory cachedSocketFactory;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		this.serverSocket = createServerSocket();
+		this.executor = Executors.newCachedThreadPool();
+		executor.submit(new Runnable() {
+
+			public void run() {
+				while (!serverSocket.isClosed()) {
+					try {
+						final SSLSocket socket = (SSLSocket) serverSocket.accept();
+						executor.submit(new Runnable() {
+
+							public void run() {
+								handshakeAndClose(socket);
+							}
+						});
+					} catch (IOException e) {
+						// closed
+					}
+				}
+			}
+		});
+		this.cachedSocketFactory = UrlConnectionHttpClient.createPermissiveSSLSocketFactory();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		serverSocket.close();
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public boolean newContextPerConnection() throws Exception {
+		SSLContext sslContext = SSLContext.getInstance("SSL");
+		sslContext.init(new KeyManager[0],
+				new TrustManager[] { new UrlConnectionHttpClient.PermissiveTrustManager() }, new SecureRandom());
+		return handshake(sslContext.getSocketFactory());
+	}
+
+	@Benchmark
+	public boolean cachedContext() throws Exception {
+		return handshake(cachedSocketFactory);
+	}
+
+	private boolean handshake(SSLSocketFactory socketFactory) throws IOException {
+		SSLSocket socket = (SSLSocket) socketFactory.createSocket(HOST, serverSocket.getLocalPort());
+		try {
+			socket.startHandshake();
+			return socket.getSession().isValid();
+		} finally {
+			socket.close();
+		}
+	}
+
+	private void handshakeAndClose(SSLSocket socket) {
+		try {
+			socket.startHandshake();
+			// wait for the client to close
+			socket.getInputStream().read();
+		} catch (IOException e) {
+			// client went away
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private SSLServerSocket createServerSocket() throws Exception {
+		KeyStore keyStore = KeyStore.getInstance("JKS");
+		InputStream in = getClass().getResourceAsStream(KEYSTORE);
+		try {
+			keyStore.load(in, KEYSTORE_PASSWORD);
+		} finally {
+			in.close();
+		}
+		KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+		SSLContext sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+		SSLServerSocket serverSocket = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket(0);
+		serverSocket.setEnabledProtocols(new String[] { protocol });
+		return serverSocket;
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.dmr.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * Unmarshalls each of the sample responses in src/test/resources/samples:
+ * <ul>
+ * <li>{@link #unmarshall()}: the DTOs that ResourceDTOFactory creates</li>
+ * <li>{@link #modelNode()}: the jboss-dmr tree that the factory used to build
+ * before creating the DTOs, for comparison</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceDTOFactoryBenchmark {
+
+	private static final String SAMPLES_FOLDER = "/samples/";
+
+	@Param({
+			"add-application-alias-ko-alreadyexists.json",
+			"add-application-alias-ko.json",
+			"add-application-alias.json",
+			"add-application-cartridge-ko.json",
+			"add-application-cartridge.json",
+			"add-application-scalable.json",
+			"add-application.json",
+			"add-domain-ko.json",
+			"add-domain.json",
+			"add-user-key-ko.json",
+			"add-user-key-ok.json",
+			"add-user-key2-ok.json",
+			"application-scale-down-ko.json",
+			"application-scale-up-ko.json",
+			"delete-application-cartridge.json",
+			"delete-domain-ko-existingapps.json",
+			"delete-domain-ko-notfound.json",
+			"delete-domain.json",
+			"delete-user-key-ko.json",
+			"get-api.json",
+			"get-application-1cartridge-1alias.json",
+			"get-application-2cartridges-2aliases.json",
+			"get-application-cartridge.json",
+			"get-application-cartridges-with1element.json",
+			"get-application-cartridges-with2elements.json",
+			"get-application-descriptor.json",
+			"get-application-gears-with1element.json",
+			"get-application-gears-with2elements.json",
+			"get-applications-with1app.json",
+			"get-applications-with2apps-1localhost.json",
+			"get-applications-with2apps.json",
+			"get-applications-withnoapp.json",
+			"get-cartridges-embedded.json",
+			"get-cartridges-standalone.json",
+			"get-cartridges.json",
+			"get-domain-notfound.json",
+			"get-domain.json",
+			"get-domains-1329997507457.json",
+			"get-domains-1existing.json",
+			"get-domains-2existing.json",
+			"get-domains-noexisting.json",
+			"get-rest-api.json",
+			"get-user-key-default.json",
+			"get-user-keys-multiple.json",
+			"get-user-keys-none.json",
+			"get-user-keys-single.json",
+			"get-user.json",
+			"post-domains-newdomain-ko.json",
+			"remove-application-alias-ko.json",
+			"remove-application-alias.json",
+			"remove-domain-existing.json",
+			"remove-domain-unexisting.json",
+			"restart-application.json",
+			"start-application.json",
+			"stop-application-force.json",
+			"stop-application.json",
+			"update-domain-id-ko.json",
+			"update-domain-id.json",
+			"update-user-key-rsa.json",
+			"update-user-key.json" })
+	public String sample;
+
+	private String content;
+
+	@Setup
+	public void setUp() throws IOException {
+		InputStream in = getClass().getResourceAsStream(SAMPLES_FOLDER + sample);
+		try {
+			this.content = StreamUtils.readToString(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	@Benchmark
+	public Object unmarshall() {
+		try {
+			return ResourceDTOFactory.get(content);
+		} catch (Exception e) {
+			// some samples are error responses that are reported as exceptions
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object modelNode() {
+		if (content.length() == 0) {
+			return null;
+		}
+		return ModelNode.fromJSONString(content);
+	}
+}
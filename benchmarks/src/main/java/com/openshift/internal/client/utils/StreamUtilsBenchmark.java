@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copies multi-megabyte payloads:
+ * <ul>
+ * <li>{@link #byteAtATime()}: what StreamUtils#writeTo used to do, a byte at a
+ * time, boxed into a List&lt;Byte&gt;</li>
+ * <li>{@link #writeTo()}: StreamUtils#writeTo, copies in chunks and tees into a
+ * growable byte buffer</li>
+ * <li>{@link #copyFileChannels()}: file to file via FileChannel#transferTo</li>
+ * <li>{@link #copyFileStreams()}: file to file in chunks</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamUtilsBenchmark {
+
+	@Param({ "1048576", "8388608" })
+	public int size;
+
+	private byte[] data;
+	private File source;
+	private File target;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.data = new byte[size];
+		new Random(size).nextBytes(data);
+		this.source = File.createTempFile("streamutils", ".source");
+		this.target = File.createTempFile("streamutils", ".target");
+		FileOutputStream out = new FileOutputStream(source);
+		try {
+			out.write(data);
+		} finally {
+			out.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		source.delete();
+		target.delete();
+	}
+
+	@Benchmark
+	public InputStream byteAtATime() throws IOException {
+		InputStream inputStream = new ByteArrayInputStream(data);
+		OutputStream outputStream = new NullOutputStream();
+		List<Byte> data = new ArrayList<Byte>();
+		for (int character = -1; (character = inputStream.read()) != -1;) {
+			data.add((byte) character);
+			outputStream.write(character);
+		}
+		byte[] byteArray = new byte[data.size()];
+		for (int i = byteArray.length - 1; i >= 0; i--) {
+			byteArray[i] = data.get(i);
+		}
+		return new ByteArrayInputStream(byteArray);
+	}
+
+	@Benchmark
+	public InputStream writeTo() throws IOException {
+		return StreamUtils.writeTo(new ByteArrayInputStream(data), new NullOutputStream());
+	}
+
+	@Benchmark
+	public long copyFileChannels() throws IOException {
+		FileInputStream in = new FileInputStream(source);
+		FileOutputStream out = new FileOutputStream(target);
+		try {
+			return StreamUtils.copy(in, out);
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	@Benchmark
+	public long copyFileStreams() throws IOException {
+		// not a FileInputStream, copied in chunks
+		InputStream in = new BufferedInputStream(new FileInputStream(source));
+		FileOutputStream out = new FileOutputStream(target);
+		try {
+			return StreamUtils.copy(in, out);
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private static class NullOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
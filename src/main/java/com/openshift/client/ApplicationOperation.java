@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * The operations that applications offer and that may be run on many
+ * applications at once.
+ */
+public enum ApplicationOperation implements IApplicationOperation {
+
+	START {
+		public void execute(IApplication application) throws OpenShiftException {
+			application.start();
+		}
+	},
+	STOP {
+		public void execute(IApplication application) throws OpenShiftException {
+			application.stop();
+		}
+	},
+	FORCE_STOP {
+		public void execute(IApplication application) throws OpenShiftException {
+			application.stop(true);
+		}
+	},
+	RESTART {
+		public void execute(IApplication application) throws OpenShiftException {
+			application.restart();
+		}
+	},
+	SCALE_UP {
+		public void execute(IApplication application) throws OpenShiftException {
+			application.scaleUp();
+		}
+	},
+	SCALE_DOWN {
+		public void execute(IApplication application) throws OpenShiftException {
+			application.scaleDown();
+		}
+	};
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of an operation that ran on many applications. Applications are
+ * reported in the order they were given.
+ */
+public class BulkOperationResult {
+
+	private final List<IApplication> succeeded = new ArrayList<IApplication>();
+	private final List<IApplication> failed = new ArrayList<IApplication>();
+	/** applications are compared by name, keep the errors by instance */
+	private final Map<IApplication, OpenShiftException> errors =
+			new IdentityHashMap<IApplication, OpenShiftException>();
+
+	/**
+	 * @param applications
+	 *            the applications that the operation ran on
+	 * @param errors
+	 *            the error for each application (at the same index),
+	 *            <code>null</code> if the operation succeeded
+	 */
+	public BulkOperationResult(List<IApplication> applications, List<OpenShiftException> errors) {
+		for (int i = 0; i < applications.size(); i++) {
+			IApplication application = applications.get(i);
+			OpenShiftException error = errors.get(i);
+			if (error == null) {
+				succeeded.add(application);
+			} else {
+				failed.add(application);
+				this.errors.put(application, error);
+			}
+		}
+	}
+
+	public List<IApplication> getSucceeded() {
+		return Collections.unmodifiableList(succeeded);
+	}
+
+	public List<IApplication> getFailed() {
+		return Collections.unmodifiableList(failed);
+	}
+
+	/**
+	 * Returns the error that the operation failed with for the given
+	 * application, <code>null</code> if it succeeded.
+	 */
+	public OpenShiftException getError(IApplication application) {
+		return errors.get(application);
+	}
+
+	public boolean isSuccessful() {
+		return failed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BulkOperationResult ["
+				+ "succeeded=" + succeeded.size() + ", "
+				+ "failed=" + failed
+				+ "]";
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * The outcome of a command that was executed on a gear.
+ * 
+ * @see IApplication#sshExecOnGears(String, int, IGearCommandListener)
+ */
+public class GearCommandResult {
+
+	private final IApplicationGear gear;
+	private final int exitStatus;
+	private final long duration;
+	private final OpenShiftSSHOperationException error;
+
+	public GearCommandResult(IApplicationGear gear, int exitStatus, long duration,
+			OpenShiftSSHOperationException error) {
+		this.gear = gear;
+		this.exitStatus = exitStatus;
+		this.duration = duration;
+		this.error = error;
+	}
+
+	public IApplicationGear getGear() {
+		return gear;
+	}
+
+	/**
+	 * @return the exit status of the command, -1 if it is unknown or the
+	 *         command could not be executed
+	 */
+	public int getExitStatus() {
+		return exitStatus;
+	}
+
+	/**
+	 * @return the time it took to connect and execute the command, in
+	 *         milliseconds
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return the error that prevented the command from being executed,
+	 *         <code>null</code> if it was executed
+	 */
+	public OpenShiftSSHOperationException getError() {
+		return error;
+	}
+
+	/**
+	 * @return <code>true</code> if the command was executed and exited with 0
+	 */
+	public boolean isSuccessful() {
+		return error == null
+				&& exitStatus == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "GearCommandResult ["
+				+ "gear=" + gear.getUuid()
+				+ ", exitStatus=" + exitStatus
+				+ ", duration=" + duration
+				+ ", error=" + (error == null ? null : error.getMessage())
+				+ "]";
+	}
+}
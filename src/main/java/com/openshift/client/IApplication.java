@@ -12,6 +12,7 @@ package com.openshift.client;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
@@ -94,8 +95,13 @@ public interface IApplication extends IOpenShiftResource {
 
 	/**
 	 * Adds all given embedded cartridges from this app, given their names.
+	 * The cartridges are added one after the other. A failing cartridge
+	 * doesn't stop the others from being added, the failures are reported
+	 * once all cartridges were processed.
 	 * 
 	 * @param embeddedCartridges
+	 * @throws OpenShiftEmbeddedCartridgesException
+	 *             if some of the cartridges could not be added
 	 * @throws OpenShiftException
 	 * 
 	 * @see #addEmbeddableCartridge(IEmbeddedCartridge)
@@ -104,6 +110,27 @@ public interface IApplication extends IOpenShiftResource {
 	public List<IEmbeddedCartridge> addEmbeddableCartridges(List<IEmbeddableCartridge> cartridge)
 			throws OpenShiftException;
 
+	/**
+	 * Adds all given embedded cartridges to this app, up to
+	 * <code>parallelism</code> of them at a time. Cartridges that depend on
+	 * another given cartridge (ex. phpmyadmin on mysql) are only added once
+	 * the cartridge they depend on was added, and are skipped if it could not
+	 * be added.
+	 * 
+	 * @param cartridges
+	 *            the cartridges to add
+	 * @param parallelism
+	 *            the maximum number of cartridges to add at a time
+	 * @return the added cartridges, in the given order
+	 * @throws OpenShiftEmbeddedCartridgesException
+	 *             if some of the cartridges could not be added
+	 * @throws OpenShiftException
+	 * 
+	 * @see #addEmbeddableCartridges(List)
+	 */
+	public List<IEmbeddedCartridge> addEmbeddableCartridges(List<IEmbeddableCartridge> cartridges, int parallelism)
+			throws OpenShiftException;
+
 	/**
 	 * Returns all embedded cartridges.
 	 * 
@@ -251,6 +278,24 @@ public interface IApplication extends IOpenShiftResource {
 	 */
 	public boolean waitForAccessible(long timeout) throws OpenShiftException;
 
+	/**
+	 * Watches this application until it becomes accessible on its public url
+	 * or the given timeout elapsed, without blocking the caller. All watches
+	 * share a few threads, many applications may therefore be watched at a
+	 * time.
+	 * 
+	 * @param timeout
+	 *            the time to wait at most, in milliseconds
+	 * @param listener
+	 *            the listener to notify once the watch completes, may be
+	 *            <code>null</code>
+	 * @return a future that gets <code>true</code> if the application became
+	 *         accessible in time, <code>false</code> otherwise
+	 * 
+	 * @see #waitForAccessible(long)
+	 */
+	public Future<Boolean> watchAccessible(long timeout, IApplicationReadinessListener listener);
+
 	/**
 	 * Get the domain of the application.
 	 * 
@@ -317,14 +362,29 @@ public interface IApplication extends IOpenShiftResource {
 	public void removeAlias(String alias) throws  OpenShiftException;
 
 	/**
-	 * Refresh the application but reloading its content from OpenShift. At the
-	 * same time, this operation automatically set the embedded cartridges back
-	 * to an 'unloaded' state.
+	 * Refresh the application by reloading its content from OpenShift. The
+	 * embedded cartridges and gears that were loaded before are updated in
+	 * place, the instances that callers hold stay valid. The registered change
+	 * listeners get notified of the cartridges and gears that were added,
+	 * removed or changed.
 	 * 
 	 * @throws OpenShiftException
+	 * 
+	 * @see #addChangeListener(IResourceChangeListener)
 	 */
 	public void refresh() throws  OpenShiftException;
 
+	/**
+	 * Registers a listener that gets notified of the embedded cartridges and
+	 * gears that were added, removed or changed when this application is
+	 * refreshed.
+	 * 
+	 * @see #refresh()
+	 */
+	public void addChangeListener(IResourceChangeListener listener);
+
+	public void removeChangeListener(IResourceChangeListener listener);
+
 	/**
 	 * Sets the SSH session that this application will use to connect to
 	 * OpenShift to perform some operations. This SSH session must be
@@ -402,4 +462,46 @@ public interface IApplication extends IOpenShiftResource {
 	 */
 	public List<String> getEnvironmentProperties() throws OpenShiftSSHOperationException;
 
+	/**
+	 * Executes the given command on this application over SSH. The standard
+	 * output and error of the command are passed to the given listener while
+	 * the command runs. Blocks until the command completed. Uses the session
+	 * that was set on this application or a pooled one if the connection has
+	 * an SSH session factory.
+	 * 
+	 * @param command
+	 *            the command to execute
+	 * @param listener
+	 *            the listener that gets the output of the command
+	 * @return the exit status of the command, -1 if it is unknown
+	 * @throws OpenShiftSSHOperationException
+	 * 
+	 * @see IOpenShiftConnection#setSSHSessionFactory(ISSHSessionFactory)
+	 */
+	public int sshExec(String command, ISSHCommandListener listener) throws OpenShiftSSHOperationException;
+
+	/**
+	 * Executes the given command on all gears of this application over SSH,
+	 * at most <code>concurrency</code> gears at a time. The output of all
+	 * gears is passed to the given listener, tagged with the gear it came
+	 * from. Blocks until the command completed on all gears. Requires the
+	 * connection to have an SSH session factory.
+	 * 
+	 * @param command
+	 *            the command to execute
+	 * @param concurrency
+	 *            the maximum number of gears to execute the command on at a
+	 *            time
+	 * @param listener
+	 *            the listener that gets the output of the command
+	 * @return the result for each gear, in the order of {@link #getGears()}
+	 * @throws OpenShiftException
+	 *             if the gears could not be listed or there's no SSH session
+	 *             factory
+	 * 
+	 * @see IOpenShiftConnection#setSSHSessionFactory(ISSHSessionFactory)
+	 */
+	public List<GearCommandResult> sshExecOnGears(String command, int concurrency, IGearCommandListener listener)
+			throws OpenShiftException;
+
 }
\ No newline at end of file
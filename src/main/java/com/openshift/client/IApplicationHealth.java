@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.Date;
+
+/**
+ * The health of an application, as collected by an
+ * {@link IApplicationHealthProber} over its latest probes. Instances are
+ * snapshots, they don't change once they were returned.
+ */
+public interface IApplicationHealth {
+
+	public IApplication getApplication();
+
+	/**
+	 * @return the number of probes that these statistics are based on
+	 */
+	public int getProbes();
+
+	/**
+	 * @return the ratio of successful probes, between 0 and 1
+	 */
+	public double getSuccessRatio();
+
+	/**
+	 * Returns the latency, in milliseconds, that the given percentage of the
+	 * probes did not exceed.
+	 * 
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the latency in milliseconds, -1 if there was no probe
+	 */
+	public long getLatency(double percentile);
+
+	/**
+	 * @return the median latency in milliseconds
+	 */
+	public long getMedianLatency();
+
+	/**
+	 * @return the 99th percentile latency in milliseconds
+	 */
+	public long get99thPercentileLatency();
+
+	/**
+	 * @return <code>true</code> if the latest probe succeeded
+	 */
+	public boolean isHealthy();
+
+	/**
+	 * @return the time of the latest probe
+	 */
+	public Date getLastProbe();
+
+	/**
+	 * @return the time the application last changed from healthy to unhealthy
+	 *         or vice versa, the time of the first probe if it never changed.
+	 */
+	public Date getLastChange();
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.List;
+
+/**
+ * Periodically queries the health check url of all applications in a domain
+ * and keeps statistics about the latest probes of each application.
+ * 
+ * @see IDomain#createHealthProber(long, int)
+ */
+public interface IApplicationHealthProber {
+
+	/**
+	 * Starts probing. Does nothing if the prober is already running.
+	 */
+	public void start();
+
+	/**
+	 * Stops probing. The statistics collected so far remain available.
+	 */
+	public void stop();
+
+	public boolean isRunning();
+
+	/**
+	 * Returns the health of the given application.
+	 * 
+	 * @param application
+	 *            the application to get the health for
+	 * @return the health of the given application or <code>null</code> if it
+	 *         was not probed yet.
+	 */
+	public IApplicationHealth getHealth(IApplication application);
+
+	/**
+	 * @return the health of all applications that were probed so far.
+	 */
+	public List<IApplicationHealth> getHealth();
+}
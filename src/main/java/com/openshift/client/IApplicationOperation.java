@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * An operation that may be run on many applications at once.
+ * 
+ * @see ApplicationOperation
+ * @see IOpenShiftConnection#execute(IApplicationOperation, java.util.List,
+ *      IBulkOperationListener)
+ */
+public interface IApplicationOperation {
+
+	public void execute(IApplication application) throws OpenShiftException;
+
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Notified once an application that is watched for becoming accessible is
+ * accessible, did not become accessible in time or could not be watched.
+ * Notifications happen in a thread that is shared among all watches, they
+ * should therefore return quickly.
+ * 
+ * @see IApplication#watchAccessible(long, IApplicationReadinessListener)
+ */
+public interface IApplicationReadinessListener {
+
+	public void accessible(IApplication application);
+
+	public void notAccessible(IApplication application);
+
+	public void failed(IApplication application, OpenShiftException e);
+}
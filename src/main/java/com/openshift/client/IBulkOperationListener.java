@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Gets notified of the progress of an operation that runs on many
+ * applications. Notifications are sent from the threads that run the
+ * operation and may therefore arrive concurrently.
+ */
+public interface IBulkOperationListener {
+
+	/**
+	 * The operation completed successfully for the given application.
+	 * 
+	 * @param application
+	 *            the application
+	 * @param completed
+	 *            the number of applications that the operation completed for
+	 *            (successfully or not), including this one
+	 * @param total
+	 *            the number of applications that the operation runs on
+	 */
+	public void succeeded(IApplication application, int completed, int total);
+
+	/**
+	 * The operation failed for the given application.
+	 * 
+	 * @param application
+	 *            the application
+	 * @param e
+	 *            the error that occurred
+	 * @param completed
+	 *            the number of applications that the operation completed for
+	 *            (successfully or not), including this one
+	 * @param total
+	 *            the number of applications that the operation runs on
+	 */
+	public void failed(IApplication application, OpenShiftException e, int completed, int total);
+
+}
@@ -127,4 +127,40 @@ public interface IDomain extends IOpenShiftResource {
 	 */
 	public List<IGearProfile> getAvailableGearProfiles() throws OpenShiftException;
 	
-}
\ No newline at end of file
+
+	/**
+	 * Runs the given operation on all applications of this domain, many of
+	 * them in parallel, and waits for all of them to complete.
+	 * 
+	 * @see IOpenShiftConnection#execute(IApplicationOperation, List,
+	 *      IBulkOperationListener)
+	 */
+	public BulkOperationResult execute(IApplicationOperation operation, IBulkOperationListener listener)
+			throws OpenShiftException;
+
+	/**
+	 * Creates a prober that queries the health check url of all applications
+	 * in this domain at the given interval. The prober needs to be started.
+	 * 
+	 * @param interval
+	 *            the delay between two rounds of probes, in milliseconds
+	 * @param concurrency
+	 *            the maximum number of probes that run at a time
+	 * @return the prober
+	 * 
+	 * @see IApplicationHealthProber#start()
+	 */
+	public IApplicationHealthProber createHealthProber(long interval, int concurrency);
+
+	/**
+	 * Registers a listener that gets notified of the applications that were
+	 * added, removed or changed when this domain is refreshed. Applications
+	 * are updated in place, their gears and cartridges are not reloaded.
+	 * 
+	 * @see IOpenShiftResource#refresh()
+	 * @see IApplication#addChangeListener(IResourceChangeListener)
+	 */
+	public void addChangeListener(IResourceChangeListener listener);
+
+	public void removeChangeListener(IResourceChangeListener listener);
+}
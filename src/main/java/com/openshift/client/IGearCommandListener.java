@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Receives the output of a command that is executed on several gears, line
+ * by line and tagged with the gear that it came from. Calls are never
+ * concurrent, implementations don't need to be thread safe.
+ * 
+ * @see IApplication#sshExecOnGears(String, int, IGearCommandListener)
+ */
+public interface IGearCommandListener {
+
+	public void output(IApplicationGear gear, String line);
+
+	public void error(IApplicationGear gear, String line);
+}
@@ -53,6 +53,28 @@ public interface IOpenShiftConnection {
 	 */
 	public void setEnableSSLCertChecks(boolean doSSLChecks);
 	
+	/**
+	 * Sets the factory that creates SSH sessions to applications that were not
+	 * given an explicit session. The sessions are pooled: there's one session
+	 * per application, it is connected on demand, shared by all callers and
+	 * disconnected once it was idle for a while. Setting a new factory (or
+	 * <code>null</code>) disconnects the sessions that were created so far.
+	 * 
+	 * @param factory
+	 *            the factory that creates the sessions
+	 * 
+	 * @see IApplication#setSSHSession(com.jcraft.jsch.Session)
+	 */
+	public void setSSHSessionFactory(ISSHSessionFactory factory);
+
+	/**
+	 * Returns the manager that forwards the ports of this connection's
+	 * applications to free local ports.
+	 * 
+	 * @return the port forwarding manager
+	 */
+	public IPortForwardingManager getPortForwardingManager();
+
 	/**
 	 * Sets flag for using an HTTP proxy
 	 * 
@@ -74,4 +96,31 @@ public interface IOpenShiftConnection {
 	 */
 	public void setProxyPort(String proxyPort);
 
+	/**
+	 * Runs the given operation on the given applications, many of them in
+	 * parallel, and waits for all of them to complete. Failures are reported
+	 * in the result, they don't stop the operation for the other applications.
+	 * 
+	 * @param operation
+	 *            the operation to run, ex. {@link ApplicationOperation#RESTART}
+	 * @param applications
+	 *            the applications to run the operation on
+	 * @param listener
+	 *            the listener to notify of the progress, may be
+	 *            <code>null</code>
+	 * @return the result for each application
+	 * @throws OpenShiftException
+	 *             if the current thread was interrupted while waiting
+	 */
+	public BulkOperationResult execute(IApplicationOperation operation, List<IApplication> applications,
+			IBulkOperationListener listener) throws OpenShiftException;
+
+	/**
+	 * Runs the given operation on the given applications, at most
+	 * <code>parallelism</code> of them at a time.
+	 * 
+	 * @see #execute(IApplicationOperation, List, IBulkOperationListener)
+	 */
+	public BulkOperationResult execute(IApplicationOperation operation, List<IApplication> applications,
+			int parallelism, IBulkOperationListener listener) throws OpenShiftException;
 }
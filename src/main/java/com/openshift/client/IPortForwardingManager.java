@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.List;
+
+/**
+ * Forwards the ports of many applications to free local ports and keeps the
+ * forwardings up: forwardings whose session dropped are re-established,
+ * binding the same local ports whenever possible.
+ * 
+ * @see IOpenShiftConnection#getPortForwardingManager()
+ */
+public interface IPortForwardingManager {
+
+	/**
+	 * Forwards all forwardable ports of the given applications to free local
+	 * ports. Applications are processed in parallel. Forwardings that are
+	 * already started are left as they are.
+	 * 
+	 * @param applications
+	 *            the applications to forward the ports of
+	 * @return the state of each forwarding. If the ports of an application
+	 *         could not be listed, there's a single state without forwarding
+	 *         for it, that holds the error.
+	 * @throws OpenShiftException
+	 *             if the current thread was interrupted while waiting
+	 */
+	public List<PortForwardingStatus> start(List<IApplication> applications) throws OpenShiftException;
+
+	/**
+	 * Stops all forwardings of the given application.
+	 * 
+	 * @param application
+	 *            the application to stop the forwardings of
+	 */
+	public void stop(IApplication application);
+
+	/**
+	 * Stops all forwardings.
+	 */
+	public void stopAll();
+
+	/**
+	 * Re-establishes the forwardings whose session dropped. This is done
+	 * periodically once forwardings were started.
+	 * 
+	 * @return the state of the forwardings that had to be re-established
+	 */
+	public List<PortForwardingStatus> reconnect();
+
+	/**
+	 * @return the state of all forwardings
+	 */
+	public List<PortForwardingStatus> getStatus();
+
+	/**
+	 * @param application
+	 *            the application to get the forwardings for
+	 * @return the state of all forwardings of the given application
+	 */
+	public List<PortForwardingStatus> getStatus(IApplication application);
+
+	/**
+	 * Returns the state of the forwarding to the given remote endpoint of the
+	 * given application.
+	 * 
+	 * @param application
+	 *            the application
+	 * @param remoteAddress
+	 *            the remote address
+	 * @param remotePort
+	 *            the remote port
+	 * @return the state of the forwarding or <code>null</code> if there's no
+	 *         such forwarding.
+	 */
+	public PortForwardingStatus getStatus(IApplication application, String remoteAddress, int remotePort);
+}
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Gets notified of the resources that were added, removed or changed when a
+ * domain or an application is refreshed. Listeners are called on the thread
+ * that refreshes, once the new state is visible.
+ * 
+ * @see IDomain#addChangeListener(IResourceChangeListener)
+ * @see IApplication#addChangeListener(IResourceChangeListener)
+ */
+public interface IResourceChangeListener {
+
+	public void resourceChanged(ResourceChangeEvent event);
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Receives the output of a command that is executed over SSH, line by line,
+ * while the command is running. Calls are never concurrent, implementations
+ * don't need to be thread safe. The command is slowed down while a call
+ * blocks, the listener therefore controls how fast the output is consumed.
+ * 
+ * @see IApplication#sshExec(String, ISSHCommandListener)
+ */
+public interface ISSHCommandListener {
+
+	/**
+	 * Called for each line on the standard output of the command.
+	 * 
+	 * @param line
+	 *            the line, without line terminator
+	 */
+	public void output(String line);
+
+	/**
+	 * Called for each line on the standard error of the command.
+	 * 
+	 * @param line
+	 *            the line, without line terminator
+	 */
+	public void error(String line);
+}
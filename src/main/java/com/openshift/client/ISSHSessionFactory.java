@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+/**
+ * Creates the SSH sessions to the applications. The user's SSH settings (keys,
+ * known hosts etc.) are outside of the scope of this library. Clients
+ * therefore provide the sessions, the library connects, reuses and
+ * disconnects them.
+ * 
+ * @see IOpenShiftConnection#setSSHSessionFactory(ISSHSessionFactory)
+ */
+public interface ISSHSessionFactory {
+
+	/**
+	 * Creates a session to the given application. The session may be
+	 * connected or not.
+	 * 
+	 * @param application
+	 *            the application to create the session for
+	 * @return the new session
+	 * @throws JSchException
+	 */
+	public Session createSession(IApplication application) throws JSchException;
+
+	/**
+	 * Creates a session to the given gear of a (scaled) application. The user
+	 * and host to connect to are given by the git url of the gear. The
+	 * session may be connected or not.
+	 * 
+	 * @param gear
+	 *            the gear to create the session for
+	 * @return the new session
+	 * @throws JSchException
+	 */
+	public Session createSession(IApplicationGear gear) throws JSchException;
+}
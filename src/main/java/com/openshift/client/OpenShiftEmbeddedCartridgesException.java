@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown if some of the embeddable cartridges that were asked for could not
+ * be added to an application. Holds the cartridges that were added and the
+ * error for each cartridge that could not be added.
+ */
+public class OpenShiftEmbeddedCartridgesException extends OpenShiftException {
+
+	private static final long serialVersionUID = -2436512467431207413L;
+
+	private final List<IEmbeddedCartridge> addedCartridges;
+	private final Map<IEmbeddableCartridge, OpenShiftException> failures;
+
+	public OpenShiftEmbeddedCartridgesException(List<IEmbeddedCartridge> addedCartridges,
+			Map<IEmbeddableCartridge, OpenShiftException> failures, String message, Object... arguments) {
+		super(failures.isEmpty() ? null : failures.values().iterator().next(), message, arguments);
+		this.addedCartridges = Collections.unmodifiableList(addedCartridges);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * @return the cartridges that were added successfully
+	 */
+	public List<IEmbeddedCartridge> getAddedCartridges() {
+		return addedCartridges;
+	}
+
+	/**
+	 * @return the error for each cartridge that could not be added, in the
+	 *         order the cartridges were given
+	 */
+	public Map<IEmbeddableCartridge, OpenShiftException> getFailures() {
+		return failures;
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Reports a request that was not sent because the endpoint it targets is
+ * considered unavailable (its circuit is open) or already has too many
+ * requests in flight.
+ */
+public class OpenShiftEndpointUnavailableException extends OpenShiftException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String endpoint;
+
+	public OpenShiftEndpointUnavailableException(String endpoint, String message, Object... arguments) {
+		super(message, arguments);
+		this.endpoint = endpoint;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+}
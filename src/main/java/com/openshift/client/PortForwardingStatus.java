@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * The state of a port forwarding that is managed by an
+ * {@link IPortForwardingManager}.
+ */
+public class PortForwardingStatus {
+
+	private final IApplication application;
+	private final IApplicationPortForwarding forwarding;
+	private final boolean started;
+	private final OpenShiftSSHOperationException error;
+
+	public PortForwardingStatus(IApplication application, IApplicationPortForwarding forwarding, boolean started,
+			OpenShiftSSHOperationException error) {
+		this.application = application;
+		this.forwarding = forwarding;
+		this.started = started;
+		this.error = error;
+	}
+
+	public IApplication getApplication() {
+		return application;
+	}
+
+	/**
+	 * @return the forwarding, <code>null</code> if the forwardable ports of
+	 *         the application could not be listed
+	 */
+	public IApplicationPortForwarding getForwarding() {
+		return forwarding;
+	}
+
+	public boolean isStarted() {
+		return started;
+	}
+
+	/**
+	 * @return the error that prevented the forwarding from being started,
+	 *         <code>null</code> if there was none
+	 */
+	public OpenShiftSSHOperationException getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "PortForwardingStatus ["
+				+ "application=" + application.getName()
+				+ ", forwarding=" + forwarding
+				+ ", started=" + started
+				+ ", error=" + (error == null ? null : error.getMessage())
+				+ "]";
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Notifies that a resource was added, removed or changed when its parent
+ * resource was refreshed.
+ * 
+ * @see IResourceChangeListener
+ */
+public class ResourceChangeEvent {
+
+	public enum Type {
+		/** the resource is new on the server and was added to its parent */
+		ADDED,
+		/** the resource no longer exists on the server and was removed */
+		REMOVED,
+		/** the resource was updated in place with the values from the server */
+		CHANGED
+	}
+
+	private final Type type;
+	private final IOpenShiftResource source;
+	private final Object resource;
+
+	public ResourceChangeEvent(Type type, IOpenShiftResource source, Object resource) {
+		this.type = type;
+		this.source = source;
+		this.resource = resource;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return the resource that was refreshed, ie. the domain or application
+	 *         the listener was registered to
+	 */
+	public IOpenShiftResource getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the application, gear or embedded cartridge that was added,
+	 *         removed or changed
+	 */
+	public Object getResource() {
+		return resource;
+	}
+
+	@Override
+	public String toString() {
+		return "ResourceChangeEvent ["
+				+ "type=" + type
+				+ ", source=" + source
+				+ ", resource=" + resource
+				+ "]";
+	}
+}
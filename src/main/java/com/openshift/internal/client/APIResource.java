@@ -11,21 +11,30 @@
 package com.openshift.internal.client;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.openshift.client.BulkOperationResult;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationOperation;
+import com.openshift.client.IBulkOperationListener;
 import com.openshift.client.ICartridge;
 import com.openshift.client.IDomain;
 import com.openshift.client.IEmbeddableCartridge;
 import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.IPortForwardingManager;
+import com.openshift.client.ISSHSessionFactory;
 import com.openshift.client.IUser;
 import com.openshift.client.OpenShiftException;
 import com.openshift.internal.client.response.CartridgeResourceDTO;
 import com.openshift.internal.client.response.DomainResourceDTO;
 import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.UserResourceDTO;
-import com.openshift.internal.client.utils.CollectionUtils;
+import com.openshift.internal.client.ssh.SSHSessionPool;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.LazySnapshot;
 
 /**
  * @author Andre Dietisheim
@@ -39,11 +48,34 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 
 	private final String login;
 	private final String password;
-	private List<IDomain> domains;
-	private UserResource user;
-	private boolean doSSLChecks = false;
-	private final List<ICartridge> standaloneCartridgeNames = new ArrayList<ICartridge>();
-	private final List<IEmbeddableCartridge> embeddedCartridgeNames = new ArrayList<IEmbeddableCartridge>();
+	/** The domains of the user, loaded on first access. */
+	private final LazySnapshot<Domains, OpenShiftException> domains =
+			new LazySnapshot<Domains, OpenShiftException>() {
+
+				@Override
+				protected Domains load() throws OpenShiftException {
+					return new Domains(loadDomains());
+				}
+			};
+	private final LazySnapshot<UserResource, OpenShiftException> user =
+			new LazySnapshot<UserResource, OpenShiftException>() {
+
+				@Override
+				protected UserResource load() throws OpenShiftException {
+					return new UserResource(APIResource.this, new GetUserRequest().execute(), password);
+				}
+			};
+	private volatile boolean doSSLChecks = false;
+	private volatile SSHSessionPool sshSessionPool;
+	private PortForwardingManager portForwardingManager;
+	private final LazySnapshot<Cartridges, OpenShiftException> cartridges =
+			new LazySnapshot<Cartridges, OpenShiftException>() {
+
+				@Override
+				protected Cartridges load() throws OpenShiftException {
+					return retrieveCartridges();
+				}
+			};
 	
 	protected APIResource(final String login, final String password, final IRestService service,
 			final Map<String, Link> links) {
@@ -70,6 +102,28 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 		this.doSSLChecks = doSSLChecks;
 	}
 
+	public synchronized void setSSHSessionFactory(ISSHSessionFactory factory) {
+		if (sshSessionPool != null) {
+			sshSessionPool.close();
+		}
+		if (factory == null) {
+			this.sshSessionPool = null;
+		} else {
+			this.sshSessionPool = new SSHSessionPool(factory);
+		}
+	}
+
+	SSHSessionPool getSSHSessionPool() {
+		return sshSessionPool;
+	}
+
+	public synchronized IPortForwardingManager getPortForwardingManager() {
+		if (portForwardingManager == null) {
+			this.portForwardingManager = new PortForwardingManager(this);
+		}
+		return portForwardingManager;
+	}
+
 	public void setProxySet(boolean proxySet) {
 		if (proxySet) {
 			System.setProperty(SYSPROPERTY_PROXY_SET, "true");
@@ -87,17 +141,15 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	}
 
 	public IUser getUser() throws OpenShiftException {
-		if (user == null) {
-			this.user = new UserResource(this, new GetUserRequest().execute(), this.password);
-		}
-		return this.user;
+		return user.get();
 	}
 
+	/**
+	 * Returns the domains of the user. The returned list is an unmodifiable
+	 * snapshot, it is not copied.
+	 */
 	public List<IDomain> getDomains() throws OpenShiftException {
-		if (this.domains == null) {
-			this.domains = loadDomains();
-		}
-		return CollectionUtils.toUnmodifiableCopy(this.domains);
+		return domains.get().list;
 	}
 
 	private List<IDomain> loadDomains() throws OpenShiftException {
@@ -109,12 +161,7 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	}
 
 	public IDomain getDomain(String id) throws OpenShiftException {
-		for (IDomain domain : getDomains()) {
-			if (domain.getId().equals(id)) {
-				return domain;
-			}
-		}
-		return null;
+		return domains.get().byId.get(id);
 	}
 
 	public IDomain createDomain(String id) throws OpenShiftException {
@@ -124,40 +171,49 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 
 		final DomainResourceDTO domainDTO = new AddDomainRequest().execute(id);
 		final IDomain domain = new DomainResource(domainDTO, this);
-		this.domains.add(domain);
+		synchronized (domains) {
+			domains.set(domains.get().add(domain));
+		}
 		return domain;
 	}
 
 	public List<ICartridge> getStandaloneCartridges() throws OpenShiftException {
-		if (standaloneCartridgeNames.isEmpty()) {
-			retrieveCartridges();
-		}
-		return standaloneCartridgeNames;
+		return cartridges.get().standalone;
 	}
 
 	public List<IEmbeddableCartridge> getEmbeddableCartridges() throws OpenShiftException {
-		if (embeddedCartridgeNames.isEmpty()) {
-			retrieveCartridges();
-		}
-		return CollectionUtils.toUnmodifiableCopy(embeddedCartridgeNames);
+		return cartridges.get().embeddable;
 	}
 
-	private void retrieveCartridges() throws OpenShiftException {
+	private Cartridges retrieveCartridges() throws OpenShiftException {
+		final List<ICartridge> standaloneCartridges = new ArrayList<ICartridge>();
+		final List<IEmbeddableCartridge> embeddableCartridges = new ArrayList<IEmbeddableCartridge>();
 		final List<CartridgeResourceDTO> cartridgeDTOs = new GetCartridgesRequest().execute();
 		for (CartridgeResourceDTO cartridgeDTO : cartridgeDTOs) {
 			// TODO replace by enum (standalone, embedded)
 			switch (cartridgeDTO.getType()) {
 			case STANDALONE:
-				this.standaloneCartridgeNames.add(new Cartridge(cartridgeDTO.getName()));
+				standaloneCartridges.add(new Cartridge(cartridgeDTO.getName()));
 				break;
 			case EMBEDDED:
-				this.embeddedCartridgeNames.add(new EmbeddableCartridge(cartridgeDTO.getName()));
+				embeddableCartridges.add(new EmbeddableCartridge(cartridgeDTO.getName()));
 				break;
 			default:
 			}
 		}
+		return new Cartridges(standaloneCartridges, embeddableCartridges);
 	}
 	
+	public BulkOperationResult execute(IApplicationOperation operation, List<IApplication> applications,
+			IBulkOperationListener listener) throws OpenShiftException {
+		return new BulkOperationRunner().run(operation, applications, listener);
+	}
+
+	public BulkOperationResult execute(IApplicationOperation operation, List<IApplication> applications,
+			int parallelism, IBulkOperationListener listener) throws OpenShiftException {
+		return new BulkOperationRunner(parallelism).run(operation, applications, listener);
+	}
+
 	@Override
 	public void refresh() throws OpenShiftException {
 	}
@@ -169,13 +225,76 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	 *            the domain to remove from the API's domains list.
 	 */
 	protected void removeDomain(final IDomain domain) {
-		this.domains.remove(domain);
+		synchronized (domains) {
+			Domains current = domains.peek();
+			if (current != null) {
+				domains.set(current.remove(domain));
+			}
+		}
+	}
+
+	/**
+	 * Called after a domain has been renamed
+	 * 
+	 * @param domain
+	 *            the renamed domain
+	 */
+	protected void renameDomain(final IDomain domain) {
+		synchronized (domains) {
+			Domains current = domains.peek();
+			if (current != null) {
+				// rebuild the index by id
+				domains.set(new Domains(new ArrayList<IDomain>(current.list)));
+			}
+		}
 	}
 
 	protected boolean hasDomain(String name) throws OpenShiftException {
 		return getDomain(name) != null;
 	}
 
+	/**
+	 * An immutable snapshot of the domains along with an index by id. Changes
+	 * create a new snapshot.
+	 */
+	private static class Domains {
+
+		private final List<IDomain> list;
+		private final Map<String, IDomain> byId;
+
+		private Domains(List<IDomain> domains) {
+			this.list = Collections.unmodifiableList(domains);
+			this.byId = new HashMap<String, IDomain>(domains.size() * 4 / 3 + 1);
+			for (IDomain domain : domains) {
+				byId.put(domain.getId(), domain);
+			}
+		}
+
+		private Domains add(IDomain domain) {
+			List<IDomain> domains = new ArrayList<IDomain>(list.size() + 1);
+			domains.addAll(list);
+			domains.add(domain);
+			return new Domains(domains);
+		}
+
+		private Domains remove(IDomain domain) {
+			List<IDomain> domains = new ArrayList<IDomain>(list);
+			domains.remove(domain);
+			return new Domains(domains);
+		}
+	}
+
+	private static class Cartridges {
+
+		private final List<ICartridge> standalone;
+		private final List<IEmbeddableCartridge> embeddable;
+
+		private Cartridges(List<ICartridge> standalone, List<IEmbeddableCartridge> embeddable) {
+			this.standalone = Collections.unmodifiableList(standalone);
+			this.embeddable = Collections.unmodifiableList(embeddable);
+		}
+	}
+
 	private class AddDomainRequest extends ServiceRequest {
 
 		public AddDomainRequest() throws OpenShiftException {
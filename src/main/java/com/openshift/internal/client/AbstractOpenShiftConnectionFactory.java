@@ -12,13 +12,23 @@ package com.openshift.internal.client;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.openshift.client.HttpMethod;
 import com.openshift.client.IOpenShiftConnection;
 import com.openshift.client.OpenShiftException;
 import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.RestResponse;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
 
 /**
  * Connection Factory, used to establish a connection and retrieve a user.
@@ -28,12 +38,161 @@ import com.openshift.internal.client.response.RestResponse;
  * 
  */
 public abstract class AbstractOpenShiftConnectionFactory {
-	
-	@SuppressWarnings("unchecked")
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractOpenShiftConnectionFactory.class);
+
+	private static ExecutorService revalidationExecutor;
+
+	private LinkTableCache linkTableCache;
+	private RateLimiter rateLimiter;
+	/** the running revalidations by service url */
+	private final ConcurrentMap<String, Revalidation> revalidations = new ConcurrentHashMap<String, Revalidation>();
+
+	/**
+	 * Sets the cache that the links published at /api are persisted to. A
+	 * connection is then created from the cached links right away and /api is
+	 * requested in the background to refresh them. No links are cached by
+	 * default.
+	 * 
+	 * @param linkTableCache
+	 *            the cache to use, <code>null</code> to always wait for /api
+	 */
+	public void setLinkTableCache(LinkTableCache linkTableCache) {
+		this.linkTableCache = linkTableCache;
+	}
+
+	public LinkTableCache getLinkTableCache() {
+		return linkTableCache;
+	}
+
+	/**
+	 * Sets the rate limiter that the connections created by this factory
+	 * share. The requests of each connection take the tokens of the user it
+	 * was created for. Requests are not limited by default.
+	 * 
+	 * @param rateLimiter
+	 *            the limiter to use, <code>null</code> to not limit requests
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
 	protected IOpenShiftConnection getConnection(IRestService service, final String login, final String password) throws FileNotFoundException, IOException, OpenShiftException {
+		RateLimiter rateLimiter = this.rateLimiter;
+		if (rateLimiter != null) {
+			service.setRateLimiter(rateLimiter, login);
+		}
+		LinkTableCache linkTableCache = this.linkTableCache;
+		if (linkTableCache == null) {
+			return new APIResource(login, password, service, requestLinks(service));
+		}
+
+		Map<String, Link> links = linkTableCache.load(service.getServiceUrl(), RestService.SERVICE_VERSION);
+		if (links == null) {
+			links = requestLinks(service);
+			linkTableCache.store(service.getServiceUrl(), RestService.SERVICE_VERSION, links);
+			return new APIResource(login, password, service, links);
+		}
+		APIResource api = new APIResource(login, password, service, links);
+		revalidate(api, service, linkTableCache);
+		return api;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Link> requestLinks(IRestService service) throws IOException, OpenShiftException {
 		RestResponse response =
 				(RestResponse) service.request(new Link("Get API", "/api", HttpMethod.GET));
-		return new APIResource(login, password, service, (Map<String, Link>) response.getData());
+		return (Map<String, Link>) response.getData();
+	}
+
+	/**
+	 * Requests /api in the background and updates the given api resource and
+	 * the cache with the links that the broker responded. Joins the
+	 * revalidation of the same service url if one is running already.
+	 */
+	private void revalidate(APIResource api, IRestService service, LinkTableCache linkTableCache) {
+		String serviceUrl = service.getServiceUrl();
+		Revalidation revalidation = new Revalidation(service, linkTableCache, api);
+		while (true) {
+			Revalidation running = revalidations.putIfAbsent(serviceUrl, revalidation);
+			if (running == null) {
+				getRevalidationExecutor().execute(revalidation);
+				return;
+			}
+			if (running.join(api)) {
+				return;
+			}
+			// the running one got its response already
+			if (revalidations.replace(serviceUrl, running, revalidation)) {
+				getRevalidationExecutor().execute(revalidation);
+				return;
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getRevalidationExecutor() {
+		if (revalidationExecutor == null) {
+			revalidationExecutor = Executors.newCachedThreadPool(
+					new DaemonThreadFactory("openshift-api-revalidation-"));
+		}
+		return revalidationExecutor;
+	}
+
+	/**
+	 * A request to /api that updates the api resources that joined it, until
+	 * it got the response.
+	 */
+	private class Revalidation implements Runnable {
+
+		private final IRestService service;
+		private final LinkTableCache linkTableCache;
+		private final List<APIResource> apis = new ArrayList<APIResource>();
+		private boolean done;
+
+		private Revalidation(IRestService service, LinkTableCache linkTableCache, APIResource api) {
+			this.service = service;
+			this.linkTableCache = linkTableCache;
+			apis.add(api);
+		}
+
+		/**
+		 * Adds the given api resource to the ones that are updated. Returns
+		 * <code>false</code> if the response was processed already.
+		 */
+		private synchronized boolean join(APIResource api) {
+			if (done) {
+				return false;
+			}
+			apis.add(api);
+			return true;
+		}
+
+		public void run() {
+			try {
+				Map<String, Link> links = requestLinks(service);
+				for (APIResource api : finish()) {
+					api.setLinks(links);
+				}
+				linkTableCache.store(service.getServiceUrl(), RestService.SERVICE_VERSION, links);
+			} catch (OpenShiftException e) {
+				LOGGER.warn("Could not revalidate the cached links of {}", service.getServiceUrl(), e);
+			} catch (IOException e) {
+				LOGGER.warn("Could not revalidate the cached links of {}", service.getServiceUrl(), e);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Could not revalidate the cached links of {}", service.getServiceUrl(), e);
+			} finally {
+				finish();
+				revalidations.remove(service.getServiceUrl(), this);
+			}
+		}
+
+		private synchronized List<APIResource> finish() {
+			this.done = true;
+			return new ArrayList<APIResource>(apis);
+		}
 	}
-	
 }
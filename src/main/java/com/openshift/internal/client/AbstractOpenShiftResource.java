@@ -12,6 +12,10 @@ package com.openshift.internal.client;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.openshift.client.IOpenShiftResource;
 import com.openshift.client.OpenShiftException;
@@ -29,7 +33,7 @@ import com.openshift.internal.client.response.RestResponse;
 public abstract class AbstractOpenShiftResource implements IOpenShiftResource {
 
 	/** The links. Null means collection is not loaded yet. */
-	private Map<String, Link> links;
+	private volatile Map<String, Link> links;
 
 	/** The service. */
 	private final IRestService service;
@@ -143,6 +147,72 @@ public abstract class AbstractOpenShiftResource implements IOpenShiftResource {
 			return response.getData();
 		}
 
+		/**
+		 * Executes this request on the executor of the service and returns
+		 * immediately.
+		 * 
+		 * @see IRestService#requestAsync(Link, Map)
+		 */
+		protected <DTO> Future<DTO> executeAsync(ServiceParameter... parameters) throws OpenShiftException {
+			return executeAsync(0, TimeUnit.MILLISECONDS, parameters);
+		}
+
+		/**
+		 * Executes this request on the executor of the service and returns
+		 * immediately. The future is completed with an
+		 * {@link com.openshift.client.OpenShiftTimeoutException} if there was
+		 * no response within the given timeout.
+		 * 
+		 * @see IRestService#requestAsync(Link, Map, long, TimeUnit)
+		 */
+		protected <DTO> Future<DTO> executeAsync(long timeout, TimeUnit unit, ServiceParameter... parameters)
+				throws OpenShiftException {
+			Link link = getLink(linkName);
+			return new ResponseDataFuture<DTO>(
+					getService().requestAsync(link, ServiceParameter.toMap(parameters), timeout, unit));
+		}
+	}
+
+	/**
+	 * A future that returns the data of the response that the wrapped future
+	 * returns.
+	 */
+	private static class ResponseDataFuture<DTO> implements Future<DTO> {
+
+		private final Future<RestResponse> responseFuture;
+
+		private ResponseDataFuture(Future<RestResponse> responseFuture) {
+			this.responseFuture = responseFuture;
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return responseFuture.cancel(mayInterruptIfRunning);
+		}
+
+		public boolean isCancelled() {
+			return responseFuture.isCancelled();
+		}
+
+		public boolean isDone() {
+			return responseFuture.isDone();
+		}
+
+		public DTO get() throws InterruptedException, ExecutionException {
+			return getData(responseFuture.get());
+		}
+
+		public DTO get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			return getData(responseFuture.get(timeout, unit));
+		}
+
+		private DTO getData(RestResponse response) {
+			// no response body for some operations (e.g.: delete domain)
+			if (response == null) {
+				return null;
+			}
+			return response.<DTO> getData();
+		}
 	}
 
 	public String getCreationLog() {
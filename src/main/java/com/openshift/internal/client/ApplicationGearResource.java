@@ -29,10 +29,10 @@ public class ApplicationGearResource extends AbstractOpenShiftResource implement
 	private final String uuid;
 	
 	/** The gear's git url. */
-	private final String gitUrl;
+	private volatile String gitUrl;
 	
 	/** the gear's components. */
-	private final List<IApplicationGearComponent> components;
+	private volatile List<IApplicationGearComponent> components;
 
 	/** the enclosing applicationResource. */
 	private final ApplicationResource applicationResource;
@@ -78,6 +78,20 @@ public class ApplicationGearResource extends AbstractOpenShiftResource implement
 		return applicationResource;
 	}
 	
+	/**
+	 * Updates this gear with the values that were loaded when its application
+	 * got refreshed.
+	 * 
+	 * @return <code>true</code> if the git url or the components changed
+	 */
+	boolean update(GearResourceDTO gearDTO, List<IApplicationGearComponent> components) {
+		boolean changed = !ResourceReconciler.isEqual(gitUrl, gearDTO.getGitUrl())
+				|| !ResourceReconciler.isEqual(this.components, components);
+		this.gitUrl = gearDTO.getGitUrl();
+		this.components = components;
+		return changed;
+	}
+
 	@Override
 	public void refresh() throws OpenShiftException {
 	}
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationHealth;
+import com.openshift.client.IApplicationHealthProber;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Probes the health check url of all applications in a domain at a fixed
+ * interval. At most <code>concurrency</code> probes run at a time and an
+ * application is not probed again while its previous probe is still
+ * running. The probes use the http client of the connection, ie. pooled
+ * connections if the connection uses a pooled client. For each application
+ * the latency and outcome of the latest probes are kept in a rolling window.
+ */
+public class ApplicationHealthProber implements IApplicationHealthProber {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationHealthProber.class);
+
+	static final int WINDOW_SIZE = 256;
+
+	private final DomainResource domain;
+	private final long interval;
+	private final int concurrency;
+	private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<String, Window>();
+
+	private ScheduledExecutorService scheduler;
+	private ExecutorService probes;
+
+	public ApplicationHealthProber(DomainResource domain, long interval, int concurrency) {
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Interval needs to be positive");
+		}
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency needs to be 1 or more");
+		}
+		this.domain = domain;
+		this.interval = interval;
+		this.concurrency = concurrency;
+	}
+
+	public synchronized void start() {
+		if (isRunning()) {
+			return;
+		}
+		this.probes = Executors.newFixedThreadPool(concurrency, new DaemonThreadFactory("openshift-probe-"));
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("openshift-prober-"));
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+
+			public void run() {
+				probeAll();
+			}
+		}, 0, interval, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop() {
+		if (!isRunning()) {
+			return;
+		}
+		scheduler.shutdownNow();
+		probes.shutdownNow();
+		for (Window window : windows.values()) {
+			window.resetProbe();
+		}
+		this.scheduler = null;
+		this.probes = null;
+	}
+
+	public synchronized boolean isRunning() {
+		return scheduler != null;
+	}
+
+	public IApplicationHealth getHealth(IApplication application) {
+		Window window = windows.get(application.getName());
+		if (window == null) {
+			return null;
+		}
+		return window.getHealth();
+	}
+
+	public List<IApplicationHealth> getHealth() {
+		List<IApplicationHealth> health = new ArrayList<IApplicationHealth>();
+		for (Window window : windows.values()) {
+			IApplicationHealth applicationHealth = window.getHealth();
+			if (applicationHealth != null) {
+				health.add(applicationHealth);
+			}
+		}
+		return health;
+	}
+
+	private void probeAll() {
+		ExecutorService probes = getProbes();
+		if (probes == null) {
+			return;
+		}
+		try {
+			List<IApplication> applications = domain.getApplications();
+			Set<String> names = new HashSet<String>();
+			for (IApplication application : applications) {
+				names.add(application.getName());
+				final Window window = getWindow(application);
+				if (getProbes() != probes) {
+					// stopped (and maybe restarted) in the meantime
+					return;
+				}
+				if (window.startProbe()) {
+					try {
+						probes.execute(new Runnable() {
+
+							public void run() {
+								window.probe();
+							}
+						});
+					} catch (RejectedExecutionException e) {
+						// stopped in the meantime
+						window.resetProbe();
+						return;
+					}
+				}
+			}
+			// forget applications that were removed
+			windows.keySet().retainAll(names);
+		} catch (OpenShiftException e) {
+			LOGGER.error("Could not list the applications to probe", e);
+		} catch (RuntimeException e) {
+			// stopped in the meantime or unexpected error, dont kill the scheduler
+			LOGGER.error("Could not probe the applications", e);
+		}
+	}
+
+	private synchronized ExecutorService getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Returns the window for the given application. Windows are looked up by
+	 * name so that statistics survive refreshing the domain, which replaces
+	 * the application instances.
+	 */
+	private Window getWindow(IApplication application) {
+		Window window = windows.get(application.getName());
+		if (window == null) {
+			window = new Window();
+			windows.put(application.getName(), window);
+		}
+		window.application = application;
+		return window;
+	}
+
+	/**
+	 * The latest probes of an application, in a ring buffer.
+	 */
+	private static class Window {
+
+		private volatile IApplication application;
+		private final long[] latencies = new long[WINDOW_SIZE];
+		private final boolean[] successes = new boolean[WINDOW_SIZE];
+		private int count;
+		private int next;
+		private boolean probing;
+		private long lastProbe;
+		private long lastChange;
+
+		private synchronized boolean startProbe() {
+			if (probing) {
+				return false;
+			}
+			return probing = true;
+		}
+
+		/**
+		 * Allows probing again if a probe was queued but never run.
+		 */
+		private synchronized void resetProbe() {
+			this.probing = false;
+		}
+
+		private void probe() {
+			IApplication application = this.application;
+			long start = System.nanoTime();
+			boolean success = false;
+			try {
+				String response = ((ApplicationResource) application).getService()
+						.request(application.getHealthCheckUrl(), HttpMethod.GET, null);
+				success = response != null
+						&& response.startsWith(((ApplicationResource) application).getHealthCheckSuccessResponse());
+			} catch (OpenShiftException e) {
+				// unhealthy
+			} catch (RuntimeException e) {
+				LOGGER.error("Could not probe application " + application.getName(), e);
+			} finally {
+				add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), success);
+			}
+		}
+
+		private synchronized void add(long latency, boolean success) {
+			long now = System.currentTimeMillis();
+			if (count == 0
+					|| successes[(next + WINDOW_SIZE - 1) % WINDOW_SIZE] != success) {
+				lastChange = now;
+			}
+			latencies[next] = latency;
+			successes[next] = success;
+			next = (next + 1) % WINDOW_SIZE;
+			count = Math.min(count + 1, WINDOW_SIZE);
+			lastProbe = now;
+			probing = false;
+		}
+
+		private synchronized IApplicationHealth getHealth() {
+			if (count == 0) {
+				return null;
+			}
+			long[] sortedLatencies = new long[count];
+			int succeeded = 0;
+			for (int i = 0; i < count; i++) {
+				sortedLatencies[i] = latencies[i];
+				if (successes[i]) {
+					succeeded++;
+				}
+			}
+			Arrays.sort(sortedLatencies);
+			return new ApplicationHealth(application, sortedLatencies, (double) succeeded / count,
+					successes[(next + WINDOW_SIZE - 1) % WINDOW_SIZE], lastProbe, lastChange);
+		}
+	}
+
+	private static class ApplicationHealth implements IApplicationHealth {
+
+		private final IApplication application;
+		private final long[] sortedLatencies;
+		private final double successRatio;
+		private final boolean healthy;
+		private final long lastProbe;
+		private final long lastChange;
+
+		private ApplicationHealth(IApplication application, long[] sortedLatencies, double successRatio,
+				boolean healthy, long lastProbe, long lastChange) {
+			this.application = application;
+			this.sortedLatencies = sortedLatencies;
+			this.successRatio = successRatio;
+			this.healthy = healthy;
+			this.lastProbe = lastProbe;
+			this.lastChange = lastChange;
+		}
+
+		public IApplication getApplication() {
+			return application;
+		}
+
+		public int getProbes() {
+			return sortedLatencies.length;
+		}
+
+		public double getSuccessRatio() {
+			return successRatio;
+		}
+
+		public long getLatency(double percentile) {
+			if (sortedLatencies.length == 0) {
+				return -1;
+			}
+			int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+			return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+		}
+
+		public long getMedianLatency() {
+			return getLatency(50);
+		}
+
+		public long get99thPercentileLatency() {
+			return getLatency(99);
+		}
+
+		public boolean isHealthy() {
+			return healthy;
+		}
+
+		public Date getLastProbe() {
+			return new Date(lastProbe);
+		}
+
+		public Date getLastChange() {
+			return new Date(lastChange);
+		}
+
+		@Override
+		public String toString() {
+			return "ApplicationHealth ["
+					+ "application=" + application.getName()
+					+ ", healthy=" + healthy
+					+ ", probes=" + sortedLatencies.length
+					+ ", successRatio=" + successRatio
+					+ ", p50=" + getMedianLatency()
+					+ ", p99=" + get99thPercentileLatency()
+					+ "]";
+		}
+	}
+}
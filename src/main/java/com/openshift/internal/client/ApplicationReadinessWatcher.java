@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IApplicationReadinessListener;
+import com.openshift.client.OpenShiftEndpointException;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Watches applications until they become accessible. All watches share a
+ * small scheduler: a watch only occupies a thread while it resolves the
+ * application host or queries its health check url, not while it waits for
+ * the next attempt. The delay between attempts grows exponentially (with
+ * random jitter so that many watches don't hit the server at the same time).
+ * Resolved hosts are cached for a while.
+ */
+public class ApplicationReadinessWatcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationReadinessWatcher.class);
+
+	private static final int DEFAULT_THREADS = 2;
+	private static final long DEFAULT_INITIAL_DELAY = 500;
+	private static final long DEFAULT_MAX_DELAY = 16 * 1024;
+	private static final long RESOLVED_HOST_TTL = 60 * 1000;
+
+	private static ApplicationReadinessWatcher defaultWatcher;
+
+	private final ScheduledExecutorService scheduler;
+	private final long initialDelay;
+	private final long maxDelay;
+	private final Random random = new Random();
+	private final ConcurrentMap<String, Long> resolvedHosts = new ConcurrentHashMap<String, Long>();
+
+	public static synchronized ApplicationReadinessWatcher getDefault() {
+		if (defaultWatcher == null) {
+			defaultWatcher = new ApplicationReadinessWatcher(
+					new ScheduledThreadPoolExecutor(DEFAULT_THREADS, new DaemonThreadFactory("openshift-readiness-")),
+					DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY);
+		}
+		return defaultWatcher;
+	}
+
+	public ApplicationReadinessWatcher(ScheduledExecutorService scheduler, long initialDelay, long maxDelay) {
+		this.scheduler = scheduler;
+		this.initialDelay = initialDelay;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Watches the given application until it is accessible or the given
+	 * timeout elapsed.
+	 * 
+	 * @param application
+	 *            the application to watch
+	 * @param timeout
+	 *            the time to wait at most, in milliseconds
+	 * @param listener
+	 *            the listener to notify once the watch completes, may be
+	 *            <code>null</code>
+	 * @return a future that gets <code>true</code> if the application became
+	 *         accessible, <code>false</code> otherwise.
+	 */
+	public Future<Boolean> watch(ApplicationResource application, long timeout,
+			IApplicationReadinessListener listener) {
+		Watch watch = new Watch(application, System.currentTimeMillis() + timeout, listener);
+		scheduler.execute(watch);
+		return watch.future;
+	}
+
+	protected boolean canResolve(String host) {
+		Long resolvedUntil = resolvedHosts.get(host);
+		if (resolvedUntil != null
+				&& resolvedUntil > System.currentTimeMillis()) {
+			return true;
+		}
+		try {
+			InetAddress.getByName(host);
+			resolvedHosts.put(host, System.currentTimeMillis() + RESOLVED_HOST_TTL);
+			return true;
+		} catch (UnknownHostException e) {
+			return false;
+		}
+	}
+
+	private long getDelay(int attempt) {
+		long delay = initialDelay << Math.min(attempt, 30);
+		if (delay <= 0
+				|| delay > maxDelay) {
+			delay = maxDelay;
+		}
+		// jitter: somewhere between half and the full delay
+		return delay / 2 + (long) (random.nextDouble() * (delay / 2));
+	}
+
+	private class Watch implements Runnable {
+
+		private final ApplicationResource application;
+		private final long deadline;
+		private final IApplicationReadinessListener listener;
+		private final ReadinessFuture future = new ReadinessFuture();
+		private boolean resolved;
+		private int attempt;
+
+		private Watch(ApplicationResource application, long deadline, IApplicationReadinessListener listener) {
+			this.application = application;
+			this.deadline = deadline;
+			this.listener = listener;
+		}
+
+		public void run() {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				if (isAccessible()) {
+					complete(true);
+					return;
+				}
+			} catch (OpenShiftException e) {
+				fail(e);
+				return;
+			} catch (RuntimeException e) {
+				fail(new OpenShiftException(e, "Could not wait for application {0} to become accessible",
+						application.getName()));
+				return;
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				complete(false);
+				return;
+			}
+			scheduler.schedule(this, Math.min(getDelay(attempt++), remaining), TimeUnit.MILLISECONDS);
+		}
+
+		private boolean isAccessible() throws OpenShiftException {
+			if (!resolved) {
+				resolved = canResolve(getHost());
+				if (!resolved) {
+					return false;
+				}
+			}
+			try {
+				String response = application.getService().request(application.getHealthCheckUrl(), HttpMethod.GET, null);
+				return response != null
+						&& response.startsWith(application.getHealthCheckSuccessResponse());
+			} catch (OpenShiftEndpointException e) {
+				throw e;
+			} catch (OpenShiftException e) {
+				// not accessible yet
+				return false;
+			}
+		}
+
+		private String getHost() throws OpenShiftException {
+			try {
+				return new URL(application.getHealthCheckUrl()).getHost();
+			} catch (MalformedURLException e) {
+				throw new OpenShiftException(e,
+						"Could not wait for application {0} to become accessible, it has an invalid URL \"{1}\": {2}",
+						application.getName(), application.getHealthCheckUrl(), e.getMessage());
+			}
+		}
+
+		/**
+		 * Notifies the listener before completing the future so that callers
+		 * waiting for the future see the effects of the listener.
+		 */
+		private void complete(boolean accessible) {
+			if (future.isCancelled()) {
+				return;
+			}
+			if (listener != null) {
+				try {
+					if (accessible) {
+						listener.accessible(application);
+					} else {
+						listener.notAccessible(application);
+					}
+				} catch (RuntimeException e) {
+					LOGGER.error("Could not notify readiness listener", e);
+				}
+			}
+			future.complete(accessible, null);
+		}
+
+		private void fail(OpenShiftException e) {
+			if (future.isCancelled()) {
+				return;
+			}
+			if (listener != null) {
+				try {
+					listener.failed(application, e);
+				} catch (RuntimeException re) {
+					LOGGER.error("Could not notify readiness listener", re);
+				}
+			}
+			future.complete(false, e);
+		}
+	}
+
+	private static class ReadinessFuture implements Future<Boolean> {
+
+		private final CountDownLatch done = new CountDownLatch(1);
+		private boolean accessible;
+		private OpenShiftException error;
+		private boolean cancelled;
+
+		private synchronized void complete(boolean accessible, OpenShiftException error) {
+			if (isDone()) {
+				return;
+			}
+			this.accessible = accessible;
+			this.error = error;
+			done.countDown();
+		}
+
+		public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+			if (isDone()) {
+				return false;
+			}
+			this.cancelled = true;
+			done.countDown();
+			return true;
+		}
+
+		public synchronized boolean isCancelled() {
+			return cancelled;
+		}
+
+		public boolean isDone() {
+			return done.getCount() == 0;
+		}
+
+		public Boolean get() throws InterruptedException, ExecutionException {
+			done.await();
+			return getResult();
+		}
+
+		public Boolean get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			if (!done.await(timeout, unit)) {
+				throw new TimeoutException();
+			}
+			return getResult();
+		}
+
+		private synchronized Boolean getResult() throws ExecutionException {
+			if (cancelled) {
+				throw new CancellationException();
+			}
+			if (error != null) {
+				throw new ExecutionException(error);
+			}
+			return accessible;
+		}
+	}
+}
@@ -10,10 +10,7 @@
  ******************************************************************************/
 package com.openshift.internal.client;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -21,31 +18,34 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.jcraft.jsch.Channel;
-import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import com.openshift.client.ApplicationScale;
-import com.openshift.client.HttpMethod;
+import com.openshift.client.GearCommandResult;
 import com.openshift.client.IApplication;
 import com.openshift.client.IApplicationGear;
 import com.openshift.client.IApplicationGearComponent;
 import com.openshift.client.IApplicationPortForwarding;
+import com.openshift.client.IApplicationReadinessListener;
 import com.openshift.client.ICartridge;
 import com.openshift.client.IDomain;
 import com.openshift.client.IEmbeddableCartridge;
 import com.openshift.client.IEmbeddedCartridge;
+import com.openshift.client.IGearCommandListener;
 import com.openshift.client.IGearProfile;
-import com.openshift.client.OpenShiftEndpointException;
+import com.openshift.client.IResourceChangeListener;
+import com.openshift.client.ISSHCommandListener;
 import com.openshift.client.OpenShiftException;
 import com.openshift.client.OpenShiftSSHOperationException;
-import com.openshift.client.utils.HostUtils;
+import com.openshift.client.ResourceChangeEvent;
 import com.openshift.client.utils.RFC822DateUtils;
 import com.openshift.internal.client.response.ApplicationResourceDTO;
 import com.openshift.internal.client.response.CartridgeResourceDTO;
@@ -54,7 +54,11 @@ import com.openshift.internal.client.response.GearResourceDTO;
 import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.Message;
 import com.openshift.internal.client.ssh.ApplicationPortForwarding;
+import com.openshift.internal.client.ssh.SSHCommandExecutor;
+import com.openshift.internal.client.ssh.SSHSessionPool;
+import com.openshift.internal.client.ssh.SSHSessionPool.PooledSession;
 import com.openshift.internal.client.utils.CollectionUtils;
+import com.openshift.internal.client.utils.LazySnapshot;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
 
 /**
@@ -66,8 +70,6 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationResource.class);
 
-	private static final long APPLICATION_WAIT_RETRY_DELAY = 2 * 1024;
-
 	private static final String LINK_GET_APPLICATION = "GET";
 	private static final String LINK_DELETE_APPLICATION = "DELETE";
 	private static final String LINK_START_APPLICATION = "START";
@@ -99,51 +101,74 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	private final ICartridge cartridge;
 
 	/** The scalability enablement. */
-	private final ApplicationScale scale;
+	private volatile ApplicationScale scale;
 
 	/** The application gear profile. */
-	private final IGearProfile gearProfile;
+	private volatile IGearProfile gearProfile;
 
 	/** The domain this application belongs to. */
 	private final DomainResource domain;
 
 	/** The url of this application. */
-	private final String applicationUrl;
+	private volatile String applicationUrl;
 
 	/** The pathat which the health of this application may be queried. */
-	private final String healthCheckUrl;
+	private volatile String healthCheckUrl;
 
 	/** The url at which the git repo of this application may be reached. */
-	private final String gitUrl;
+	private volatile String gitUrl;
 
 	/** The aliases of this application. */
-	private final List<String> aliases;
+	private volatile List<String> aliases;
 
 	/**
-	 * List of configured embedded cartridges. <code>null</code> means list if
-	 * not loaded yet.
+	 * List of configured embedded cartridges, loaded on first access.
 	 */
 	// TODO: replace by a map indexed by cartridge names ?
-	private List<IEmbeddedCartridge> embeddedCartridges = null;
+	private final LazySnapshot<List<IEmbeddedCartridge>, OpenShiftException> embeddedCartridges =
+			new LazySnapshot<List<IEmbeddedCartridge>, OpenShiftException>() {
+
+				@Override
+				protected List<IEmbeddedCartridge> load() throws OpenShiftException {
+					return Collections.unmodifiableList(loadEmbeddedCartridges());
+				}
+			};
 
 	/**
-	 * List of configured gears. <code>null</code> means list if not loaded yet.
+	 * List of configured gears, loaded on first access.
 	 */
-	// TODO: replace by a map indexed by cartridge names ?
-	private List<IApplicationGear> gears = null;
+	private final LazySnapshot<List<IApplicationGear>, OpenShiftException> gears =
+			new LazySnapshot<List<IApplicationGear>, OpenShiftException>() {
+
+				@Override
+				protected List<IApplicationGear> load() throws OpenShiftException {
+					return Collections.unmodifiableList(loadGears());
+				}
+			};
 
 	/**
-	 * SSH Fowardable ports for the current application.
+	 * SSH Fowardable ports for the current application, loaded on first
+	 * access.
 	 */
-	private List<IApplicationPortForwarding> ports = null;
+	private final LazySnapshot<List<IApplicationPortForwarding>, OpenShiftSSHOperationException> ports =
+			new LazySnapshot<List<IApplicationPortForwarding>, OpenShiftSSHOperationException>() {
+
+				@Override
+				protected List<IApplicationPortForwarding> load() throws OpenShiftSSHOperationException {
+					return Collections.unmodifiableList(loadPorts());
+				}
+			};
 
 	/**
 	 * SSH Session used to perform port-forwarding and other ssh-based
 	 * operations.
 	 */
-	private Session session;
+	private volatile Session session;
+
+	private volatile Map<String, String> embeddedCartridgesInfos;
 
-	private Map<String, String> embeddedCartridgesInfos;
+	/** The listeners that get notified of the changes found by a refresh. */
+	private final ResourceChangeSupport changeSupport = new ResourceChangeSupport();
 
 	/**
 	 * Constructor...
@@ -205,6 +230,40 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 		this.embeddedCartridgesInfos = embeddedCartridgesInfos;
 	}
 
+	/**
+	 * Updates this application with the values that were loaded when its
+	 * domain got refreshed. The gears and embedded cartridges are left as
+	 * they are, the domain refreshes them if this application changed.
+	 * 
+	 * @return <code>true</code> if any value changed
+	 */
+	boolean update(ApplicationResourceDTO dto) {
+		final String healthCheckUrl = dto.getApplicationUrl() + dto.getHealthCheckPath();
+		boolean changed = !ResourceReconciler.isEqual(applicationUrl, dto.getApplicationUrl())
+				|| !ResourceReconciler.isEqual(gitUrl, dto.getGitUrl())
+				|| !ResourceReconciler.isEqual(this.healthCheckUrl, healthCheckUrl)
+				|| scale != dto.getApplicationScale()
+				|| !ResourceReconciler.isEqual(getName(gearProfile), getName(dto.getGearProfile()))
+				|| !ResourceReconciler.isEqual(aliases, dto.getAliases())
+				|| !ResourceReconciler.isEqual(embeddedCartridgesInfos, dto.getEmbeddedCartridgeInfos());
+		this.applicationUrl = dto.getApplicationUrl();
+		this.gitUrl = dto.getGitUrl();
+		this.healthCheckUrl = healthCheckUrl;
+		this.scale = dto.getApplicationScale();
+		this.gearProfile = dto.getGearProfile();
+		this.aliases = dto.getAliases();
+		this.embeddedCartridgesInfos = dto.getEmbeddedCartridgeInfos();
+		setLinks(dto.getLinks());
+		return changed;
+	}
+
+	private static String getName(IGearProfile gearProfile) {
+		if (gearProfile == null) {
+			return null;
+		}
+		return gearProfile.getName();
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -292,8 +351,7 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	}
 
 	private void updateAliases(ApplicationResourceDTO applicationDTO) {
-		this.aliases.clear();
-		this.aliases.addAll(applicationDTO.getAliases());
+		this.aliases = new ArrayList<String>(applicationDTO.getAliases());
 	}
 
 	public List<String> getAliases() {
@@ -333,28 +391,25 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	 *            application
 	 */
 	public IEmbeddedCartridge addEmbeddableCartridge(IEmbeddableCartridge cartridge) throws OpenShiftException {
-		if (this.embeddedCartridges == null) {
-			loadEmbeddedCartridges();
-		}
+		embeddedCartridges.get();
 		final CartridgeResourceDTO embeddedCartridgeDTO =
 				new AddEmbeddedCartridgeRequest().execute(cartridge.getName());
-		final EmbeddedCartridgeResource embeddedCartridge =
-				new EmbeddedCartridgeResource(
-						embeddedCartridgesInfos.get(embeddedCartridgeDTO.getName()),
-						embeddedCartridgeDTO, this);
-		this.embeddedCartridges.add(embeddedCartridge);
+		final IEmbeddedCartridge embeddedCartridge = createEmbeddedCartridge(embeddedCartridgeDTO);
+		synchronized (embeddedCartridges) {
+			embeddedCartridges.set(
+					CollectionUtils.<IEmbeddedCartridge> addToUnmodifiableCopy(embeddedCartridges.get(), embeddedCartridge));
+		}
 		return embeddedCartridge;
 	}
 
 	public List<IEmbeddedCartridge> addEmbeddableCartridges(List<IEmbeddableCartridge> cartridges)
 			throws OpenShiftException {
-		final List<IEmbeddedCartridge> addedCartridge = new ArrayList<IEmbeddedCartridge>();
-		for (IEmbeddableCartridge cartridge : cartridges) {
-			// TODO: catch exceptions when removing cartridges, contine removing
-			// and report the exceptions that occurred<
-			addedCartridge.add(addEmbeddableCartridge(cartridge));
-		}
-		return addedCartridge;
+		return addEmbeddableCartridges(cartridges, 1);
+	}
+
+	public List<IEmbeddedCartridge> addEmbeddableCartridges(List<IEmbeddableCartridge> cartridges, int parallelism)
+			throws OpenShiftException {
+		return new EmbeddedCartridgesInstaller(this, parallelism).add(cartridges);
 	}
 
 	/**
@@ -364,28 +419,34 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	 * @throws OpenShiftException
 	 */
 	protected void removeEmbeddedCartridge(IEmbeddedCartridge embeddedCartridge) throws OpenShiftException {
-		this.embeddedCartridges.remove(embeddedCartridge);
+		synchronized (embeddedCartridges) {
+			List<IEmbeddedCartridge> current = embeddedCartridges.peek();
+			if (current != null) {
+				embeddedCartridges.set(CollectionUtils.removeFromUnmodifiableCopy(current, embeddedCartridge));
+			}
+		}
 	}
 
 	private List<IEmbeddedCartridge> loadEmbeddedCartridges() throws OpenShiftException {
-		// load collection if necessary
-		this.embeddedCartridges = new ArrayList<IEmbeddedCartridge>();
+		List<IEmbeddedCartridge> embeddedCartridges = new ArrayList<IEmbeddedCartridge>();
 		List<CartridgeResourceDTO> embeddableCartridgeDTOs = new ListEmbeddableCartridgesRequest().execute();
 		for (CartridgeResourceDTO embeddableCartridgeDTO : embeddableCartridgeDTOs) {
-			IEmbeddedCartridge embeddableCartridge =
-					new EmbeddedCartridgeResource(
-							embeddedCartridgesInfos.get(embeddableCartridgeDTO.getName()),
-							embeddableCartridgeDTO, this);
-			embeddedCartridges.add(embeddableCartridge);
+			embeddedCartridges.add(createEmbeddedCartridge(embeddableCartridgeDTO));
 		}
 		return embeddedCartridges;
 	}
 
+	private IEmbeddedCartridge createEmbeddedCartridge(CartridgeResourceDTO embeddedCartridgeDTO) {
+		return new EmbeddedCartridgeResource(
+				embeddedCartridgesInfos.get(embeddedCartridgeDTO.getName()), embeddedCartridgeDTO, this);
+	}
+
+	/**
+	 * Returns the embedded cartridges of this application. The returned list
+	 * is an unmodifiable snapshot, it is not copied.
+	 */
 	public List<IEmbeddedCartridge> getEmbeddedCartridges() throws OpenShiftException {
-		if (this.embeddedCartridges == null) {
-			this.embeddedCartridges = loadEmbeddedCartridges();
-		}
-		return CollectionUtils.toUnmodifiableCopy(this.embeddedCartridges);
+		return embeddedCartridges.get();
 	}
 
 	public boolean hasEmbeddedCartridge(String cartridgeName) throws OpenShiftException {
@@ -425,11 +486,7 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	 * @throws OpenShiftException
 	 */
 	public List<IApplicationGear> getGears() throws OpenShiftException {
-		// load collection if necessary
-		if (gears == null) {
-			this.gears = loadGears();
-		}
-		return Collections.unmodifiableList(gears);
+		return gears.get();
 	}
 
 	/**
@@ -437,82 +494,134 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	 * @throws OpenShiftException
 	 */
 	private List<IApplicationGear> loadGears() throws OpenShiftException {
-		this.gears = new ArrayList<IApplicationGear>();
+		List<IApplicationGear> gears = new ArrayList<IApplicationGear>();
 		List<GearResourceDTO> gearDTOs = new ListGearsRequest().execute();
 		for (GearResourceDTO gearDTO : gearDTOs) {
-			final List<IApplicationGearComponent> components = new ArrayList<IApplicationGearComponent>();
-			for (GearComponentDTO gearComponentDTO : gearDTO.getComponents()) {
-				components.add(new ApplicationGearComponentResource(gearComponentDTO));
-			}
-			IApplicationGear gear = new ApplicationGearResource(gearDTO, components, this);
+			IApplicationGear gear = new ApplicationGearResource(gearDTO, createGearComponents(gearDTO), this);
 			gears.add(gear);
 		}
 		return gears;
 	}
 
+	private static List<IApplicationGearComponent> createGearComponents(GearResourceDTO gearDTO) {
+		final List<IApplicationGearComponent> components = new ArrayList<IApplicationGearComponent>();
+		for (GearComponentDTO gearComponentDTO : gearDTO.getComponents()) {
+			components.add(new ApplicationGearComponentResource(gearComponentDTO));
+		}
+		return components;
+	}
+
 	public boolean waitForAccessible(long timeout) throws OpenShiftException {
 		try {
-			long startTime = System.currentTimeMillis();
-
-			if (!waitForResolved(timeout, startTime)) {
-				return false;
-			}
-
-			return waitForPositiveHealthResponse(timeout, startTime);
+			return watchAccessible(timeout, null).get();
 		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			return false;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof OpenShiftException) {
+				throw (OpenShiftException) e.getCause();
+			}
+			throw new OpenShiftException(e.getCause(), "Could not wait for application {0} to become accessible", name);
 		}
 	}
 
-	private boolean waitForPositiveHealthResponse(long timeout, long startTime) throws OpenShiftException,
-			InterruptedException, OpenShiftEndpointException {
-		String response = null;
-		while (!isPositiveHealthResponse(response)
-				&& !isTimeouted(timeout, startTime)) {
-			try {
-				Thread.sleep(APPLICATION_WAIT_RETRY_DELAY);
-				response = getService().request(healthCheckUrl, HttpMethod.GET, null);
-			} catch (OpenShiftEndpointException e) {
-				throw e;
-			} catch (OpenShiftException e) {
-			}
-		}
-		return isPositiveHealthResponse(response);
+	public Future<Boolean> watchAccessible(long timeout, IApplicationReadinessListener listener) {
+		return ApplicationReadinessWatcher.getDefault().watch(this, timeout, listener);
 	}
 
-	private boolean isPositiveHealthResponse(String response) throws OpenShiftException {
-		return response != null
-				&& response.startsWith(getHealthCheckSuccessResponse());
+	/**
+	 * Reloads the embedded cartridges and gears if they were loaded before
+	 * and merges them into the existing instances: cartridges are matched by
+	 * name, gears by uuid. Registered change listeners get notified of the
+	 * differences once the new lists are visible. The forwardable ports are
+	 * reloaded as a whole.
+	 */
+	public void refresh() throws OpenShiftException {
+		final List<ResourceChangeEvent> events = new ArrayList<ResourceChangeEvent>();
+		events.addAll(refreshEmbeddedCartridges());
+		events.addAll(refreshGears());
+		ports.reloadIfLoaded();
+		changeSupport.fire(events);
 	}
 
-	private boolean waitForResolved(long timeout, long startTime) throws OpenShiftException, InterruptedException {
-		try {
-			while (!HostUtils.canResolv(healthCheckUrl)
-					&& !isTimeouted(timeout, startTime)) {
-				Thread.sleep(APPLICATION_WAIT_RETRY_DELAY);
-			}
-			return HostUtils.canResolv(healthCheckUrl);
-		} catch (MalformedURLException e) {
-			throw new OpenShiftException(e,
-					"Could not wait for application {0} to become accessible, it has an invalid URL \"{1}\": {2}",
-					name, healthCheckUrl, e.getMessage());
+	private List<ResourceChangeEvent> refreshEmbeddedCartridges() throws OpenShiftException {
+		if (embeddedCartridges.peek() == null) {
+			return Collections.emptyList();
 		}
-	}
+		final List<CartridgeResourceDTO> embeddedCartridgeDTOs = new ListEmbeddableCartridgesRequest().execute();
+		final ResourceReconciler<CartridgeResourceDTO, IEmbeddedCartridge> reconciler =
+				new ResourceReconciler<CartridgeResourceDTO, IEmbeddedCartridge>(this) {
 
-	private boolean isTimeouted(long timeout, long startTime) {
-		return !(System.currentTimeMillis() < (startTime + timeout));
-	}
+					@Override
+					protected String getResourceKey(IEmbeddedCartridge embeddedCartridge) {
+						return embeddedCartridge.getName();
+					}
 
-	public void refresh() throws OpenShiftException {
-		if (this.embeddedCartridges != null) {
-			this.embeddedCartridges = loadEmbeddedCartridges();
+					@Override
+					protected String getDTOKey(CartridgeResourceDTO embeddedCartridgeDTO) {
+						return embeddedCartridgeDTO.getName();
+					}
+
+					@Override
+					protected IEmbeddedCartridge create(CartridgeResourceDTO embeddedCartridgeDTO) {
+						return createEmbeddedCartridge(embeddedCartridgeDTO);
+					}
+
+					@Override
+					protected boolean update(IEmbeddedCartridge embeddedCartridge,
+							CartridgeResourceDTO embeddedCartridgeDTO) {
+						return ((EmbeddedCartridgeResource) embeddedCartridge).update(
+								embeddedCartridgesInfos.get(embeddedCartridgeDTO.getName()), embeddedCartridgeDTO);
+					}
+				};
+		synchronized (embeddedCartridges) {
+			embeddedCartridges.set(Collections.unmodifiableList(
+					reconciler.reconcile(embeddedCartridges.peek(), embeddedCartridgeDTOs)));
 		}
-		if (this.gears != null) {
-			this.gears = loadGears();
+		return reconciler.getEvents();
+	}
+
+	private List<ResourceChangeEvent> refreshGears() throws OpenShiftException {
+		if (gears.peek() == null) {
+			return Collections.emptyList();
 		}
-		if (this.ports != null) {
-			this.ports = loadPorts();
+		final List<GearResourceDTO> gearDTOs = new ListGearsRequest().execute();
+		final ResourceReconciler<GearResourceDTO, IApplicationGear> reconciler =
+				new ResourceReconciler<GearResourceDTO, IApplicationGear>(this) {
+
+					@Override
+					protected String getResourceKey(IApplicationGear gear) {
+						return gear.getUuid();
+					}
+
+					@Override
+					protected String getDTOKey(GearResourceDTO gearDTO) {
+						return gearDTO.getUuid();
+					}
+
+					@Override
+					protected IApplicationGear create(GearResourceDTO gearDTO) {
+						return new ApplicationGearResource(gearDTO, createGearComponents(gearDTO),
+								ApplicationResource.this);
+					}
+
+					@Override
+					protected boolean update(IApplicationGear gear, GearResourceDTO gearDTO) {
+						return ((ApplicationGearResource) gear).update(gearDTO, createGearComponents(gearDTO));
+					}
+				};
+		synchronized (gears) {
+			gears.set(Collections.unmodifiableList(reconciler.reconcile(gears.peek(), gearDTOs)));
 		}
+		return reconciler.getEvents();
+	}
+
+	public void addChangeListener(IResourceChangeListener listener) {
+		changeSupport.addListener(listener);
+	}
+
+	public void removeChangeListener(IResourceChangeListener listener) {
+		changeSupport.removeListener(listener);
 	}
 
 	public void setSSHSession(final Session session) {
@@ -524,12 +633,14 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	}
 
 	public boolean hasSSHSession() {
-		return this.session != null && this.session.isConnected();
+		final Session session = this.session;
+		return session != null && session.isConnected();
 	}
 
 	public boolean isPortFowardingStarted() throws OpenShiftSSHOperationException {
+		final Session session = this.session;
 		try {
-			return this.session != null && this.session.isConnected() && this.session.getPortForwardingL().length > 0;
+			return session != null && session.isConnected() && session.getPortForwardingL().length > 0;
 		} catch (JSchException e) {
 			throw new OpenShiftSSHOperationException(e,
 					"Unable to verify if port-forwarding has been started for application \"{0}\"", this.getName());
@@ -537,26 +648,27 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	}
 
 	public List<IApplicationPortForwarding> refreshForwardablePorts() throws OpenShiftSSHOperationException {
-		this.ports = loadPorts();
-		return this.ports;
+		return ports.reload();
 	}
 
 	public List<IApplicationPortForwarding> getForwardablePorts() throws OpenShiftSSHOperationException {
-		if (ports == null) {
-			this.ports = loadPorts();
-		}
-		return ports;
+		return ports.get();
 	}
 
 	@Override
 	public List<String> getEnvironmentProperties() throws OpenShiftSSHOperationException {
-		List<String> openshiftProps = new ArrayList<String>();
-		List<String> allEnvProps = sshExecCmd("set", EnumSshStream.INPUT);
-		for (String line : allEnvProps) {
-			if (line.startsWith("OPENSHIFT_") || line.startsWith("JENKINS_")) {
-				openshiftProps.add(line);
+		final List<String> openshiftProps = new ArrayList<String>();
+		sshExec("set", new ISSHCommandListener() {
+
+			public void output(String line) {
+				if (line.startsWith("OPENSHIFT_") || line.startsWith("JENKINS_")) {
+					openshiftProps.add(line);
+				}
 			}
-		}
+
+			public void error(String line) {
+			}
+		});
 		return openshiftProps;
 	}
 
@@ -569,77 +681,65 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	 * @throws OpenShiftSSHOperationException
 	 */
 	private List<IApplicationPortForwarding> loadPorts() throws OpenShiftSSHOperationException {
-		this.ports = new ArrayList<IApplicationPortForwarding>();
-		List<String> lines = sshExecCmd("rhc-list-ports", EnumSshStream.EXT_INPUT);
-		for (String line : lines) {
-			ApplicationPortForwarding port = extractForwardablePortFrom(this, line);
-			if (port != null) {
-				ports.add(port);
+		final List<IApplicationPortForwarding> ports = new ArrayList<IApplicationPortForwarding>();
+		// rhc-list-ports reports the ports on standard error
+		sshExec("rhc-list-ports", new ISSHCommandListener() {
+
+			public void output(String line) {
 			}
-		}
-		return ports;
-	}
 
-	private enum EnumSshStream {
-		EXT_INPUT, INPUT;
+			public void error(String line) {
+				ApplicationPortForwarding port = extractForwardablePortFrom(ApplicationResource.this, line);
+				if (port != null) {
+					ports.add(port);
+				}
+			}
+		});
+		return ports;
 	}
 
-	/**
-	 * 
-	 * @param command
-	 * @return
-	 * @throws OpenShiftSSHOperationException
-	 */
-	private List<String> sshExecCmd(final String command, final EnumSshStream streamToUse)
+	public int sshExec(final String command, final ISSHCommandListener listener)
 			throws OpenShiftSSHOperationException {
 		final Session session = getSSHSession();
-		if (session == null) {
+		if (session != null) {
+			return sshExec(command, listener, session);
+		}
+		final SSHSessionPool pool = domain.getConnectionResource().getSSHSessionPool();
+		if (pool == null) {
 			throw new OpenShiftSSHOperationException("No SSH session available for application ''{0}''", this.getName());
 		}
-		Channel channel = null;
-		BufferedReader reader = null;
+		final PooledSession pooledSession = pool.acquire(this);
 		try {
-			session.openChannel("exec");
-			channel = session.openChannel("exec");
-			((ChannelExec) channel).setCommand(command);
-			channel.connect();
-			List<String> lines = new ArrayList<String>();
-			String line;
-			// Read File Line By Line, but from only one of the 2 inputstreams
-			// (the other one blocks..)
-			switch (streamToUse) {
-			case EXT_INPUT:
-				reader = new BufferedReader(new InputStreamReader(channel.getExtInputStream()));
-				break;
-			case INPUT:
-				reader = new BufferedReader(new InputStreamReader(channel.getInputStream()));
-				break;
-			}
-			// Read File Line By Line
-			while ((line = reader.readLine()) != null) {
-				lines.add(line);
-			}
-
-			return lines;
-		} catch (JSchException e) {
-			throw new OpenShiftSSHOperationException(e, "Failed to list forwardable ports for application \"{0}\"",
-					this.getName());
-		} catch (IOException e) {
-			throw new OpenShiftSSHOperationException(e, "Failed to list forwardable ports for application \"{0}\"",
-					this.getName());
+			return sshExec(command, listener, pooledSession.getSession());
 		} finally {
+			pool.release(pooledSession);
+		}
+	}
 
-			if (reader != null) {
-				try {
-					reader.close();
-				} catch (IOException e) {
-					LOGGER.error("Failed to close SSH error stream reader", e);
-				}
-			}
+	public List<GearCommandResult> sshExecOnGears(String command, int concurrency, IGearCommandListener listener)
+			throws OpenShiftException {
+		final SSHSessionPool pool = domain.getConnectionResource().getSSHSessionPool();
+		if (pool == null) {
+			throw new OpenShiftSSHOperationException(
+					"No SSH session factory available to connect to the gears of application ''{0}''", this.getName());
+		}
+		return new GearCommandRunner(pool, concurrency).run(command, getGears(), listener);
+	}
 
-			if (channel != null && channel.isConnected()) {
-				channel.disconnect();
-			}
+	private int sshExec(final String command, final ISSHCommandListener listener, final Session session)
+			throws OpenShiftSSHOperationException {
+		try {
+			return SSHCommandExecutor.execute(session, command, listener);
+		} catch (JSchException e) {
+			throw new OpenShiftSSHOperationException(e, "Failed to execute \"{0}\" on application \"{1}\"",
+					command, this.getName());
+		} catch (IOException e) {
+			throw new OpenShiftSSHOperationException(e, "Failed to execute \"{0}\" on application \"{1}\"",
+					command, this.getName());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OpenShiftSSHOperationException(e, "Interrupted while executing \"{0}\" on application \"{1}\"",
+					command, this.getName());
 		}
 	}
 
@@ -675,30 +775,38 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 					"SSH session for application \"{0}\" is closed or null. Cannot start port forwarding",
 					this.getName());
 		}
+		final Session session = this.session;
+		final List<IApplicationPortForwarding> ports = getForwardablePorts();
 		for (IApplicationPortForwarding port : ports) {
 			try {
 				port.start(session);
 			} catch (OpenShiftSSHOperationException oss) {
-				// ignore for now
-				// FIXME: should store this error on the forward to let user
-				// know why it could not start/stop
+				// continue with the other ports, this one stays stopped. Use
+				// IPortForwardingManager to get the failure of each forward
+				LOGGER.warn("Could not start forwarding " + port, oss);
 			}
 		}
 		return ports;
 	}
 
 	public List<IApplicationPortForwarding> stopPortForwarding() throws OpenShiftSSHOperationException {
+		final Session session = this.session;
+		List<IApplicationPortForwarding> ports = this.ports.peek();
+		if (ports == null) {
+			ports = Collections.emptyList();
+		}
 		for (IApplicationPortForwarding port : ports) {
 			try {
 				port.stop(session);
 			} catch (OpenShiftSSHOperationException oss) {
-				// ignore for now
-				// should store this error on the forward to let user know why
-				// it could not start/stop
+				// continue with the other ports
+				LOGGER.warn("Could not stop forwarding " + port, oss);
 			}
 		}
 		// make sure port forwarding is stopped by closing session...
-		session.disconnect();
+		if (session != null) {
+			session.disconnect();
+		}
 		return ports;
 	}
 
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.BulkOperationResult;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationOperation;
+import com.openshift.client.IBulkOperationListener;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Runs an operation on many applications, at most <code>parallelism</code> of
+ * them at a time. Operations are mostly waiting for the broker (which starts,
+ * stops etc. the application before responding). Running many of them in
+ * parallel therefore shortens the overall time considerably.
+ */
+public class BulkOperationRunner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkOperationRunner.class);
+
+	public static final int DEFAULT_PARALLELISM = 16;
+
+	private final int parallelism;
+
+	public BulkOperationRunner() {
+		this(DEFAULT_PARALLELISM);
+	}
+
+	public BulkOperationRunner(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism needs to be 1 or more");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Runs the given operation on the given applications and waits for all of
+	 * them to complete. Failures are reported in the result, they don't stop
+	 * the operation for the other applications.
+	 * 
+	 * @param operation
+	 *            the operation to run
+	 * @param applications
+	 *            the applications to run the operation on
+	 * @param listener
+	 *            the listener to notify of the progress, may be
+	 *            <code>null</code>
+	 * @return the result for each application
+	 * @throws OpenShiftException
+	 *             if the current thread was interrupted while waiting
+	 */
+	public BulkOperationResult run(final IApplicationOperation operation, List<IApplication> applications,
+			final IBulkOperationListener listener) throws OpenShiftException {
+		final List<IApplication> selection = new ArrayList<IApplication>(applications);
+		final int total = selection.size();
+		final AtomicReferenceArray<OpenShiftException> errors = new AtomicReferenceArray<OpenShiftException>(total);
+		if (total == 0) {
+			return new BulkOperationResult(selection, Collections.<OpenShiftException> emptyList());
+		}
+		final AtomicInteger completed = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(parallelism, total), new DaemonThreadFactory("openshift-bulk-"));
+		try {
+			for (int i = 0; i < total; i++) {
+				final int index = i;
+				executor.execute(new Runnable() {
+
+					public void run() {
+						IApplication application = selection.get(index);
+						OpenShiftException error = execute(operation, application);
+						errors.set(index, error);
+						notifyListener(listener, application, error, completed.incrementAndGet(), total);
+					}
+				});
+			}
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new OpenShiftException(e, "Interrupted while running {0} on {1} applications", operation, total);
+		}
+		List<OpenShiftException> results = new ArrayList<OpenShiftException>(total);
+		for (int i = 0; i < total; i++) {
+			results.add(errors.get(i));
+		}
+		return new BulkOperationResult(selection, results);
+	}
+
+	private OpenShiftException execute(IApplicationOperation operation, IApplication application) {
+		try {
+			operation.execute(application);
+			return null;
+		} catch (OpenShiftException e) {
+			return e;
+		} catch (Throwable e) {
+			// errors, too. Every application needs a result
+			return new OpenShiftException(e, "Could not run {0} on application {1}", operation, application.getName());
+		}
+	}
+
+	private void notifyListener(IBulkOperationListener listener, IApplication application, OpenShiftException error,
+			int completed, int total) {
+		if (listener == null) {
+			return;
+		}
+		try {
+			if (error == null) {
+				listener.succeeded(application, completed, total);
+			} else {
+				listener.failed(application, error, completed, total);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.error("Could not notify bulk operation listener", e);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of requests that are concurrently in flight to a single
+ * broker endpoint. A request that finds all slots taken waits for the given
+ * maximum time and is rejected if no slot got free, so that a slow endpoint
+ * cannot tie up all threads of the caller.
+ * 
+ * @see EndpointGuard
+ */
+public class Bulkhead {
+
+	/** no limit, requests are never rejected */
+	public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+	private final int maxConcurrent;
+	private final long maxWait;
+	private final Semaphore permits;
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * @param maxConcurrent
+	 *            the maximum number of requests in flight or
+	 *            {@link #UNBOUNDED}
+	 * @param maxWait
+	 *            the time a request waits for a free slot, in milliseconds
+	 */
+	public Bulkhead(int maxConcurrent, long maxWait) {
+		if (maxConcurrent < 1) {
+			throw new IllegalArgumentException("At least 1 concurrent request needs to be allowed");
+		}
+		this.maxConcurrent = maxConcurrent;
+		this.maxWait = maxWait;
+		this.permits = new Semaphore(maxConcurrent, true);
+	}
+
+	/**
+	 * Takes a slot and returns <code>true</code>, or returns
+	 * <code>false</code> if no slot got free in time. Taken slots have to be
+	 * given back by {@link #release()}.
+	 */
+	boolean acquire() {
+		try {
+			if (permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		rejected.incrementAndGet();
+		return false;
+	}
+
+	void release() {
+		permits.release();
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public int getInFlight() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	/**
+	 * Returns the number of requests that were rejected because all slots
+	 * were taken.
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	@Override
+	public String toString() {
+		return "Bulkhead ["
+				+ "inFlight=" + getInFlight()
+				+ ", maxConcurrent=" + maxConcurrent
+				+ ", rejected=" + rejected
+				+ "]";
+	}
+}
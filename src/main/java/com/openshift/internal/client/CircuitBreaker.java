@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+/**
+ * A circuit breaker for a single broker endpoint. The circuit is closed while
+ * the endpoint responds. It opens once a given number of consecutive
+ * requests failed, requests then fail fast instead of waiting for the
+ * endpoint to time out. Once the open timeout elapsed the circuit is half
+ * open: a single probe request is let through, it closes the circuit if it
+ * succeeds and opens it again if it fails.
+ * 
+ * @see EndpointGuard
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureThreshold;
+	private final long openTimeout;
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private long openedAt;
+	private boolean probing;
+	private long trips;
+	private long rejected;
+
+	/**
+	 * @param failureThreshold
+	 *            the number of consecutive failures that open the circuit
+	 * @param openTimeout
+	 *            the time the circuit stays open before a probe is let
+	 *            through, in milliseconds
+	 */
+	public CircuitBreaker(int failureThreshold, long openTimeout) {
+		if (failureThreshold < 1) {
+			throw new IllegalArgumentException("The failure threshold needs to be at least 1");
+		}
+		this.failureThreshold = failureThreshold;
+		this.openTimeout = openTimeout;
+	}
+
+	/**
+	 * Returns <code>true</code> if a request may be sent. Every permitted
+	 * request has to be reported back by {@link #succeeded()},
+	 * {@link #failed()} or {@link #released()}.
+	 */
+	synchronized boolean allowRequest() {
+		switch (state) {
+		case OPEN:
+			if (currentTime() - openedAt < openTimeout) {
+				rejected++;
+				return false;
+			}
+			state = State.HALF_OPEN;
+			probing = true;
+			return true;
+		case HALF_OPEN:
+			if (probing) {
+				rejected++;
+				return false;
+			}
+			probing = true;
+			return true;
+		default:
+			return true;
+		}
+	}
+
+	synchronized void succeeded() {
+		consecutiveFailures = 0;
+		probing = false;
+		state = State.CLOSED;
+	}
+
+	synchronized void failed() {
+		probing = false;
+		if (state == State.HALF_OPEN
+				|| ++consecutiveFailures >= failureThreshold) {
+			open();
+		}
+	}
+
+	/**
+	 * Reports a permitted request that ended without telling whether the
+	 * endpoint is available (ex. it was not sent).
+	 */
+	synchronized void released() {
+		probing = false;
+	}
+
+	private void open() {
+		if (state != State.OPEN) {
+			trips++;
+		}
+		state = State.OPEN;
+		openedAt = currentTime();
+	}
+
+	/**
+	 * Returns the current state. An open circuit whose timeout elapsed is
+	 * reported as half open.
+	 */
+	public synchronized State getState() {
+		if (state == State.OPEN
+				&& currentTime() - openedAt >= openTimeout) {
+			return State.HALF_OPEN;
+		}
+		return state;
+	}
+
+	public synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	/**
+	 * Returns the number of times the circuit opened.
+	 */
+	public synchronized long getTrips() {
+		return trips;
+	}
+
+	/**
+	 * Returns the number of requests that failed fast.
+	 */
+	public synchronized long getRejected() {
+		return rejected;
+	}
+
+	protected long currentTime() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "CircuitBreaker ["
+				+ "state=" + getState()
+				+ ", consecutiveFailures=" + consecutiveFailures
+				+ ", trips=" + trips
+				+ ", rejected=" + rejected
+				+ "]";
+	}
+}
@@ -11,23 +11,31 @@
 package com.openshift.internal.client;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.openshift.client.ApplicationScale;
+import com.openshift.client.BulkOperationResult;
 import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationHealthProber;
+import com.openshift.client.IApplicationOperation;
+import com.openshift.client.IBulkOperationListener;
 import com.openshift.client.ICartridge;
 import com.openshift.client.IDomain;
 import com.openshift.client.IGearProfile;
+import com.openshift.client.IResourceChangeListener;
 import com.openshift.client.IUser;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.ResourceChangeEvent;
 import com.openshift.internal.client.response.ApplicationResourceDTO;
 import com.openshift.internal.client.response.DomainResourceDTO;
 import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.LinkParameter;
 import com.openshift.internal.client.response.Message;
-import com.openshift.internal.client.utils.CollectionUtils;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.LazySnapshot;
 
 /**
  * @author André Dietisheim
@@ -39,13 +47,21 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 	private static final String LINK_ADD_APPLICATION = "ADD_APPLICATION";
 	private static final String LINK_UPDATE = "UPDATE";
 	private static final String LINK_DELETE = "DELETE";
-	private String id;
-	private String suffix;
+	private volatile String id;
+	private volatile String suffix;
 	/** root node in the business domain. */
 	private final APIResource connectionResource;
-	/** Applications for the domain. */
-	// TODO: replace by a map indexed by application names ?
-	private List<IApplication> applications = null;
+	/** Applications for the domain, loaded on first access. */
+	private final LazySnapshot<Applications, OpenShiftException> applications =
+			new LazySnapshot<Applications, OpenShiftException>() {
+
+				@Override
+				protected Applications load() throws OpenShiftException {
+					return new Applications(loadApplications());
+				}
+			};
+	/** The listeners that get notified of the changes found by a refresh. */
+	private final ResourceChangeSupport changeSupport = new ResourceChangeSupport();
 
 	protected DomainResource(final String namespace, final String suffix, final Map<String, Link> links,
 			final List<Message> creationLog,
@@ -71,9 +87,13 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 	public void rename(String id) throws OpenShiftException {
 		DomainResourceDTO domainDTO = new UpdateDomainRequest().execute(id);
 		this.id = domainDTO.getNamespace();
+		connectionResource.renameDomain(this);
 		this.suffix = domainDTO.getSuffix();
-		this.getLinks().clear();
-		this.getLinks().putAll(domainDTO.getLinks());
+		setLinks(domainDTO.getLinks());
+	}
+
+	APIResource getConnectionResource() {
+		return connectionResource;
 	}
 
 	public IUser getUser() throws OpenShiftException {
@@ -125,37 +145,34 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 		ApplicationResourceDTO applicationDTO = 
 				new CreateApplicationRequest().execute(name, cartridge.getName(),scale, gearProfile);
 		IApplication application = new ApplicationResource(applicationDTO, cartridge, this);
-		this.applications.add(application);
+		synchronized (applications) {
+			applications.set(applications.get().add(application));
+		}
 		return application;
 	}
 
 	public IApplication getApplicationByName(String name) throws OpenShiftException {
-		IApplication matchingApplication = null;
-		for (IApplication application : getApplications()) {
-			if (application.getName().equals(name)) {
-				matchingApplication = application;
-				break;
-			}
-		}
-		return matchingApplication;
+		return applications.get().byName.get(name);
 	}
 
 	public boolean hasApplicationByName(String name) throws OpenShiftException {
 		return getApplicationByName(name) != null;
 	}
 
+	/**
+	 * Returns the applications that run the given cartridge. The returned list
+	 * is an unmodifiable view of the index, it is not copied.
+	 */
 	public List<IApplication> getApplicationsByCartridge(ICartridge cartridge) throws OpenShiftException {
-		List<IApplication> matchingApplications = new ArrayList<IApplication>();
-		for (IApplication application : getApplications()) {
-			if (cartridge.equals(application.getCartridge())) {
-				matchingApplications.add(application);
-			}
+		List<IApplication> matchingApplications = applications.get().byCartridge.get(cartridge);
+		if (matchingApplications == null) {
+			return Collections.emptyList();
 		}
 		return matchingApplications;
 	}
 
 	public boolean hasApplicationByCartridge(ICartridge cartridge) throws OpenShiftException {
-		return getApplicationsByCartridge(cartridge).size() > 0;
+		return applications.get().byCartridge.containsKey(cartridge);
 	}
 
 	public void destroy() throws OpenShiftException {
@@ -167,11 +184,12 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 		connectionResource.removeDomain(this);
 	}
 
+	/**
+	 * Returns the applications of this domain. The returned list is an
+	 * unmodifiable snapshot, it is not copied.
+	 */
 	public List<IApplication> getApplications() throws OpenShiftException {
-		if (this.applications == null) {
-			this.applications = loadApplications();
-		}
-		return CollectionUtils.toUnmodifiableCopy(applications);
+		return applications.get().list;
 	}
 
 	/**
@@ -181,17 +199,32 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 		List<IApplication> apps = new ArrayList<IApplication>();
 		List<ApplicationResourceDTO> applicationDTOs = new ListApplicationsRequest().execute();
 		for (ApplicationResourceDTO applicationDTO : applicationDTOs) {
-			final ICartridge cartridge = new Cartridge(applicationDTO.getFramework());
-			final IApplication application =
-					new ApplicationResource(applicationDTO, cartridge, this);
-			apps.add(application);
+			apps.add(createApplication(applicationDTO));
 		}
 		return apps;
 	}
 
+	private IApplication createApplication(ApplicationResourceDTO applicationDTO) {
+		final ICartridge cartridge = new Cartridge(applicationDTO.getFramework());
+		return new ApplicationResource(applicationDTO, cartridge, this);
+	}
+
 	protected void removeApplication(IApplication application) {
-		// TODO: can this collection be a null ?
-		this.applications.remove(application);
+		synchronized (applications) {
+			Applications current = applications.peek();
+			if (current != null) {
+				applications.set(current.remove(application));
+			}
+		}
+	}
+
+	public BulkOperationResult execute(IApplicationOperation operation, IBulkOperationListener listener)
+			throws OpenShiftException {
+		return connectionResource.execute(operation, getApplications(), listener);
+	}
+
+	public IApplicationHealthProber createHealthProber(long interval, int concurrency) {
+		return new ApplicationHealthProber(this, interval, concurrency);
 	}
 
 	public List<String> getAvailableCartridgeNames() throws OpenShiftException {
@@ -220,14 +253,76 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 	}
 	
 	
+	/**
+	 * Reloads this domain and, if they were loaded before, its applications.
+	 * The applications are matched by uuid and updated in place, the loaded
+	 * gears and cartridges of changed applications get refreshed, too.
+	 * Registered change listeners get notified of the differences once the
+	 * new list is visible.
+	 */
 	public void refresh() throws OpenShiftException {
 		final DomainResourceDTO domainResourceDTO =  new GetDomainRequest().execute();
 		this.id = domainResourceDTO.getNamespace();
 		this.suffix = domainResourceDTO.getSuffix();
-		if(this.applications != null) {
-			this.applications = loadApplications();
+		final List<ResourceChangeEvent> events = refreshApplications();
+		for (ResourceChangeEvent event : events) {
+			if (event.getType() == ResourceChangeEvent.Type.CHANGED) {
+				((ApplicationResource) event.getResource()).refresh();
+			}
 		}
-		
+		changeSupport.fire(events);
+	}
+
+	private List<ResourceChangeEvent> refreshApplications() throws OpenShiftException {
+		while (true) {
+			final Applications loaded = applications.peek();
+			if (loaded == null) {
+				return Collections.emptyList();
+			}
+			final List<ApplicationResourceDTO> applicationDTOs = new ListApplicationsRequest().execute();
+			final ResourceReconciler<ApplicationResourceDTO, IApplication> reconciler = createApplicationReconciler();
+			synchronized (applications) {
+				// applications that were created or destroyed while the list
+				// was loaded may be missing from it, load it again then
+				if (applications.peek() == loaded) {
+					applications.set(new Applications(reconciler.reconcile(loaded.list, applicationDTOs)));
+					return reconciler.getEvents();
+				}
+			}
+		}
+	}
+
+	private ResourceReconciler<ApplicationResourceDTO, IApplication> createApplicationReconciler() {
+		return new ResourceReconciler<ApplicationResourceDTO, IApplication>(this) {
+
+			@Override
+			protected String getResourceKey(IApplication application) {
+				return application.getUUID();
+			}
+
+			@Override
+			protected String getDTOKey(ApplicationResourceDTO applicationDTO) {
+				return applicationDTO.getUuid();
+			}
+
+			@Override
+			protected IApplication create(ApplicationResourceDTO applicationDTO) {
+				return createApplication(applicationDTO);
+			}
+
+			@Override
+			protected boolean update(IApplication application, ApplicationResourceDTO applicationDTO) {
+				return ((ApplicationResource) application).update(applicationDTO);
+			}
+		};
+	}
+
+	public void addChangeListener(IResourceChangeListener listener) {
+		changeSupport.addListener(listener);
+	}
+
+	public void removeChangeListener(IResourceChangeListener listener) {
+		changeSupport.removeListener(listener);
 	}
 
 	@Override
@@ -238,6 +333,49 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 				+ "]";
 	}
 
+	/**
+	 * An immutable snapshot of the applications of this domain along with
+	 * indexes by name and cartridge. Changes create a new snapshot.
+	 */
+	private static class Applications {
+
+		private final List<IApplication> list;
+		private final Map<String, IApplication> byName;
+		private final Map<ICartridge, List<IApplication>> byCartridge;
+
+		private Applications(List<IApplication> applications) {
+			this.list = Collections.unmodifiableList(applications);
+			this.byName = new HashMap<String, IApplication>(applications.size() * 4 / 3 + 1);
+			Map<ICartridge, List<IApplication>> byCartridge = new HashMap<ICartridge, List<IApplication>>();
+			for (IApplication application : applications) {
+				byName.put(application.getName(), application);
+				List<IApplication> cartridgeApplications = byCartridge.get(application.getCartridge());
+				if (cartridgeApplications == null) {
+					cartridgeApplications = new ArrayList<IApplication>();
+					byCartridge.put(application.getCartridge(), cartridgeApplications);
+				}
+				cartridgeApplications.add(application);
+			}
+			for (Map.Entry<ICartridge, List<IApplication>> entry : byCartridge.entrySet()) {
+				entry.setValue(Collections.unmodifiableList(entry.getValue()));
+			}
+			this.byCartridge = byCartridge;
+		}
+
+		private Applications add(IApplication application) {
+			List<IApplication> applications = new ArrayList<IApplication>(list.size() + 1);
+			applications.addAll(list);
+			applications.add(application);
+			return new Applications(applications);
+		}
+
+		private Applications remove(IApplication application) {
+			List<IApplication> applications = new ArrayList<IApplication>(list);
+			applications.remove(application);
+			return new Applications(applications);
+		}
+	}
+
 	private class GetDomainRequest extends ServiceRequest {
 		public GetDomainRequest() throws OpenShiftException {
 			super(LINK_GET);
@@ -47,7 +47,7 @@ public class EmbeddedCartridgeResource extends AbstractOpenShiftResource impleme
 
 	private final String name;
 	private final CartridgeType type;
-	private String url;
+	private volatile String url;
 	private final ApplicationResource application;
 
 	protected EmbeddedCartridgeResource(String info, final CartridgeResourceDTO dto, final ApplicationResource application) {
@@ -124,6 +124,20 @@ public class EmbeddedCartridgeResource extends AbstractOpenShiftResource impleme
 		return url;
 	}
 
+	/**
+	 * Updates this cartridge with the values that were loaded when its
+	 * application got refreshed.
+	 * 
+	 * @return <code>true</code> if the url changed
+	 */
+	boolean update(String info, CartridgeResourceDTO dto) {
+		String url = extractUrl(info, dto.getCreationLog());
+		boolean changed = !ResourceReconciler.isEqual(this.url, url);
+		this.url = url;
+		setLinks(dto.getLinks());
+		return changed;
+	}
+
 	@Override
 	public void refresh() throws OpenShiftException {
 	}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.openshift.client.IApplication;
+import com.openshift.client.IEmbeddableCartridge;
+import com.openshift.client.IEmbeddedCartridge;
+import com.openshift.client.OpenShiftEmbeddedCartridgesException;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Adds several embeddable cartridges to an application. Cartridges that
+ * don't depend on each other are added concurrently (up to a given
+ * parallelism), cartridges that depend on another one in the same batch (ex.
+ * phpmyadmin on mysql) are only added once their dependency was added.
+ * Failures don't stop the other additions, they are reported all together
+ * once all cartridges were processed.
+ */
+class EmbeddedCartridgesInstaller {
+
+	/**
+	 * Cartridge name prefixes mapped to the prefix of the cartridge they
+	 * depend on
+	 */
+	private static final Map<String, String> DEPENDENCIES = new HashMap<String, String>();
+
+	static {
+		DEPENDENCIES.put("phpmyadmin-", "mysql-");
+		DEPENDENCIES.put("rockmongo-", "mongodb-");
+		DEPENDENCIES.put("10gen-mms-agent-", "mongodb-");
+	}
+
+	private final IApplication application;
+	private final int parallelism;
+
+	EmbeddedCartridgesInstaller(IApplication application, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism needs to be 1 or more");
+		}
+		this.application = application;
+		this.parallelism = parallelism;
+	}
+
+	public List<IEmbeddedCartridge> add(List<IEmbeddableCartridge> cartridges) throws OpenShiftException {
+		int size = cartridges.size();
+		IEmbeddedCartridge[] added = new IEmbeddedCartridge[size];
+		OpenShiftException[] errors = new OpenShiftException[size];
+		int[] dependencies = getDependencies(cartridges);
+		for (List<Integer> wave : getWaves(dependencies)) {
+			List<Integer> runnable = new ArrayList<Integer>();
+			for (int index : wave) {
+				int dependency = dependencies[index];
+				if (dependency >= 0
+						&& errors[dependency] != null) {
+					errors[index] = new OpenShiftException(
+							"Could not add cartridge {0}, the cartridge it depends on, {1}, could not be added",
+							cartridges.get(index).getName(), cartridges.get(dependency).getName());
+				} else {
+					runnable.add(index);
+				}
+			}
+			add(runnable, cartridges, added, errors);
+		}
+		return toResult(cartridges, added, errors);
+	}
+
+	private void add(List<Integer> indexes, final List<IEmbeddableCartridge> cartridges,
+			final IEmbeddedCartridge[] added, final OpenShiftException[] errors) throws OpenShiftException {
+		int threads = Math.min(parallelism, indexes.size());
+		if (threads <= 1) {
+			for (int index : indexes) {
+				add(index, cartridges, added, errors);
+			}
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("openshift-cartridges-"));
+		try {
+			for (final int index : indexes) {
+				executor.execute(new Runnable() {
+
+					public void run() {
+						add(index, cartridges, added, errors);
+					}
+				});
+			}
+			executor.shutdown();
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new OpenShiftException(e, "Interrupted while adding cartridges to application {0}",
+					application.getName());
+		}
+	}
+
+	/**
+	 * Adds the cartridge at the given index. Each thread writes its own slot
+	 * of the arrays, awaiting the termination of the executor makes them
+	 * visible to the calling thread.
+	 */
+	private void add(int index, List<IEmbeddableCartridge> cartridges, IEmbeddedCartridge[] added,
+			OpenShiftException[] errors) {
+		IEmbeddableCartridge cartridge = cartridges.get(index);
+		try {
+			added[index] = application.addEmbeddableCartridge(cartridge);
+		} catch (OpenShiftException e) {
+			errors[index] = e;
+		} catch (Throwable e) {
+			// errors, too. Every cartridge needs a result
+			errors[index] = new OpenShiftException(e, "Could not add cartridge {0} to application {1}",
+					cartridge.getName(), application.getName());
+		}
+	}
+
+	private List<IEmbeddedCartridge> toResult(List<IEmbeddableCartridge> cartridges, IEmbeddedCartridge[] added,
+			OpenShiftException[] errors) throws OpenShiftEmbeddedCartridgesException {
+		List<IEmbeddedCartridge> addedCartridges = new ArrayList<IEmbeddedCartridge>();
+		Map<IEmbeddableCartridge, OpenShiftException> failures =
+				new LinkedHashMap<IEmbeddableCartridge, OpenShiftException>();
+		for (int i = 0; i < cartridges.size(); i++) {
+			if (errors[i] != null) {
+				failures.put(cartridges.get(i), errors[i]);
+			} else {
+				addedCartridges.add(added[i]);
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new OpenShiftEmbeddedCartridgesException(addedCartridges, failures,
+					"Could not add {0} of {1} cartridges to application {2}",
+					failures.size(), cartridges.size(), application.getName());
+		}
+		return addedCartridges;
+	}
+
+	/**
+	 * Returns the index of the cartridge that each cartridge depends on, or
+	 * -1 if it has no dependency within the given cartridges.
+	 */
+	private int[] getDependencies(List<IEmbeddableCartridge> cartridges) {
+		int[] dependencies = new int[cartridges.size()];
+		for (int i = 0; i < cartridges.size(); i++) {
+			dependencies[i] = indexOf(getDependency(cartridges.get(i).getName()), cartridges);
+		}
+		return dependencies;
+	}
+
+	private String getDependency(String cartridgeName) {
+		for (Map.Entry<String, String> entry : DEPENDENCIES.entrySet()) {
+			if (cartridgeName.startsWith(entry.getKey())) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	private int indexOf(String namePrefix, List<IEmbeddableCartridge> cartridges) {
+		if (namePrefix == null) {
+			return -1;
+		}
+		for (int i = 0; i < cartridges.size(); i++) {
+			if (cartridges.get(i).getName().startsWith(namePrefix)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Groups the cartridges into waves: a cartridge is in the wave after the
+	 * one of the cartridge it depends on.
+	 */
+	private List<List<Integer>> getWaves(int[] dependencies) {
+		List<List<Integer>> waves = new ArrayList<List<Integer>>();
+		for (int i = 0; i < dependencies.length; i++) {
+			int level = getLevel(i, dependencies);
+			while (waves.size() <= level) {
+				waves.add(new ArrayList<Integer>());
+			}
+			waves.get(level).add(i);
+		}
+		return waves;
+	}
+
+	private int getLevel(int index, int[] dependencies) {
+		int level = 0;
+		for (int i = dependencies[index]; i >= 0 && level < dependencies.length; i = dependencies[i]) {
+			level++;
+		}
+		return level;
+	}
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.openshift.internal.client.response.Link;
+
+/**
+ * Holds a {@link CircuitBreaker} and a {@link Bulkhead} for each broker
+ * endpoint that the {@link RestService} requests. Endpoints are keyed by host
+ * and port by default so that all links of a broker share their state: a
+ * broker that stopped responding to one link usually stopped responding to
+ * all of them. Subclasses may key by link relation by overriding
+ * {@link #getEndpoint(Link, URL)}.
+ * <p>
+ * Timeouts, failed connections and 502, 503 or 504 responses count as
+ * failures. Any other response tells that the endpoint is alive.
+ * <p>
+ * The bulkheads are unbounded by default: a broker that is slow but healthy
+ * (ex. while it creates applications) must not fail requests that it would
+ * answer. Callers that want to cap the requests in flight opt in with
+ * {@link #EndpointGuard(int)}.
+ */
+public class EndpointGuard {
+
+	public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	public static final long DEFAULT_OPEN_TIMEOUT = 30 * 1000;
+	public static final int DEFAULT_MAX_CONCURRENT = Bulkhead.UNBOUNDED;
+	/**
+	 * the read timeout of the http clients, a slot gets free at the latest
+	 * once the request that holds it timed out
+	 */
+	public static final long DEFAULT_MAX_WAIT = 60 * 1024;
+
+	private final int failureThreshold;
+	private final long openTimeout;
+	private final int maxConcurrent;
+	private final long maxWait;
+	private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+
+	public EndpointGuard() {
+		this(DEFAULT_MAX_CONCURRENT);
+	}
+
+	/**
+	 * @param maxConcurrent
+	 *            the maximum number of requests in flight per endpoint or
+	 *            {@link Bulkhead#UNBOUNDED}. Should not be smaller than the
+	 *            threads that request concurrently (ex. the connection pool
+	 *            size).
+	 */
+	public EndpointGuard(int maxConcurrent) {
+		this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIMEOUT, maxConcurrent, DEFAULT_MAX_WAIT);
+	}
+
+	/**
+	 * @param failureThreshold
+	 *            the number of consecutive failures that open a circuit
+	 * @param openTimeout
+	 *            the time a circuit stays open before a probe is let
+	 *            through, in milliseconds
+	 * @param maxConcurrent
+	 *            the maximum number of requests in flight per endpoint or
+	 *            {@link Bulkhead#UNBOUNDED}
+	 * @param maxWait
+	 *            the time a request waits for a free slot, in milliseconds
+	 */
+	public EndpointGuard(int failureThreshold, long openTimeout, int maxConcurrent, long maxWait) {
+		this.failureThreshold = failureThreshold;
+		this.openTimeout = openTimeout;
+		this.maxConcurrent = maxConcurrent;
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * Returns the endpoint for the given link and url, creates it if it was
+	 * not requested yet.
+	 */
+	Endpoint get(Link link, URL url) {
+		String name = getEndpoint(link, url);
+		Endpoint endpoint = endpoints.get(name);
+		if (endpoint == null) {
+			endpoint = new Endpoint(name,
+					new CircuitBreaker(failureThreshold, openTimeout), new Bulkhead(maxConcurrent, maxWait));
+			Endpoint existing = endpoints.putIfAbsent(name, endpoint);
+			if (existing != null) {
+				endpoint = existing;
+			}
+		}
+		return endpoint;
+	}
+
+	/**
+	 * Returns the name of the endpoint that the given request targets.
+	 */
+	protected String getEndpoint(Link link, URL url) {
+		int port = url.getPort();
+		if (port == -1) {
+			port = url.getDefaultPort();
+		}
+		return url.getHost() + ':' + port;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given failure tells that the endpoint
+	 * is not available.
+	 */
+	protected boolean isFailure(Exception e) {
+		return RetryPolicy.isTransientFailure(e);
+	}
+
+	/**
+	 * Returns the names of the endpoints that were requested.
+	 */
+	public Set<String> getEndpoints() {
+		return Collections.unmodifiableSet(endpoints.keySet());
+	}
+
+	/**
+	 * Returns the circuit breaker of the given endpoint, <code>null</code>
+	 * if it was not requested yet.
+	 */
+	public CircuitBreaker getCircuitBreaker(String endpoint) {
+		Endpoint guarded = endpoints.get(endpoint);
+		if (guarded == null) {
+			return null;
+		}
+		return guarded.getCircuitBreaker();
+	}
+
+	/**
+	 * Returns the bulkhead of the given endpoint, <code>null</code> if it was
+	 * not requested yet.
+	 */
+	public Bulkhead getBulkhead(String endpoint) {
+		Endpoint guarded = endpoints.get(endpoint);
+		if (guarded == null) {
+			return null;
+		}
+		return guarded.getBulkhead();
+	}
+
+	/**
+	 * Returns the circuit state of the given endpoint. Endpoints that were
+	 * not requested yet are closed.
+	 */
+	public CircuitBreaker.State getState(String endpoint) {
+		CircuitBreaker circuitBreaker = getCircuitBreaker(endpoint);
+		if (circuitBreaker == null) {
+			return CircuitBreaker.State.CLOSED;
+		}
+		return circuitBreaker.getState();
+	}
+
+	static class Endpoint {
+
+		private final String name;
+		private final CircuitBreaker circuitBreaker;
+		private final Bulkhead bulkhead;
+
+		private Endpoint(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+			this.name = name;
+			this.circuitBreaker = circuitBreaker;
+			this.bulkhead = bulkhead;
+		}
+
+		String getName() {
+			return name;
+		}
+
+		CircuitBreaker getCircuitBreaker() {
+			return circuitBreaker;
+		}
+
+		Bulkhead getBulkhead() {
+			return bulkhead;
+		}
+	}
+}
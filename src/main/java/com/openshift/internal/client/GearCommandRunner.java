@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.openshift.client.GearCommandResult;
+import com.openshift.client.IApplicationGear;
+import com.openshift.client.IGearCommandListener;
+import com.openshift.client.ISSHCommandListener;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftSSHOperationException;
+import com.openshift.internal.client.ssh.SSHCommandExecutor;
+import com.openshift.internal.client.ssh.SSHSessionPool;
+import com.openshift.internal.client.ssh.SSHSessionPool.PooledSession;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Executes a command on several gears, at most <code>concurrency</code> of
+ * them at a time. Sessions to the gears are taken from the given pool. The
+ * output of all gears is passed to a single listener, one call at a time.
+ */
+class GearCommandRunner {
+
+	private final SSHSessionPool pool;
+	private final int concurrency;
+
+	GearCommandRunner(SSHSessionPool pool, int concurrency) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency needs to be 1 or more");
+		}
+		this.pool = pool;
+		this.concurrency = concurrency;
+	}
+
+	public List<GearCommandResult> run(final String command, List<IApplicationGear> gears,
+			final IGearCommandListener listener) throws OpenShiftException {
+		final int size = gears.size();
+		final AtomicReferenceArray<GearCommandResult> results = new AtomicReferenceArray<GearCommandResult>(size);
+		if (size > 0) {
+			final Object lock = new Object();
+			ExecutorService executor = Executors.newFixedThreadPool(
+					Math.min(concurrency, size), new DaemonThreadFactory("openshift-gear-exec-"));
+			try {
+				for (int i = 0; i < size; i++) {
+					final int index = i;
+					final IApplicationGear gear = gears.get(i);
+					executor.execute(new Runnable() {
+
+						public void run() {
+							results.set(index, execute(command, gear, listener, lock));
+						}
+					});
+				}
+				executor.shutdown();
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				throw new OpenShiftException(e, "Interrupted while executing \"{0}\" on {1} gears", command, size);
+			}
+		}
+		List<GearCommandResult> gearResults = new ArrayList<GearCommandResult>(size);
+		for (int i = 0; i < size; i++) {
+			gearResults.add(results.get(i));
+		}
+		return gearResults;
+	}
+
+	private GearCommandResult execute(String command, final IApplicationGear gear,
+			final IGearCommandListener listener, final Object lock) {
+		long start = System.nanoTime();
+		int exitStatus = -1;
+		OpenShiftSSHOperationException error = null;
+		try {
+			PooledSession session = pool.acquire(gear);
+			try {
+				exitStatus = SSHCommandExecutor.execute(session.getSession(), command, new ISSHCommandListener() {
+
+					public void output(String line) {
+						synchronized (lock) {
+							listener.output(gear, line);
+						}
+					}
+
+					public void error(String line) {
+						synchronized (lock) {
+							listener.error(gear, line);
+						}
+					}
+				});
+			} finally {
+				pool.release(session);
+			}
+		} catch (OpenShiftSSHOperationException e) {
+			error = e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			error = new OpenShiftSSHOperationException(e, "Interrupted while executing \"{0}\" on gear {1}",
+					command, gear.getUuid());
+		} catch (Exception e) {
+			error = new OpenShiftSSHOperationException(e, "Failed to execute \"{0}\" on gear {1}",
+					command, gear.getUuid());
+		}
+		return new GearCommandResult(gear, exitStatus, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), error);
+	}
+}
@@ -12,6 +12,9 @@ package com.openshift.internal.client;
 
 import java.net.SocketTimeoutException;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.openshift.client.HttpMethod;
 import com.openshift.client.OpenShiftException;
@@ -35,6 +38,123 @@ public interface IRestService {
 	public abstract String request(String url, HttpMethod httpMethod, Map<String, Object> parameters)
 			throws OpenShiftException;
 
+	/**
+	 * Requests the given link on the executor of this service and returns
+	 * immediately. Failures are reported by {@link Future#get()} as an
+	 * {@link java.util.concurrent.ExecutionException} whose cause is the
+	 * OpenShiftException that {@link #request(Link, Map)} would have thrown.
+	 * 
+	 * @param link
+	 *            the link to request
+	 * @param parameters
+	 *            the request parameters
+	 * @return the future response
+	 */
+	public abstract Future<RestResponse> requestAsync(Link link, Map<String, Object> parameters);
+
+	/**
+	 * Requests the given link on the executor of this service and returns
+	 * immediately. If the request did not complete within the given timeout
+	 * the future is completed with an
+	 * {@link com.openshift.client.OpenShiftTimeoutException}.
+	 * 
+	 * @param link
+	 *            the link to request
+	 * @param parameters
+	 *            the request parameters
+	 * @param timeout
+	 *            the maximum time to wait for the response, 0 or less for no
+	 *            timeout
+	 * @param unit
+	 *            the unit of the timeout
+	 * @return the future response
+	 * 
+	 * @see #requestAsync(Link, Map)
+	 */
+	public abstract Future<RestResponse> requestAsync(Link link, Map<String, Object> parameters, long timeout,
+			TimeUnit unit);
+
+	/**
+	 * Sets the executor that asynchronous requests are run on. The executor is
+	 * not shut down by this service.
+	 * 
+	 * @param executor
+	 *            the executor to use, <code>null</code> to use the default one
+	 */
+	public abstract void setExecutor(ExecutorService executor);
+
+	/**
+	 * Sets the cache that the responses to GET requests are kept in. Cached
+	 * responses are revalidated with conditional requests and reused if the
+	 * broker reports them as not modified. Only used if the http client
+	 * supports conditional requests.
+	 * 
+	 * @param responseCache
+	 *            the cache to use, <code>null</code> to disable caching
+	 */
+	public abstract void setResponseCache(RestResponseCache responseCache);
+
+	public abstract RestResponseCache getResponseCache();
+
+	/**
+	 * Sets the policy that decides which failed requests are retried and how
+	 * long to wait in between. The policy holds the retry budget and the
+	 * statistics of this service.
+	 * 
+	 * @param retryPolicy
+	 *            the policy to use, <code>null</code> to disable retries
+	 * 
+	 * @see RetryPolicy
+	 */
+	public abstract void setRetryPolicy(RetryPolicy retryPolicy);
+
+	public abstract RetryPolicy getRetryPolicy();
+
+	/**
+	 * Sets the guard that holds the circuit breakers and bulkheads of the
+	 * broker endpoints that this service requests. Requests to an endpoint
+	 * whose circuit is open fail fast with an
+	 * {@link com.openshift.client.OpenShiftEndpointUnavailableException}.
+	 * 
+	 * @param endpointGuard
+	 *            the guard to use, <code>null</code> to disable it
+	 * 
+	 * @see EndpointGuard
+	 */
+	public abstract void setEndpointGuard(EndpointGuard endpointGuard);
+
+	public abstract EndpointGuard getEndpointGuard();
+
+	/**
+	 * Sets the rate limiter that requests of this service take their tokens
+	 * from. The limiter may be shared with the services of other users.
+	 * 
+	 * @param rateLimiter
+	 *            the limiter to use, <code>null</code> to not limit requests
+	 * @param rhlogin
+	 *            the user whose tokens the requests take
+	 * 
+	 * @see RateLimiter
+	 */
+	public abstract void setRateLimiter(RateLimiter rateLimiter, String rhlogin);
+
+	public abstract RateLimiter getRateLimiter();
+
+	/**
+	 * Sets the coalescer that lets concurrent identical GET requests of this
+	 * service share a single request and response. The coalescer may be
+	 * shared with other services, requests are only coalesced if they are
+	 * sent with the same http client (credentials).
+	 * 
+	 * @param requestCoalescer
+	 *            the coalescer to use, <code>null</code> to send each request
+	 * 
+	 * @see RequestCoalescer
+	 */
+	public abstract void setRequestCoalescer(RequestCoalescer requestCoalescer);
+
+	public abstract RequestCoalescer getRequestCoalescer();
+
 	public abstract void setProxySet(boolean proxySet);
 
 	public abstract void setProxyHost(String proxyHost);
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.response.Link;
+import com.openshift.internal.client.response.LinkParameter;
+import com.openshift.internal.client.response.LinkParameterType;
+
+/**
+ * Persists the link table that the broker publishes at /api so that a new
+ * connection may be used right away without waiting for /api. There's a file
+ * per server url and api version. The links are stored in a compact binary
+ * format that may be read without any json parsing.
+ * <p>
+ * The cache never fails a connection: missing, outdated or corrupt files are
+ * reported as misses.
+ */
+public class LinkTableCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LinkTableCache.class);
+
+	private static final String PROPERTY_USERHOME = "user.home";
+	private static final String CACHE_FOLDER = ".openshift" + File.separator + "cache";
+	private static final String FILE_SUFFIX = ".links";
+
+	/** "OSLT" */
+	private static final int MAGIC = 0x4f534c54;
+	private static final int FORMAT_VERSION = 1;
+	/** the maximum number of links, parameters or options in a table */
+	private static final int MAX_SIZE = 10 * 1000;
+
+	private final File directory;
+
+	/**
+	 * Creates a cache that stores its files in ~/.openshift/cache
+	 */
+	public LinkTableCache() {
+		this(new File(System.getProperty(PROPERTY_USERHOME), CACHE_FOLDER));
+	}
+
+	public LinkTableCache(File directory) {
+		this.directory = directory;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns the links that were stored for the given server and api version,
+	 * <code>null</code> if there are none or they could not be read.
+	 * 
+	 * @param serverUrl
+	 *            the url of the broker
+	 * @param apiVersion
+	 *            the version of the api
+	 * @return the links or <code>null</code>
+	 */
+	public Map<String, Link> load(String serverUrl, String apiVersion) {
+		File file = getFile(serverUrl, apiVersion);
+		if (!file.isFile()) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != MAGIC
+					|| in.readInt() != FORMAT_VERSION
+					|| !serverUrl.equals(in.readUTF())
+					|| !apiVersion.equals(in.readUTF())) {
+				LOGGER.debug("Ignoring link table cache {}, it is outdated", file);
+				return null;
+			}
+			return readLinks(in);
+		} catch (IOException e) {
+			LOGGER.debug("Could not read link table cache {}", file, e);
+			return null;
+		} catch (OpenShiftException e) {
+			LOGGER.debug("Could not read link table cache {}", file, e);
+			return null;
+		} catch (IllegalArgumentException e) {
+			LOGGER.debug("Could not read link table cache {}", file, e);
+			return null;
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Stores the given links for the given server and api version. The file
+	 * is written aside and then renamed so that concurrent readers never see
+	 * a partially written file.
+	 * 
+	 * @param serverUrl
+	 *            the url of the broker
+	 * @param apiVersion
+	 *            the version of the api
+	 * @param links
+	 *            the links to store
+	 * @return <code>true</code> if the links were stored
+	 */
+	public boolean store(String serverUrl, String apiVersion, Map<String, Link> links) {
+		if (!directory.isDirectory()
+				&& !directory.mkdirs()) {
+			LOGGER.debug("Could not create link table cache directory {}", directory);
+			return false;
+		}
+		File file = getFile(serverUrl, apiVersion);
+		File tmpFile = null;
+		DataOutputStream out = null;
+		try {
+			tmpFile = File.createTempFile(file.getName(), null, directory);
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(serverUrl);
+			out.writeUTF(apiVersion);
+			writeLinks(links, out);
+			out.close();
+			out = null;
+			if (!tmpFile.renameTo(file)) {
+				// windows does not rename onto existing files
+				file.delete();
+				if (!tmpFile.renameTo(file)) {
+					LOGGER.debug("Could not write link table cache {}", file);
+					return false;
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			LOGGER.debug("Could not write link table cache {}", file, e);
+			return false;
+		} finally {
+			close(out);
+			if (tmpFile != null) {
+				tmpFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Removes the links that were stored for the given server and api version.
+	 */
+	public void remove(String serverUrl, String apiVersion) {
+		getFile(serverUrl, apiVersion).delete();
+	}
+
+	protected File getFile(String serverUrl, String apiVersion) {
+		return new File(directory,
+				new StringBuilder(toFileName(serverUrl)).append('_').append(toFileName(apiVersion))
+						.append(FILE_SUFFIX).toString());
+	}
+
+	private String toFileName(String value) {
+		StringBuilder builder = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (Character.isLetterOrDigit(character)
+					|| character == '.'
+					|| character == '-') {
+				builder.append(character);
+			} else {
+				builder.append('_');
+			}
+		}
+		return builder.toString();
+	}
+
+	private void writeLinks(Map<String, Link> links, DataOutputStream out) throws IOException {
+		out.writeInt(links.size());
+		for (Map.Entry<String, Link> entry : links.entrySet()) {
+			Link link = entry.getValue();
+			out.writeUTF(entry.getKey());
+			writeString(link.getRel(), out);
+			writeString(link.getHref(), out);
+			writeString(link.getHttpMethod() == null ? null : link.getHttpMethod().name(), out);
+			writeParameters(link.getRequiredParams(), out);
+			writeParameters(link.getOptionalParams(), out);
+		}
+	}
+
+	private Map<String, Link> readLinks(DataInputStream in) throws IOException, OpenShiftException {
+		int size = readSize(in);
+		if (size < 0) {
+			throw new IOException("Missing link table");
+		}
+		Map<String, Link> links = new LinkedHashMap<String, Link>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			String name = in.readUTF();
+			String rel = readString(in);
+			String href = readString(in);
+			String httpMethod = readString(in);
+			List<LinkParameter> requiredParams = readParameters(in);
+			List<LinkParameter> optionalParams = readParameters(in);
+			links.put(name, new Link(rel, href,
+					httpMethod == null ? null : HttpMethod.valueOf(httpMethod), requiredParams, optionalParams));
+		}
+		return links;
+	}
+
+	private void writeParameters(List<LinkParameter> parameters, DataOutputStream out) throws IOException {
+		if (parameters == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(parameters.size());
+		for (LinkParameter parameter : parameters) {
+			writeString(parameter.getName(), out);
+			writeString(parameter.getType() == null ? null : parameter.getType().name(), out);
+			writeString(parameter.getDefaultValue(), out);
+			writeString(parameter.getDescription(), out);
+			writeStrings(parameter.getValidOptions(), out);
+		}
+	}
+
+	private List<LinkParameter> readParameters(DataInputStream in) throws IOException, OpenShiftException {
+		int size = readSize(in);
+		if (size < 0) {
+			return null;
+		}
+		List<LinkParameter> parameters = new ArrayList<LinkParameter>(size);
+		for (int i = 0; i < size; i++) {
+			String name = readString(in);
+			String type = readString(in);
+			String defaultValue = readString(in);
+			String description = readString(in);
+			List<String> validOptions = readStrings(in);
+			parameters.add(new LinkParameter(name,
+					type == null ? null : LinkParameterType.valueOf(type), defaultValue, description, validOptions));
+		}
+		return parameters;
+	}
+
+	private void writeStrings(List<String> values, DataOutputStream out) throws IOException {
+		if (values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.size());
+		for (String value : values) {
+			writeString(value, out);
+		}
+	}
+
+	private List<String> readStrings(DataInputStream in) throws IOException {
+		int size = readSize(in);
+		if (size < 0) {
+			return null;
+		}
+		List<String> values = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			values.add(readString(in));
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the size of a collection, -1 if it is <code>null</code>. Sizes
+	 * that a broker never sends hint at a corrupt file and are rejected
+	 * before anything is allocated for them.
+	 */
+	private int readSize(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < -1
+				|| size > MAX_SIZE) {
+			throw new IOException("Invalid size " + size);
+		}
+		return size;
+	}
+
+	private void writeString(String value, DataOutputStream out) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private String readString(DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		return in.readUTF();
+	}
+
+	private void close(Closeable closeable) {
+		if (closeable == null) {
+			return;
+		}
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+}
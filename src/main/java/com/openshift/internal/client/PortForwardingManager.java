@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationPortForwarding;
+import com.openshift.client.IPortForwardingManager;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftSSHOperationException;
+import com.openshift.client.PortForwardingStatus;
+import com.openshift.internal.client.ssh.PortForwardingRegistry;
+import com.openshift.internal.client.ssh.SSHSessionPool;
+import com.openshift.internal.client.ssh.SSHSessionPool.PooledSession;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Forwards the ports of applications to free local ports (the ssh client
+ * binds an ephemeral port, so there's no race with other processes picking
+ * the same port). Forwardings are kept in a table by application and remote
+ * endpoint. Sessions are taken from the connection's SSH session pool and
+ * held as long as there are forwardings, which prevents them from being
+ * evicted. A monitor periodically re-establishes the forwardings of sessions
+ * that dropped, rebinding the same local ports if they are still free.
+ * Applications that have an explicit session use it, it can't be
+ * re-established though.
+ */
+public class PortForwardingManager implements IPortForwardingManager {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PortForwardingManager.class);
+
+	public static final String DEFAULT_LOCAL_ADDRESS = "127.0.0.1";
+	public static final int DEFAULT_CONCURRENCY = 8;
+	private static final long MONITOR_INTERVAL = 10 * 1000;
+
+	private final APIResource connection;
+	private final String localAddress;
+	private final Map<String, ApplicationForwardings> forwardingsByApplication =
+			new LinkedHashMap<String, ApplicationForwardings>();
+	private ScheduledExecutorService monitor;
+
+	public PortForwardingManager(APIResource connection) {
+		this(connection, DEFAULT_LOCAL_ADDRESS);
+	}
+
+	public PortForwardingManager(APIResource connection, String localAddress) {
+		this.connection = connection;
+		this.localAddress = localAddress;
+	}
+
+	public List<PortForwardingStatus> start(List<IApplication> applications) throws OpenShiftException {
+		final int size = applications.size();
+		for (IApplication application : applications) {
+			validate(application);
+		}
+		final AtomicReferenceArray<List<PortForwardingStatus>> results =
+				new AtomicReferenceArray<List<PortForwardingStatus>>(size);
+		if (size > 0) {
+			startMonitor();
+			ExecutorService executor = Executors.newFixedThreadPool(
+					Math.min(DEFAULT_CONCURRENCY, size), new DaemonThreadFactory("openshift-port-forwarding-"));
+			try {
+				for (int i = 0; i < size; i++) {
+					final int index = i;
+					final IApplication application = applications.get(i);
+					final ApplicationForwardings forwardings = getForwardings(application);
+					executor.execute(new Runnable() {
+
+						public void run() {
+							try {
+								results.set(index, forwardings.start());
+							} catch (RuntimeException e) {
+								LOGGER.error("Could not forward the ports of application " + application.getName(), e);
+								results.set(index, Collections.singletonList(
+										new PortForwardingStatus(application, null, false,
+												new OpenShiftSSHOperationException(e,
+														"Could not forward the ports of application ''{0}''",
+														application.getName()))));
+							}
+						}
+					});
+				}
+				executor.shutdown();
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				throw new OpenShiftException(e, "Interrupted while forwarding the ports of {0} applications", size);
+			}
+		}
+		List<PortForwardingStatus> statuses = new ArrayList<PortForwardingStatus>();
+		for (int i = 0; i < size; i++) {
+			statuses.addAll(results.get(i));
+		}
+		return statuses;
+	}
+
+	public void stop(IApplication application) {
+		ApplicationForwardings forwardings;
+		synchronized (this) {
+			forwardings = forwardingsByApplication.remove(getKey(application));
+		}
+		if (forwardings != null) {
+			forwardings.stop();
+		}
+	}
+
+	public void stopAll() {
+		List<ApplicationForwardings> all;
+		synchronized (this) {
+			all = new ArrayList<ApplicationForwardings>(forwardingsByApplication.values());
+			forwardingsByApplication.clear();
+			if (monitor != null) {
+				monitor.shutdownNow();
+				this.monitor = null;
+			}
+		}
+		for (ApplicationForwardings forwardings : all) {
+			forwardings.stop();
+		}
+	}
+
+	public List<PortForwardingStatus> reconnect() {
+		List<PortForwardingStatus> statuses = new ArrayList<PortForwardingStatus>();
+		for (ApplicationForwardings forwardings : getAllForwardings()) {
+			statuses.addAll(forwardings.reconnect());
+		}
+		return statuses;
+	}
+
+	public List<PortForwardingStatus> getStatus() {
+		List<PortForwardingStatus> statuses = new ArrayList<PortForwardingStatus>();
+		for (ApplicationForwardings forwardings : getAllForwardings()) {
+			statuses.addAll(forwardings.getStatus());
+		}
+		return statuses;
+	}
+
+	public List<PortForwardingStatus> getStatus(IApplication application) {
+		ApplicationForwardings forwardings;
+		synchronized (this) {
+			forwardings = forwardingsByApplication.get(getKey(application));
+		}
+		if (forwardings == null) {
+			return Collections.emptyList();
+		}
+		return forwardings.getStatus();
+	}
+
+	public PortForwardingStatus getStatus(IApplication application, String remoteAddress, int remotePort) {
+		ApplicationForwardings forwardings;
+		synchronized (this) {
+			forwardings = forwardingsByApplication.get(getKey(application));
+		}
+		if (forwardings == null) {
+			return null;
+		}
+		return forwardings.getStatus(remoteAddress, remotePort);
+	}
+
+	private synchronized List<ApplicationForwardings> getAllForwardings() {
+		return new ArrayList<ApplicationForwardings>(forwardingsByApplication.values());
+	}
+
+	/**
+	 * Makes sure that the given application was loaded by a connection, its
+	 * ports can't be listed otherwise.
+	 */
+	private void validate(IApplication application) throws OpenShiftException {
+		if (!(application instanceof ApplicationResource)) {
+			throw new OpenShiftException(
+					"Could not forward the ports of application ''{0}'': {1} is not an application of a connection",
+					application == null ? null : application.getName(),
+					application == null ? null : application.getClass().getName());
+		}
+	}
+
+	private synchronized ApplicationForwardings getForwardings(IApplication application) {
+		String key = getKey(application);
+		ApplicationForwardings forwardings = forwardingsByApplication.get(key);
+		if (forwardings == null) {
+			forwardings = new ApplicationForwardings((ApplicationResource) application);
+			forwardingsByApplication.put(key, forwardings);
+		}
+		return forwardings;
+	}
+
+	private String getKey(IApplication application) {
+		String uuid = application.getUUID();
+		if (uuid != null) {
+			return uuid;
+		}
+		return application.getName();
+	}
+
+	private synchronized void startMonitor() {
+		if (monitor != null) {
+			return;
+		}
+		this.monitor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("openshift-port-monitor-"));
+		monitor.scheduleWithFixedDelay(new Runnable() {
+
+			public void run() {
+				try {
+					reconnect();
+				} catch (RuntimeException e) {
+					LOGGER.error("Could not re-establish port forwardings", e);
+				}
+			}
+		}, MONITOR_INTERVAL, MONITOR_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	private static String getEndpoint(String remoteAddress, int remotePort) {
+		return remoteAddress + ":" + remotePort;
+	}
+
+	/**
+	 * The forwardings of an application and the session they run on.
+	 */
+	private class ApplicationForwardings {
+
+		private final ApplicationResource application;
+		private final Map<String, Forwarding> forwardings = new LinkedHashMap<String, Forwarding>();
+		private SSHSessionPool pool;
+		private PooledSession lease;
+		private Session session;
+
+		private ApplicationForwardings(ApplicationResource application) {
+			this.application = application;
+		}
+
+		private synchronized List<PortForwardingStatus> start() {
+			List<IApplicationPortForwarding> ports;
+			try {
+				connect();
+				ports = application.refreshForwardablePorts();
+			} catch (OpenShiftSSHOperationException e) {
+				return Collections.singletonList(new PortForwardingStatus(application, null, false, e));
+			}
+			List<PortForwardingStatus> statuses = new ArrayList<PortForwardingStatus>();
+			for (IApplicationPortForwarding port : ports) {
+				String endpoint = getEndpoint(port.getRemoteAddress(), port.getRemotePort());
+				Forwarding forwarding = forwardings.get(endpoint);
+				if (forwarding == null) {
+					forwarding = new Forwarding(port);
+					forwardings.put(endpoint, forwarding);
+				}
+				if (!forwarding.started) {
+					forwarding.bind(session);
+				}
+				statuses.add(forwarding.getStatus());
+			}
+			return statuses;
+		}
+
+		private synchronized List<PortForwardingStatus> reconnect() {
+			if (session != null
+					&& session.isConnected()) {
+				return Collections.emptyList();
+			}
+			disconnect();
+			try {
+				connect();
+			} catch (OpenShiftSSHOperationException e) {
+				for (Forwarding forwarding : forwardings.values()) {
+					forwarding.fail(e);
+				}
+				return getStatus();
+			}
+			for (Forwarding forwarding : forwardings.values()) {
+				forwarding.started = false;
+				forwarding.bind(session);
+			}
+			return getStatus();
+		}
+
+		private synchronized void stop() {
+			for (Forwarding forwarding : forwardings.values()) {
+				forwarding.unbind(session);
+			}
+			forwardings.clear();
+			disconnect();
+		}
+
+		private synchronized List<PortForwardingStatus> getStatus() {
+			List<PortForwardingStatus> statuses = new ArrayList<PortForwardingStatus>();
+			for (Forwarding forwarding : forwardings.values()) {
+				statuses.add(forwarding.getStatus());
+			}
+			return statuses;
+		}
+
+		private synchronized PortForwardingStatus getStatus(String remoteAddress, int remotePort) {
+			Forwarding forwarding = forwardings.get(getEndpoint(remoteAddress, remotePort));
+			if (forwarding == null) {
+				return null;
+			}
+			return forwarding.getStatus();
+		}
+
+		/**
+		 * Uses the explicit session of the application if it's connected, a
+		 * pooled one otherwise.
+		 */
+		private void connect() throws OpenShiftSSHOperationException {
+			if (session != null
+					&& session.isConnected()) {
+				return;
+			}
+			Session explicitSession = application.getSSHSession();
+			if (explicitSession != null
+					&& explicitSession.isConnected()) {
+				this.session = explicitSession;
+				return;
+			}
+			SSHSessionPool pool = connection.getSSHSessionPool();
+			if (pool == null) {
+				throw new OpenShiftSSHOperationException("No SSH session available for application ''{0}''",
+						application.getName());
+			}
+			this.lease = pool.acquire(application);
+			this.pool = pool;
+			this.session = lease.getSession();
+		}
+
+		private void disconnect() {
+			if (lease != null) {
+				pool.release(lease);
+				this.lease = null;
+				this.pool = null;
+			}
+			this.session = null;
+		}
+
+		/**
+		 * A forwarding and its state. Guarded by the enclosing
+		 * {@link ApplicationForwardings}.
+		 */
+		private class Forwarding {
+
+			private final IApplicationPortForwarding port;
+			private boolean started;
+			private OpenShiftSSHOperationException error;
+
+			private Forwarding(IApplicationPortForwarding port) {
+				this.port = port;
+			}
+
+			/**
+			 * Binds the local port that was used so far, or a free one if
+			 * there's none yet or it's taken in the meantime.
+			 */
+			private void bind(Session session) {
+				int localPort = port.getLocalPort();
+				try {
+					try {
+						localPort = session.setPortForwardingL(
+								localAddress, Math.max(localPort, 0), port.getRemoteAddress(), port.getRemotePort());
+					} catch (JSchException e) {
+						if (localPort <= 0) {
+							throw e;
+						}
+						localPort = session.setPortForwardingL(
+								localAddress, 0, port.getRemoteAddress(), port.getRemotePort());
+					}
+					port.setLocalAddress(localAddress);
+					port.setLocalPort(localPort);
+					PortForwardingRegistry.get(session).add(port);
+					this.started = true;
+					this.error = null;
+				} catch (JSchException e) {
+					fail(new OpenShiftSSHOperationException(e, "Could not forward {0}:{1} of application \"{2}\"",
+							port.getRemoteAddress(), String.valueOf(port.getRemotePort()), application.getName()));
+				}
+			}
+
+			private void unbind(Session session) {
+				if (!started
+						|| session == null) {
+					return;
+				}
+				try {
+					session.delPortForwardingL(port.getLocalAddress(), port.getLocalPort());
+					PortForwardingRegistry.get(session).remove(port);
+				} catch (JSchException e) {
+					LOGGER.warn("Could not stop forwarding " + port, e);
+				}
+				this.started = false;
+			}
+
+			private void fail(OpenShiftSSHOperationException error) {
+				this.started = false;
+				this.error = error;
+			}
+
+			private PortForwardingStatus getStatus() {
+				return new PortForwardingStatus(application, port, started, error);
+			}
+		}
+	}
+}
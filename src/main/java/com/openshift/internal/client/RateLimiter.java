@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which requests are sent to the broker with token
+ * buckets. A limiter is meant to be shared by the connections of several
+ * users (see
+ * {@link AbstractOpenShiftConnectionFactory#setRateLimiter(RateLimiter)}).
+ * <p>
+ * There are 2 kinds of buckets:
+ * <ul>
+ * <li>user buckets limit the requests of a single rhlogin. Each user gets a
+ * bucket of its own, there may be a default limit and limits for given users.</li>
+ * <li>link buckets limit the requests to the links with a given relation
+ * (ex. "Create new application"). A link bucket is shared by all users.</li>
+ * </ul>
+ * A request takes a token of its user bucket and of its link bucket.
+ * Requests without a configured limit are not throttled.
+ * <p>
+ * Users take turns at the shared link buckets: a user may only hold a single
+ * reservation for a link bucket at a time. A user that sends a burst of
+ * requests therefore queues its second request behind the first requests of
+ * all other users instead of taking all tokens in advance.
+ */
+public class RateLimiter {
+
+	/** wait for as long as it takes */
+	public static final long WAIT_FOREVER = -1;
+
+	private final Map<String, TokenBucket> userBuckets = new HashMap<String, TokenBucket>();
+	private final Map<String, TokenBucket> relBuckets = new HashMap<String, TokenBucket>();
+	private final Map<String, Limit> userLimits = new HashMap<String, Limit>();
+	/** the time until which a user has reserved a token of a link bucket */
+	private final Map<String, Long> turns = new HashMap<String, Long>();
+	private Limit defaultUserLimit;
+	private volatile long maxWait = WAIT_FOREVER;
+
+	private long acquired;
+	private long throttled;
+	private long rejected;
+
+	/**
+	 * Limits the requests of every user that has no limit of its own.
+	 * 
+	 * @param permitsPerSecond
+	 *            the sustained number of requests per second
+	 * @param burst
+	 *            the number of requests that may be sent at once
+	 */
+	public synchronized void setUserLimit(double permitsPerSecond, int burst) {
+		this.defaultUserLimit = new Limit(permitsPerSecond, burst);
+		for (Iterator<String> it = userBuckets.keySet().iterator(); it.hasNext();) {
+			if (!userLimits.containsKey(it.next())) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Limits the requests of the given user.
+	 */
+	public synchronized void setUserLimit(String rhlogin, double permitsPerSecond, int burst) {
+		userLimits.put(rhlogin, new Limit(permitsPerSecond, burst));
+		userBuckets.put(rhlogin, new TokenBucket(permitsPerSecond, burst, nanoTime()));
+	}
+
+	/**
+	 * Limits the requests of all users to the links with the given relation.
+	 */
+	public synchronized void setRelLimit(String rel, double permitsPerSecond, int burst) {
+		relBuckets.put(rel, new TokenBucket(permitsPerSecond, burst, nanoTime()));
+	}
+
+	public synchronized void removeRelLimit(String rel) {
+		relBuckets.remove(rel);
+	}
+
+	/**
+	 * Sets the time that {@link RestService} waits for a token before it
+	 * fails the request with an
+	 * {@link com.openshift.client.OpenShiftRateLimitException}.
+	 * 
+	 * @param maxWait
+	 *            the time to wait in milliseconds, 0 to never wait,
+	 *            {@link #WAIT_FOREVER} to wait for as long as it takes
+	 */
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	public long getMaxWait() {
+		return maxWait;
+	}
+
+	/**
+	 * Waits until the given user may request a link with the given relation.
+	 */
+	public void acquire(String rhlogin, String rel) throws InterruptedException {
+		acquire(rhlogin, rel, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Takes the tokens for a request of the given user to a link with the
+	 * given relation if they are available right away. Returns
+	 * <code>false</code> otherwise.
+	 */
+	public boolean tryAcquire(String rhlogin, String rel) {
+		try {
+			return acquire(rhlogin, rel, 0);
+		} catch (InterruptedException e) {
+			// never waits
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Waits for the tokens for a request of the given user to a link with the
+	 * given relation. Returns <code>false</code> without taking any token if
+	 * they are not available within the given timeout.
+	 */
+	public boolean tryAcquire(String rhlogin, String rel, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return acquire(rhlogin, rel, unit.toNanos(timeout));
+	}
+
+	private boolean acquire(String rhlogin, String rel, long timeout) throws InterruptedException {
+		long deadline = timeout == Long.MAX_VALUE ? Long.MAX_VALUE : nanoTime() + timeout;
+		boolean waited = false;
+		while (true) {
+			long wait;
+			boolean granted = false;
+			synchronized (this) {
+				long now = nanoTime();
+				wait = getWait(rhlogin, rel, now);
+				if (wait == 0) {
+					TokenBucket relBucket = relBuckets.get(rel);
+					long reserved = relBucket == null ? 0 : relBucket.getWait(now);
+					if (reserved > 0
+							&& reserved > getRemaining(deadline, now)) {
+						rejected++;
+						return false;
+					}
+					TokenBucket userBucket = getUserBucket(rhlogin, now);
+					if (userBucket != null) {
+						userBucket.reserve(now);
+					}
+					if (relBucket != null) {
+						relBucket.reserve(now);
+						turns.put(getTurnKey(rhlogin, rel), now + reserved);
+					}
+					acquired++;
+					if (waited || reserved > 0) {
+						throttled++;
+					}
+					wait = reserved;
+					granted = true;
+				} else if (wait > getRemaining(deadline, now)) {
+					rejected++;
+					return false;
+				}
+			}
+			if (wait > 0) {
+				sleep(wait);
+			}
+			if (granted) {
+				return true;
+			}
+			waited = true;
+		}
+	}
+
+	private long getRemaining(long deadline, long now) {
+		if (deadline == Long.MAX_VALUE) {
+			return Long.MAX_VALUE;
+		}
+		return deadline - now;
+	}
+
+	/**
+	 * Returns the nanoseconds that the given user has to wait until it may
+	 * take the tokens for a request to the given link.
+	 */
+	private long getWait(String rhlogin, String rel, long now) {
+		long wait = 0;
+		TokenBucket userBucket = getUserBucket(rhlogin, now);
+		if (userBucket != null) {
+			wait = userBucket.getWait(now);
+		}
+		String turnKey = getTurnKey(rhlogin, rel);
+		Long turn = turns.get(turnKey);
+		if (turn != null) {
+			if (turn <= now) {
+				turns.remove(turnKey);
+			} else {
+				wait = Math.max(wait, turn - now);
+			}
+		}
+		return wait;
+	}
+
+	private TokenBucket getUserBucket(String rhlogin, long now) {
+		TokenBucket bucket = userBuckets.get(rhlogin);
+		if (bucket == null
+				&& defaultUserLimit != null) {
+			bucket = new TokenBucket(defaultUserLimit.permitsPerSecond, defaultUserLimit.burst, now);
+			userBuckets.put(rhlogin, bucket);
+		}
+		return bucket;
+	}
+
+	private String getTurnKey(String rhlogin, String rel) {
+		return rhlogin + '\n' + rel;
+	}
+
+	/**
+	 * Returns the number of requests that got their tokens.
+	 */
+	public synchronized long getAcquired() {
+		return acquired;
+	}
+
+	/**
+	 * Returns the number of requests that had to wait for their tokens.
+	 */
+	public synchronized long getThrottled() {
+		return throttled;
+	}
+
+	/**
+	 * Returns the number of requests that did not get their tokens in time.
+	 */
+	public synchronized long getRejected() {
+		return rejected;
+	}
+
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	protected void sleep(long nanos) throws InterruptedException {
+		TimeUnit.NANOSECONDS.sleep(nanos);
+	}
+
+	private static class Limit {
+
+		private final double permitsPerSecond;
+		private final int burst;
+
+		private Limit(double permitsPerSecond, int burst) {
+			if (permitsPerSecond <= 0
+					|| burst < 1) {
+				throw new IllegalArgumentException("The rate needs to be positive and the burst at least 1");
+			}
+			this.permitsPerSecond = permitsPerSecond;
+			this.burst = burst;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.response.RestResponse;
+
+/**
+ * Coalesces identical requests that are in flight at the same time: the
+ * first caller sends the request, callers that ask for the same key while
+ * it is in flight wait for it and get the same response (or failure). Once
+ * the request completed the next caller sends a new one, responses are not
+ * cached.
+ * <p>
+ * Requests are only coalesced within the same scope (ex. the http client that
+ * holds the credentials of a user), a coalescer may therefore be shared by
+ * several services. Once a write completed, the requests of its scope that
+ * are in flight may have been answered before the write and have to be
+ * {@link #invalidate(Object) invalidated} so that later callers read their
+ * writes.
+ */
+public class RequestCoalescer {
+
+	private final ConcurrentMap<Key, FutureTask<RestResponse>> inFlight =
+			new ConcurrentHashMap<Key, FutureTask<RestResponse>>();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Sends the given request or joins the identical one that is in flight.
+	 * 
+	 * @param scope
+	 *            the scope (ex. the http client) that identical requests
+	 *            share, compared by identity
+	 * @param key
+	 *            the key that identical requests share (ex. method and url)
+	 * @param request
+	 *            the request to send if none is in flight for the key
+	 */
+	RestResponse request(Object scope, String key, Callable<RestResponse> request) throws OpenShiftException {
+		Key inFlightKey = new Key(scope, key);
+		FutureTask<RestResponse> task = new FutureTask<RestResponse>(request);
+		FutureTask<RestResponse> leader = inFlight.putIfAbsent(inFlightKey, task);
+		if (leader != null) {
+			coalesced.incrementAndGet();
+			return get(key, leader);
+		}
+		requests.incrementAndGet();
+		try {
+			task.run();
+		} finally {
+			inFlight.remove(inFlightKey, task);
+		}
+		return get(key, task);
+	}
+
+	/**
+	 * Makes later callers of the given scope send new requests instead of
+	 * joining the ones that are in flight. The requests in flight still
+	 * complete for the callers that already joined them.
+	 * 
+	 * @param scope
+	 *            the scope that a write was sent in
+	 */
+	void invalidate(Object scope) {
+		for (Iterator<Key> keys = inFlight.keySet().iterator(); keys.hasNext();) {
+			if (keys.next().scope == scope) {
+				keys.remove();
+			}
+		}
+	}
+
+	private RestResponse get(String key, FutureTask<RestResponse> task) throws OpenShiftException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OpenShiftException(e, "Interrupted while waiting for {0}", key);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof OpenShiftException) {
+				throw (OpenShiftException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new OpenShiftException(cause, "Could not request {0}", key);
+		}
+	}
+
+	/**
+	 * Returns the number of requests that were sent.
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * Returns the number of callers that joined a request in flight instead
+	 * of sending their own.
+	 */
+	public long getCoalesced() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Returns the number of requests that are currently in flight.
+	 */
+	public int getInFlight() {
+		return inFlight.size();
+	}
+
+	private static class Key {
+
+		private final Object scope;
+		private final String key;
+
+		private Key(Object scope, String key) {
+			this.scope = scope;
+			this.key = key;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(scope) + key.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return scope == other.scope
+					&& key.equals(other.key);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.IResourceChangeListener;
+import com.openshift.client.ResourceChangeEvent;
+
+/**
+ * Holds the change listeners of a resource and dispatches the events of a
+ * refresh to them. A failing listener does not prevent the others from being
+ * notified.
+ */
+class ResourceChangeSupport {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResourceChangeSupport.class);
+
+	private final List<IResourceChangeListener> listeners = new CopyOnWriteArrayList<IResourceChangeListener>();
+
+	void addListener(IResourceChangeListener listener) {
+		if (listener != null) {
+			listeners.add(listener);
+		}
+	}
+
+	void removeListener(IResourceChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	void fire(List<ResourceChangeEvent> events) {
+		for (ResourceChangeEvent event : events) {
+			for (IResourceChangeListener listener : listeners) {
+				try {
+					listener.resourceChanged(event);
+				} catch (RuntimeException e) {
+					LOGGER.warn("Change listener " + listener + " failed to handle " + event, e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.openshift.client.IOpenShiftResource;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.ResourceChangeEvent;
+
+/**
+ * Merges freshly loaded DTOs into the resources that are already known.
+ * Resources and DTOs are matched by key, matching resources are updated in
+ * place and keep their identity, unmatched DTOs create new resources and
+ * unmatched resources are dropped. The differences are collected as change
+ * events.
+ * 
+ * @param <D>
+ *            the type of the DTOs
+ * @param <R>
+ *            the type of the resources
+ */
+abstract class ResourceReconciler<D, R> {
+
+	private final IOpenShiftResource source;
+	private final List<ResourceChangeEvent> events = new ArrayList<ResourceChangeEvent>();
+
+	ResourceReconciler(IOpenShiftResource source) {
+		this.source = source;
+	}
+
+	/**
+	 * Returns the resources for the given DTOs, in the order of the DTOs.
+	 */
+	List<R> reconcile(List<? extends R> resources, List<D> dtos) throws OpenShiftException {
+		Map<String, R> existing = new LinkedHashMap<String, R>(resources.size() * 4 / 3 + 1);
+		for (R resource : resources) {
+			existing.put(getResourceKey(resource), resource);
+		}
+		List<R> reconciled = new ArrayList<R>(dtos.size());
+		for (D dto : dtos) {
+			R resource = existing.remove(getDTOKey(dto));
+			if (resource == null) {
+				resource = create(dto);
+				events.add(new ResourceChangeEvent(ResourceChangeEvent.Type.ADDED, source, resource));
+			} else if (update(resource, dto)) {
+				events.add(new ResourceChangeEvent(ResourceChangeEvent.Type.CHANGED, source, resource));
+			}
+			reconciled.add(resource);
+		}
+		for (R removed : existing.values()) {
+			events.add(new ResourceChangeEvent(ResourceChangeEvent.Type.REMOVED, source, removed));
+		}
+		return reconciled;
+	}
+
+	/**
+	 * @return the changes that were found by the calls to
+	 *         {@link #reconcile(List, List)}
+	 */
+	List<ResourceChangeEvent> getEvents() {
+		return events;
+	}
+
+	protected abstract String getResourceKey(R resource);
+
+	protected abstract String getDTOKey(D dto);
+
+	protected abstract R create(D dto) throws OpenShiftException;
+
+	/**
+	 * Updates the given resource with the values of the given dto.
+	 * 
+	 * @return <code>true</code> if any value changed
+	 */
+	protected abstract boolean update(R resource, D dto) throws OpenShiftException;
+
+	static boolean isEqual(Object thisObject, Object thatObject) {
+		if (thisObject == null) {
+			return thatObject == null;
+		}
+		return thisObject.equals(thatObject);
+	}
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.openshift.internal.client.httpclient.HttpResponse;
+import com.openshift.internal.client.response.RestResponse;
+
+/**
+ * A bounded, least recently used cache of the parsed responses to GET
+ * requests. The validators (entity tag, last modified date) of each response
+ * are kept along so that the {@link RestService} can revalidate a cached
+ * response with a conditional GET and reuse it if the broker responds with
+ * 304 (not modified). The parsed response is then returned as is, the body is
+ * neither transferred nor parsed again.
+ */
+public class RestResponseCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	private final int maxEntries;
+	private final Map<String, Entry> entries;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public RestResponseCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	public RestResponseCache(int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Cache needs to hold at least 1 entry");
+		}
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RestResponseCache.Entry> eldest) {
+				if (size() <= RestResponseCache.this.maxEntries) {
+					return false;
+				}
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached response for the given url, <code>null</code> if
+	 * there's none.
+	 */
+	public synchronized Entry get(String url) {
+		return entries.get(url);
+	}
+
+	/**
+	 * Returns the response that the broker reported as not modified and counts
+	 * it as a hit.
+	 */
+	synchronized RestResponse notModified(Entry entry) {
+		hits++;
+		return entry.getResponse();
+	}
+
+	/**
+	 * Caches the given response if it has validators, drops the cached one
+	 * otherwise. The response is counted as a miss.
+	 */
+	synchronized void put(String url, HttpResponse httpResponse, RestResponse restResponse) {
+		misses++;
+		if (!httpResponse.hasValidators()) {
+			entries.remove(url);
+			return;
+		}
+		entries.put(url,
+				new Entry(httpResponse.getEntityTag(), httpResponse.getLastModified(), restResponse));
+	}
+
+	public synchronized void remove(String url) {
+		entries.remove(url);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Returns the number of responses that were reused because the broker
+	 * reported them as not modified.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of responses that had to be transferred and parsed.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of responses that were dropped to make room for
+	 * more recent ones.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public static class Entry {
+
+		private final String entityTag;
+		private final String lastModified;
+		private final RestResponse response;
+
+		private Entry(String entityTag, String lastModified, RestResponse response) {
+			this.entityTag = entityTag;
+			this.lastModified = lastModified;
+			this.response = response;
+		}
+
+		public String getEntityTag() {
+			return entityTag;
+		}
+
+		public String getLastModified() {
+			return lastModified;
+		}
+
+		public RestResponse getResponse() {
+			return response;
+		}
+	}
+}
@@ -10,12 +10,21 @@
  ******************************************************************************/
 package com.openshift.internal.client;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,10 +34,16 @@ import com.openshift.client.IHttpClient;
 import com.openshift.client.InvalidCredentialsOpenShiftException;
 import com.openshift.client.NotFoundOpenShiftException;
 import com.openshift.client.OpenShiftEndpointException;
+import com.openshift.client.OpenShiftEndpointUnavailableException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftRateLimitException;
 import com.openshift.client.OpenShiftRequestException;
 import com.openshift.client.OpenShiftTimeoutException;
 import com.openshift.internal.client.httpclient.HttpClientException;
+import com.openshift.internal.client.httpclient.HttpResponse;
+import com.openshift.internal.client.httpclient.IConditionalHttpClient;
+import com.openshift.internal.client.httpclient.IResponseReader;
+import com.openshift.internal.client.httpclient.IStreamingHttpClient;
 import com.openshift.internal.client.httpclient.NotFoundException;
 import com.openshift.internal.client.httpclient.UnauthorizedException;
 import com.openshift.internal.client.response.Link;
@@ -37,6 +52,7 @@ import com.openshift.internal.client.response.LinkParameterType;
 import com.openshift.internal.client.response.Message;
 import com.openshift.internal.client.response.ResourceDTOFactory;
 import com.openshift.internal.client.response.RestResponse;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
 import com.openshift.internal.client.utils.StringUtils;
 
 /**
@@ -54,10 +70,33 @@ public class RestService implements IRestService {
 	private static final String SYSPROPERTY_PROXY_HOST = "proxyHost";
 	private static final String SYSPROPERTY_PROXY_SET = "proxySet";
 
-	private static final String SERVICE_VERSION = "1.0";
+	static final String SERVICE_VERSION = "1.0";
+
+	private static final int DEFAULT_ASYNC_THREADS = 4;
+
+	/** unmarshalls the body while it is received */
+	private static final IResponseReader<Response> RESPONSE_READER = new IResponseReader<Response>() {
+
+		public Response read(HttpResponse httpResponse, InputStream body) throws IOException, OpenShiftException {
+			if (httpResponse.isNotModified()) {
+				return new Response(httpResponse, null);
+			}
+			return new Response(httpResponse, ResourceDTOFactory.get(body));
+		}
+	};
+
+	private static ScheduledExecutorService timeoutScheduler;
 
 	private String baseUrl;
 	private IHttpClient client;
+	private ExecutorService executor;
+	private ExecutorService defaultExecutor;
+	private volatile RestResponseCache responseCache = new RestResponseCache();
+	private volatile RetryPolicy retryPolicy = new RetryPolicy();
+	private volatile EndpointGuard endpointGuard = new EndpointGuard();
+	private volatile RateLimiter rateLimiter;
+	private volatile RequestCoalescer requestCoalescer = new RequestCoalescer();
+	private volatile String rhlogin;
 
 	public RestService(String baseUrl, String clientId, IHttpClient client) {
 		this.baseUrl = baseUrl;
@@ -71,28 +110,168 @@ public class RestService implements IRestService {
 	}
 
 	public RestResponse request(Link link, ServiceParameter... serviceParameters) throws OpenShiftException {
-		return request(link, toMap(serviceParameters));
+		return request(link, ServiceParameter.toMap(serviceParameters));
 	}
 
-	private Map<String, Object> toMap(ServiceParameter... serviceParameters) {
-		Map<String, Object> parameterMap = new HashMap<String, Object>();
-		for (ServiceParameter serviceParameter : serviceParameters) {
-			parameterMap.put(serviceParameter.getKey(), serviceParameter.getValue());
+	/**
+	 * Requests the given link. Concurrent GET requests for the same link are
+	 * coalesced, they share a single request and response. GET requests that
+	 * are in flight when a write completes are not joined any more, the write
+	 * may have changed what they return.
+	 */
+	public RestResponse request(final Link link, final Map<String, Object> parameters)
+			throws OpenShiftException {
+		validateParameters(parameters, link);
+		RequestCoalescer requestCoalescer = this.requestCoalescer;
+		if (requestCoalescer == null) {
+			return send(link, parameters);
 		}
-		return parameterMap;
+		if (link.getHttpMethod() != HttpMethod.GET) {
+			try {
+				return send(link, parameters);
+			} finally {
+				requestCoalescer.invalidate(client);
+			}
+		}
+		// the client holds the credentials, requests of other users are not joined
+		return requestCoalescer.request(client, HttpMethod.GET.name() + ' ' + link.getHref(),
+				new Callable<RestResponse>() {
+
+					public RestResponse call() throws Exception {
+						return send(link, parameters);
+					}
+				});
 	}
 
-	public RestResponse request(Link link, Map<String, Object> parameters)
-			throws OpenShiftException {
-		validateParameters(parameters, link);
+	private RestResponse send(Link link, Map<String, Object> parameters) throws OpenShiftException {
 		HttpMethod httpMethod = link.getHttpMethod();
-		String response = request(link.getHref(), httpMethod, parameters);
-		return ResourceDTOFactory.get(response);
+		RestResponseCache responseCache = this.responseCache;
+		if (responseCache != null
+				&& client instanceof IConditionalHttpClient) {
+			if (httpMethod == HttpMethod.GET) {
+				return conditionalGet(link, responseCache);
+			}
+			responseCache.remove(link.getHref());
+		}
+		return request(link, link.getHref(), httpMethod, parameters, false, null).getRestResponse();
+	}
+
+	/**
+	 * Gets the given url and sends the validators of the cached response (if
+	 * any). The cached response is returned if the broker reports that it's
+	 * not modified.
+	 */
+	private RestResponse conditionalGet(Link link, RestResponseCache responseCache) throws OpenShiftException {
+		String url = link.getHref();
+		RestResponseCache.Entry cached = responseCache.get(url);
+		Response response = request(link, url, HttpMethod.GET, null, true, cached);
+		HttpResponse httpResponse = response.getHttpResponse();
+		if (httpResponse.isNotModified()
+				&& cached != null) {
+			LOGGER.trace("{} not modified, using cached response", url);
+			return responseCache.notModified(cached);
+		}
+		responseCache.put(url, httpResponse, response.getRestResponse());
+		return response.getRestResponse();
+	}
+
+	public Future<RestResponse> requestAsync(Link link, Map<String, Object> parameters) {
+		return requestAsync(link, parameters, 0, TimeUnit.MILLISECONDS);
+	}
+
+	public Future<RestResponse> requestAsync(final Link link, final Map<String, Object> parameters, long timeout,
+			TimeUnit unit) {
+		RequestFuture future = new RequestFuture(link, new Callable<RestResponse>() {
+
+			public RestResponse call() throws Exception {
+				return request(link, parameters);
+			}
+		});
+		getExecutor().execute(future);
+		// scheduled once the request was accepted, a rejected one would leave
+		// its timeout behind
+		if (timeout > 0) {
+			future.setTimeout(getTimeoutScheduler().schedule(new Timeout(future, timeout, unit), timeout, unit));
+		}
+		return future;
+	}
+
+	public void setResponseCache(RestResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	public RestResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
 	}
 
+	public void setEndpointGuard(EndpointGuard endpointGuard) {
+		this.endpointGuard = endpointGuard;
+	}
+
+	public EndpointGuard getEndpointGuard() {
+		return endpointGuard;
+	}
+
+	public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+		this.requestCoalescer = requestCoalescer;
+	}
+
+	public RequestCoalescer getRequestCoalescer() {
+		return requestCoalescer;
+	}
+
+	public void setRateLimiter(RateLimiter rateLimiter, String rhlogin) {
+		this.rhlogin = rhlogin;
+		this.rateLimiter = rateLimiter;
+	}
+
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	public synchronized void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (executor != null) {
+			return executor;
+		}
+		if (defaultExecutor == null) {
+			this.defaultExecutor = Executors.newFixedThreadPool(DEFAULT_ASYNC_THREADS,
+					new DaemonThreadFactory("openshift-rest-"));
+		}
+		return defaultExecutor;
+	}
+
+	private static synchronized ScheduledExecutorService getTimeoutScheduler() {
+		if (timeoutScheduler == null) {
+			timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+					new DaemonThreadFactory("openshift-rest-timeout-"));
+		}
+		return timeoutScheduler;
+	}
+
+	/**
+	 * Requests the given url. The request is not retried, callers that poll
+	 * urls (ex. health checks) have their own cadence.
+	 */
 	public String request(String url, HttpMethod httpMethod, Map<String, Object> parameters) throws OpenShiftException {
+		return request(null, url, httpMethod, parameters, false, null).getHttpResponse().getBody();
+	}
+
+	private Response request(Link link, String url, HttpMethod httpMethod, Map<String, Object> parameters,
+			boolean conditional, RestResponseCache.Entry cached) throws OpenShiftException {
 		try {
-			return request(getUrl(url), httpMethod, parameters);
+			return request(link, getUrl(url), httpMethod, parameters, conditional, cached);
 		} catch (UnauthorizedException e) {
 			throw new InvalidCredentialsOpenShiftException(url, e);
 		} catch (NotFoundException e) {
@@ -128,24 +307,207 @@ public class RestService implements IRestService {
 		}
 	}
 
-	private String request(URL url, HttpMethod httpMethod, Map<String, Object> parameters)
+	/**
+	 * Sends the request for the given link and retries it as long as the
+	 * retry policy allows it. Requests without a link are sent once and
+	 * are not guarded.
+	 */
+	private Response request(Link link, URL url, HttpMethod httpMethod, Map<String, Object> parameters,
+			boolean conditional, RestResponseCache.Entry cached)
+			throws HttpClientException, SocketTimeoutException, OpenShiftException, UnsupportedEncodingException {
+		if (link == null) {
+			return request(url, httpMethod, parameters, conditional, cached, false);
+		}
+		throttle(link, url);
+		RetryPolicy retryPolicy = this.retryPolicy;
+		if (retryPolicy == null) {
+			return guardedRequest(link, url, httpMethod, parameters, conditional, cached);
+		}
+		retryPolicy.requested();
+		long delay = 0;
+		for (int attempt = 1;; attempt++) {
+			try {
+				Response response = guardedRequest(link, url, httpMethod, parameters, conditional, cached);
+				retryPolicy.succeeded(attempt);
+				return response;
+			} catch (HttpClientException e) {
+				if (retryPolicy.isDeletedByEarlierAttempt(link, attempt, e)) {
+					LOGGER.debug("{} was deleted by an earlier attempt", url);
+					retryPolicy.succeeded(attempt);
+					return new Response(new HttpResponse(e.getStatus(), null, null, null), null);
+				}
+				delay = retryPolicy.failed(link, attempt, e, delay);
+				if (!backOff(url, attempt, e, delay)) {
+					throw e;
+				}
+			} catch (SocketTimeoutException e) {
+				delay = retryPolicy.failed(link, attempt, e, delay);
+				if (!backOff(url, attempt, e, delay)) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits until the rate limiter hands out the tokens for the given link.
+	 * Retries of the request don't need further tokens.
+	 */
+	private void throttle(Link link, URL url) throws OpenShiftException {
+		RateLimiter rateLimiter = this.rateLimiter;
+		if (rateLimiter == null) {
+			return;
+		}
+		long maxWait = rateLimiter.getMaxWait();
+		try {
+			if (maxWait == RateLimiter.WAIT_FOREVER) {
+				rateLimiter.acquire(rhlogin, link.getRel());
+			} else if (!rateLimiter.tryAcquire(rhlogin, link.getRel(), maxWait, TimeUnit.MILLISECONDS)) {
+				throw new OpenShiftRateLimitException(
+						"Could not request {0}: rate limit of user {1} or link \"{2}\" reached",
+						url, rhlogin, link.getRel());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OpenShiftException(e, "Interrupted while waiting to request {0}", url);
+		}
+	}
+
+	/**
+	 * Waits for the given delay before the next attempt. Returns
+	 * <code>false</code> if there shall be no further attempt.
+	 */
+	private boolean backOff(URL url, int attempt, Exception e, long delay) {
+		if (delay < 0) {
+			return false;
+		}
+		LOGGER.debug("Attempt {} to request {} failed ({}), retrying in {} ms",
+				new Object[] { attempt, url, e.toString(), delay });
+		try {
+			Thread.sleep(delay);
+			return true;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Sends the request through the circuit breaker and the bulkhead of the
+	 * endpoint it targets. Fails fast if the circuit is open or if there are
+	 * too many requests in flight to the endpoint.
+	 */
+	private Response guardedRequest(Link link, URL url, HttpMethod httpMethod, Map<String, Object> parameters,
+			boolean conditional, RestResponseCache.Entry cached)
+			throws HttpClientException, SocketTimeoutException, OpenShiftException, UnsupportedEncodingException {
+		EndpointGuard endpointGuard = this.endpointGuard;
+		if (endpointGuard == null) {
+			return request(url, httpMethod, parameters, conditional, cached, true);
+		}
+		EndpointGuard.Endpoint endpoint = endpointGuard.get(link, url);
+		CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+		if (!circuitBreaker.allowRequest()) {
+			throw new OpenShiftEndpointUnavailableException(endpoint.getName(),
+					"Could not request {0}: circuit for {1} is open", url, endpoint.getName());
+		}
+		Bulkhead bulkhead = endpoint.getBulkhead();
+		if (!bulkhead.acquire()) {
+			circuitBreaker.released();
+			throw new OpenShiftEndpointUnavailableException(endpoint.getName(),
+					"Could not request {0}: {1} requests already in flight to {2}",
+					url, bulkhead.getMaxConcurrent(), endpoint.getName());
+		}
+		boolean reported = false;
+		try {
+			Response response = request(url, httpMethod, parameters, conditional, cached, true);
+			circuitBreaker.succeeded();
+			reported = true;
+			return response;
+		} catch (HttpClientException e) {
+			reported = report(endpointGuard, circuitBreaker, e);
+			throw e;
+		} catch (SocketTimeoutException e) {
+			reported = report(endpointGuard, circuitBreaker, e);
+			throw e;
+		} finally {
+			bulkhead.release();
+			if (!reported) {
+				circuitBreaker.released();
+			}
+		}
+	}
+
+	private boolean report(EndpointGuard endpointGuard, CircuitBreaker circuitBreaker, Exception e) {
+		if (endpointGuard.isFailure(e)) {
+			circuitBreaker.failed();
+		} else {
+			// the endpoint responded
+			circuitBreaker.succeeded();
+		}
+		return true;
+	}
+
+	/**
+	 * Sends the request. The response body is unmarshalled if requested,
+	 * clients that support it hand the body over while it is received.
+	 */
+	private Response request(URL url, HttpMethod httpMethod, Map<String, Object> parameters,
+			boolean conditional, RestResponseCache.Entry cached, boolean unmarshall)
 			throws HttpClientException, SocketTimeoutException, OpenShiftException, UnsupportedEncodingException {
 		LOGGER.trace("Requesting {} on {}", httpMethod.name(), url);
-		
+		if (unmarshall
+				&& client instanceof IStreamingHttpClient) {
+			String entityTag = null;
+			String lastModified = null;
+			if (conditional
+					&& cached != null) {
+				entityTag = cached.getEntityTag();
+				lastModified = cached.getLastModified();
+			}
+			return ((IStreamingHttpClient) client).request(
+					httpMethod, url, parameters, entityTag, lastModified, RESPONSE_READER);
+		}
+		HttpResponse httpResponse = request(url, httpMethod, parameters, conditional, cached);
+		if (!unmarshall
+				|| httpResponse.isNotModified()) {
+			return new Response(httpResponse, null);
+		}
+		return new Response(httpResponse, ResourceDTOFactory.get(httpResponse.getBody()));
+	}
+
+	private HttpResponse request(URL url, HttpMethod httpMethod, Map<String, Object> parameters,
+			boolean conditional, RestResponseCache.Entry cached)
+			throws HttpClientException, SocketTimeoutException, OpenShiftException, UnsupportedEncodingException {
 		switch (httpMethod) {
 		case GET:
-			return client.get(url);
+			if (conditional) {
+				return get(url, cached);
+			}
+			return toResponse(client.get(url));
 		case POST:
-			return client.post(parameters, url);
+			return toResponse(client.post(parameters, url));
 		case PUT:
-			return client.put(parameters, url);
+			return toResponse(client.put(parameters, url));
 		case DELETE:
-			return client.delete(parameters, url);
+			return toResponse(client.delete(parameters, url));
 		default:
 			throw new OpenShiftException("Unexpected HTTP method {0}", httpMethod.toString());
 		}
 	}
 
+	private HttpResponse get(URL url, RestResponseCache.Entry cached)
+			throws HttpClientException, SocketTimeoutException {
+		IConditionalHttpClient conditionalClient = (IConditionalHttpClient) client;
+		if (cached == null) {
+			return conditionalClient.get(url, null, null);
+		}
+		return conditionalClient.get(url, cached.getEntityTag(), cached.getLastModified());
+	}
+
+	private HttpResponse toResponse(String body) {
+		return new HttpResponse(IHttpClient.STATUS_OK, body, null, null);
+	}
+
 	private URL getUrl(String href) throws MalformedURLException, OpenShiftException {
 		if (href == null) {
 			throw new OpenShiftException("Invalid empty url");
@@ -227,4 +589,83 @@ public class RestService implements IRestService {
 	public String getPlatformUrl() {
 		return baseUrl;
 	}
+
+	/**
+	 * A request that may be completed with a timeout exception before the
+	 * broker responded. A request that is still queued when it times out is
+	 * never sent.
+	 */
+	private static class RequestFuture extends FutureTask<RestResponse> {
+
+		private final Link link;
+		private ScheduledFuture<?> timeout;
+
+		private RequestFuture(Link link, Callable<RestResponse> callable) {
+			super(callable);
+			this.link = link;
+		}
+
+		private synchronized void setTimeout(ScheduledFuture<?> timeout) {
+			this.timeout = timeout;
+			if (isDone()) {
+				// completed before the timeout was scheduled
+				timeout.cancel(false);
+			}
+		}
+
+		private void timedOut(long duration, TimeUnit unit) {
+			setException(new OpenShiftTimeoutException("Could not request url {0}, no response within {1} {2}",
+					link.getHref(), duration, unit.name().toLowerCase()));
+		}
+
+		@Override
+		protected synchronized void done() {
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * A response and the resources that were unmarshalled from its body.
+	 */
+	private static class Response {
+
+		private final HttpResponse httpResponse;
+		private final RestResponse restResponse;
+
+		private Response(HttpResponse httpResponse, RestResponse restResponse) {
+			this.httpResponse = httpResponse;
+			this.restResponse = restResponse;
+		}
+
+		private HttpResponse getHttpResponse() {
+			return httpResponse;
+		}
+
+		/**
+		 * Returns the unmarshalled resources, <code>null</code> if the body
+		 * was not unmarshalled or not modified.
+		 */
+		private RestResponse getRestResponse() {
+			return restResponse;
+		}
+	}
+
+	private static class Timeout implements Runnable {
+
+		private final RequestFuture future;
+		private final long duration;
+		private final TimeUnit unit;
+
+		private Timeout(RequestFuture future, long duration, TimeUnit unit) {
+			this.future = future;
+			this.duration = duration;
+			this.unit = unit;
+		}
+
+		public void run() {
+			future.timedOut(duration, unit);
+		}
+	}
 }
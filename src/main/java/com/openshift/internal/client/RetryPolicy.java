@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.internal.client.httpclient.HttpClientException;
+import com.openshift.internal.client.response.Link;
+
+/**
+ * Decides which failed requests the {@link RestService} retries and how long
+ * it waits in between. Idempotent requests (GET, PUT, DELETE) are retried if
+ * the connection failed or the broker responded with a transient error (502,
+ * 503, 504). POST requests are only retried for the link relations that were
+ * opted in. 500 is not retried by default, the broker reports failed
+ * operations (ex. scaling a non-scalable application) with it.
+ * <p>
+ * Timeouts are not retried by default: the broker may still be processing
+ * the request (ex. deleting an application) and each retry would wait for the
+ * full read timeout again. Callers opt in with
+ * {@link #setRetryTimeouts(boolean)}. A DELETE that is retried and reports
+ * that the resource was not found succeeded: an earlier attempt deleted it but
+ * its response got lost.
+ * <p>
+ * The delays follow a decorrelated jitter backoff: each delay is a random
+ * value between the base delay and 3 times the previous delay, capped at the
+ * maximum delay. Clients that failed at the same time therefore don't retry
+ * in lockstep.
+ * <p>
+ * Retries are limited by a budget so that they cannot amplify an outage:
+ * each request deposits a fraction of a token, each retry withdraws a whole
+ * one. With the default ratio of 0.1 at most 1 request out of 10 is retried
+ * once the initial tokens are spent. A policy is meant to be used by a single
+ * service (connection) so that each connection has its own budget.
+ */
+public class RetryPolicy {
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+	public static final long DEFAULT_BASE_DELAY = 100;
+	public static final long DEFAULT_MAX_DELAY = 5 * 1000;
+	public static final double DEFAULT_BUDGET_RATIO = 0.1;
+	public static final int DEFAULT_BUDGET_CAPACITY = 10;
+
+	private static final Set<HttpMethod> IDEMPOTENT_METHODS =
+			Collections.unmodifiableSet(new HashSet<HttpMethod>(
+					Arrays.asList(HttpMethod.GET, HttpMethod.PUT, HttpMethod.DELETE)));
+	private static final Set<Integer> TRANSIENT_STATUS =
+			Collections.unmodifiableSet(new HashSet<Integer>(Arrays.asList(502, 503, 504)));
+
+	private final int maxAttempts;
+	private final long baseDelay;
+	private final long maxDelay;
+	private final double budgetRatio;
+	private final int budgetCapacity;
+	private final Set<String> retriablePostRels = new CopyOnWriteArraySet<String>();
+	private volatile boolean retryTimeouts;
+	private final Random random = new Random();
+
+	private double budget;
+	private long requests;
+	private long retries;
+	private long recovered;
+	private long exhausted;
+	private long budgetRejected;
+	/** successful attempts by attempt number - 1 */
+	private final long[] succeeded;
+	/** failed attempts by attempt number - 1 */
+	private final long[] failed;
+
+	public RetryPolicy() {
+		this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_BUDGET_RATIO,
+				DEFAULT_BUDGET_CAPACITY);
+	}
+
+	/**
+	 * @param maxAttempts
+	 *            the maximum number of times a request is sent, 1 disables
+	 *            retries
+	 * @param baseDelay
+	 *            the minimum delay before a retry, in milliseconds
+	 * @param maxDelay
+	 *            the maximum delay before a retry, in milliseconds
+	 * @param budgetRatio
+	 *            the share of requests that may be retried
+	 * @param budgetCapacity
+	 *            the number of retries that may be done in a burst
+	 */
+	public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, double budgetRatio, int budgetCapacity) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("A request needs to be sent at least once");
+		}
+		if (baseDelay < 0
+				|| maxDelay < baseDelay) {
+			throw new IllegalArgumentException("The maximum delay needs to be greater than the base delay");
+		}
+		this.maxAttempts = maxAttempts;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+		this.budgetRatio = budgetRatio;
+		this.budgetCapacity = budgetCapacity;
+		this.budget = budgetCapacity;
+		this.succeeded = new long[maxAttempts];
+		this.failed = new long[maxAttempts];
+	}
+
+	/**
+	 * Allows POST requests to the links with the given relation to be
+	 * retried. Only opt in if the broker operation is safe to repeat.
+	 */
+	public void addRetriablePost(String rel) {
+		retriablePostRels.add(rel);
+	}
+
+	public void removeRetriablePost(String rel) {
+		retriablePostRels.remove(rel);
+	}
+
+	/**
+	 * Allows requests that timed out to be retried.
+	 */
+	public void setRetryTimeouts(boolean retryTimeouts) {
+		this.retryTimeouts = retryTimeouts;
+	}
+
+	public boolean isRetryTimeouts() {
+		return retryTimeouts;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given link may be retried at all.
+	 */
+	boolean isRetriable(Link link) {
+		return maxAttempts > 1
+				&& (IDEMPOTENT_METHODS.contains(link.getHttpMethod())
+				|| (link.getHttpMethod() == HttpMethod.POST && retriablePostRels.contains(link.getRel())));
+	}
+
+	/**
+	 * Returns <code>true</code> if the given failure may be retried: a failed
+	 * connection, a 502, 503 or 504 response or a timeout if they were opted
+	 * in.
+	 */
+	protected boolean isTransient(Exception e) {
+		if (e instanceof SocketTimeoutException) {
+			return retryTimeouts;
+		}
+		return isTransientFailure(e);
+	}
+
+	/**
+	 * Returns <code>true</code> if the given failure of a retried DELETE tells
+	 * that an earlier attempt deleted the resource.
+	 */
+	boolean isDeletedByEarlierAttempt(Link link, int attempt, Exception e) {
+		return attempt > 1
+				&& link.getHttpMethod() == HttpMethod.DELETE
+				&& e instanceof HttpClientException
+				&& ((HttpClientException) e).getStatus() == IHttpClient.STATUS_NOT_FOUND;
+	}
+
+	static boolean isTransientFailure(Exception e) {
+		if (e instanceof SocketTimeoutException) {
+			return true;
+		}
+		if (e instanceof HttpClientException) {
+			int status = ((HttpClientException) e).getStatus();
+			if (status == HttpClientException.STATUS_UNKNOWN) {
+				// no response: connection refused or reset
+				return e.getCause() instanceof IOException;
+			}
+			return TRANSIENT_STATUS.contains(status);
+		}
+		return false;
+	}
+
+	/**
+	 * Counts a request that is about to be sent and deposits its share into
+	 * the retry budget.
+	 */
+	synchronized void requested() {
+		requests++;
+		budget = Math.min(budgetCapacity, budget + budgetRatio);
+	}
+
+	synchronized void succeeded(int attempt) {
+		succeeded[attempt - 1]++;
+		if (attempt > 1) {
+			recovered++;
+		}
+	}
+
+	/**
+	 * Counts the failed attempt and returns the delay to wait before the next
+	 * one, -1 if the request shall not be retried.
+	 * 
+	 * @param attempt
+	 *            the number of the attempt that failed, starting at 1
+	 * @param previousDelay
+	 *            the delay before the attempt that failed, 0 for the first
+	 *            one
+	 */
+	synchronized long failed(Link link, int attempt, Exception e, long previousDelay) {
+		failed[attempt - 1]++;
+		if (!isRetriable(link)
+				|| !isTransient(e)) {
+			return -1;
+		}
+		if (attempt >= maxAttempts) {
+			exhausted++;
+			return -1;
+		}
+		if (budget < 1) {
+			budgetRejected++;
+			return -1;
+		}
+		budget--;
+		retries++;
+		return nextDelay(previousDelay);
+	}
+
+	private long nextDelay(long previousDelay) {
+		long upper = Math.max(baseDelay, previousDelay * 3);
+		long delay = baseDelay + (long) (random.nextDouble() * (upper - baseDelay));
+		return Math.min(maxDelay, delay);
+	}
+
+	public synchronized RetryStats getStats() {
+		return new RetryStats(requests, retries, recovered, exhausted, budgetRejected,
+				succeeded.clone(), failed.clone());
+	}
+}
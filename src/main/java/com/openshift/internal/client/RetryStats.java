@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+/**
+ * A snapshot of the retries that a {@link RetryPolicy} allowed and of the
+ * outcome of each attempt.
+ */
+public class RetryStats {
+
+	/** requests that were sent, not counting retries */
+	private final long requests;
+	/** attempts that were repeated */
+	private final long retries;
+	/** requests that succeeded after they were retried */
+	private final long recovered;
+	/** requests that still failed after the maximum number of attempts */
+	private final long exhausted;
+	/** retries that were not done because the budget was spent */
+	private final long budgetRejected;
+	private final long[] succeeded;
+	private final long[] failed;
+
+	RetryStats(long requests, long retries, long recovered, long exhausted, long budgetRejected,
+			long[] succeeded, long[] failed) {
+		this.requests = requests;
+		this.retries = retries;
+		this.recovered = recovered;
+		this.exhausted = exhausted;
+		this.budgetRejected = budgetRejected;
+		this.succeeded = succeeded;
+		this.failed = failed;
+	}
+
+	public long getRequests() {
+		return requests;
+	}
+
+	public long getRetries() {
+		return retries;
+	}
+
+	public long getRecovered() {
+		return recovered;
+	}
+
+	public long getExhausted() {
+		return exhausted;
+	}
+
+	public long getBudgetRejected() {
+		return budgetRejected;
+	}
+
+	/**
+	 * @param attempt
+	 *            the attempt number, starting at 1
+	 * @return the number of requests that succeeded at the given attempt
+	 */
+	public long getSucceeded(int attempt) {
+		return succeeded[attempt - 1];
+	}
+
+	/**
+	 * @param attempt
+	 *            the attempt number, starting at 1
+	 * @return the number of requests that failed at the given attempt
+	 */
+	public long getFailed(int attempt) {
+		return failed[attempt - 1];
+	}
+
+	@Override
+	public String toString() {
+		return "RetryStats ["
+				+ "requests=" + requests + ", "
+				+ "retries=" + retries + ", "
+				+ "recovered=" + recovered + ", "
+				+ "exhausted=" + exhausted + ", "
+				+ "budgetRejected=" + budgetRejected
+				+ "]";
+	}
+}
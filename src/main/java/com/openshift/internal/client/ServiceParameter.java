@@ -10,6 +10,9 @@
  ******************************************************************************/
 package com.openshift.internal.client;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * A paramater wrapper to pass param key/values to the service when executing a remote operation from a link.
  * 
@@ -43,4 +46,12 @@ public class ServiceParameter {
 		return value;
 	}
 
+	public static Map<String, Object> toMap(ServiceParameter... serviceParameters) {
+		Map<String, Object> parameterMap = new HashMap<String, Object>();
+		for (ServiceParameter serviceParameter : serviceParameters) {
+			parameterMap.put(serviceParameter.getKey(), serviceParameter.getValue());
+		}
+		return parameterMap;
+	}
+
 }
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+/**
+ * A token bucket that refills at a constant rate up to its capacity. Tokens
+ * may be reserved ahead of time, the bucket then goes into debt and later
+ * reservations wait until it is repaid. Not thread safe, the
+ * {@link RateLimiter} guards its buckets.
+ */
+class TokenBucket {
+
+	private static final double NANOS_PER_SECOND = 1000 * 1000 * 1000;
+
+	private final double permitsPerSecond;
+	private final int capacity;
+	private double tokens;
+	private long updated;
+
+	TokenBucket(double permitsPerSecond, int capacity, long now) {
+		if (permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("The rate needs to be positive");
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity needs to be at least 1");
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.capacity = capacity;
+		this.tokens = capacity;
+		this.updated = now;
+	}
+
+	/**
+	 * Returns the nanoseconds to wait until a token is available, 0 if there
+	 * is one right away.
+	 */
+	long getWait(long now) {
+		refill(now);
+		if (tokens >= 1) {
+			return 0;
+		}
+		return (long) Math.ceil((1 - tokens) / permitsPerSecond * NANOS_PER_SECOND);
+	}
+
+	/**
+	 * Takes a token, possibly one that is not available yet, and returns the
+	 * nanoseconds to wait until it is.
+	 */
+	long reserve(long now) {
+		long wait = getWait(now);
+		tokens--;
+		return wait;
+	}
+
+	double getTokens(long now) {
+		refill(now);
+		return tokens;
+	}
+
+	private void refill(long now) {
+		if (now <= updated) {
+			return;
+		}
+		tokens = Math.min(capacity, tokens + (now - updated) * permitsPerSecond / NANOS_PER_SECOND);
+		updated = now;
+	}
+}
@@ -11,6 +11,7 @@
 package com.openshift.internal.client;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.openshift.client.IDomain;
@@ -26,6 +27,7 @@ import com.openshift.internal.client.response.KeyResourceDTO;
 import com.openshift.internal.client.response.UserResourceDTO;
 import com.openshift.internal.client.utils.CollectionUtils;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.LazySnapshot;
 
 /**
  * @author André Dietisheim
@@ -38,7 +40,15 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 	private final int maxGears;
 	private final int consumedGears;
 
-	private List<SSHKeyResource> sshKeys;
+	/** The ssh keys of the user, loaded on first access. */
+	private final LazySnapshot<List<SSHKeyResource>, OpenShiftException> sshKeys =
+			new LazySnapshot<List<SSHKeyResource>, OpenShiftException>() {
+
+				@Override
+				protected List<SSHKeyResource> load() throws OpenShiftException {
+					return Collections.unmodifiableList(loadKeys());
+				}
+			};
 	
 	public UserResource(final APIResource api, final UserResourceDTO dto, final String password) {
 		super(api.getService(), dto.getLinks(), dto.getCreationLog());
@@ -105,10 +115,7 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 	}
 
 	public void refresh() throws OpenShiftException {
-		if (this.sshKeys != null) {
-			this.sshKeys = null;
-			loadKeys();
-		}
+		sshKeys.reloadIfLoaded();
 		DomainResource defaultDomain = (DomainResource) getDefaultDomain();
 		if (defaultDomain != null) {
 			defaultDomain.refresh();
@@ -117,17 +124,7 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 
 	public List<IOpenShiftSSHKey> getSSHKeys() throws OpenShiftUnknonwSSHKeyTypeException,
 			OpenShiftException {
-		List<IOpenShiftSSHKey> keys = new ArrayList<IOpenShiftSSHKey>();
-		keys.addAll(getCachedOrLoadSSHKeys());
-		return CollectionUtils.toUnmodifiableCopy(keys);
-	}
-
-	private List<SSHKeyResource> getCachedOrLoadSSHKeys() throws OpenShiftException,
-			OpenShiftUnknonwSSHKeyTypeException {
-		if (sshKeys == null) {
-			this.sshKeys = loadKeys();
-		}
-		return sshKeys;
+		return Collections.<IOpenShiftSSHKey> unmodifiableList(sshKeys.get());
 	}
 
 	private List<SSHKeyResource> loadKeys() throws OpenShiftException,
@@ -147,7 +144,7 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 			return null;
 		}
 
-		for (SSHKeyResource key : getCachedOrLoadSSHKeys()) {
+		for (SSHKeyResource key : sshKeys.get()) {
 			if (name.equals(key.getName())) {
 				matchingKey = key;
 				break;
@@ -163,7 +160,7 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 			return null;
 		}
 
-		for (SSHKeyResource key : getCachedOrLoadSSHKeys()) {
+		for (SSHKeyResource key : sshKeys.get()) {
 			if (publicKey.equals(key.getPublicKey())) {
 				matchingKey = key;
 				break;
@@ -208,14 +205,21 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 		return put(keyDTO);
 	}
 
-	private SSHKeyResource put(KeyResourceDTO keyDTO) throws OpenShiftUnknonwSSHKeyTypeException {
+	private SSHKeyResource put(KeyResourceDTO keyDTO) throws OpenShiftException {
 		SSHKeyResource sshKey = new SSHKeyResource(keyDTO, this);
-		sshKeys.add(sshKey);
+		synchronized (sshKeys) {
+			sshKeys.set(CollectionUtils.addToUnmodifiableCopy(sshKeys.get(), sshKey));
+		}
 		return sshKey;
 	}
 
 	protected void removeSSHKey(SSHKeyResource key) {
-		sshKeys.remove(key);
+		synchronized (sshKeys) {
+			List<SSHKeyResource> current = sshKeys.peek();
+			if (current != null) {
+				sshKeys.set(CollectionUtils.removeFromUnmodifiableCopy(current, key));
+			}
+		}
 	}
 
 	private class GetSShKeysRequest extends ServiceRequest {
@@ -10,6 +10,8 @@
  ******************************************************************************/ 
 package com.openshift.internal.client.httpclient;
 
+import com.openshift.client.IHttpClient;
+
 /**
  * @author André Dietisheim
  */
@@ -18,10 +20,10 @@ public class BadRequestException extends HttpClientException {
 	private static final long serialVersionUID = 1L;
 
 	public BadRequestException(String message, Throwable cause) {
-		super(message, cause);
+		super(message, IHttpClient.STATUS_BAD_REQUEST, cause);
 	}
 
 	public BadRequestException(Throwable cause) {
-		super(cause);
+		super(cause == null ? null : cause.toString(), IHttpClient.STATUS_BAD_REQUEST, cause);
 	}
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.openshift.client.IHttpClient;
+
+/**
+ * Negotiates and decodes compressed response bodies. The broker responses
+ * embed full link tables and are very repetitive, gzip typically shrinks them
+ * to a tenth of their size.
+ * <p>
+ * Decoding is streaming: the returned stream inflates while it is read, the
+ * compressed body is never buffered as a whole.
+ */
+public class ContentEncoding {
+
+	/** the value of the Accept-Encoding header sent with each request */
+	public static final String ACCEPTED_ENCODINGS =
+			IHttpClient.ENCODING_GZIP + ", " + IHttpClient.ENCODING_DEFLATE;
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/** compression method "deflate" in the first byte of a zlib stream */
+	private static final int ZLIB_DEFLATE = 8;
+
+	private ContentEncoding() {
+		// static helpers
+	}
+
+	/**
+	 * Returns a stream that decodes the given response body according to the
+	 * given Content-Encoding header. Returns the stream as is if it is
+	 * <code>null</code> or the body is not encoded.
+	 * 
+	 * @throws IOException
+	 *             if the encoding is not supported or the body is corrupt
+	 */
+	public static InputStream decode(InputStream inputStream, String contentEncoding) throws IOException {
+		if (inputStream == null
+				|| contentEncoding == null) {
+			return inputStream;
+		}
+		String encoding = contentEncoding.trim().toLowerCase();
+		if (encoding.length() == 0
+				|| "identity".equals(encoding)) {
+			return inputStream;
+		}
+		BufferedInputStream in = new BufferedInputStream(inputStream, BUFFER_SIZE);
+		in.mark(2);
+		int first = in.read();
+		int second = in.read();
+		in.reset();
+		if (first == -1) {
+			// empty body, ex. 204 or 304 responses
+			return in;
+		} else if (IHttpClient.ENCODING_GZIP.equals(encoding)
+				|| "x-gzip".equals(encoding)) {
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		} else if (IHttpClient.ENCODING_DEFLATE.equals(encoding)) {
+			return new DeflateInputStream(in, new Inflater(!isZlibHeader(first, second)));
+		} else {
+			throw new IOException(MessageFormat.format("Unsupported content encoding \"{0}\"", contentEncoding));
+		}
+	}
+
+	/**
+	 * RFC 2616 specifies zlib wrapped data for the "deflate" encoding but
+	 * several servers send raw deflate data. The zlib header is therefore
+	 * sniffed.
+	 */
+	private static boolean isZlibHeader(int cmf, int flg) {
+		return flg != -1
+				&& (cmf & 0x0f) == ZLIB_DEFLATE
+				&& ((cmf << 8) + flg) % 31 == 0;
+	}
+
+	/**
+	 * Releases the native memory of its inflater when closed,
+	 * {@link InflaterInputStream} only does so for the inflaters it creates
+	 * itself.
+	 */
+	private static class DeflateInputStream extends InflaterInputStream {
+
+		private DeflateInputStream(InputStream in, Inflater inflater) {
+			super(in, inflater, BUFFER_SIZE);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				inf.end();
+			}
+		}
+	}
+}
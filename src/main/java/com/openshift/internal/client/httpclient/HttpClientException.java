@@ -17,16 +17,40 @@ public class HttpClientException extends Exception {
 
 	private static final long serialVersionUID = 1L;
 
+	/** the status that is reported when no response was received */
+	public static final int STATUS_UNKNOWN = -1;
+
+	private final int status;
+
 	public  HttpClientException(String message, Throwable cause) {
-		super(message, cause);
+		this(message, STATUS_UNKNOWN, cause);
 	}
 
 	public HttpClientException(String message) {
-		super(message);
+		this(message, STATUS_UNKNOWN);
 	}
 
 	public HttpClientException(Throwable cause) {
 		super(cause);
+		this.status = STATUS_UNKNOWN;
+	}
+
+	public HttpClientException(String message, int status, Throwable cause) {
+		super(message, cause);
+		this.status = status;
+	}
+
+	public HttpClientException(String message, int status) {
+		super(message);
+		this.status = status;
+	}
+
+	/**
+	 * @return the http status of the response, {@link #STATUS_UNKNOWN} if the
+	 *         request failed before a response was received
+	 */
+	public int getStatus() {
+		return status;
 	}
 
 }
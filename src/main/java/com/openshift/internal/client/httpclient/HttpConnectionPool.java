@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of persistent connections, keyed by route (scheme, host and
+ * port). At most {@link #getMaxPerRoute()} connections are opened to a single
+ * route, callers that exceed this limit wait (up to the connect timeout) for a
+ * connection to be released. Idle connections are evicted once they exceed the
+ * maximum idle time (or the keep-alive timeout the server announced). Eviction
+ * happens whenever a connection is leased or may be triggered explicitly via
+ * {@link #closeExpiredConnections()}.
+ */
+public class HttpConnectionPool {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+	public static final int DEFAULT_MAX_PER_ROUTE = 5;
+	public static final long DEFAULT_MAX_IDLE_TIME = 30 * 1000;
+
+	private static final String HTTPS = "https";
+	private static final int HTTP_PORT = 80;
+	private static final int HTTPS_PORT = 443;
+
+	private final int maxPerRoute;
+	private final long maxIdleTime;
+	private final int connectTimeout;
+	private final SSLSocketFactory sslSocketFactory;
+	private final HostnameVerifier hostnameVerifier;
+	private final Map<String, Route> routes = new HashMap<String, Route>();
+	private boolean shutdown;
+
+	public HttpConnectionPool(int maxPerRoute, long maxIdleTime, int connectTimeout,
+			SSLSocketFactory sslSocketFactory, HostnameVerifier hostnameVerifier) {
+		if (maxPerRoute < 1) {
+			throw new IllegalArgumentException("maximum connections per route must be at least 1");
+		}
+		this.maxPerRoute = maxPerRoute;
+		this.maxIdleTime = maxIdleTime;
+		this.connectTimeout = connectTimeout;
+		this.sslSocketFactory = sslSocketFactory;
+		this.hostnameVerifier = hostnameVerifier;
+	}
+
+	/**
+	 * Returns a connection to the route of the given url. An idle connection is
+	 * reused if there's one, a new one is opened otherwise. Blocks if the
+	 * maximum number of connections to the route is reached and none is
+	 * released within the connect timeout.
+	 *
+	 * @param url
+	 *            the url to connect to
+	 * @return a connection that has to be handed back via
+	 *         {@link #release(PooledConnection, boolean)}
+	 * @throws SocketTimeoutException
+	 *             if no connection could be leased within the connect timeout
+	 * @throws IOException
+	 *             if a new connection could not be opened
+	 */
+	public PooledConnection lease(URL url) throws IOException {
+		return lease(url, false);
+	}
+
+	/**
+	 * Returns a connection to the route of the given url. Recently used
+	 * connections are not checked for being stale if the request that the
+	 * connection is leased for may be resent.
+	 * 
+	 * @param url
+	 *            the url to connect to
+	 * @param resendable
+	 *            <code>true</code> if the request may be resent on a new
+	 *            connection if the server closed the leased one
+	 * 
+	 * @see #lease(URL)
+	 */
+	public PooledConnection lease(URL url, boolean resendable) throws IOException {
+		String routeKey = getRouteKey(url);
+		while (true) {
+			PooledConnection connection = reserve(routeKey);
+			if (connection == null) {
+				return open(routeKey, url);
+			}
+			// stale check is done outside of the lock, it may block up to 1ms
+			if (!connection.isStale(System.currentTimeMillis(), resendable)) {
+				reused(routeKey);
+				return connection;
+			}
+			LOGGER.trace("Discarding stale connection {}", connection);
+			discard(connection, true);
+		}
+	}
+
+	/**
+	 * Hands the given connection back to the pool.
+	 *
+	 * @param connection
+	 *            the connection that was leased
+	 * @param reusable
+	 *            <code>true</code> if the connection may serve further
+	 *            requests, <code>false</code> if it has to be closed.
+	 */
+	public void release(PooledConnection connection, boolean reusable) {
+		if (connection == null) {
+			return;
+		}
+		if (!reusable) {
+			discard(connection, false);
+			return;
+		}
+		synchronized (this) {
+			Route route = getRoute(connection.getRoute());
+			route.leased--;
+			if (shutdown) {
+				connection.close();
+			} else {
+				connection.touch();
+				// LIFO: most recently used connections are least likely to be
+				// closed by the server
+				route.available.addFirst(connection);
+			}
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Closes all idle connections that exceeded the maximum idle time or the
+	 * keep-alive timeout that the server announced.
+	 *
+	 * @return the number of connections that were closed
+	 */
+	public synchronized int closeExpiredConnections() {
+		return closeIdleConnections(maxIdleTime);
+	}
+
+	/**
+	 * Closes all connections that were idle for the given time or longer.
+	 *
+	 * @param idleTime
+	 *            the idle time in milliseconds
+	 * @return the number of connections that were closed
+	 */
+	public synchronized int closeIdleConnections(long idleTime) {
+		long now = System.currentTimeMillis();
+		int closed = 0;
+		for (Route route : routes.values()) {
+			for (Iterator<PooledConnection> it = route.available.iterator(); it.hasNext();) {
+				PooledConnection connection = it.next();
+				if (connection.isExpired(now, idleTime)) {
+					it.remove();
+					connection.close();
+					route.evicted++;
+					closed++;
+				}
+			}
+		}
+		return closed;
+	}
+
+	/**
+	 * Closes all idle connections and prevents leased connections from being
+	 * pooled once they're released.
+	 */
+	public synchronized void shutdown() {
+		this.shutdown = true;
+		for (Route route : routes.values()) {
+			for (PooledConnection connection : route.available) {
+				connection.close();
+			}
+			route.available.clear();
+		}
+		notifyAll();
+	}
+
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	public long getMaxIdleTime() {
+		return maxIdleTime;
+	}
+
+	/**
+	 * Returns the statistics accumulated over all routes.
+	 */
+	public synchronized HttpConnectionPoolStats getStats() {
+		int leased = 0;
+		int available = 0;
+		long created = 0;
+		long reused = 0;
+		long evicted = 0;
+		for (Route route : routes.values()) {
+			leased += route.leased;
+			available += route.available.size();
+			created += route.created;
+			reused += route.reused;
+			evicted += route.evicted;
+		}
+		return new HttpConnectionPoolStats(leased, available, maxPerRoute, created, reused, evicted);
+	}
+
+	/**
+	 * Returns the statistics for each route this pool connected to, keyed by
+	 * route (ex. https://openshift.redhat.com:443).
+	 */
+	public synchronized Map<String, HttpConnectionPoolStats> getRouteStats() {
+		Map<String, HttpConnectionPoolStats> stats = new HashMap<String, HttpConnectionPoolStats>();
+		for (Entry<String, Route> entry : routes.entrySet()) {
+			Route route = entry.getValue();
+			stats.put(entry.getKey(), new HttpConnectionPoolStats(
+					route.leased, route.available.size(), maxPerRoute, route.created, route.reused, route.evicted));
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns an idle connection to the given route or <code>null</code> if a
+	 * slot for a new connection was reserved. Waits for a connection to be
+	 * released if the route is exhausted.
+	 */
+	private synchronized PooledConnection reserve(String routeKey) throws SocketTimeoutException {
+		long deadline = System.currentTimeMillis() + connectTimeout;
+		while (true) {
+			if (shutdown) {
+				throw new IllegalStateException("Connection pool was shut down");
+			}
+			closeExpiredConnections();
+			Route route = getRoute(routeKey);
+			PooledConnection connection = route.available.poll();
+			if (connection != null) {
+				route.leased++;
+				connection.leased();
+				return connection;
+			}
+			if (route.leased < maxPerRoute) {
+				route.leased++;
+				return null;
+			}
+			long timeout = deadline - System.currentTimeMillis();
+			if (timeout <= 0) {
+				throw new SocketTimeoutException(MessageFormat.format(
+						"Timed out waiting for a connection to {0}, all {1} connections are in use",
+						routeKey, maxPerRoute));
+			}
+			try {
+				wait(timeout);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SocketTimeoutException(
+						MessageFormat.format("Interrupted while waiting for a connection to {0}", routeKey));
+			}
+		}
+	}
+
+	private PooledConnection open(String routeKey, URL url) throws IOException {
+		Socket socket = null;
+		try {
+			socket = connect(url);
+			PooledConnection connection = new PooledConnection(routeKey, socket);
+			connection.leased();
+			synchronized (this) {
+				getRoute(routeKey).created++;
+			}
+			LOGGER.trace("Opened connection {}", connection);
+			return connection;
+		} catch (IOException e) {
+			closeQuietly(socket);
+			freeSlot(routeKey);
+			throw e;
+		} catch (RuntimeException e) {
+			closeQuietly(socket);
+			freeSlot(routeKey);
+			throw e;
+		}
+	}
+
+	private Socket connect(URL url) throws IOException {
+		String host = url.getHost();
+		int port = getPort(url);
+		Socket socket = new Socket();
+		socket.setTcpNoDelay(true);
+		socket.setKeepAlive(true);
+		socket.connect(new InetSocketAddress(host, port), connectTimeout);
+		// bounds the tls handshake, the client sets the read timeout for
+		// each request
+		socket.setSoTimeout(connectTimeout);
+		if (!isHttps(url)) {
+			return socket;
+		}
+		SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket, host, port, true);
+		sslSocket.startHandshake();
+		if (hostnameVerifier != null
+				&& !hostnameVerifier.verify(host, sslSocket.getSession())) {
+			sslSocket.close();
+			throw new SSLException(MessageFormat.format("Hostname {0} does not match the server certificate", host));
+		}
+		return sslSocket;
+	}
+
+	private void discard(PooledConnection connection, boolean evicted) {
+		connection.close();
+		synchronized (this) {
+			Route route = getRoute(connection.getRoute());
+			route.leased--;
+			if (evicted) {
+				route.evicted++;
+			}
+			notifyAll();
+		}
+	}
+
+	private synchronized void reused(String routeKey) {
+		getRoute(routeKey).reused++;
+	}
+
+	private synchronized void freeSlot(String routeKey) {
+		getRoute(routeKey).leased--;
+		notifyAll();
+	}
+
+	private synchronized Route getRoute(String routeKey) {
+		Route route = routes.get(routeKey);
+		if (route == null) {
+			route = new Route();
+			routes.put(routeKey, route);
+		}
+		return route;
+	}
+
+	private String getRouteKey(URL url) {
+		return new StringBuilder(url.getProtocol())
+				.append("://")
+				.append(url.getHost().toLowerCase())
+				.append(':')
+				.append(getPort(url))
+				.toString();
+	}
+
+	private int getPort(URL url) {
+		if (url.getPort() != -1) {
+			return url.getPort();
+		}
+		return isHttps(url) ? HTTPS_PORT : HTTP_PORT;
+	}
+
+	private boolean isHttps(URL url) {
+		return HTTPS.equals(url.getProtocol());
+	}
+
+	private void closeQuietly(Socket socket) {
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private static class Route {
+
+		private final LinkedList<PooledConnection> available = new LinkedList<PooledConnection>();
+		private int leased;
+		private long created;
+		private long reused;
+		private long evicted;
+
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+/**
+ * A snapshot of the state of a {@link HttpConnectionPool} (or of a single
+ * route within it).
+ */
+public class HttpConnectionPoolStats {
+
+	/** connections currently handed out to requests */
+	private final int leased;
+	/** idle connections waiting to be reused */
+	private final int available;
+	/** maximum connections per route */
+	private final int max;
+	/** connections that were opened */
+	private final long created;
+	/** requests that were served by an already opened connection */
+	private final long reused;
+	/** idle connections that were closed because they expired or went stale */
+	private final long evicted;
+
+	public HttpConnectionPoolStats(int leased, int available, int max, long created, long reused, long evicted) {
+		this.leased = leased;
+		this.available = available;
+		this.max = max;
+		this.created = created;
+		this.reused = reused;
+		this.evicted = evicted;
+	}
+
+	public int getLeased() {
+		return leased;
+	}
+
+	public int getAvailable() {
+		return available;
+	}
+
+	public int getMax() {
+		return max;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public long getReused() {
+		return reused;
+	}
+
+	public long getEvicted() {
+		return evicted;
+	}
+
+	@Override
+	public String toString() {
+		return "HttpConnectionPoolStats ["
+				+ "leased=" + leased + ", "
+				+ "available=" + available + ", "
+				+ "max=" + max + ", "
+				+ "created=" + created + ", "
+				+ "reused=" + reused + ", "
+				+ "evicted=" + evicted
+				+ "]";
+	}
+}
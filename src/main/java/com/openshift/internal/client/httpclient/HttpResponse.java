@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import com.openshift.client.IHttpClient;
+
+/**
+ * The status, body and validators of a successful response.
+ */
+public class HttpResponse {
+
+	private final int status;
+	private final String body;
+	private final String entityTag;
+	private final String lastModified;
+
+	public HttpResponse(int status, String body, String entityTag, String lastModified) {
+		this.status = status;
+		this.body = body;
+		this.entityTag = entityTag;
+		this.lastModified = lastModified;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns the body of this response, <code>null</code> if it was not
+	 * modified.
+	 */
+	public String getBody() {
+		return body;
+	}
+
+	public String getEntityTag() {
+		return entityTag;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	public boolean isNotModified() {
+		return status == IHttpClient.STATUS_NOT_MODIFIED;
+	}
+
+	/**
+	 * Returns <code>true</code> if the server sent an entity tag or a last
+	 * modified date that a later request may be made conditional on.
+	 */
+	public boolean hasValidators() {
+		return entityTag != null
+				|| lastModified != null;
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.net.SocketTimeoutException;
+import java.net.URL;
+
+import com.openshift.client.IHttpClient;
+
+/**
+ * A http client that may issue conditional GET requests. The validators
+ * (entity tag and last modified date) of a previous response are sent along
+ * so that the server may respond with 304 (not modified) and no body if the
+ * resource did not change.
+ */
+public interface IConditionalHttpClient extends IHttpClient {
+
+	/**
+	 * Requests the given url, with the given validators if they're present.
+	 * 
+	 * @param url
+	 *            the url to request
+	 * @param entityTag
+	 *            the entity tag of the previous response, sent as
+	 *            If-None-Match, may be <code>null</code>
+	 * @param lastModified
+	 *            the last modified date of the previous response, sent as
+	 *            If-Modified-Since, may be <code>null</code>
+	 * @return the response, not modified responses have no body
+	 */
+	public HttpResponse get(URL url, String entityTag, String lastModified)
+			throws HttpClientException, SocketTimeoutException;
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.openshift.client.OpenShiftException;
+
+/**
+ * Reads the body of a successful response while it is received.
+ * 
+ * @see IStreamingHttpClient
+ */
+public interface IResponseReader<T> {
+
+	/**
+	 * Reads the given response body.
+	 * 
+	 * @param response
+	 *            the status and validators of the response, it has no body
+	 * @param body
+	 *            the body, decompressed if the server compressed it. Empty if
+	 *            the response has none (ex. not modified). Closed by the
+	 *            client once this method returns.
+	 * @return what was read
+	 */
+	public T read(HttpResponse response, InputStream body) throws IOException, OpenShiftException;
+}
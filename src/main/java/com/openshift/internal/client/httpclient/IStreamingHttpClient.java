@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.UnsupportedEncodingException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Map;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.OpenShiftException;
+
+/**
+ * A http client that hands the body of a successful response to a reader
+ * while it is received instead of collecting it into a String first.
+ * Responses of failed requests are reported by exceptions, as with the
+ * other methods of the client.
+ */
+public interface IStreamingHttpClient extends IConditionalHttpClient {
+
+	/**
+	 * Sends a request with the given method and reads the response with the
+	 * given reader.
+	 * 
+	 * @param method
+	 *            the http method
+	 * @param url
+	 *            the url to request
+	 * @param parameters
+	 *            the parameters to send, ignored for GET requests, may be
+	 *            <code>null</code>
+	 * @param entityTag
+	 *            the entity tag of the previous response, sent as
+	 *            If-None-Match, may be <code>null</code>
+	 * @param lastModified
+	 *            the last modified date of the previous response, sent as
+	 *            If-Modified-Since, may be <code>null</code>
+	 * @param reader
+	 *            the reader for the response body
+	 * @return what the reader read
+	 */
+	public <T> T request(HttpMethod method, URL url, Map<String, Object> parameters, String entityTag,
+			String lastModified, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException, OpenShiftException;
+}
@@ -10,6 +10,8 @@
  ******************************************************************************/ 
 package com.openshift.internal.client.httpclient;
 
+import com.openshift.client.IHttpClient;
+
 /**
  * @author André Dietisheim
  */
@@ -18,10 +20,10 @@ public class InternalServerErrorException extends HttpClientException {
 	private static final long serialVersionUID = 1L;
 
 	public InternalServerErrorException(String message, Throwable cause) {
-		super(message, cause);
+		super(message, IHttpClient.STATUS_INTERNAL_SERVER_ERROR, cause);
 	}
 
 	public InternalServerErrorException(String message) {
-		super(message);
+		super(message, IHttpClient.STATUS_INTERNAL_SERVER_ERROR);
 	}
 }
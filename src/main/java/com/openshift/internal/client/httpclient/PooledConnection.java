@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+/**
+ * A persistent (keep-alive) connection to a single route (scheme, host and
+ * port) that is handed out by the {@link HttpConnectionPool}.
+ */
+public class PooledConnection {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * connections of requests that may be resent are not checked for being
+	 * stale if they were used more recently (peeking blocks for 1ms). Such a
+	 * request is resent on a new connection if the server closed or reset the
+	 * connection in the meantime.
+	 */
+	static final long STALE_CHECK_INACTIVITY = 2 * 1000;
+
+	private final String route;
+	private final Socket socket;
+	private final InputStream inputStream;
+	private final OutputStream outputStream;
+	private long lastUsed;
+	private long keepAliveTimeout = -1;
+	private int requestCount;
+
+	PooledConnection(String route, Socket socket) throws IOException {
+		this.route = route;
+		this.socket = socket;
+		this.inputStream = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+		this.outputStream = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	public String getRoute() {
+		return route;
+	}
+
+	public InputStream getInputStream() {
+		return inputStream;
+	}
+
+	public OutputStream getOutputStream() {
+		return outputStream;
+	}
+
+	public void setReadTimeout(int timeout) throws SocketException {
+		socket.setSoTimeout(timeout);
+	}
+
+	/**
+	 * Sets the time (in milliseconds) the server announced to keep this
+	 * connection open while it is idle. A negative value means that the server
+	 * did not announce any timeout.
+	 */
+	public void setKeepAliveTimeout(long keepAliveTimeout) {
+		this.keepAliveTimeout = keepAliveTimeout;
+	}
+
+	/**
+	 * Returns <code>true</code> if this connection already served requests
+	 * before it was leased the last time.
+	 */
+	public boolean isReused() {
+		return requestCount > 1;
+	}
+
+	void leased() {
+		requestCount++;
+	}
+
+	void touch() {
+		this.lastUsed = System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns <code>true</code> if this connection was idle for longer than the
+	 * given time or longer than the keep-alive timeout the server announced.
+	 */
+	boolean isExpired(long now, long maxIdleTime) {
+		long idleTime = now - lastUsed;
+		return idleTime >= maxIdleTime
+				|| (keepAliveTimeout >= 0 && idleTime >= keepAliveTimeout);
+	}
+
+	/**
+	 * Returns <code>true</code> if the server closed this connection while it
+	 * was sitting in the pool. Peeks into the input stream without consuming
+	 * any data. Connections for requests that may be resent are only peeked
+	 * into if they were idle for at least {@link #STALE_CHECK_INACTIVITY}.
+	 */
+	boolean isStale(long now, boolean resendable) {
+		if (socket.isClosed()
+				|| socket.isInputShutdown()
+				|| socket.isOutputShutdown()) {
+			return true;
+		}
+		if (resendable
+				&& now - lastUsed < STALE_CHECK_INACTIVITY) {
+			return false;
+		}
+		try {
+			int timeout = socket.getSoTimeout();
+			try {
+				socket.setSoTimeout(1);
+				inputStream.mark(1);
+				int read = inputStream.read();
+				if (read == -1) {
+					return true;
+				}
+				// unsolicited data, connection is in an unknown state
+				inputStream.reset();
+				return true;
+			} finally {
+				socket.setSoTimeout(timeout);
+			}
+		} catch (SocketTimeoutException e) {
+			// nothing to read, the connection is alive
+			return false;
+		} catch (IOException e) {
+			return true;
+		}
+	}
+
+	void close() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PooledConnection ["
+				+ "route=" + route + ", "
+				+ "requests=" + requestCount
+				+ "]";
+	}
+}
@@ -0,0 +1,697 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.utils.Base64Coder;
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * An http client that keeps persistent (keep-alive) connections to the broker
+ * in a bounded per-route {@link HttpConnectionPool}. Other than
+ * {@link UrlConnectionHttpClient} which opens (and tears down) a connection
+ * for each request, this client pays the TCP and TLS handshakes only once per
+ * pooled connection.
+ * <p>
+ * This client speaks HTTP/1.1 on plain sockets and therefore does not honor
+ * the system wide proxy settings.
+ */
+public class PooledHttpClient implements IStreamingHttpClient {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PooledHttpClient.class);
+
+	private static final String HTTP_METHOD_GET = "GET";
+	private static final String HTTP_METHOD_PUT = "PUT";
+	private static final String HTTP_METHOD_POST = "POST";
+	private static final String HTTP_METHOD_DELETE = "DELETE";
+
+	private static final String HTTP_VERSION = "HTTP/1.1";
+	private static final String CRLF = "\r\n";
+	private static final String HEADER_CHARSET = "ISO-8859-1";
+
+	private static final String PROPERTY_HOST = "Host";
+	private static final String PROPERTY_CONNECTION = "Connection";
+	private static final String PROPERTY_CONTENT_LENGTH = "Content-Length";
+	private static final String PROPERTY_TRANSFER_ENCODING = "Transfer-Encoding";
+	private static final String PROPERTY_KEEP_ALIVE = "Keep-Alive";
+	private static final String PROPERTY_LOCATION = "Location";
+	private static final String VALUE_KEEP_ALIVE = "keep-alive";
+	private static final String VALUE_CLOSE = "close";
+	private static final String VALUE_CHUNKED = "chunked";
+	private static final String KEEP_ALIVE_TIMEOUT = "timeout";
+
+	private static final int STATUS_NO_CONTENT = 204;
+	private static final int MAX_REDIRECTS = 5;
+
+	private static final int DEFAULT_CONNECT_TIMEOUT = 10 * 1024;
+	private static final int DEFAULT_READ_TIMEOUT = 60 * 1024;
+	private static final String SYSPROP_OPENSHIFT_CONNECT_TIMEOUT = "com.openshift.httpclient.timeout";
+	private static final String SYSPROP_DEFAULT_CONNECT_TIMEOUT = "sun.net.client.defaultConnectTimeout";
+	private static final String SYSPROP_DEFAULT_READ_TIMEOUT = "sun.net.client.defaultReadTimeout";
+
+	private String userAgent;
+	private String username;
+	private String password;
+	private String authKey;
+	private String authIV;
+	private IMediaType requestMediaType;
+	private String acceptedMediaType;
+	private String version;
+	private int readTimeout;
+	private boolean acceptCompression = true;
+	private HttpConnectionPool connectionPool;
+
+	public PooledHttpClient(String username, String password, String userAgent, boolean sslChecks,
+			IMediaType requestMediaType, String acceptedMediaType, String version, String authKey, String authIV,
+			int maxConnectionsPerRoute, long maxIdleTime) {
+		this.username = username;
+		this.password = password;
+		this.userAgent = userAgent;
+		this.requestMediaType = requestMediaType;
+		this.acceptedMediaType = acceptedMediaType;
+		this.version = version;
+		this.authKey = authKey;
+		this.authIV = authIV;
+		this.readTimeout = getReadTimeout();
+		this.connectionPool = new HttpConnectionPool(maxConnectionsPerRoute, maxIdleTime, getConnectTimeout(),
+				createSSLSocketFactory(sslChecks), createHostnameVerifier(sslChecks));
+	}
+
+	public void setUserAgent(String userAgent) {
+		this.userAgent = userAgent;
+	}
+
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	/**
+	 * Sets whether gzip and deflate compressed responses are accepted.
+	 * Enabled by default.
+	 */
+	public void setAcceptCompression(boolean acceptCompression) {
+		this.acceptCompression = acceptCompression;
+	}
+
+	/**
+	 * Returns the pool that holds the persistent connections of this client.
+	 * Statistics and eviction of idle connections are available there.
+	 */
+	public HttpConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+
+	/**
+	 * Closes all pooled connections. The client cannot be used any more
+	 * afterwards.
+	 */
+	public void shutdown() {
+		connectionPool.shutdown();
+	}
+
+	public String get(URL url) throws HttpClientException, SocketTimeoutException {
+		return request(HTTP_METHOD_GET, null, url);
+	}
+
+	public HttpResponse get(URL url, String entityTag, String lastModified)
+			throws HttpClientException, SocketTimeoutException {
+		try {
+			Response response = send(HTTP_METHOD_GET, null, url, getValidators(entityTag, lastModified));
+			if (response.status == STATUS_NOT_MODIFIED) {
+				return new HttpResponse(response.status, null, entityTag, lastModified);
+			}
+			return new HttpResponse(response.status, toString(response, url),
+					response.getHeader(PROPERTY_ETAG), response.getHeader(PROPERTY_LAST_MODIFIED));
+		} catch (SocketTimeoutException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new HttpClientException(e);
+		}
+	}
+
+	public <T> T request(HttpMethod method, URL url, Map<String, Object> parameters, String entityTag,
+			String lastModified, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException, OpenShiftException {
+		String data = null;
+		if (method != HttpMethod.GET) {
+			data = requestMediaType.encodeParameters(parameters);
+		}
+		InputStream body = null;
+		try {
+			Response response = send(method.name(), data, url, getValidators(entityTag, lastModified));
+			if (response.status == STATUS_NOT_MODIFIED) {
+				return reader.read(new HttpResponse(response.status, null, entityTag, lastModified),
+						new ByteArrayInputStream(new byte[0]));
+			}
+			body = getBody(response, url);
+			return reader.read(new HttpResponse(response.status, null,
+					response.getHeader(PROPERTY_ETAG), response.getHeader(PROPERTY_LAST_MODIFIED)), body);
+		} catch (SocketTimeoutException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new HttpClientException(e);
+		} finally {
+			StreamUtils.quietlyClose(body);
+		}
+	}
+
+	private Map<String, String> getValidators(String entityTag, String lastModified) {
+		Map<String, String> headers = new HashMap<String, String>();
+		if (entityTag != null) {
+			headers.put(PROPERTY_IF_NONE_MATCH, entityTag);
+		}
+		if (lastModified != null) {
+			headers.put(PROPERTY_IF_MODIFIED_SINCE, lastModified);
+		}
+		return headers;
+	}
+
+	public String put(Map<String, Object> parameters, URL url)
+			throws SocketTimeoutException, UnsupportedEncodingException, HttpClientException {
+		return request(HTTP_METHOD_PUT, requestMediaType.encodeParameters(parameters), url);
+	}
+
+	public String post(Map<String, Object> parameters, URL url)
+			throws SocketTimeoutException, UnsupportedEncodingException, HttpClientException {
+		return request(HTTP_METHOD_POST, requestMediaType.encodeParameters(parameters), url);
+	}
+
+	public String delete(Map<String, Object> parameters, URL url)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return request(HTTP_METHOD_DELETE, requestMediaType.encodeParameters(parameters), url);
+	}
+
+	public String delete(URL url)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return request(HTTP_METHOD_DELETE, null, url);
+	}
+
+	protected String request(String method, String data, URL url)
+			throws HttpClientException, SocketTimeoutException {
+		try {
+			return toString(send(method, data, url, null), url);
+		} catch (SocketTimeoutException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new HttpClientException(e);
+		}
+	}
+
+	/**
+	 * Sends the request and follows redirects for GET requests.
+	 */
+	private Response send(String method, String data, URL url, Map<String, String> headers) throws IOException {
+		URL location = url;
+		Response response = execute(method, data, location, headers);
+		for (int redirects = 0; response.isRedirect()
+				&& HTTP_METHOD_GET.equals(method)
+				&& redirects < MAX_REDIRECTS; redirects++) {
+			URL redirect = new URL(location, response.getHeader(PROPERTY_LOCATION));
+			if (!location.getProtocol().equals(redirect.getProtocol())) {
+				// same as HttpURLConnection: no redirects across protocols
+				break;
+			}
+			location = redirect;
+			response = execute(method, data, location, headers);
+		}
+		return response;
+	}
+
+	private String toString(Response response, URL url) throws IOException, HttpClientException {
+		InputStream body = getBody(response, url);
+		try {
+			return StreamUtils.readToString(body);
+		} finally {
+			StreamUtils.quietlyClose(body);
+		}
+	}
+
+	/**
+	 * Returns the body of the given response, inflated while it is read if the
+	 * server compressed it. Throws the exception that corresponds to the
+	 * status if the request failed.
+	 */
+	private InputStream getBody(Response response, URL url) throws IOException, HttpClientException {
+		InputStream bodyStream = ContentEncoding.decode(
+				new ByteArrayInputStream(response.body), response.getHeader(PROPERTY_CONTENT_ENCODING));
+		if (response.status < 400) {
+			return bodyStream;
+		}
+		String body;
+		try {
+			body = StreamUtils.readToString(bodyStream);
+		} finally {
+			StreamUtils.quietlyClose(bodyStream);
+		}
+		switch (response.status) {
+		case STATUS_INTERNAL_SERVER_ERROR:
+			throw new InternalServerErrorException(body);
+		case STATUS_BAD_REQUEST:
+			throw new BadRequestException(body, null);
+		case STATUS_UNAUTHORIZED:
+			throw new UnauthorizedException(body, null);
+		case STATUS_NOT_FOUND:
+			throw new NotFoundException(
+					MessageFormat.format("Could not find resource \"{0}\"", url.toString()));
+		default:
+			throw new HttpClientException(body, response.status);
+		}
+	}
+
+	private Response execute(String method, String data, URL url, Map<String, String> headers) throws IOException {
+		byte[] body = null;
+		if (data != null) {
+			LOGGER.trace("Sending \"{}\" to {}", data, url);
+			body = data.getBytes();
+		}
+		PooledConnection connection = connectionPool.lease(url, isIdempotent(method));
+		boolean reusable = false;
+		try {
+			Response response;
+			try {
+				response = exchange(method, body, url, headers, connection);
+			} catch (NoResponseException e) {
+				if (!connection.isReused()
+						|| !isIdempotent(method)) {
+					throw e;
+				}
+				// the server closed or reset the persistent connection, retry
+				// once on a new one. Other requests may have been processed
+				// already
+				LOGGER.trace("Connection {} was closed by the server, retrying", connection);
+				connectionPool.release(connection, false);
+				connection = null;
+				connection = connectionPool.lease(url);
+				response = exchange(method, body, url, headers, connection);
+			}
+			reusable = response.keepAlive;
+			return response;
+		} finally {
+			connectionPool.release(connection, reusable);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if a request with the given method may be sent
+	 * again without changing its outcome.
+	 */
+	private boolean isIdempotent(String method) {
+		return HTTP_METHOD_GET.equals(method)
+				|| HTTP_METHOD_PUT.equals(method)
+				|| HTTP_METHOD_DELETE.equals(method);
+	}
+
+	/**
+	 * Sends the request and reads the response. Throws a
+	 * {@link NoResponseException} if the server closed or reset the
+	 * connection before it sent any byte of the response.
+	 */
+	private Response exchange(String method, byte[] body, URL url, Map<String, String> headers,
+			PooledConnection connection) throws IOException {
+		connection.setReadTimeout(readTimeout);
+		InputStream in = connection.getInputStream();
+		try {
+			writeRequest(method, body, url, headers, connection.getOutputStream());
+			in.mark(1);
+			if (in.read() == -1) {
+				throw new NoResponseException(url, null);
+			}
+			in.reset();
+		} catch (SocketTimeoutException e) {
+			throw e;
+		} catch (NoResponseException e) {
+			throw e;
+		} catch (IOException e) {
+			// connection reset, broken pipe
+			throw new NoResponseException(url, e);
+		}
+		String statusLine = readLine(in);
+		Response response = new Response(parseStatus(statusLine));
+		readHeaders(connection.getInputStream(), response);
+		response.body = readBody(method, response, connection.getInputStream());
+		connection.setKeepAliveTimeout(getKeepAliveTimeout(response));
+		return response;
+	}
+
+	private void writeRequest(String method, byte[] body, URL url, Map<String, String> headers, OutputStream out)
+			throws IOException {
+		StringBuilder builder = new StringBuilder(method).append(SPACE).append(getRequestUri(url))
+				.append(SPACE).append(HTTP_VERSION).append(CRLF);
+		appendHeader(PROPERTY_HOST, getHost(url), builder);
+		appendHeader(PROPERTY_CONNECTION, VALUE_KEEP_ALIVE, builder);
+		for (Map.Entry<String, String> entry : getRequestProperties().entrySet()) {
+			appendHeader(entry.getKey(), entry.getValue(), builder);
+		}
+		if (headers != null) {
+			for (Map.Entry<String, String> entry : headers.entrySet()) {
+				appendHeader(entry.getKey(), entry.getValue(), builder);
+			}
+		}
+		appendHeader(PROPERTY_CONTENT_LENGTH, String.valueOf(body == null ? 0 : body.length), builder);
+		builder.append(CRLF);
+		out.write(builder.toString().getBytes(HEADER_CHARSET));
+		if (body != null) {
+			out.write(body);
+		}
+		out.flush();
+	}
+
+	private void appendHeader(String name, String value, StringBuilder builder) {
+		builder.append(name).append(COLON).append(SPACE).append(value).append(CRLF);
+	}
+
+	private Map<String, String> getRequestProperties() {
+		Map<String, String> properties = new HashMap<String, String>();
+		setAuthorisation(properties);
+		setAcceptHeader(properties);
+		if (acceptCompression) {
+			properties.put(PROPERTY_ACCEPT_ENCODING, ContentEncoding.ACCEPTED_ENCODINGS);
+		}
+		String userAgent = this.userAgent;
+		if (authKey != null
+				&& authKey.length() > 0) {
+			userAgent = "StickShift";
+		}
+		if (userAgent != null) {
+			properties.put(PROPERTY_USER_AGENT, userAgent);
+		}
+		properties.put(PROPERTY_CONTENT_TYPE, requestMediaType.getType());
+		return properties;
+	}
+
+	private void setAuthorisation(Map<String, String> properties) {
+		if (username == null
+				|| password == null || username.trim().length() == 0 || password.trim().length() == 0) {
+			if (authKey != null && authIV != null) {
+				properties.put(PROPERTY_AUTHKEY, authKey);
+				properties.put(PROPERTY_AUTHIV, authIV);
+			} else {
+				return;
+			}
+		}
+
+		String credentials = Base64Coder.encodeString(
+				new StringBuilder().append(username).append(COLON).append(password).toString());
+		properties.put(PROPERTY_AUTHORIZATION,
+				new StringBuilder().append(AUTHORIZATION_BASIC).append(SPACE).append(credentials).toString());
+	}
+
+	private void setAcceptHeader(Map<String, String> properties) {
+		StringBuilder builder = new StringBuilder(acceptedMediaType);
+		if (version != null) {
+			builder.append(SEMICOLON).append(SPACE)
+					.append(VERSION).append(EQUALS).append(version);
+		}
+		properties.put(PROPERTY_ACCEPT, builder.toString());
+	}
+
+	private String getRequestUri(URL url) {
+		String path = url.getPath();
+		if (path == null
+				|| path.length() == 0) {
+			path = "/";
+		}
+		if (url.getQuery() == null) {
+			return path;
+		}
+		return path + '?' + url.getQuery();
+	}
+
+	private String getHost(URL url) {
+		if (url.getPort() == -1) {
+			return url.getHost();
+		}
+		return url.getHost() + COLON + url.getPort();
+	}
+
+	private int parseStatus(String statusLine) throws IOException {
+		// HTTP/1.1 200 OK
+		int start = statusLine.indexOf(SPACE);
+		if (start < 0) {
+			throw new IOException(MessageFormat.format("Invalid status line \"{0}\"", statusLine));
+		}
+		int end = statusLine.indexOf(SPACE, start + 1);
+		if (end < 0) {
+			end = statusLine.length();
+		}
+		try {
+			return Integer.parseInt(statusLine.substring(start + 1, end));
+		} catch (NumberFormatException e) {
+			throw new IOException(MessageFormat.format("Invalid status line \"{0}\"", statusLine));
+		}
+	}
+
+	private void readHeaders(InputStream in, Response response) throws IOException {
+		String line;
+		while ((line = readLine(in)) != null
+				&& line.length() > 0) {
+			int colon = line.indexOf(COLON);
+			if (colon > 0) {
+				response.headers.put(
+						line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+			}
+		}
+		if (line == null) {
+			throw new EOFException("Connection closed while reading response headers");
+		}
+	}
+
+	private byte[] readBody(String method, Response response, InputStream in) throws IOException {
+		response.keepAlive = !VALUE_CLOSE.equalsIgnoreCase(response.getHeader(PROPERTY_CONNECTION));
+		if (response.status == STATUS_NO_CONTENT
+				|| response.status == STATUS_NOT_MODIFIED
+				|| (response.status >= 100 && response.status < 200)) {
+			return new byte[0];
+		}
+		if (VALUE_CHUNKED.equalsIgnoreCase(response.getHeader(PROPERTY_TRANSFER_ENCODING))) {
+			return readChunked(in);
+		}
+		String contentLength = response.getHeader(PROPERTY_CONTENT_LENGTH);
+		if (contentLength != null) {
+			try {
+				return readFully(in, Integer.parseInt(contentLength));
+			} catch (NumberFormatException e) {
+				throw new IOException(MessageFormat.format("Invalid content length \"{0}\"", contentLength));
+			}
+		}
+		// body is delimited by the end of the connection
+		response.keepAlive = false;
+		return readToEnd(in);
+	}
+
+	private byte[] readChunked(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		while (true) {
+			String sizeLine = readLine(in);
+			if (sizeLine == null) {
+				throw new EOFException("Connection closed while reading chunked response");
+			}
+			int extension = sizeLine.indexOf(SEMICOLON);
+			if (extension >= 0) {
+				sizeLine = sizeLine.substring(0, extension);
+			}
+			int size;
+			try {
+				size = Integer.parseInt(sizeLine.trim(), 16);
+			} catch (NumberFormatException e) {
+				throw new IOException(MessageFormat.format("Invalid chunk size \"{0}\"", sizeLine));
+			}
+			if (size == 0) {
+				// skip trailers
+				String trailer;
+				while ((trailer = readLine(in)) != null
+						&& trailer.length() > 0) {
+				}
+				return out.toByteArray();
+			}
+			out.write(readFully(in, size));
+			readLine(in);
+		}
+	}
+
+	private byte[] readFully(InputStream in, int length) throws IOException {
+		byte[] data = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			int read = in.read(data, offset, length - offset);
+			if (read == -1) {
+				throw new EOFException(MessageFormat.format(
+						"Connection closed after {0} of {1} bytes", offset, length));
+			}
+			offset += read;
+		}
+		return data;
+	}
+
+	private byte[] readToEnd(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4 * 1024];
+		for (int read = -1; (read = in.read(buffer)) != -1;) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Reads a CRLF (or LF) terminated line. Returns <code>null</code> if the
+	 * stream ended before any character was read.
+	 */
+	private String readLine(InputStream in) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		int character = -1;
+		while ((character = in.read()) != -1) {
+			if (character == '\n') {
+				int length = builder.length();
+				if (length > 0
+						&& builder.charAt(length - 1) == '\r') {
+					builder.setLength(length - 1);
+				}
+				return builder.toString();
+			}
+			builder.append((char) character);
+		}
+		if (builder.length() == 0) {
+			return null;
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the idle timeout (in milliseconds) that the server announced in
+	 * its Keep-Alive header (ex. "Keep-Alive: timeout=15, max=100"), or -1 if
+	 * it did not announce any.
+	 */
+	private long getKeepAliveTimeout(Response response) {
+		String keepAlive = response.getHeader(PROPERTY_KEEP_ALIVE);
+		if (keepAlive == null) {
+			return -1;
+		}
+		for (String parameter : keepAlive.split(",")) {
+			String[] keyValue = parameter.split(String.valueOf(EQUALS));
+			if (keyValue.length == 2
+					&& KEEP_ALIVE_TIMEOUT.equalsIgnoreCase(keyValue[0].trim())) {
+				try {
+					return Long.parseLong(keyValue[1].trim()) * 1000;
+				} catch (NumberFormatException e) {
+					return -1;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private int getConnectTimeout() {
+		int timeout = getSystemPropertyInteger(SYSPROP_OPENSHIFT_CONNECT_TIMEOUT);
+		if (timeout > -1) {
+			return timeout;
+		}
+		timeout = getSystemPropertyInteger(SYSPROP_DEFAULT_CONNECT_TIMEOUT);
+		if (timeout > -1) {
+			return timeout;
+		}
+		return DEFAULT_CONNECT_TIMEOUT;
+	}
+
+	private int getReadTimeout() {
+		int timeout = getSystemPropertyInteger(SYSPROP_DEFAULT_READ_TIMEOUT);
+		if (timeout > -1) {
+			return timeout;
+		}
+		return DEFAULT_READ_TIMEOUT;
+	}
+
+	private int getSystemPropertyInteger(String key) {
+		try {
+			return Integer.parseInt(System.getProperty(key));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private SSLSocketFactory createSSLSocketFactory(boolean sslChecks) {
+		if (sslChecks) {
+			return HttpsURLConnection.getDefaultSSLSocketFactory();
+		}
+		try {
+			return UrlConnectionHttpClient.createPermissiveSSLSocketFactory();
+		} catch (KeyManagementException e) {
+			LOGGER.error("Could not create permissive ssl context, falling back to default", e);
+		} catch (NoSuchAlgorithmException e) {
+			LOGGER.error("Could not create permissive ssl context, falling back to default", e);
+		}
+		return HttpsURLConnection.getDefaultSSLSocketFactory();
+	}
+
+	private HostnameVerifier createHostnameVerifier(boolean sslChecks) {
+		if (sslChecks) {
+			return HttpsURLConnection.getDefaultHostnameVerifier();
+		}
+		return new UrlConnectionHttpClient.NoopHostnameVerifier();
+	}
+
+	private static class Response {
+
+		private final int status;
+		/** header names are lower case */
+		private final Map<String, String> headers = new HashMap<String, String>();
+		private byte[] body;
+		private boolean keepAlive;
+
+		private Response(int status) {
+			this.status = status;
+		}
+
+		private String getHeader(String name) {
+			return headers.get(name.toLowerCase());
+		}
+
+		private boolean isRedirect() {
+			return (status == 301 || status == 302 || status == 303 || status == 307)
+					&& getHeader(PROPERTY_LOCATION) != null;
+		}
+	}
+
+	/**
+	 * The server closed or reset the connection before it sent any byte of
+	 * the response.
+	 */
+	private static class NoResponseException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		private NoResponseException(URL url, IOException cause) {
+			super(MessageFormat.format("No response from {0}", url), cause);
+		}
+	}
+}
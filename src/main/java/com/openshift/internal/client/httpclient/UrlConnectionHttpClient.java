@@ -10,8 +10,10 @@
  ******************************************************************************/
 package com.openshift.internal.client.httpclient;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
@@ -19,7 +21,6 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
@@ -30,6 +31,7 @@ import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -37,14 +39,15 @@ import javax.net.ssl.X509TrustManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.openshift.client.IHttpClient;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.OpenShiftException;
 import com.openshift.client.utils.Base64Coder;
 import com.openshift.internal.client.utils.StreamUtils;
 
 /**
  * @author Andre Dietisheim
  */
-public class UrlConnectionHttpClient implements IHttpClient {
+public class UrlConnectionHttpClient implements IStreamingHttpClient {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(UrlConnectionHttpClient.class);
 
@@ -58,6 +61,10 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	private static final String SYSPROP_DEFAULT_CONNECT_TIMEOUT = "sun.net.client.defaultConnectTimeout";
 	private static final String SYSPROP_DEFAULT_READ_TIMEOUT = "sun.net.client.defaultReadTimeout";
 	private static final String SYSPROP_ENABLE_SNI_EXTENSION = "jsse.enableSNIExtension";
+	private static final int SSL_SESSION_CACHE_SIZE = 100;
+	private static final int SSL_SESSION_TIMEOUT = 24 * 60 * 60;
+
+	private static final HostnameVerifier NOOP_HOSTNAME_VERIFIER = new NoopHostnameVerifier();
 
 	private String userAgent;
 	private boolean sslChecks;
@@ -68,6 +75,9 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	private IMediaType requestMediaType;
 	private String acceptedMediaType;
 	private String version;
+	private boolean acceptCompression = true;
+	/** created once and shared by all connections so that tls sessions get resumed */
+	private SSLSocketFactory permissiveSSLSocketFactory;
 
 	public UrlConnectionHttpClient(String username, String password, String userAgent, boolean sslChecks,
 			IMediaType requestMediaType, String acceptedMediaType, String version) {
@@ -91,17 +101,87 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		HttpURLConnection connection = null;
 		try {
 			connection = createConnection(username, password, authKey, authIV, userAgent, url);
-			return StreamUtils.readToString(connection.getInputStream());
+			return readToString(connection.getInputStream(), connection);
+		} catch (FileNotFoundException e) {
+			throw new NotFoundException(
+					MessageFormat.format("Could not find resource \"{0}\"", url.toString()), e);
+		} catch (IOException e) {
+			throw createException(e, connection);
+		} finally {
+			disconnect(connection);
+		}
+	}
+
+	public HttpResponse get(URL url, String entityTag, String lastModified)
+			throws HttpClientException, SocketTimeoutException {
+		HttpURLConnection connection = null;
+		try {
+			connection = createConnection(username, password, authKey, authIV, userAgent, url);
+			setValidators(entityTag, lastModified, connection);
+			int status = connection.getResponseCode();
+			if (status == STATUS_NOT_MODIFIED) {
+				return new HttpResponse(status, null, entityTag, lastModified);
+			}
+			String body = readToString(connection.getInputStream(), connection);
+			return new HttpResponse(status, body,
+					connection.getHeaderField(PROPERTY_ETAG), connection.getHeaderField(PROPERTY_LAST_MODIFIED));
+		} catch (FileNotFoundException e) {
+			throw new NotFoundException(
+					MessageFormat.format("Could not find resource \"{0}\"", url.toString()), e);
+		} catch (IOException e) {
+			throw createException(e, connection);
+		} finally {
+			disconnect(connection);
+		}
+	}
+
+	public <T> T request(HttpMethod method, URL url, Map<String, Object> parameters, String entityTag,
+			String lastModified, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException, OpenShiftException {
+		HttpURLConnection connection = null;
+		InputStream body = null;
+		try {
+			connection = createConnection(username, password, authKey, authIV, userAgent, url);
+			setValidators(entityTag, lastModified, connection);
+			if (method != HttpMethod.GET) {
+				connection.setRequestMethod(method.name());
+				connection.setDoOutput(true);
+				String data = requestMediaType.encodeParameters(parameters);
+				if (data != null) {
+					LOGGER.trace("Sending \"{}\" to {}", data, url);
+					StreamUtils.writeTo(data.getBytes(), connection.getOutputStream());
+				}
+			}
+			int status = connection.getResponseCode();
+			if (status == STATUS_NOT_MODIFIED) {
+				return reader.read(new HttpResponse(status, null, entityTag, lastModified),
+						new ByteArrayInputStream(new byte[0]));
+			}
+			body = ContentEncoding.decode(connection.getInputStream(), connection.getContentEncoding());
+			return reader.read(new HttpResponse(status, null,
+					connection.getHeaderField(PROPERTY_ETAG), connection.getHeaderField(PROPERTY_LAST_MODIFIED)), body);
 		} catch (FileNotFoundException e) {
 			throw new NotFoundException(
 					MessageFormat.format("Could not find resource \"{0}\"", url.toString()), e);
+		} catch (UnsupportedEncodingException e) {
+			throw e;
 		} catch (IOException e) {
 			throw createException(e, connection);
 		} finally {
+			StreamUtils.quietlyClose(body);
 			disconnect(connection);
 		}
 	}
 
+	private void setValidators(String entityTag, String lastModified, HttpURLConnection connection) {
+		if (entityTag != null) {
+			connection.setRequestProperty(PROPERTY_IF_NONE_MATCH, entityTag);
+		}
+		if (lastModified != null) {
+			connection.setRequestProperty(PROPERTY_IF_MODIFIED_SINCE, lastModified);
+		}
+	}
+
 	public void setUserAgent(String userAgent) {
 		this.userAgent = userAgent;
 	}
@@ -110,6 +190,14 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		this.version = version;
 	}
 
+	/**
+	 * Sets whether gzip and deflate compressed responses are accepted.
+	 * Enabled by default.
+	 */
+	public void setAcceptCompression(boolean acceptCompression) {
+		this.acceptCompression = acceptCompression;
+	}
+
 	public String put(Map<String, Object> parameters, URL url)
 			throws SocketTimeoutException, UnsupportedEncodingException, HttpClientException {
 		return put(requestMediaType.encodeParameters(parameters), url);
@@ -153,7 +241,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 				LOGGER.trace("Sending \"{}\" to {}", data, url);
 				StreamUtils.writeTo(data.getBytes(), connection.getOutputStream());
 			}
-			return StreamUtils.readToString(connection.getInputStream());
+			return readToString(connection.getInputStream(), connection);
 		} catch (FileNotFoundException e) {
 			throw new NotFoundException(
 					MessageFormat.format("Could not find resource {0}", url.toString()), e);
@@ -165,6 +253,19 @@ public class UrlConnectionHttpClient implements IHttpClient {
 
 	}
 
+	/**
+	 * Reads the given response body, inflating it while it is read if the
+	 * server compressed it.
+	 */
+	private String readToString(InputStream inputStream, HttpURLConnection connection) throws IOException {
+		InputStream decodedStream = ContentEncoding.decode(inputStream, connection.getContentEncoding());
+		try {
+			return StreamUtils.readToString(decodedStream);
+		} finally {
+			StreamUtils.quietlyClose(decodedStream);
+		}
+	}
+
 	private void disconnect(HttpURLConnection connection) {
 		if (connection != null) {
 			connection.disconnect();
@@ -175,7 +276,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 			throws SocketTimeoutException {
 		try {
 			int responseCode = connection.getResponseCode();
-			String errorMessage = StreamUtils.readToString(connection.getErrorStream());
+			String errorMessage = readToString(connection.getErrorStream(), connection);
 			switch (responseCode) {
 			case STATUS_INTERNAL_SERVER_ERROR:
 				return new InternalServerErrorException(errorMessage, ioe);
@@ -186,7 +287,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 			case STATUS_NOT_FOUND:
 				return new NotFoundException(errorMessage, ioe);
 			default:
-				return new HttpClientException(errorMessage, ioe);
+				return new HttpClientException(errorMessage, responseCode, ioe);
 			}
 		} catch (SocketTimeoutException e) {
 			throw e;
@@ -217,11 +318,8 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	private void setSSLChecks(URL url, HttpURLConnection connection) {
 		if (isHttps(url)
 				&& !sslChecks) {
-			// JDK7 bug workaround
-			System.setProperty(SYSPROP_ENABLE_SNI_EXTENSION, "false");
-
 			HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
-			httpsConnection.setHostnameVerifier(new NoopHostnameVerifier());
+			httpsConnection.setHostnameVerifier(NOOP_HOSTNAME_VERIFIER);
 			setPermissiveSSLSocketFactory(httpsConnection);
 		}
 	}
@@ -258,23 +356,52 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	}
 
 	/**
-	 * Sets a trust manager that will always trust.
+	 * Sets a trust manager that will always trust. The socket factory is
+	 * created once per client so that the cost of seeding and initializing the
+	 * ssl context is paid only once and tls sessions get resumed
+	 * (abbreviated handshakes) for subsequent connections.
 	 * <p>
 	 * TODO: dont swallog exceptions and setup things so that they dont disturb
 	 * other components.
 	 */
 	private void setPermissiveSSLSocketFactory(HttpsURLConnection connection) {
-		try {
-			SSLContext sslContext = SSLContext.getInstance("SSL");
-			sslContext.init(
-					new KeyManager[0], new TrustManager[] { new PermissiveTrustManager() }, new SecureRandom());
-			SSLSocketFactory socketFactory = sslContext.getSocketFactory();
-			((HttpsURLConnection) connection).setSSLSocketFactory(socketFactory);
-		} catch (KeyManagementException e) {
-			// ignore
-		} catch (NoSuchAlgorithmException e) {
-			// ignore
+		SSLSocketFactory socketFactory = getPermissiveSSLSocketFactory();
+		if (socketFactory != null) {
+			connection.setSSLSocketFactory(socketFactory);
+		}
+	}
+
+	private synchronized SSLSocketFactory getPermissiveSSLSocketFactory() {
+		if (permissiveSSLSocketFactory == null) {
+			try {
+				// JDK7 bug workaround
+				System.setProperty(SYSPROP_ENABLE_SNI_EXTENSION, "false");
+				this.permissiveSSLSocketFactory = createPermissiveSSLSocketFactory();
+			} catch (KeyManagementException e) {
+				// ignore
+			} catch (NoSuchAlgorithmException e) {
+				// ignore
+			}
 		}
+		return permissiveSSLSocketFactory;
+	}
+
+	/**
+	 * Creates a socket factory that trusts all certificates. Its client
+	 * session cache allows tls sessions to be resumed as long as the factory
+	 * is reused.
+	 */
+	static SSLSocketFactory createPermissiveSSLSocketFactory() throws KeyManagementException,
+			NoSuchAlgorithmException {
+		SSLContext sslContext = SSLContext.getInstance("SSL");
+		// null: use the default (seeded once per jvm) secure random
+		sslContext.init(new KeyManager[0], new TrustManager[] { new PermissiveTrustManager() }, null);
+		SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+		if (sessionContext != null) {
+			sessionContext.setSessionCacheSize(SSL_SESSION_CACHE_SIZE);
+			sessionContext.setSessionTimeout(SSL_SESSION_TIMEOUT);
+		}
+		return sslContext.getSocketFactory();
 	}
 
 	protected HttpURLConnection createConnection(String username, String password, String userAgent, URL url)
@@ -300,6 +427,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		setReadTimeout(connection);
 		connection.setInstanceFollowRedirects(true);
 		setAcceptHeader(connection);
+		setAcceptEncodingHeader(connection);
 		
 		if (authKey != null && authKey.length() > 0)
 			setUserAgent("StickShift");
@@ -330,7 +458,13 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		connection.setRequestProperty(PROPERTY_ACCEPT, builder.toString());
 	}
 
-	private class PermissiveTrustManager implements X509TrustManager {
+	private void setAcceptEncodingHeader(HttpURLConnection connection) {
+		if (acceptCompression) {
+			connection.setRequestProperty(PROPERTY_ACCEPT_ENCODING, ContentEncoding.ACCEPTED_ENCODINGS);
+		}
+	}
+
+	static class PermissiveTrustManager implements X509TrustManager {
 
 		public X509Certificate[] getAcceptedIssuers() {
 			return null;
@@ -345,7 +479,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		}
 	}
 
-	private class NoopHostnameVerifier implements HostnameVerifier {
+	static class NoopHostnameVerifier implements HostnameVerifier {
 
 		public boolean verify(String hostname, SSLSession sslSession) {
 			return true;
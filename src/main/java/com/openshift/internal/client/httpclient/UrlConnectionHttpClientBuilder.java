@@ -26,6 +26,10 @@ public class UrlConnectionHttpClientBuilder {
 	private IMediaType requestMediaType = new FormUrlEncodedMediaType();
 	private String acceptedMediaType = IHttpClient.MEDIATYPE_APPLICATION_JSON;
 	private String version = "1.0";
+	private boolean pooledConnections = false;
+	private int maxConnectionsPerRoute = HttpConnectionPool.DEFAULT_MAX_PER_ROUTE;
+	private long connectionIdleTimeout = HttpConnectionPool.DEFAULT_MAX_IDLE_TIME;
+	private boolean acceptCompression = true;
 
 	public UrlConnectionHttpClientBuilder setUserAgent(String userAgent) {
 		this.userAgent = userAgent;
@@ -64,10 +68,48 @@ public class UrlConnectionHttpClientBuilder {
 		return this;
 	}
 
+	/**
+	 * Makes the built client keep persistent connections in a bounded pool
+	 * instead of opening a new connection for each request.
+	 * 
+	 * @see PooledHttpClient
+	 */
+	public UrlConnectionHttpClientBuilder setPooledConnections(boolean pooledConnections) {
+		this.pooledConnections = pooledConnections;
+		return this;
+	}
+
+	public UrlConnectionHttpClientBuilder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		return this;
+	}
+
+	public UrlConnectionHttpClientBuilder setConnectionIdleTimeout(long connectionIdleTimeout) {
+		this.connectionIdleTimeout = connectionIdleTimeout;
+		return this;
+	}
+
+	/**
+	 * Makes the built client ask for gzip or deflate compressed responses.
+	 * Enabled by default.
+	 */
+	public UrlConnectionHttpClientBuilder setAcceptCompression(boolean acceptCompression) {
+		this.acceptCompression = acceptCompression;
+		return this;
+	}
+
 	public IHttpClient client() {
 		if (authKey != null && authKey.trim().length() > 0)
 			userAgent = "StickShift";
-		return new UrlConnectionHttpClient(username, password, userAgent, sslChecks, requestMediaType,
-				acceptedMediaType, version, authKey, authIV);
+		if (pooledConnections) {
+			PooledHttpClient client = new PooledHttpClient(username, password, userAgent, sslChecks, requestMediaType,
+					acceptedMediaType, version, authKey, authIV, maxConnectionsPerRoute, connectionIdleTimeout);
+			client.setAcceptCompression(acceptCompression);
+			return client;
+		}
+		UrlConnectionHttpClient client = new UrlConnectionHttpClient(username, password, userAgent, sslChecks,
+				requestMediaType, acceptedMediaType, version, authKey, authIV);
+		client.setAcceptCompression(acceptCompression);
+		return client;
 	}
 }
@@ -0,0 +1,471 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pull parser that reads json content token by token without building a
+ * tree of it. Malformed content is reported with an
+ * {@link IllegalArgumentException} as jboss-dmr does.
+ * <p>
+ * Numbers are reported in the string representation that jboss-dmr uses
+ * (BigInteger or BigDecimal) so that the values that are unmarshalled stay the
+ * same.
+ * <p>
+ * The tokens of a value may be recorded with {@link #bufferValue()} and read
+ * later on. This allows to unmarshall a value that precedes the member that
+ * tells what it is (ex. "data" before "type").
+ */
+public class JsonReader {
+
+	private static final int BUFFER_SIZE = 1024;
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private final Reader reader;
+	private final char[] buffer;
+	private int position;
+	private int limit;
+	private long offset;
+
+	private int[] scopes = new int[32];
+	private int depth;
+
+	private final List<JsonToken> bufferedTokens;
+	private final List<String> bufferedValues;
+	private int bufferedPosition;
+
+	private JsonToken token;
+	private String value;
+
+	public JsonReader(Reader reader) {
+		this.reader = reader;
+		this.buffer = new char[BUFFER_SIZE];
+		this.bufferedTokens = null;
+		this.bufferedValues = null;
+		scopes[depth++] = EMPTY_DOCUMENT;
+	}
+
+	private JsonReader(List<JsonToken> tokens, List<String> values) {
+		this.reader = null;
+		this.buffer = null;
+		this.bufferedTokens = tokens;
+		this.bufferedValues = values;
+	}
+
+	/**
+	 * Returns the type of the next token without consuming it.
+	 */
+	public JsonToken peek() throws IOException {
+		if (token == null) {
+			if (bufferedTokens != null) {
+				readBufferedToken();
+			} else {
+				readToken();
+			}
+		}
+		return token;
+	}
+
+	/**
+	 * Returns <code>true</code> if the current object or array has more
+	 * members or elements.
+	 */
+	public boolean hasNext() throws IOException {
+		JsonToken next = peek();
+		return next != JsonToken.END_OBJECT
+				&& next != JsonToken.END_ARRAY
+				&& next != JsonToken.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException {
+		consume(JsonToken.BEGIN_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		consume(JsonToken.END_OBJECT);
+	}
+
+	public void beginArray() throws IOException {
+		consume(JsonToken.BEGIN_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		consume(JsonToken.END_ARRAY);
+	}
+
+	public String nextName() throws IOException {
+		return consume(JsonToken.NAME);
+	}
+
+	/**
+	 * Consumes the next string, number or boolean and returns it as string.
+	 */
+	public String nextString() throws IOException {
+		JsonToken next = peek();
+		if (next != JsonToken.STRING
+				&& next != JsonToken.NUMBER
+				&& next != JsonToken.BOOLEAN) {
+			throw unexpected(JsonToken.STRING);
+		}
+		return consume(next);
+	}
+
+	public void nextNull() throws IOException {
+		consume(JsonToken.NULL);
+	}
+
+	/**
+	 * Consumes the next value (including all nested values).
+	 */
+	public void skipValue() throws IOException {
+		int nesting = 0;
+		do {
+			JsonToken next = peek();
+			if (next == JsonToken.BEGIN_OBJECT
+					|| next == JsonToken.BEGIN_ARRAY) {
+				nesting++;
+			} else if (next == JsonToken.END_OBJECT
+					|| next == JsonToken.END_ARRAY) {
+				nesting--;
+			} else if (next == JsonToken.END_DOCUMENT) {
+				throw new IllegalArgumentException("Unexpected end of json content");
+			}
+			consume(next);
+		} while (nesting > 0);
+	}
+
+	/**
+	 * Consumes the next value (including all nested values) and returns a
+	 * reader that reads it.
+	 */
+	public JsonReader bufferValue() throws IOException {
+		List<JsonToken> tokens = new ArrayList<JsonToken>();
+		List<String> values = new ArrayList<String>();
+		int nesting = 0;
+		do {
+			JsonToken next = peek();
+			if (next == JsonToken.BEGIN_OBJECT
+					|| next == JsonToken.BEGIN_ARRAY) {
+				nesting++;
+			} else if (next == JsonToken.END_OBJECT
+					|| next == JsonToken.END_ARRAY) {
+				nesting--;
+			} else if (next == JsonToken.END_DOCUMENT) {
+				throw new IllegalArgumentException("Unexpected end of json content");
+			}
+			tokens.add(next);
+			values.add(consume(next));
+		} while (nesting > 0);
+		return new JsonReader(tokens, values);
+	}
+
+	private String consume(JsonToken expected) throws IOException {
+		if (peek() != expected) {
+			throw unexpected(expected);
+		}
+		String consumed = value;
+		this.token = null;
+		this.value = null;
+		return consumed;
+	}
+
+	private IllegalArgumentException unexpected(JsonToken expected) {
+		return new IllegalArgumentException(
+				MessageFormat.format("Expected {0} but was {1}", expected, token));
+	}
+
+	private void readBufferedToken() {
+		if (bufferedPosition < bufferedTokens.size()) {
+			this.token = bufferedTokens.get(bufferedPosition);
+			this.value = bufferedValues.get(bufferedPosition);
+			bufferedPosition++;
+		} else {
+			this.token = JsonToken.END_DOCUMENT;
+		}
+	}
+
+	private void readToken() throws IOException {
+		int character;
+		switch (scopes[depth - 1]) {
+		case EMPTY_DOCUMENT:
+			scopes[depth - 1] = NONEMPTY_DOCUMENT;
+			character = nextNonWhitespace();
+			if (character == -1) {
+				this.token = JsonToken.END_DOCUMENT;
+			} else {
+				readValue(character);
+			}
+			break;
+		case NONEMPTY_DOCUMENT:
+			character = nextNonWhitespace();
+			if (character != -1) {
+				throw invalid(character);
+			}
+			this.token = JsonToken.END_DOCUMENT;
+			break;
+		case EMPTY_ARRAY:
+			scopes[depth - 1] = NONEMPTY_ARRAY;
+			character = nextNonWhitespace();
+			if (character == ']') {
+				depth--;
+				this.token = JsonToken.END_ARRAY;
+			} else {
+				readValue(character);
+			}
+			break;
+		case NONEMPTY_ARRAY:
+			character = nextNonWhitespace();
+			if (character == ']') {
+				depth--;
+				this.token = JsonToken.END_ARRAY;
+			} else if (character == ',') {
+				readValue(nextNonWhitespace());
+			} else {
+				throw invalid(character);
+			}
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			character = nextNonWhitespace();
+			if (character == '}') {
+				depth--;
+				this.token = JsonToken.END_OBJECT;
+				break;
+			}
+			if (scopes[depth - 1] == NONEMPTY_OBJECT) {
+				if (character != ',') {
+					throw invalid(character);
+				}
+				character = nextNonWhitespace();
+			}
+			if (character != '"') {
+				throw invalid(character);
+			}
+			scopes[depth - 1] = DANGLING_NAME;
+			this.value = readString();
+			this.token = JsonToken.NAME;
+			break;
+		case DANGLING_NAME:
+			character = nextNonWhitespace();
+			if (character != ':') {
+				throw invalid(character);
+			}
+			scopes[depth - 1] = NONEMPTY_OBJECT;
+			readValue(nextNonWhitespace());
+			break;
+		default:
+			throw new IllegalStateException();
+		}
+	}
+
+	private void readValue(int character) throws IOException {
+		switch (character) {
+		case '{':
+			push(EMPTY_OBJECT);
+			this.token = JsonToken.BEGIN_OBJECT;
+			break;
+		case '[':
+			push(EMPTY_ARRAY);
+			this.token = JsonToken.BEGIN_ARRAY;
+			break;
+		case '"':
+			this.value = readString();
+			this.token = JsonToken.STRING;
+			break;
+		case 't':
+			readLiteral("rue");
+			this.value = String.valueOf(true);
+			this.token = JsonToken.BOOLEAN;
+			break;
+		case 'f':
+			readLiteral("alse");
+			this.value = String.valueOf(false);
+			this.token = JsonToken.BOOLEAN;
+			break;
+		case 'n':
+			readLiteral("ull");
+			this.token = JsonToken.NULL;
+			break;
+		default:
+			if (character == '-'
+					|| (character >= '0' && character <= '9')) {
+				this.value = readNumber((char) character);
+				this.token = JsonToken.NUMBER;
+			} else {
+				throw invalid(character);
+			}
+		}
+	}
+
+	private void push(int scope) {
+		if (depth == scopes.length) {
+			int[] grown = new int[depth * 2];
+			System.arraycopy(scopes, 0, grown, 0, depth);
+			this.scopes = grown;
+		}
+		scopes[depth++] = scope;
+	}
+
+	private String readString() throws IOException {
+		StringBuilder builder = new StringBuilder();
+		while (true) {
+			int character = read();
+			switch (character) {
+			case -1:
+				throw new IllegalArgumentException("Unterminated string in json content");
+			case '"':
+				return builder.toString();
+			case '\\':
+				builder.append(readEscaped());
+				break;
+			default:
+				builder.append((char) character);
+			}
+		}
+	}
+
+	private char readEscaped() throws IOException {
+		int character = read();
+		switch (character) {
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		case 'u':
+			int unicode = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(read(), 16);
+				if (digit == -1) {
+					throw new IllegalArgumentException("Invalid unicode escape in json content");
+				}
+				unicode = (unicode << 4) + digit;
+			}
+			return (char) unicode;
+		case '"':
+		case '\\':
+		case '/':
+			return (char) character;
+		default:
+			throw invalid(character);
+		}
+	}
+
+	private void readLiteral(String remainder) throws IOException {
+		for (int i = 0; i < remainder.length(); i++) {
+			int character = read();
+			if (character != remainder.charAt(i)) {
+				throw invalid(character);
+			}
+		}
+	}
+
+	private String readNumber(char first) throws IOException {
+		StringBuilder builder = new StringBuilder().append(first);
+		boolean decimal = false;
+		while (true) {
+			int character = peekCharacter();
+			if (character >= '0' && character <= '9'
+					|| character == '-'
+					|| character == '+') {
+				builder.append((char) read());
+			} else if (character == '.'
+					|| character == 'e'
+					|| character == 'E') {
+				decimal = true;
+				builder.append((char) read());
+			} else {
+				break;
+			}
+		}
+		try {
+			if (decimal) {
+				return new BigDecimal(builder.toString()).toString();
+			} else {
+				return new BigInteger(builder.toString()).toString();
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+					MessageFormat.format("Invalid number {0} in json content", builder.toString()));
+		}
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		int character;
+		do {
+			character = read();
+		} while (character == ' '
+				|| character == '\t'
+				|| character == '\n'
+				|| character == '\r');
+		return character;
+	}
+
+	private int read() throws IOException {
+		if (!fillBuffer()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	private int peekCharacter() throws IOException {
+		if (!fillBuffer()) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	private boolean fillBuffer() throws IOException {
+		if (position < limit) {
+			return true;
+		}
+		offset += limit;
+		this.position = 0;
+		this.limit = 0;
+		int read;
+		while ((read = reader.read(buffer, 0, buffer.length)) == 0) {
+			// no characters available yet
+		}
+		if (read == -1) {
+			return false;
+		}
+		this.limit = read;
+		return true;
+	}
+
+	private IllegalArgumentException invalid(int character) {
+		if (character == -1) {
+			return new IllegalArgumentException("Unexpected end of json content");
+		}
+		return new IllegalArgumentException(
+				MessageFormat.format("Invalid character: {0} at offset {1}",
+						(char) character, String.valueOf(offset + position - 1)));
+	}
+}
@@ -0,0 +1,29 @@
+/******************************************************************************* 
+ * Copyright (c) 2012 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+/**
+ * The tokens that a {@link JsonReader} reports.
+ */
+public enum JsonToken {
+	BEGIN_OBJECT,
+	END_OBJECT,
+	BEGIN_ARRAY,
+	END_ARRAY,
+	/** the name of an object member */
+	NAME,
+	STRING,
+	NUMBER,
+	BOOLEAN,
+	NULL,
+	/** the end of the json content */
+	END_DOCUMENT;
+}
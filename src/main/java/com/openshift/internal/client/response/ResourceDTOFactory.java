@@ -43,26 +43,32 @@ import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPER
 import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_UUID;
 import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_VALID_OPTIONS;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.jboss.dmr.ModelNode;
-import org.jboss.dmr.ModelType;
-import org.jboss.dmr.Property;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.openshift.client.ApplicationScale;
 import com.openshift.client.IGearProfile;
 import com.openshift.client.OpenShiftException;
-import com.openshift.client.OpenShiftRequestException;
 import com.openshift.internal.client.GearProfile;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
 
 /**
- * A factory for creating DTO objects.
+ * A factory for creating DTO objects. The json content is read token by token
+ * and the DTOs are created while reading (no intermediate json tree is built).
+ * The content that is unmarshalled matches what jboss-dmr used to report (ex.
+ * "undefined" for missing link properties).
  * 
  * @author Xavier Coulon
  */
@@ -70,12 +76,17 @@ public class ResourceDTOFactory {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ResourceDTOFactory.class);
 
+	/** the string that jboss-dmr reports for undefined values */
+	private static final String UNDEFINED = "undefined";
+
+	private static final String CHARSET = "UTF-8";
+
 	/**
-	 * Gets the.
+	 * Unmarshalls the given json content.
 	 * 
 	 * @param content
 	 *            the content
-	 * @return the response
+	 * @return the response, <code>null</code> if there's no content
 	 * @throws OpenShiftException
 	 *             the open shift exception
 	 */
@@ -85,145 +96,284 @@ public class ResourceDTOFactory {
 			return null;
 		}
 		LOGGER.trace("Unmarshalling response\n{}", content);
-		final ModelNode rootNode = getModelNode(content);
-		final String type = rootNode.get(IOpenShiftJsonConstants.PROPERTY_TYPE).asString();
-		final String status = rootNode.get(IOpenShiftJsonConstants.PROPERTY_STATUS).asString();
-		final List<Message> messages = createMessages(rootNode.get(IOpenShiftJsonConstants.PROPERTY_MESSAGES));
+		return get(new StringReader(content));
+	}
+
+	/**
+	 * Unmarshalls the json content that the given stream provides. The stream
+	 * is read as UTF-8 and is not closed.
+	 * 
+	 * @param content
+	 *            the content
+	 * @return the response, <code>null</code> if there's no content
+	 * @throws OpenShiftException
+	 *             the open shift exception
+	 */
+	public static RestResponse get(final InputStream content) throws OpenShiftException {
+		if (content == null) {
+			return null;
+		}
+		try {
+			return get(new InputStreamReader(content, CHARSET));
+		} catch (UnsupportedEncodingException e) {
+			throw new OpenShiftException(e, "Could not unmarshall response: {0}", e.getMessage());
+		}
+	}
+
+	private static RestResponse get(final Reader content) throws OpenShiftException {
+		try {
+			final JsonReader reader = new JsonReader(content);
+			switch (reader.peek()) {
+			case END_DOCUMENT:
+				return null;
+			case NULL:
+				throw new OpenShiftException("Could not unmarshall response: erroneous content.");
+			default:
+				final RestResponse response = createResponse(reader);
+				// fail on trailing content
+				reader.peek();
+				return response;
+			}
+		} catch (IOException e) {
+			throw new OpenShiftException(e, "Could not unmarshall response: {0}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates the response for the root node. The 'data' node is buffered if it
+	 * precedes the 'type' node that tells what data it is.
+	 */
+	private static RestResponse createResponse(JsonReader reader) throws IOException, OpenShiftException {
+		String type = UNDEFINED;
+		String status = UNDEFINED;
+		// messages are passed as creation log, they may follow the data
+		final List<Message> messages = new ArrayList<Message>();
+		boolean typeRead = false;
+		boolean dataRead = false;
+		Object data = null;
+		JsonReader bufferedData = null;
+		JsonReader bufferedDomain = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (PROPERTY_TYPE.equals(name)) {
+				type = readAsString(reader, UNDEFINED);
+				typeRead = true;
+			} else if (IOpenShiftJsonConstants.PROPERTY_STATUS.equals(name)) {
+				status = readAsString(reader, UNDEFINED);
+			} else if (IOpenShiftJsonConstants.PROPERTY_MESSAGES.equals(name)) {
+				messages.clear();
+				messages.addAll(createMessages(reader));
+			} else if (PROPERTY_DATA.equals(name)) {
+				dataRead = true;
+				if (typeRead) {
+					data = createData(reader, EnumDataType.safeValueOf(type), messages);
+					bufferedData = null;
+				} else {
+					bufferedData = reader.bufferValue();
+				}
+			} else if (PROPERTY_DOMAIN.equals(name)) {
+				bufferedDomain = reader.bufferValue();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
 
 		final EnumDataType dataType = EnumDataType.safeValueOf(type);
 		// the response is after an error, only the messages are relevant
-
 		if (dataType == null) {
 			return new RestResponse(status, messages, null, null);
 		}
+		if (bufferedData != null) {
+			data = createData(bufferedData, dataType, messages);
+		} else if (!dataRead) {
+			data = createDataWithoutDataNode(dataType, bufferedDomain, messages);
+		}
+		if (data == null) {
+			return null;
+		}
+		return new RestResponse(status, messages, data, dataType);
+	}
+
+	private static Object createData(JsonReader reader, EnumDataType dataType, List<Message> messages)
+			throws IOException, OpenShiftException {
+		if (dataType == null) {
+			reader.skipValue();
+			return null;
+		}
 		switch (dataType) {
 		case user:
-			return new RestResponse(status, messages, createUser(rootNode), dataType);
+			return createUser(reader);
 		case keys:
-			return new RestResponse(status, messages, createKeys(rootNode), dataType);
+			return createKeys(reader);
 		case key:
-			return new RestResponse(status, messages, createKey(rootNode, messages), dataType);
+			return createKey(reader, messages);
 		case links:
-			return new RestResponse(status, messages, createLinks(rootNode), dataType);
+			return createLinks(reader);
 		case domains:
-			return new RestResponse(status, messages, createDomains(rootNode), dataType);
+			return createDomains(reader);
 		case domain:
-			return new RestResponse(status, messages, createDomain(rootNode, messages), dataType);
+			return createDomain(reader, messages);
 		case applications:
-			return new RestResponse(status, messages, createApplications(rootNode), dataType);
+			return createApplications(reader);
 		case application:
-			return new RestResponse(status, messages, createApplication(rootNode, messages), dataType);
+			return createApplication(reader, messages);
 		case gears:
-			return new RestResponse(status, messages, createGears(rootNode), dataType);
+			return createGears(reader);
 		case cartridges:
-			return new RestResponse(status, messages, createCartridges(rootNode), dataType);
+			return createCartridges(reader);
 		case cartridge:
-			return new RestResponse(status, messages, createCartridge(rootNode, messages), dataType);
+			return createCartridge(reader, messages);
 		default:
+			reader.skipValue();
 			return null;
 		}
 	}
 
 	/**
-	 * Creates a new ResourceDTO object.
+	 * Creates the data for a response that has no 'data' node. Collections are
+	 * empty, single resources have no properties.
 	 * 
-	 * @param messagesNode
-	 *            the messages node
-	 * @return the list< string>
+	 * TODO: simplify once openshift always responds with a 'data' node
 	 */
-	private static List<Message> createMessages(ModelNode messagesNode) {
-		List<Message> messages = new ArrayList<Message>();
-		if (messagesNode.getType() == ModelType.LIST) {
-			for (ModelNode messageNode : messagesNode.asList()) {
-				messages.add(createMessage(messageNode));
+	private static Object createDataWithoutDataNode(EnumDataType dataType, JsonReader domainReader,
+			List<Message> messages) throws IOException, OpenShiftException {
+		switch (dataType) {
+		case domains:
+			// temporarily supporting absence of 'data' node in the 'domain'
+			// response message
+			final List<DomainResourceDTO> domains = new ArrayList<DomainResourceDTO>();
+			if (domainReader == null) {
+				throw new OpenShiftException("Unexpected node type: {0}", "UNDEFINED");
 			}
+			if (domainReader.peek() != JsonToken.BEGIN_OBJECT) {
+				throw new OpenShiftException("Unexpected node type: {0}", getNodeType(domainReader));
+			}
+			domains.add(createDomain(domainReader, null));
+			return domains;
+		case keys:
+			return new ArrayList<KeyResourceDTO>();
+		case applications:
+			return new ArrayList<ApplicationResourceDTO>();
+		case gears:
+			return new ArrayList<GearResourceDTO>();
+		case cartridges:
+			return new ArrayList<CartridgeResourceDTO>();
+		case links:
+			return new HashMap<String, Link>();
+		default:
+			return createData(new JsonReader(new StringReader("{}")), dataType, messages);
 		}
-		return messages;
-	}
-
-	private static Message createMessage(ModelNode messageNode) {
-		String text = getString(messageNode.get(IOpenShiftJsonConstants.PROPERTY_TEXT));
-		String parameter = getString(messageNode.get(IOpenShiftJsonConstants.PROPERTY_FIELD));
-		int exitCode = getInt(messageNode.get(IOpenShiftJsonConstants.PROPERTY_EXIT_CODE));
-		String severity = getString(messageNode.get(IOpenShiftJsonConstants.PROPERTY_SEVERITY));
-		return new Message(text, parameter, severity, exitCode);
-	}
-
-	private static int getInt(ModelNode messageNode) {
-		if (messageNode == null
-				|| !messageNode.isDefined()) {
-			return -1;
-		}
-		return messageNode.asInt();
-	}
-
-	private static String getString(ModelNode node) {
-		if (node == null
-				|| !node.isDefined()) {
-			return null;
-		}
-		return node.asString();
 	}
 
 	/**
-	 * Gets the model node.
+	 * Creates the messages for the given messages node.
 	 * 
-	 * @param content
-	 *            the content
-	 * @return the model node
-	 * @throws OpenShiftException
-	 *             the open shift exception
+	 * @param reader
+	 *            the reader positioned at the messages node
+	 * @return the messages
 	 */
-	private static ModelNode getModelNode(final String content) throws OpenShiftException {
-		if (content == null) {
-			throw new OpenShiftException("Could not unmarshall response: no content.");
+	private static List<Message> createMessages(JsonReader reader) throws IOException {
+		final List<Message> messages = new ArrayList<Message>();
+		if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+			reader.skipValue();
+			return messages;
 		}
-		final ModelNode node = ModelNode.fromJSONString(content);
-		if (!node.isDefined()) {
-			throw new OpenShiftException("Could not unmarshall response: erroneous content.");
+		reader.beginArray();
+		while (reader.hasNext()) {
+			messages.add(createMessage(reader));
 		}
+		reader.endArray();
+		return messages;
+	}
 
-		return node;
+	private static Message createMessage(JsonReader reader) throws IOException {
+		String text = null;
+		String parameter = null;
+		int exitCode = -1;
+		String severity = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String name = reader.nextName();
+				if (IOpenShiftJsonConstants.PROPERTY_TEXT.equals(name)) {
+					text = readAsString(reader, null);
+				} else if (IOpenShiftJsonConstants.PROPERTY_FIELD.equals(name)) {
+					parameter = readAsString(reader, null);
+				} else if (IOpenShiftJsonConstants.PROPERTY_EXIT_CODE.equals(name)) {
+					exitCode = readAsInt(reader, -1);
+				} else if (IOpenShiftJsonConstants.PROPERTY_SEVERITY.equals(name)) {
+					severity = readAsString(reader, null);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		return new Message(text, parameter, severity, exitCode);
 	}
 
 	/**
 	 * Creates a new ResourceDTO object.
 	 * 
-	 * @param userNode
-	 *            the root node
+	 * @param reader
+	 *            the reader positioned at the user node
 	 * @return the user resource dto
 	 * @throws OpenShiftException
 	 */
-	private static UserResourceDTO createUser(ModelNode userNode) throws OpenShiftException {
-		if (userNode.has(PROPERTY_DATA)) {
-			// loop inside 'data' node
-			return createUser(userNode.get(PROPERTY_DATA));
-		}
-		final String rhlogin = getAsString(userNode, PROPERTY_LOGIN);
-		final int maxGears = getAsInteger(userNode, PROPERTY_MAX_GEARS);
-		final int consumedGears = getAsInteger(userNode, PROPERTY_CONSUMED_GEARS);
-		final Map<String, Link> links = createLinks(userNode.get(PROPERTY_LINKS));
+	private static UserResourceDTO createUser(JsonReader reader) throws IOException, OpenShiftException {
+		String rhlogin = null;
+		int maxGears = 0;
+		int consumedGears = 0;
+		Map<String, Link> links = new HashMap<String, Link>();
+		UserResourceDTO data = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String name = reader.nextName();
+				if (PROPERTY_DATA.equals(name)) {
+					// loop inside 'data' node
+					data = createUser(reader);
+				} else if (PROPERTY_LOGIN.equals(name)) {
+					rhlogin = readAsString(reader, null);
+				} else if (PROPERTY_MAX_GEARS.equals(name)) {
+					maxGears = readAsInt(reader, 0);
+				} else if (PROPERTY_CONSUMED_GEARS.equals(name)) {
+					consumedGears = readAsInt(reader, 0);
+				} else if (PROPERTY_LINKS.equals(name)) {
+					links = createLinks(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		if (data != null) {
+			return data;
+		}
 		return new UserResourceDTO(rhlogin, maxGears, consumedGears, links);
 	}
 
 	/**
 	 * Creates a new ResourceDTO object.
 	 * 
-	 * @param rootNode
-	 *            the root node
+	 * @param reader
+	 *            the reader positioned at the keys node
 	 * @return the list< key resource dt o>
 	 * @throws OpenShiftException
 	 *             the open shift exception
 	 */
-	private static List<KeyResourceDTO> createKeys(ModelNode rootNode) throws OpenShiftException {
+	private static List<KeyResourceDTO> createKeys(JsonReader reader) throws IOException, OpenShiftException {
 		final List<KeyResourceDTO> keys = new ArrayList<KeyResourceDTO>();
-		// temporarily supporting single and multiple values for 'keys' node
-		if (rootNode.has(PROPERTY_DATA)) {
-			for (ModelNode dataNode : rootNode.get(PROPERTY_DATA).asList()) {
-				if (dataNode.getType() == ModelType.OBJECT) {
-					keys.add(createKey(dataNode, null));
+		if (beginList(reader)) {
+			while (reader.hasNext()) {
+				if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+					keys.add(createKey(reader, null));
+				} else {
+					reader.skipValue();
 				}
 			}
+			reader.endArray();
 		}
 		return keys;
 	}
@@ -231,127 +381,199 @@ public class ResourceDTOFactory {
 	/**
 	 * Creates a new ResourceDTO object.
 	 * 
-	 * @param keyNode
-	 *            the key node
+	 * @param reader
+	 *            the reader positioned at the key node
 	 * @return the key resource dto
 	 * @throws OpenShiftException
 	 */
-	private static KeyResourceDTO createKey(ModelNode keyNode, List<Message> creationLog) throws OpenShiftException {
-		if (keyNode.has(PROPERTY_DATA)) {
-			// loop inside 'data' node
-			return createKey(keyNode.get(PROPERTY_DATA), creationLog);
-		}
-		final String name = getAsString(keyNode, IOpenShiftJsonConstants.PROPERTY_NAME);
-		final String type = getAsString(keyNode, IOpenShiftJsonConstants.PROPERTY_TYPE);
-		final String content = getAsString(keyNode, IOpenShiftJsonConstants.PROPERTY_CONTENT);
-		final Map<String, Link> links = createLinks(keyNode.get(PROPERTY_LINKS));
+	private static KeyResourceDTO createKey(JsonReader reader, List<Message> creationLog) throws IOException,
+			OpenShiftException {
+		String name = null;
+		String type = null;
+		String content = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		KeyResourceDTO data = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String property = reader.nextName();
+				if (PROPERTY_DATA.equals(property)) {
+					// loop inside 'data' node
+					data = createKey(reader, creationLog);
+				} else if (PROPERTY_NAME.equals(property)) {
+					name = readAsString(reader, null);
+				} else if (PROPERTY_TYPE.equals(property)) {
+					type = readAsString(reader, null);
+				} else if (IOpenShiftJsonConstants.PROPERTY_CONTENT.equals(property)) {
+					content = readAsString(reader, null);
+				} else if (PROPERTY_LINKS.equals(property)) {
+					links = createLinks(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		if (data != null) {
+			return data;
+		}
 		return new KeyResourceDTO(name, type, content, links, creationLog);
 	}
 
 	/**
 	 * Creates a new set of indexed links.
 	 * 
-	 * @param linksNode
-	 *            the root node
-	 * @return the list< domain dt o>
+	 * @param reader
+	 *            the reader positioned at the links node
+	 * @return the links
 	 * @throws OpenShiftException
 	 *             the open shift exception
 	 */
-	private static Map<String, Link> createLinks(final ModelNode linksNode) throws OpenShiftException {
-		if (linksNode.has(PROPERTY_DATA)) {
-			// loop inside 'data' node
-			return createLinks(linksNode.get(PROPERTY_DATA));
-		}
-		Map<String, Link> links = new HashMap<String, Link>();
-		if (linksNode.isDefined()) {
-			for (ModelNode linkNode : linksNode.asList()) {
-				final String linkName = linkNode.asProperty().getName();
-				final ModelNode valueNode = linkNode.asProperty().getValue();
-				if (valueNode.isDefined()) {
-					final String rel = valueNode.get(PROPERTY_REL).asString();
-					final String href = valueNode.get(PROPERTY_HREF).asString();
-					final String method = valueNode.get(PROPERTY_METHOD).asString();
-					final List<LinkParameter> requiredParams = createLinkParameters(valueNode
-							.get(PROPERTY_REQUIRED_PARAMS));
-					final List<LinkParameter> optionalParams = createLinkParameters(valueNode
-							.get(PROPERTY_OPTIONAL_PARAMS));
-					links.put(linkName, new Link(rel, href, method, requiredParams, optionalParams));
+	private static Map<String, Link> createLinks(final JsonReader reader) throws IOException, OpenShiftException {
+		final Map<String, Link> links = new HashMap<String, Link>();
+		switch (reader.peek()) {
+		case NULL:
+			reader.nextNull();
+			return links;
+		case BEGIN_ARRAY:
+			// a list of links has no names
+			if (beginList(reader)) {
+				if (reader.hasNext()) {
+					throw new IllegalArgumentException("Unexpected list of links");
 				}
+				reader.endArray();
 			}
+			return links;
+		case BEGIN_OBJECT:
+			break;
+		default:
+			throw new IllegalArgumentException("Unexpected links node: " + reader.peek());
+		}
+		Map<String, Link> data = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String linkName = reader.nextName();
+			if (PROPERTY_DATA.equals(linkName)) {
+				// loop inside 'data' node
+				data = createLinks(reader);
+			} else if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+			} else {
+				links.put(linkName, createLink(reader));
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
 		}
 		return links;
 	}
 
+	private static Link createLink(JsonReader reader) throws IOException, OpenShiftException {
+		String rel = UNDEFINED;
+		String href = UNDEFINED;
+		String method = UNDEFINED;
+		List<LinkParameter> requiredParams = new ArrayList<LinkParameter>();
+		List<LinkParameter> optionalParams = new ArrayList<LinkParameter>();
+		beginObject(reader);
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
+			if (PROPERTY_REL.equals(name)) {
+				rel = readAsString(reader, UNDEFINED);
+			} else if (PROPERTY_HREF.equals(name)) {
+				href = readAsString(reader, UNDEFINED);
+			} else if (PROPERTY_METHOD.equals(name)) {
+				method = readAsString(reader, UNDEFINED);
+			} else if (PROPERTY_REQUIRED_PARAMS.equals(name)) {
+				requiredParams = createLinkParameters(reader);
+			} else if (PROPERTY_OPTIONAL_PARAMS.equals(name)) {
+				optionalParams = createLinkParameters(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return new Link(rel, href, method, requiredParams, optionalParams);
+	}
+
 	/**
 	 * Creates a new DTO object.
 	 * 
-	 * @param rootNode
-	 *            the root node
+	 * @param reader
+	 *            the reader positioned at the domains node
 	 * @return the list< domain dt o>
 	 * @throws OpenShiftException
 	 *             the open shift exception
 	 */
-	private static List<DomainResourceDTO> createDomains(final ModelNode rootNode) throws OpenShiftException {
+	private static List<DomainResourceDTO> createDomains(final JsonReader reader) throws IOException,
+			OpenShiftException {
 		final List<DomainResourceDTO> domains = new ArrayList<DomainResourceDTO>();
-		// temporarily supporting absence of 'data' node in the 'domain'
-		// response message
-		// FIXME: simplify once openshift response is fixed
-		if (rootNode.has(PROPERTY_DATA)) {
-			for (ModelNode dataNode : rootNode.get(PROPERTY_DATA).asList()) {
-				if (dataNode.getType() == ModelType.OBJECT) {
-					domains.add(createDomain(dataNode, null));
+		if (beginList(reader)) {
+			while (reader.hasNext()) {
+				if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+					domains.add(createDomain(reader, null));
 				} else {
-					throw new OpenShiftException("Unexpected node type: {0}", dataNode.getType());
+					throw new OpenShiftException("Unexpected node type: {0}", getNodeType(reader));
 				}
 			}
-		} else {
-			final ModelNode domainNode = rootNode.get(PROPERTY_DOMAIN);
-			if (domainNode.isDefined()
-					&& domainNode.getType() == ModelType.OBJECT) {
-				domains.add(createDomain(domainNode, null));
-			} else {
-				throw new OpenShiftException("Unexpected node type: {0}", domainNode.getType());
-			}
+			reader.endArray();
 		}
-
 		return domains;
 	}
 
 	/**
 	 * Creates a new DTO object.
 	 * 
-	 * @param domainNode
-	 *            the domain node
+	 * @param reader
+	 *            the reader positioned at the domain node
 	 * @return the domain dto
 	 * @throws OpenShiftException
 	 */
-	private static DomainResourceDTO createDomain(final ModelNode domainNode, List<Message> creationLog)
-			throws OpenShiftException {
-		if (domainNode.has(PROPERTY_DATA)) {
-			// recurse into "data" node
-			return createDomain(domainNode.get(PROPERTY_DATA), creationLog);
-		}
-		final String namespace = getAsString(domainNode, PROPERTY_ID);
-		final String suffix = getAsString(domainNode, PROPERTY_SUFFIX);
-		final Map<String, Link> links = createLinks(domainNode.get(PROPERTY_LINKS));
+	private static DomainResourceDTO createDomain(final JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		String namespace = null;
+		String suffix = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		DomainResourceDTO data = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String name = reader.nextName();
+				if (PROPERTY_DATA.equals(name)) {
+					// recurse into "data" node
+					data = createDomain(reader, creationLog);
+				} else if (PROPERTY_ID.equals(name)) {
+					namespace = readAsString(reader, null);
+				} else if (PROPERTY_SUFFIX.equals(name)) {
+					suffix = readAsString(reader, null);
+				} else if (PROPERTY_LINKS.equals(name)) {
+					links = createLinks(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		if (data != null) {
+			return data;
+		}
 		return new DomainResourceDTO(namespace, suffix, links, creationLog);
 	}
 
 	/**
 	 * Creates a new DTO object.
 	 * 
-	 * @param rootNode
-	 *            the domain node
+	 * @param reader
+	 *            the reader positioned at the applications node
 	 * @return the list< application dt o>
 	 * @throws OpenShiftException
 	 */
-	private static List<ApplicationResourceDTO> createApplications(final ModelNode rootNode)
-			throws OpenShiftException {
+	private static List<ApplicationResourceDTO> createApplications(final JsonReader reader)
+			throws IOException, OpenShiftException {
 		final List<ApplicationResourceDTO> applicationDTOs = new ArrayList<ApplicationResourceDTO>();
-		if (rootNode.has(PROPERTY_DATA)) {
-			for (ModelNode applicationNode : rootNode.get(PROPERTY_DATA).asList()) {
-				applicationDTOs.add(createApplication(applicationNode, null));
+		if (beginList(reader)) {
+			while (reader.hasNext()) {
+				applicationDTOs.add(createApplication(reader, null));
 			}
+			reader.endArray();
 		}
 		return applicationDTOs;
 	}
@@ -359,37 +581,82 @@ public class ResourceDTOFactory {
 	/**
 	 * Creates a new DTO object.
 	 * 
-	 * @param appNode
-	 *            the app node
+	 * @param reader
+	 *            the reader positioned at the application node
 	 * @return the application dto
 	 * @throws OpenShiftException
 	 */
-	private static ApplicationResourceDTO createApplication(ModelNode appNode, List<Message> creationLog)
-			throws OpenShiftException {
-		if (appNode.has(PROPERTY_DATA)) {
-			// recurse into 'data' node
-			return createApplication(appNode.get(PROPERTY_DATA), creationLog);
-		}
-		final String framework = getAsString(appNode, PROPERTY_FRAMEWORK);
-		final String creationTime = getAsString(appNode, PROPERTY_CREATION_TIME);
-		final String name = getAsString(appNode, PROPERTY_NAME);
-		final String uuid = getAsString(appNode, PROPERTY_UUID);
-		final ApplicationScale scalable = ApplicationScale.safeValueOf(getAsString(appNode, PROPERTY_SCALABLE));
-		final IGearProfile gearProfile = new GearProfile(getAsString(appNode, PROPERTY_GEAR_PROFILE));
-		final String applicationUrl = getAsString(appNode, PROPERTY_APP_URL);
-		final String gitUrl = getAsString(appNode, PROPERTY_GIT_URL);
-		final String domainId = getAsString(appNode, PROPERTY_DOMAIN_ID);
-		final String healthCheckPath = getAsString(appNode, PROPERTY_HEALTH_CHECK_PATH);
-		final Map<String, Link> links = createLinks(appNode.get(PROPERTY_LINKS));
-		final List<String> aliases = createAliases(appNode.get(PROPERTY_ALIASES));
-		final Map<String, String> embeddedCartridgesInfos = createEmbeddedCartridgesInfos(appNode.get(PROPERTY_EMBEDDED));
+	private static ApplicationResourceDTO createApplication(JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		String framework = null;
+		String creationTime = null;
+		String name = null;
+		String uuid = null;
+		String scalable = null;
+		String gearProfile = null;
+		String applicationUrl = null;
+		String gitUrl = null;
+		String domainId = null;
+		String healthCheckPath = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		List<String> aliases = null;
+		Map<String, String> embeddedCartridgesInfos = null;
+		ApplicationResourceDTO data = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String property = reader.nextName();
+				if (PROPERTY_DATA.equals(property)) {
+					// recurse into 'data' node
+					data = createApplication(reader, creationLog);
+				} else if (PROPERTY_FRAMEWORK.equals(property)) {
+					framework = readAsString(reader, null);
+				} else if (PROPERTY_CREATION_TIME.equals(property)) {
+					creationTime = readAsString(reader, null);
+				} else if (PROPERTY_NAME.equals(property)) {
+					name = readAsString(reader, null);
+				} else if (PROPERTY_UUID.equals(property)) {
+					uuid = readAsString(reader, null);
+				} else if (PROPERTY_SCALABLE.equals(property)) {
+					scalable = readAsString(reader, null);
+				} else if (PROPERTY_GEAR_PROFILE.equals(property)) {
+					gearProfile = readAsString(reader, null);
+				} else if (PROPERTY_APP_URL.equals(property)) {
+					applicationUrl = readAsString(reader, null);
+				} else if (PROPERTY_GIT_URL.equals(property)) {
+					gitUrl = readAsString(reader, null);
+				} else if (PROPERTY_DOMAIN_ID.equals(property)) {
+					domainId = readAsString(reader, null);
+				} else if (PROPERTY_HEALTH_CHECK_PATH.equals(property)) {
+					healthCheckPath = readAsString(reader, null);
+				} else if (PROPERTY_LINKS.equals(property)) {
+					links = createLinks(reader);
+				} else if (PROPERTY_ALIASES.equals(property)) {
+					aliases = createAliases(reader);
+				} else if (PROPERTY_EMBEDDED.equals(property)) {
+					embeddedCartridgesInfos = createEmbeddedCartridgesInfos(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		if (data != null) {
+			return data;
+		}
+		if (embeddedCartridgesInfos == null) {
+			throw new IllegalArgumentException("Missing embedded cartridges in application " + name);
+		}
+		if (aliases == null) {
+			aliases = new ArrayList<String>();
+			aliases.add(UNDEFINED);
+		}
 		return new ApplicationResourceDTO(
 				framework, 
 				domainId, 
 				creationTime, 
 				name, 
-				gearProfile, 
-				scalable, 
+				new GearProfile(gearProfile), 
+				ApplicationScale.safeValueOf(scalable), 
 				uuid, 
 				applicationUrl, 
 				gitUrl, 
@@ -404,79 +671,156 @@ public class ResourceDTOFactory {
 	 * TODO: fix this workaround once
 	 * https://bugzilla.redhat.com/show_bug.cgi?id=812046 is fixed
 	 */
-	private static Map<String, String> createEmbeddedCartridgesInfos(ModelNode embeddedNode) {
-		HashMap<String, String> infos = new HashMap<String, String>();
-		for (Property embeddedCartridgeProperty : embeddedNode.asPropertyList()) {
-			String embeddedCartridgeInfo = getEmbeddedCartridgeInfo(embeddedCartridgeProperty.getValue());
+	private static Map<String, String> createEmbeddedCartridgesInfos(JsonReader reader) throws IOException {
+		final Map<String, String> infos = new HashMap<String, String>();
+		switch (reader.peek()) {
+		case BEGIN_ARRAY:
+			reader.skipValue();
+			return infos;
+		case BEGIN_OBJECT:
+			break;
+		default:
+			throw new IllegalArgumentException("Unexpected embedded cartridges node: " + reader.peek());
+		}
+		reader.beginObject();
+		while (reader.hasNext()) {
+			final String cartridgeName = reader.nextName();
+			final String embeddedCartridgeInfo = getEmbeddedCartridgeInfo(reader);
 			if (embeddedCartridgeInfo != null) {
-				infos.put(embeddedCartridgeProperty.getName(), embeddedCartridgeInfo);
+				infos.put(cartridgeName, embeddedCartridgeInfo);
 			}
 		}
+		reader.endObject();
 		return infos;
 	}
 
-	private static String getEmbeddedCartridgeInfo(ModelNode embeddedCartridgeNode) {
-		if (embeddedCartridgeNode == null
-				|| !embeddedCartridgeNode.has(PROPERTY_INFO)
-				|| !embeddedCartridgeNode.get(PROPERTY_INFO).isDefined()) {
+	private static String getEmbeddedCartridgeInfo(JsonReader reader) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			reader.skipValue();
 			return null;
 		}
-		return embeddedCartridgeNode.get(PROPERTY_INFO).asString();
+		String info = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (PROPERTY_INFO.equals(reader.nextName())) {
+				info = readAsString(reader, null);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return info;
 	}
 
-	private static List<GearResourceDTO> createGears(ModelNode gearsNode) {
-		if (gearsNode.has(PROPERTY_DATA)) {
-			// loop inside 'data' node
-			return createGears(gearsNode.get(PROPERTY_DATA));
-		}
+	private static List<GearResourceDTO> createGears(JsonReader reader) throws IOException {
 		final List<GearResourceDTO> gears = new ArrayList<GearResourceDTO>();
-		if (gearsNode.getType() == ModelType.LIST) {
-			for (ModelNode childNode : gearsNode.asList()) {
-				gears.add(createGear(childNode, null));
+		switch (reader.peek()) {
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			while (reader.hasNext()) {
+				gears.add(createGear(reader, null));
 			}
+			reader.endArray();
+			return gears;
+		case BEGIN_OBJECT:
+			List<GearResourceDTO> data = gears;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (PROPERTY_DATA.equals(reader.nextName())) {
+					// loop inside 'data' node
+					data = createGears(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			return data;
+		default:
+			reader.skipValue();
+			return gears;
 		}
-		return gears;
 	}
 
-	private static GearResourceDTO createGear(ModelNode gearNode, List<Message> creationLog) {
-		if (gearNode.has(PROPERTY_DATA)) {
-			// recurse into 'data' node
-			return createGear(gearNode.get(PROPERTY_DATA), creationLog);
+	private static GearResourceDTO createGear(JsonReader reader, List<Message> creationLog) throws IOException {
+		String uuid = null;
+		String gitUrl = null;
+		List<GearComponentDTO> components = new ArrayList<GearComponentDTO>();
+		GearResourceDTO data = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String name = reader.nextName();
+				if (PROPERTY_DATA.equals(name)) {
+					// recurse into 'data' node
+					data = createGear(reader, creationLog);
+				} else if (PROPERTY_UUID.equals(name)) {
+					uuid = readAsString(reader, null);
+				} else if (PROPERTY_GIT_URL.equals(name)) {
+					gitUrl = readAsString(reader, null);
+				} else if (PROPERTY_GEARS_COMPONENTS.equals(name)) {
+					components = createGearComponents(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		if (data != null) {
+			return data;
 		}
-		final String uuid = getAsString(gearNode, PROPERTY_UUID);
-		final String gitUrl = getAsString(gearNode, PROPERTY_GIT_URL);
-		final List<GearComponentDTO> components = createGearComponents(gearNode.get(PROPERTY_GEARS_COMPONENTS));
 		return new GearResourceDTO(uuid, gitUrl, components, creationLog);
 	}
 
-	private static List<GearComponentDTO> createGearComponents(ModelNode gearsComponentNode) {
+	private static List<GearComponentDTO> createGearComponents(JsonReader reader) throws IOException {
 		final List<GearComponentDTO> components = new ArrayList<GearComponentDTO>();
-		if (gearsComponentNode.getType() == ModelType.LIST) {
-			for (ModelNode componentNode : gearsComponentNode.asList()) {
-				final String name = getAsString(componentNode, PROPERTY_NAME);
-				final String internalPort = getAsString(componentNode, PROPERTY_INTERNAL_PORT);
-				final String proxyPort = getAsString(componentNode, PROPERTY_PROXY_PORT);
-				final String proxyHost = getAsString(componentNode, PROPERTY_PROXY_HOST);
-				components.add(new GearComponentDTO(name, internalPort, proxyHost, proxyPort, null));
+		if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+			reader.skipValue();
+			return components;
+		}
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String name = null;
+			String internalPort = null;
+			String proxyPort = null;
+			String proxyHost = null;
+			if (beginObjectOrNull(reader)) {
+				while (reader.hasNext()) {
+					final String property = reader.nextName();
+					if (PROPERTY_NAME.equals(property)) {
+						name = readAsString(reader, null);
+					} else if (PROPERTY_INTERNAL_PORT.equals(property)) {
+						internalPort = readAsString(reader, null);
+					} else if (PROPERTY_PROXY_PORT.equals(property)) {
+						proxyPort = readAsString(reader, null);
+					} else if (PROPERTY_PROXY_HOST.equals(property)) {
+						proxyHost = readAsString(reader, null);
+					} else {
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
 			}
+			components.add(new GearComponentDTO(name, internalPort, proxyHost, proxyPort, null));
 		}
+		reader.endArray();
 		return components;
 	}
 
 	/**
 	 * Creates a new ResourceDTO object.
 	 * 
-	 * @param rootNode
-	 *            the root node
+	 * @param reader
+	 *            the reader positioned at the cartridges node
 	 * @return the list< cartridge resource dt o>
 	 * @throws OpenShiftException
 	 */
-	private static List<CartridgeResourceDTO> createCartridges(ModelNode rootNode) throws OpenShiftException {
+	private static List<CartridgeResourceDTO> createCartridges(JsonReader reader) throws IOException,
+			OpenShiftException {
 		final List<CartridgeResourceDTO> cartridges = new ArrayList<CartridgeResourceDTO>();
-		if (rootNode.has(PROPERTY_DATA)) {
-			for (ModelNode cartridgeNode : rootNode.get(PROPERTY_DATA).asList()) {
-				cartridges.add(createCartridge(cartridgeNode, null));
+		if (beginList(reader)) {
+			while (reader.hasNext()) {
+				cartridges.add(createCartridge(reader, null));
 			}
+			reader.endArray();
 		}
 		return cartridges;
 	}
@@ -484,41 +828,64 @@ public class ResourceDTOFactory {
 	/**
 	 * Creates a new ResourceDTO object.
 	 * 
-	 * @param cartridgeNode
-	 *            the cartridge node
+	 * @param reader
+	 *            the reader positioned at the cartridge node
 	 * @return the cartridge resource dto
 	 * @throws OpenShiftException
 	 */
-	private static CartridgeResourceDTO createCartridge(ModelNode cartridgeNode, List<Message> creationLog)
-			throws OpenShiftException {
-		if (cartridgeNode.has(PROPERTY_DATA)) {
-			// recurse into 'data' node
-			return createCartridge(cartridgeNode.get(PROPERTY_DATA), creationLog);
-		}
-		final String name = getAsString(cartridgeNode, PROPERTY_NAME);
-		final String type = getAsString(cartridgeNode, PROPERTY_TYPE);
-		final Map<String, Link> links = createLinks(cartridgeNode.get(PROPERTY_LINKS));
+	private static CartridgeResourceDTO createCartridge(JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		String name = null;
+		String type = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		CartridgeResourceDTO data = null;
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String property = reader.nextName();
+				if (PROPERTY_DATA.equals(property)) {
+					// recurse into 'data' node
+					data = createCartridge(reader, creationLog);
+				} else if (PROPERTY_NAME.equals(property)) {
+					name = readAsString(reader, null);
+				} else if (PROPERTY_TYPE.equals(property)) {
+					type = readAsString(reader, null);
+				} else if (PROPERTY_LINKS.equals(property)) {
+					links = createLinks(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		if (data != null) {
+			return data;
+		}
 		return new CartridgeResourceDTO(name, type, links, creationLog);
 	}
 
 	/**
 	 * Creates a new ResourceDTO object.
 	 * 
-	 * @param aliasNodeList
-	 *            the alias node list
+	 * @param reader
+	 *            the reader positioned at the aliases node
 	 * @return the list< string>
 	 */
-	private static List<String> createAliases(ModelNode aliasNodesList) {
+	private static List<String> createAliases(JsonReader reader) throws IOException {
 		final List<String> aliases = new ArrayList<String>();
-		switch (aliasNodesList.getType()) {
-		case OBJECT:
-		case LIST:
-			for (ModelNode aliasNode : aliasNodesList.asList()) {
-				aliases.add(aliasNode.asString());
+		switch (reader.peek()) {
+		case BEGIN_OBJECT:
+			// properties are not supported as aliases
+			reader.skipValue();
+			break;
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			while (reader.hasNext()) {
+				aliases.add(readAsString(reader, UNDEFINED));
 			}
+			reader.endArray();
 			break;
 		default:
-			aliases.add(aliasNodesList.asString());
+			aliases.add(readAsString(reader, UNDEFINED));
 		}
 		return aliases;
 	}
@@ -526,18 +893,23 @@ public class ResourceDTOFactory {
 	/**
 	 * Creates a new DTO object.
 	 * 
-	 * @param linkParamNodes
-	 *            the link param nodes
+	 * @param reader
+	 *            the reader positioned at the link parameters node
 	 * @return the list< link param>
-	 * @throws OpenShiftRequestException
+	 * @throws OpenShiftException
 	 */
-	private static List<LinkParameter> createLinkParameters(ModelNode linkParamNodes)
-			throws OpenShiftRequestException {
+	private static List<LinkParameter> createLinkParameters(JsonReader reader) throws IOException,
+			OpenShiftException {
 		List<LinkParameter> linkParams = new ArrayList<LinkParameter>();
-		if (linkParamNodes.isDefined()) {
-			for (ModelNode linkParamNode : linkParamNodes.asList()) {
-				linkParams.add(createLinkParameter(linkParamNode));
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return linkParams;
+		}
+		if (beginList(reader)) {
+			while (reader.hasNext()) {
+				linkParams.add(createLinkParameter(reader));
 			}
+			reader.endArray();
 		}
 		return linkParams;
 	}
@@ -545,89 +917,176 @@ public class ResourceDTOFactory {
 	/**
 	 * Creates a new link parameter for the given link parameter node.
 	 * 
-	 * @param linkParamNode
-	 *            the model node that contains the link parameters
+	 * @param reader
+	 *            the reader positioned at the link parameter node
 	 * @return the link parameter
-	 * @throws OpenShiftRequestException
+	 * @throws OpenShiftException
 	 */
-	private static LinkParameter createLinkParameter(ModelNode linkParamNode) throws OpenShiftRequestException {
-		final String description = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_DESCRIPTION).asString();
-		final String type = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_TYPE).asString();
-		final String defaultValue = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_DEFAULT_VALUE).asString();
-		final String name = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_NAME).asString();
-		return new LinkParameter(name, type, defaultValue, description, createValidOptions(linkParamNode));
+	private static LinkParameter createLinkParameter(JsonReader reader) throws IOException, OpenShiftException {
+		String description = UNDEFINED;
+		String type = UNDEFINED;
+		String defaultValue = UNDEFINED;
+		String name = UNDEFINED;
+		List<String> validOptions = new ArrayList<String>();
+		if (beginObjectOrNull(reader)) {
+			while (reader.hasNext()) {
+				final String property = reader.nextName();
+				if (IOpenShiftJsonConstants.PROPERTY_DESCRIPTION.equals(property)) {
+					description = readAsString(reader, UNDEFINED);
+				} else if (PROPERTY_TYPE.equals(property)) {
+					type = readAsString(reader, UNDEFINED);
+				} else if (IOpenShiftJsonConstants.PROPERTY_DEFAULT_VALUE.equals(property)) {
+					defaultValue = readAsString(reader, UNDEFINED);
+				} else if (PROPERTY_NAME.equals(property)) {
+					name = readAsString(reader, UNDEFINED);
+				} else if (PROPERTY_VALID_OPTIONS.equals(property)) {
+					validOptions = createValidOptions(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		return new LinkParameter(name, type, defaultValue, description, validOptions);
 	}
 
 	/**
 	 * Gets the valid options.
 	 * 
-	 * @param linkParamNode
-	 *            the link param node
+	 * @param reader
+	 *            the reader positioned at the valid options node
 	 * @return the valid options
 	 */
-	private static List<String> createValidOptions(ModelNode linkParamNode) {
+	private static List<String> createValidOptions(JsonReader reader) throws IOException {
 		final List<String> validOptions = new ArrayList<String>();
-		final ModelNode validOptionsNode = linkParamNode.get(PROPERTY_VALID_OPTIONS);
-		if (validOptionsNode.isDefined()) {
-			switch (validOptionsNode.getType()) {
-			case STRING: // if there's only one value, it is not serialized as a
-							// list, but just a string
-				validOptions.add(validOptionsNode.asString());
-				break;
-			case LIST:
-				for (ModelNode validOptionNode : validOptionsNode.asList()) {
-					validOptions.add(validOptionNode.asString());
-				}
-				break;
-			default:
-				break;
+		switch (reader.peek()) {
+		case STRING: // if there's only one value, it is not serialized as a
+						// list, but just a string
+			validOptions.add(reader.nextString());
+			break;
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			while (reader.hasNext()) {
+				validOptions.add(readAsString(reader, UNDEFINED));
 			}
+			reader.endArray();
+			break;
+		default:
+			reader.skipValue();
+			break;
 		}
 		return validOptions;
 	}
 
 	/**
-	 * Returns the property identified by the given name in the given model
-	 * node, or null if the named property is undefined.
-	 * 
-	 * @param node
-	 *            the model node
-	 * @param propertyName
-	 *            the name of the property
-	 * @return the property as a String
+	 * Begins reading the next object. Returns <code>false</code> if the next
+	 * value is <code>null</code>, which is consumed then.
+	 */
+	private static boolean beginObjectOrNull(JsonReader reader) throws IOException {
+		if (reader.peek() == JsonToken.NULL) {
+			reader.nextNull();
+			return false;
+		}
+		beginObject(reader);
+		return true;
+	}
+
+	private static void beginObject(JsonReader reader) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			throw new IllegalArgumentException("Expected object but was " + getNodeType(reader));
+		}
+		reader.beginObject();
+	}
+
+	/**
+	 * Begins reading the next list. Returns <code>false</code> if the next
+	 * value is an empty object, which is consumed then.
+	 */
+	private static boolean beginList(JsonReader reader) throws IOException {
+		switch (reader.peek()) {
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			return true;
+		case BEGIN_OBJECT:
+			reader.beginObject();
+			if (reader.hasNext()) {
+				throw new IllegalArgumentException("Expected list but was object");
+			}
+			reader.endObject();
+			return false;
+		default:
+			throw new IllegalArgumentException("Expected list but was " + getNodeType(reader));
+		}
+	}
+
+	/**
+	 * Returns the (jboss-dmr) type name of the next value.
 	 */
-	private static String getAsString(final ModelNode node, String propertyName) {
-		final ModelNode propertyNode = node.get(propertyName);
-		return propertyNode.isDefined() ? propertyNode.asString() : null;
+	private static String getNodeType(JsonReader reader) throws IOException {
+		switch (reader.peek()) {
+		case BEGIN_OBJECT:
+			return "OBJECT";
+		case BEGIN_ARRAY:
+			return "LIST";
+		case STRING:
+			return "STRING";
+		case BOOLEAN:
+			return "BOOLEAN";
+		case NULL:
+			return "UNDEFINED";
+		default:
+			return String.valueOf(reader.peek());
+		}
 	}
-	
+
 	/**
-	 * Returns the property identified by the given name in the given model node, or null if the named property is
+	 * Reads the next value as String. Returns the given undefined value if the
+	 * value is null. Objects and lists are not supported and are reported as
 	 * undefined.
 	 * 
-	 * @param node
-	 *            the model node
-	 * @param propertyName
-	 *            the name of the property
-	 * @return the property as a String
+	 * @param reader
+	 *            the reader
+	 * @param undefined
+	 *            the value to return for undefined values
+	 * @return the value as a String
 	 */
-	private static Boolean getAsBoolean(final ModelNode node, String propertyName) {
-		final ModelNode propertyNode = node.get(propertyName);
-		return propertyNode.isDefined() ? propertyNode.asBoolean() : Boolean.FALSE;
+	private static String readAsString(final JsonReader reader, String undefined) throws IOException {
+		switch (reader.peek()) {
+		case NULL:
+			reader.nextNull();
+			return undefined;
+		case BEGIN_OBJECT:
+		case BEGIN_ARRAY:
+			reader.skipValue();
+			return undefined;
+		default:
+			return reader.nextString();
+		}
 	}
-	
+
 	/**
-	 * Returns the property identified by the given name in the given model node, or null if the named property is
-	 * undefined.
+	 * Reads the next value as int. Returns the given undefined value if the
+	 * value is null.
 	 * 
-	 * @param node
-	 *            the model node
-	 * @param propertyName
-	 *            the name of the property
-	 * @return the property as an Integer
+	 * @param reader
+	 *            the reader
+	 * @param undefined
+	 *            the value to return for undefined values
+	 * @return the value as an int
 	 */
-	private static int getAsInteger(final ModelNode node, String propertyName) {
-		final ModelNode propertyNode = node.get(propertyName);
-		return propertyNode.isDefined() ? propertyNode.asInt() : 0;
+	private static int readAsInt(final JsonReader reader, int undefined) throws IOException {
+		switch (reader.peek()) {
+		case NULL:
+			reader.nextNull();
+			return undefined;
+		case BOOLEAN:
+			return Boolean.valueOf(reader.nextString()) ? 1 : 0;
+		case NUMBER:
+			return new BigDecimal(reader.nextString()).intValue();
+		case STRING:
+			return Integer.parseInt(reader.nextString());
+		default:
+			throw new IllegalArgumentException("Expected number but was " + getNodeType(reader));
+		}
 	}
 }
@@ -1,8 +1,5 @@
 package com.openshift.internal.client.ssh;
 
-import java.util.Arrays;
-
-import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import com.openshift.client.IApplication;
 import com.openshift.client.IApplicationPortForwarding;
@@ -51,6 +48,7 @@ public class ApplicationPortForwarding implements IApplicationPortForwarding {
 		if (!isStarted(session)) {
 			try {
 				session.setPortForwardingL(localAddress, this.localPort, this.remoteAddress, this.remotePort);
+				PortForwardingRegistry.get(session).add(this);
 			} catch (Exception e) {
 				throw new OpenShiftSSHOperationException(e, "Failed to start port forwarding on {0}:{1}",
 						this.localAddress, this.localPort);
@@ -65,6 +63,7 @@ public class ApplicationPortForwarding implements IApplicationPortForwarding {
 		if (isStarted(session)) {
 			try {
 				session.delPortForwardingL(localAddress, localPort);
+				PortForwardingRegistry.get(session).remove(this);
 			} catch (Exception e) {
 				throw new OpenShiftSSHOperationException(e, "Failed to stop port forwarding on {0}:{1}",
 						this.localAddress, this.localPort);
@@ -79,16 +78,7 @@ public class ApplicationPortForwarding implements IApplicationPortForwarding {
 		if (session == null || !session.isConnected()) {
 			return false;
 		}
-		try {
-			// returned format : localPort:remoteHost:remotePort
-			final String[] portForwardingL = session.getPortForwardingL();
-			final String key = this.localPort + ":" + this.remoteAddress + ":" + this.remotePort;
-			Arrays.sort(portForwardingL);
-			final int r = Arrays.binarySearch(portForwardingL, key);
-			return r >= 0;
-		} catch (JSchException e) {
-			throw new OpenShiftSSHOperationException(e, "Failed to retrieve SSH ports forwarding");
-		}
+		return PortForwardingRegistry.get(session).contains(this);
 	}
 
 	/**
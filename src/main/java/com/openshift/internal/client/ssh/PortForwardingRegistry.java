@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.ssh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.jcraft.jsch.Session;
+import com.openshift.client.IApplicationPortForwarding;
+
+/**
+ * The forwardings that were started on an SSH session. Forwardings are added
+ * when they are started and removed when they are stopped, so checking if a
+ * forwarding is started is a hash lookup instead of listing, sorting and
+ * searching the forwardings of the session. Registries are held weakly by
+ * session and vanish with the session.
+ */
+public class PortForwardingRegistry {
+
+	private static final Map<Session, PortForwardingRegistry> REGISTRIES =
+			new WeakHashMap<Session, PortForwardingRegistry>();
+
+	private final Set<IApplicationPortForwarding> forwardings =
+			Collections.newSetFromMap(new IdentityHashMap<IApplicationPortForwarding, Boolean>());
+
+	/**
+	 * Returns the registry of the given session, creates it if there's none
+	 * yet.
+	 * 
+	 * @param session
+	 *            the session to get the registry for
+	 * @return the registry
+	 */
+	public static PortForwardingRegistry get(Session session) {
+		synchronized (REGISTRIES) {
+			PortForwardingRegistry registry = REGISTRIES.get(session);
+			if (registry == null) {
+				registry = new PortForwardingRegistry();
+				REGISTRIES.put(session, registry);
+			}
+			return registry;
+		}
+	}
+
+	public synchronized void add(IApplicationPortForwarding forwarding) {
+		forwardings.add(forwarding);
+	}
+
+	public synchronized void remove(IApplicationPortForwarding forwarding) {
+		forwardings.remove(forwarding);
+	}
+
+	public synchronized boolean contains(IApplicationPortForwarding forwarding) {
+		return forwardings.contains(forwarding);
+	}
+
+	public synchronized boolean isEmpty() {
+		return forwardings.isEmpty();
+	}
+
+	/**
+	 * @return all forwardings that are started on the session
+	 */
+	public synchronized List<IApplicationPortForwarding> getForwardings() {
+		return new ArrayList<IApplicationPortForwarding>(forwardings);
+	}
+
+	public synchronized void clear() {
+		forwardings.clear();
+	}
+}
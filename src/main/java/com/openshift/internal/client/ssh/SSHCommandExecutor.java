@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.ssh;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.openshift.client.ISSHCommandListener;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Executes a command on an SSH session and streams its standard output and
+ * error to a listener. Both streams are drained at the same time (standard
+ * error in a pooled thread) so that the command never blocks on a full
+ * stream that nobody reads. Nothing is buffered beyond the current line: if
+ * the listener is slow, the SSH window fills up and the remote command waits.
+ */
+public class SSHCommandExecutor {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SSHCommandExecutor.class);
+
+	private static final long EXIT_STATUS_TIMEOUT = 1000;
+	private static final long EXIT_STATUS_POLL_DELAY = 10;
+
+	private static final ExecutorService STREAM_READERS =
+			Executors.newCachedThreadPool(new DaemonThreadFactory("openshift-ssh-stream-"));
+
+	private SSHCommandExecutor() {
+		// inhibit instantiation
+	}
+
+	/**
+	 * Executes the given command and blocks until it completed.
+	 * 
+	 * @param session
+	 *            the connected session to execute the command on
+	 * @param command
+	 *            the command to execute
+	 * @param listener
+	 *            the listener to notify of the output
+	 * @return the exit status of the command, -1 if the server did not
+	 *         report it
+	 * @throws JSchException
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static int execute(Session session, String command, final ISSHCommandListener listener)
+			throws JSchException, IOException, InterruptedException {
+		ChannelExec channel = (ChannelExec) session.openChannel("exec");
+		try {
+			channel.setCommand(command);
+			// streams have to be obtained before connecting
+			final InputStream output = channel.getInputStream();
+			final InputStream error = channel.getExtInputStream();
+			channel.connect();
+			final Object lock = new Object();
+			Future<?> errorReader = STREAM_READERS.submit(new Runnable() {
+
+				public void run() {
+					try {
+						read(error, true, listener, lock);
+					} catch (IOException e) {
+						LOGGER.error("Could not read standard error of SSH command", e);
+					}
+				}
+			});
+			try {
+				read(output, false, listener, lock);
+				errorReader.get();
+			} catch (ExecutionException e) {
+				LOGGER.error("Could not read standard error of SSH command", e.getCause());
+			} finally {
+				errorReader.cancel(true);
+			}
+			return waitForExitStatus(channel);
+		} finally {
+			if (channel.isConnected()) {
+				channel.disconnect();
+			}
+		}
+	}
+
+	private static void read(InputStream in, boolean error, ISSHCommandListener listener, Object lock)
+			throws IOException {
+		if (in == null) {
+			return;
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				synchronized (lock) {
+					if (error) {
+						listener.error(line);
+					} else {
+						listener.output(line);
+					}
+				}
+			}
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				LOGGER.error("Failed to close SSH stream reader", e);
+			}
+		}
+	}
+
+	/**
+	 * The channel is closed shortly after the streams reached their end. The
+	 * exit status is only known once it is closed.
+	 */
+	private static int waitForExitStatus(ChannelExec channel) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + EXIT_STATUS_TIMEOUT;
+		while (!channel.isClosed()
+				&& System.currentTimeMillis() < timeout) {
+			Thread.sleep(EXIT_STATUS_POLL_DELAY);
+		}
+		return channel.getExitStatus();
+	}
+}
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.ssh;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationGear;
+import com.openshift.client.ISSHSessionFactory;
+import com.openshift.client.OpenShiftSSHOperationException;
+import com.openshift.internal.client.utils.DaemonThreadFactory;
+
+/**
+ * Keeps one SSH session per application (by uuid, or git url if there's no
+ * uuid) or gear (by uuid) and shares it among all callers. Sessions are created and connected
+ * on demand, kept alive while in use and disconnected once they were idle
+ * for a while. The number of channels that may be open on a session at a
+ * time is bounded, further callers wait until a channel is released.
+ */
+public class SSHSessionPool {
+
+	public static final int DEFAULT_MAX_CHANNELS = 8;
+	public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
+	public static final int DEFAULT_KEEP_ALIVE_INTERVAL = 30 * 1000;
+
+	private final ISSHSessionFactory factory;
+	private final int maxChannels;
+	private final long idleTimeout;
+	private final int keepAliveInterval;
+	private final Map<String, PooledSession> sessions = new HashMap<String, PooledSession>();
+	private final ScheduledExecutorService evictor;
+
+	public SSHSessionPool(ISSHSessionFactory factory) {
+		this(factory, DEFAULT_MAX_CHANNELS, DEFAULT_IDLE_TIMEOUT, DEFAULT_KEEP_ALIVE_INTERVAL);
+	}
+
+	public SSHSessionPool(ISSHSessionFactory factory, int maxChannels, long idleTimeout, int keepAliveInterval) {
+		if (maxChannels < 1) {
+			throw new IllegalArgumentException("Max channels needs to be 1 or more");
+		}
+		this.factory = factory;
+		this.maxChannels = maxChannels;
+		this.idleTimeout = idleTimeout;
+		this.keepAliveInterval = keepAliveInterval;
+		this.evictor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("openshift-ssh-evictor-"));
+		long evictionInterval = Math.max(idleTimeout / 2, 1000);
+		evictor.scheduleWithFixedDelay(new Runnable() {
+
+			public void run() {
+				evictIdle();
+			}
+		}, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns a connected session to the given application and reserves a
+	 * channel on it. Waits if all channels of the session are in use. Callers
+	 * have to release the session once they closed their channel.
+	 * 
+	 * @param application
+	 *            the application to get a session for
+	 * @return the session
+	 * @throws OpenShiftSSHOperationException
+	 *             if the session could not be created or connected
+	 * 
+	 * @see #release(PooledSession)
+	 */
+	public PooledSession acquire(final IApplication application) throws OpenShiftSSHOperationException {
+		return acquire(new Target() {
+
+			String getKey() {
+				String uuid = application.getUUID();
+				if (uuid != null) {
+					return uuid;
+				}
+				return application.getGitUrl();
+			}
+
+			Session createSession() throws JSchException {
+				return factory.createSession(application);
+			}
+
+			@Override
+			public String toString() {
+				return "application \"" + application.getName() + "\"";
+			}
+		});
+	}
+
+	/**
+	 * Returns a connected session to the given gear and reserves a channel on
+	 * it. The session is shared with the application if the gear is its head
+	 * gear (has the same uuid).
+	 * 
+	 * @param gear
+	 *            the gear to get a session for
+	 * @return the session
+	 * @throws OpenShiftSSHOperationException
+	 *             if the session could not be created or connected
+	 * 
+	 * @see #acquire(IApplication)
+	 */
+	public PooledSession acquire(final IApplicationGear gear) throws OpenShiftSSHOperationException {
+		return acquire(new Target() {
+
+			String getKey() {
+				return gear.getUuid();
+			}
+
+			Session createSession() throws JSchException {
+				return factory.createSession(gear);
+			}
+
+			@Override
+			public String toString() {
+				return "gear \"" + gear.getUuid() + "\"";
+			}
+		});
+	}
+
+	private PooledSession acquire(Target target) throws OpenShiftSSHOperationException {
+		PooledSession pooled = reserve(target.getKey());
+		try {
+			pooled.channels.acquire();
+		} catch (InterruptedException e) {
+			pooled.inUse.decrementAndGet();
+			Thread.currentThread().interrupt();
+			throw new OpenShiftSSHOperationException(e, "Interrupted while waiting for an SSH channel to {0}", target);
+		}
+		try {
+			pooled.connect(target);
+		} catch (OpenShiftSSHOperationException e) {
+			release(pooled);
+			throw e;
+		}
+		return pooled;
+	}
+
+	/**
+	 * Releases the channel that was reserved on the given session.
+	 * 
+	 * @param pooled
+	 *            the session to release
+	 */
+	public void release(PooledSession pooled) {
+		pooled.lastUsed = System.currentTimeMillis();
+		pooled.inUse.decrementAndGet();
+		pooled.channels.release();
+	}
+
+	/**
+	 * Disconnects all sessions that are not in use and were not used for
+	 * longer than the idle timeout.
+	 */
+	public synchronized void evictIdle() {
+		long now = System.currentTimeMillis();
+		for (Iterator<PooledSession> it = sessions.values().iterator(); it.hasNext();) {
+			PooledSession pooled = it.next();
+			if (pooled.inUse.get() == 0
+					&& now - pooled.lastUsed >= idleTimeout
+					&& pooled.disconnectIfIdle()) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Disconnects all sessions and stops evicting.
+	 */
+	public synchronized void close() {
+		evictor.shutdownNow();
+		for (Map.Entry<String, PooledSession> entry : sessions.entrySet()) {
+			entry.getValue().disconnect();
+		}
+		sessions.clear();
+	}
+
+	public synchronized int size() {
+		return sessions.size();
+	}
+
+	/**
+	 * Returns the pooled session for the given key and marks it in use so
+	 * that it is not evicted while the caller waits for a channel.
+	 */
+	private synchronized PooledSession reserve(String key) {
+		PooledSession pooled = sessions.get(key);
+		if (pooled == null) {
+			pooled = new PooledSession();
+			sessions.put(key, pooled);
+		}
+		pooled.inUse.incrementAndGet();
+		return pooled;
+	}
+
+	/**
+	 * Something that sessions are opened to, an application or a gear.
+	 */
+	private abstract static class Target {
+
+		abstract String getKey();
+
+		abstract Session createSession() throws JSchException;
+	}
+
+	/**
+	 * A session that is shared among the callers that want to open channels
+	 * to the same application or gear.
+	 */
+	public class PooledSession {
+
+		private final Semaphore channels = new Semaphore(maxChannels, true);
+		private final AtomicInteger inUse = new AtomicInteger();
+		private volatile long lastUsed = System.currentTimeMillis();
+		private Session session;
+
+		public synchronized Session getSession() {
+			return session;
+		}
+
+		/**
+		 * Creates and connects the session if it doesn't exist yet or was
+		 * disconnected (ex. by the server).
+		 */
+		private synchronized void connect(Target target) throws OpenShiftSSHOperationException {
+			if (session != null
+					&& session.isConnected()) {
+				return;
+			}
+			try {
+				Session session = target.createSession();
+				if (!session.isConnected()) {
+					session.setServerAliveInterval(keepAliveInterval);
+					session.connect();
+				}
+				this.session = session;
+			} catch (JSchException e) {
+				throw new OpenShiftSSHOperationException(e, "Could not connect SSH session to {0}", target);
+			}
+		}
+
+		private synchronized boolean disconnectIfIdle() {
+			if (inUse.get() > 0) {
+				return false;
+			}
+			disconnect();
+			return true;
+		}
+
+		private synchronized void disconnect() {
+			if (session != null) {
+				session.disconnect();
+				session = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/******************************************************************************* 
+ * Copyright (c) 2012 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of byte arrays of the same size that are used as transfer
+ * buffers when copying streams. Buffers that are released while the pool is
+ * full are dropped.
+ */
+public class BufferPool {
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	public static final int DEFAULT_MAX_POOLED = 8;
+
+	private static final BufferPool DEFAULT = new BufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED);
+
+	private final int bufferSize;
+	private final int maxPooled;
+	private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<byte[]>();
+	private final AtomicInteger pooled = new AtomicInteger();
+
+	public BufferPool(int bufferSize, int maxPooled) {
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+	}
+
+	public static BufferPool getDefault() {
+		return DEFAULT;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Returns a pooled buffer or a new one if the pool is empty. The buffer
+	 * should be handed back via {@link #release(byte[])}.
+	 */
+	public byte[] acquire() {
+		byte[] buffer = buffers.poll();
+		if (buffer == null) {
+			return new byte[bufferSize];
+		}
+		pooled.decrementAndGet();
+		return buffer;
+	}
+
+	public void release(byte[] buffer) {
+		if (buffer == null
+				|| buffer.length != bufferSize) {
+			return;
+		}
+		if (pooled.incrementAndGet() > maxPooled) {
+			pooled.decrementAndGet();
+			return;
+		}
+		buffers.offer(buffer);
+	}
+}
@@ -0,0 +1,39 @@
+/******************************************************************************* 
+ * Copyright (c) 2012 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+/**
+ * A growable byte buffer whose content may be read without copying it (as
+ * {@link ByteArrayOutputStream#toByteArray()} does).
+ */
+public class ByteArrayBuffer extends ByteArrayOutputStream {
+
+	public ByteArrayBuffer() {
+		super();
+	}
+
+	public ByteArrayBuffer(int initialSize) {
+		super(initialSize);
+	}
+
+	/**
+	 * Returns a stream that reads the current content of this buffer. The
+	 * content is shared, not copied. Writing to this buffer afterwards does not
+	 * affect the stream unless the buffer is reset.
+	 */
+	public synchronized InputStream toInputStream() {
+		return new ByteArrayInputStream(buf, 0, count);
+	}
+}
@@ -22,5 +22,18 @@ public class CollectionUtils {
 	public static <T> List<T> toUnmodifiableCopy(List<T> list) {
 		return Collections.unmodifiableList(new ArrayList<T>(list));
 	}
+
+	public static <T> List<T> addToUnmodifiableCopy(List<T> list, T element) {
+		List<T> copy = new ArrayList<T>(list.size() + 1);
+		copy.addAll(list);
+		copy.add(element);
+		return Collections.unmodifiableList(copy);
+	}
+
+	public static <T> List<T> removeFromUnmodifiableCopy(List<T> list, T element) {
+		List<T> copy = new ArrayList<T>(list);
+		copy.remove(element);
+		return Collections.unmodifiableList(copy);
+	}
 	
 }
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads so that the threads of the client never keep the
+ * jvm from exiting.
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final AtomicInteger count = new AtomicInteger();
+
+	public DaemonThreadFactory(String prefix) {
+		this.prefix = prefix;
+	}
+
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+/**
+ * A value that is loaded lazily and that may be read without locking. The
+ * value is expected to be an immutable snapshot (ex. an unmodifiable list)
+ * that is replaced as a whole when it changes.
+ * <p>
+ * Concurrent readers that find the value not loaded yet wait for a single load
+ * instead of loading it each. Writers that need to read and replace the value
+ * atomically synchronize on this instance:
+ * 
+ * <pre>
+ * synchronized (snapshot) {
+ * 	snapshot.set(CollectionUtils.addToUnmodifiableCopy(snapshot.peek(), element));
+ * }
+ * </pre>
+ * 
+ * @param <T>
+ *            the type of the value
+ * @param <E>
+ *            the exception that loading may throw
+ */
+public abstract class LazySnapshot<T, E extends Exception> {
+
+	private volatile T value;
+
+	/**
+	 * Returns the value, loads it if it's not loaded yet.
+	 */
+	public T get() throws E {
+		T value = this.value;
+		if (value != null) {
+			return value;
+		}
+		synchronized (this) {
+			if (this.value == null) {
+				this.value = load();
+			}
+			return this.value;
+		}
+	}
+
+	/**
+	 * Returns the value if it's loaded, <code>null</code> otherwise. Never
+	 * loads.
+	 */
+	public T peek() {
+		return value;
+	}
+
+	public synchronized void set(T value) {
+		this.value = value;
+	}
+
+	/**
+	 * Loads the value, no matter if it was loaded before.
+	 */
+	public synchronized T reload() throws E {
+		this.value = load();
+		return value;
+	}
+
+	/**
+	 * Loads the value again if it was loaded before.
+	 */
+	public synchronized void reloadIfLoaded() throws E {
+		if (value != null) {
+			this.value = load();
+		}
+	}
+
+	protected abstract T load() throws E;
+}
@@ -11,7 +11,8 @@
 package com.openshift.internal.client.utils;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -19,8 +20,10 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * @author Andre Dietisheim
@@ -39,16 +42,102 @@ public class StreamUtils {
 	 * @throws IOException
 	 */
 	public static InputStream writeTo(InputStream inputStream, OutputStream outputStream) throws IOException {
-		List<Byte> data = new ArrayList<Byte>();
-		for (int character = -1; (character = inputStream.read()) != -1;) {
-			data.add((byte) character);
-			outputStream.write(character);
+		ByteArrayBuffer data = new ByteArrayBuffer();
+		copy(inputStream, outputStream, data);
+		return data.toInputStream();
+	}
+
+	/**
+	 * Copies the content of the given input stream to the given output stream
+	 * in chunks of {@link BufferPool#DEFAULT_BUFFER_SIZE}. File streams are
+	 * copied via their channels. None of the streams is closed.
+	 * 
+	 * @param inputStream
+	 *            the input stream to read from
+	 * @param outputStream
+	 *            the output stream to write to
+	 * @return the number of bytes that were copied
+	 * @throws IOException
+	 */
+	public static long copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+		if (inputStream instanceof FileInputStream
+				&& outputStream instanceof FileOutputStream) {
+			return copy(((FileInputStream) inputStream).getChannel(), ((FileOutputStream) outputStream).getChannel());
 		}
-		byte[] byteArray = new byte[data.size()];
-		for (int i = byteArray.length - 1; i >= 0; i--) {
-			byteArray[i] = data.get(i);
+		return copy(inputStream, outputStream, null);
+	}
+
+	private static long copy(InputStream inputStream, OutputStream outputStream, OutputStream tee)
+			throws IOException {
+		BufferPool pool = BufferPool.getDefault();
+		byte[] buffer = pool.acquire();
+		try {
+			long count = 0;
+			for (int read = -1; (read = inputStream.read(buffer)) != -1;) {
+				outputStream.write(buffer, 0, read);
+				if (tee != null) {
+					tee.write(buffer, 0, read);
+				}
+				count += read;
+			}
+			return count;
+		} finally {
+			pool.release(buffer);
+		}
+	}
+
+	/**
+	 * Copies the content of the given source channel to the given target
+	 * channel. A file channel is transferred via
+	 * {@link FileChannel#transferTo(long, long, WritableByteChannel)} so that
+	 * the os may copy it without passing it through the jvm, other channels
+	 * are copied in chunks of {@link BufferPool#DEFAULT_BUFFER_SIZE}. None of
+	 * the channels is closed.
+	 * 
+	 * @param source
+	 *            the channel to read from
+	 * @param target
+	 *            the channel to write to
+	 * @return the number of bytes that were copied
+	 * @throws IOException
+	 */
+	public static long copy(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+		if (source instanceof FileChannel) {
+			return transferTo((FileChannel) source, target);
+		}
+		BufferPool pool = BufferPool.getDefault();
+		byte[] array = pool.acquire();
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(array);
+			long count = 0;
+			while (source.read(buffer) != -1) {
+				buffer.flip();
+				count += buffer.remaining();
+				while (buffer.hasRemaining()) {
+					target.write(buffer);
+				}
+				buffer.clear();
+			}
+			return count;
+		} finally {
+			pool.release(array);
+		}
+	}
+
+	private static long transferTo(FileChannel source, WritableByteChannel target) throws IOException {
+		long start = source.position();
+		long position = start;
+		long size = source.size();
+		while (position < size) {
+			long transferred = source.transferTo(position, size - position, target);
+			if (transferred <= 0) {
+				// file was truncated
+				break;
+			}
+			position += transferred;
 		}
-		return new ByteArrayInputStream(byteArray);
+		source.position(position);
+		return position - start;
 	}
 
 	public static String readToString(InputStream inputStream) throws IOException {
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.client.fakes;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.text.MessageFormat;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A http server fake that speaks HTTP/1.1 and keeps connections open so that
+ * clients may send several requests on the same connection. Responds with the
+ * request line and headers it received or with a given content, which it
+ * compresses if the client accepts it.
+ */
+public class KeepAliveHttpServerFake {
+
+	private ExecutorService executor;
+	private ServerSocket serverSocket;
+	private final AtomicInteger connections = new AtomicInteger();
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final Set<Socket> sockets = new CopyOnWriteArraySet<Socket>();
+	private final AtomicBoolean dropNextResponse = new AtomicBoolean();
+	private volatile byte[] content;
+
+	public void start() throws IOException {
+		this.serverSocket = new ServerSocket(0);
+		this.executor = Executors.newCachedThreadPool();
+		executor.submit(new Runnable() {
+
+			public void run() {
+				while (!serverSocket.isClosed()) {
+					try {
+						final Socket socket = serverSocket.accept();
+						connections.incrementAndGet();
+						sockets.add(socket);
+						executor.submit(new Runnable() {
+
+							public void run() {
+								serve(socket);
+							}
+						});
+					} catch (IOException e) {
+						// closed
+					}
+				}
+			}
+		});
+	}
+
+	public String getUrl() {
+		return MessageFormat.format("http://localhost:{0}/", String.valueOf(serverSocket.getLocalPort()));
+	}
+
+	public int getConnectionCount() {
+		return connections.get();
+	}
+
+	public int getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * @return the number of response body bytes that were sent, after
+	 *         compression
+	 */
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	/**
+	 * Makes this server respond with the given content instead of the
+	 * request that it received.
+	 */
+	public void setContent(String content) {
+		this.content = content.getBytes();
+	}
+
+	/**
+	 * Closes the connections that are kept alive, as a server does once they
+	 * exceed its keep-alive timeout.
+	 */
+	public void closeConnections() {
+		for (Socket socket : sockets) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Resets the connections that are kept alive, as a server (or a firewall)
+	 * does that drops the state of idle connections.
+	 */
+	public void resetConnections() {
+		for (Socket socket : sockets) {
+			try {
+				socket.setSoLinger(true, 0);
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Makes this server close the connection of the next request that it
+	 * receives without responding.
+	 */
+	public void dropNextResponse() {
+		dropNextResponse.set(true);
+	}
+
+	public void stop() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// ignore
+		}
+		executor.shutdownNow();
+	}
+
+	private void serve(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = socket.getOutputStream();
+			String request;
+			while ((request = readRequest(in)) != null) {
+				requests.incrementAndGet();
+				if (dropNextResponse.compareAndSet(true, false)) {
+					break;
+				}
+				byte[] body = content;
+				if (body == null) {
+					body = request.getBytes();
+				}
+				String encoding = getEncoding(request);
+				body = encode(body, encoding);
+				// count before sending, the client may read the response first
+				bytesSent.addAndGet(body.length);
+				out.write(("HTTP/1.1 200 OK\r\n"
+						+ "Content-Type: text/plain\r\n"
+						+ (encoding == null ? "" : "Content-Encoding: " + encoding + "\r\n")
+						+ "Content-Length: " + body.length + "\r\n"
+						+ "\r\n").getBytes());
+				out.write(body);
+				out.flush();
+			}
+		} catch (IOException e) {
+			// client went away
+		} finally {
+			sockets.remove(socket);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private String getEncoding(String request) {
+		String lowerCaseRequest = request.toLowerCase();
+		int start = lowerCaseRequest.indexOf("accept-encoding:");
+		if (start < 0) {
+			return null;
+		}
+		String accepted = lowerCaseRequest.substring(start, lowerCaseRequest.indexOf('\n', start));
+		if (accepted.contains("gzip")) {
+			return "gzip";
+		} else if (accepted.contains("deflate")) {
+			return "deflate";
+		}
+		return null;
+	}
+
+	private byte[] encode(byte[] body, String encoding) throws IOException {
+		if (encoding == null) {
+			return body;
+		}
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		DeflaterOutputStream out;
+		if ("gzip".equals(encoding)) {
+			out = new GZIPOutputStream(encoded);
+		} else {
+			out = new DeflaterOutputStream(encoded);
+		}
+		out.write(body);
+		out.close();
+		return encoded.toByteArray();
+	}
+
+	private String readRequest(InputStream in) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		int contentLength = 0;
+		String line;
+		while ((line = readLine(in)) != null
+				&& line.length() > 0) {
+			builder.append(line).append('\n');
+			if (line.toLowerCase().startsWith("content-length:")) {
+				contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+			}
+		}
+		if (line == null) {
+			return null;
+		}
+		for (int i = 0; i < contentLength; i++) {
+			in.read();
+		}
+		return builder.toString();
+	}
+
+	private String readLine(InputStream in) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		int character;
+		while ((character = in.read()) != -1) {
+			if (character == '\n') {
+				return builder.toString().trim();
+			}
+			builder.append((char) character);
+		}
+		return null;
+	}
+}
@@ -38,38 +38,68 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.fest.assertions.Condition;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
 import com.openshift.client.ApplicationScale;
+import com.openshift.client.GearCommandResult;
 import com.openshift.client.IApplication;
 import com.openshift.client.IApplicationGear;
+import com.openshift.client.IApplicationPortForwarding;
+import com.openshift.client.IApplicationReadinessListener;
 import com.openshift.client.ICartridge;
 import com.openshift.client.IDomain;
 import com.openshift.client.IEmbeddableCartridge;
 import com.openshift.client.IEmbeddedCartridge;
+import com.openshift.client.IGearCommandListener;
 import com.openshift.client.IHttpClient;
 import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.IPortForwardingManager;
+import com.openshift.client.IResourceChangeListener;
+import com.openshift.client.ISSHCommandListener;
+import com.openshift.client.ISSHSessionFactory;
 import com.openshift.client.IUser;
 import com.openshift.client.InvalidCredentialsOpenShiftException;
 import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftEmbeddedCartridgesException;
 import com.openshift.client.OpenShiftEndpointException;
 import com.openshift.client.OpenShiftException;
 import com.openshift.client.OpenShiftTimeoutException;
+import com.openshift.client.PortForwardingStatus;
+import com.openshift.client.ResourceChangeEvent;
 import com.openshift.client.utils.Samples;
 import com.openshift.internal.client.httpclient.HttpClientException;
 import com.openshift.internal.client.httpclient.InternalServerErrorException;
 import com.openshift.internal.client.httpclient.UnauthorizedException;
+import com.openshift.internal.client.ssh.ApplicationPortForwarding;
+import com.openshift.internal.client.ssh.PortForwardingRegistry;
+import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
 
 /**
  * @author Xavier Coulon
@@ -79,6 +109,7 @@ public class ApplicationResourceTest {
 
 	private IDomain domain;
 	private IHttpClient mockClient;
+	private IOpenShiftConnection connection;
 
 	@Before
 	public void setup() throws Throwable {
@@ -88,7 +119,7 @@ public class ApplicationResourceTest {
 		when(mockClient.get(urlEndsWith("/user"))).thenReturn(
 				Samples.GET_USER_JSON.getContentAsString());
 		when(mockClient.get(urlEndsWith("/domains"))).thenReturn(GET_DOMAINS_1EXISTING.getContentAsString());
-		final IOpenShiftConnection connection =
+		this.connection =
 				new OpenShiftConnectionFactory().getConnection(
 						new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
 		IUser user = connection.getUser();
@@ -233,6 +264,36 @@ public class ApplicationResourceTest {
 		assertThat(domain.getApplications()).hasSize(1).excludes(app);
 	}
 
+	@Test
+	public void shouldStopPortForwardingWithoutSession() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		// operation
+		List<IApplicationPortForwarding> ports = app.stopPortForwarding();
+		// verifications
+		assertThat(ports).isEmpty();
+	}
+
+	@Test
+	public void shouldLookupApplicationsByNameAndCartridge() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		final Cartridge jbossas = new Cartridge("jbossas-7");
+		assertThat(domain.getApplicationsByCartridge(jbossas)).hasSize(2);
+		final IApplication app = domain.getApplicationByName("sample");
+		// operation
+		app.destroy();
+		// verifications
+		assertThat(domain.getApplicationByName("sample")).isNull();
+		assertThat(domain.hasApplicationByName("scalable")).isTrue();
+		assertThat(domain.getApplicationsByCartridge(jbossas)).hasSize(1).excludes(app);
+		assertThat(domain.hasApplicationByCartridge(new Cartridge("php-5.3"))).isFalse();
+		verify(mockClient, times(1)).get(urlEndsWith("/domains/foobar/applications"));
+	}
+
 	@Test
 	public void shouldStopApplication() throws Throwable {
 		// pre-conditions
@@ -556,6 +617,100 @@ public class ApplicationResourceTest {
 		assertThat(app.getEmbeddedCartridges()).hasSize(1);
 	}
 
+	@Test
+	public void shouldAddDependentCartridgesAfterTheirDependency() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/sample/cartridges"))).thenReturn(
+				GET_APPLICATION_CARTRIDGES_WITH1ELEMENT_JSON.getContentAsString());
+		final List<String> posted = Collections.synchronizedList(new ArrayList<String>());
+		when(mockClient.post(anyForm(), urlEndsWith("/domains/foobar/applications/sample/cartridges"))).thenAnswer(
+				new Answer<String>() {
+
+					public String answer(InvocationOnMock invocation) throws Throwable {
+						Map<?, ?> parameters = (Map<?, ?>) invocation.getArguments()[0];
+						Thread.sleep(100);
+						posted.add((String) parameters.get(IOpenShiftJsonConstants.PROPERTY_CARTRIDGE));
+						return ADD_APPLICATION_CARTRIDGE_JSON.getContentAsString();
+					}
+				});
+		final IApplication app = domain.getApplicationByName("sample");
+		// operation
+		List<IEmbeddedCartridge> added = app.addEmbeddableCartridges(Arrays.asList(
+				IEmbeddableCartridge.PHPMYADMIN_34, IEmbeddableCartridge.MYSQL_51, IEmbeddableCartridge.METRICS_01), 3);
+		// verifications
+		assertThat(added).hasSize(3);
+		assertThat(posted).hasSize(3);
+		assertThat(posted.indexOf("mysql-5.1")).isLessThan(posted.indexOf("phpmyadmin-3.4"));
+		assertThat(posted.get(2)).isEqualTo("phpmyadmin-3.4");
+	}
+
+	@Test
+	public void shouldReportAllCartridgesThatCouldNotBeAdded() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/sample/cartridges"))).thenReturn(
+				GET_APPLICATION_CARTRIDGES_WITH1ELEMENT_JSON.getContentAsString());
+		when(mockClient.post(anyForm(), urlEndsWith("/domains/foobar/applications/sample/cartridges"))).thenAnswer(
+				new Answer<String>() {
+
+					public String answer(InvocationOnMock invocation) throws Throwable {
+						Map<?, ?> parameters = (Map<?, ?>) invocation.getArguments()[0];
+						if ("mysql-5.1".equals(parameters.get(IOpenShiftJsonConstants.PROPERTY_CARTRIDGE))) {
+							throw new SocketTimeoutException("mock...");
+						}
+						return ADD_APPLICATION_CARTRIDGE_JSON.getContentAsString();
+					}
+				});
+		final IApplication app = domain.getApplicationByName("sample");
+		// operation
+		try {
+			app.addEmbeddableCartridges(Arrays.asList(
+					IEmbeddableCartridge.MYSQL_51, IEmbeddableCartridge.PHPMYADMIN_34, IEmbeddableCartridge.METRICS_01));
+			fail("Expected an exception here...");
+		} catch (OpenShiftEmbeddedCartridgesException e) {
+			// verifications
+			assertThat(e.getAddedCartridges()).hasSize(1);
+			assertThat(e.getFailures().keySet()).containsOnly(
+					IEmbeddableCartridge.MYSQL_51, IEmbeddableCartridge.PHPMYADMIN_34);
+			assertThat(e.getFailures().get(IEmbeddableCartridge.MYSQL_51)).isInstanceOf(OpenShiftTimeoutException.class);
+		}
+		verify(mockClient, times(2)).post(anyForm(), urlEndsWith("/domains/foobar/applications/sample/cartridges"));
+	}
+
+	@Test
+	public void shouldReportErrorsWhileAddingCartridgesAsFailures() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/sample/cartridges"))).thenReturn(
+				GET_APPLICATION_CARTRIDGES_WITH1ELEMENT_JSON.getContentAsString());
+		when(mockClient.post(anyForm(), urlEndsWith("/domains/foobar/applications/sample/cartridges"))).thenAnswer(
+				new Answer<String>() {
+
+					public String answer(InvocationOnMock invocation) throws Throwable {
+						Map<?, ?> parameters = (Map<?, ?>) invocation.getArguments()[0];
+						if ("metrics-0.1".equals(parameters.get(IOpenShiftJsonConstants.PROPERTY_CARTRIDGE))) {
+							throw new AssertionError("mock...");
+						}
+						return ADD_APPLICATION_CARTRIDGE_JSON.getContentAsString();
+					}
+				});
+		final IApplication app = domain.getApplicationByName("sample");
+		// operation
+		try {
+			app.addEmbeddableCartridges(Arrays.asList(
+					IEmbeddableCartridge.MYSQL_51, IEmbeddableCartridge.METRICS_01), 2);
+			fail("Expected an exception here...");
+		} catch (OpenShiftEmbeddedCartridgesException e) {
+			// verifications
+			assertThat(e.getAddedCartridges()).hasSize(1).excludes((Object) null);
+			assertThat(e.getFailures().keySet()).containsOnly(IEmbeddableCartridge.METRICS_01);
+		}
+	}
+
 	@Test
 	public void shouldRemoveCartridgeFromApplication() throws Throwable {
 		// pre-conditions
@@ -601,6 +756,7 @@ public class ApplicationResourceTest {
 			// ok
 		}
 		// verifications
+		// timeouts are not retried by default
 		verify(mockClient, times(1)).delete(anyForm(),
 				urlEndsWith("/domains/foobar/applications/sample/cartridges/mysql-5.1"));
 		assertThat(embeddedCartridge).isNotNull();
@@ -651,6 +807,35 @@ public class ApplicationResourceTest {
 		verify(mockClient, times(2)).get(urlEndsWith("/domains/foobar/applications/sample/gears"));
 	}
 
+	@Test
+	public void shouldKeepExistingGearsOnRefreshAndNotifyAddedOnes() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/sample/gears"))).thenReturn(
+				GET_APPLICATION_GEARS_WITH1ELEMENT_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		final IApplicationGear gear = app.getGears().get(0);
+		final List<ResourceChangeEvent> events = new ArrayList<ResourceChangeEvent>();
+		app.addChangeListener(new IResourceChangeListener() {
+
+			public void resourceChanged(ResourceChangeEvent event) {
+				events.add(event);
+			}
+		});
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/sample/gears"))).thenReturn(
+				GET_APPLICATION_GEARS_WITH2ELEMENTS_JSON.getContentAsString());
+		// operation
+		app.refresh();
+		// verifications
+		assertThat(app.getGears()).hasSize(2);
+		assertThat(app.getGears().get(1)).isSameAs(gear);
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getType()).isEqualTo(ResourceChangeEvent.Type.ADDED);
+		assertThat(((IApplicationGear) events.get(0).getResource()).getUuid())
+				.isEqualTo("b5ec2197966d469896104e849d584925");
+	}
+
 	@Test
 	@Ignore
 	public void shouldNotLoadApplicationTwice() throws Throwable {
@@ -711,4 +896,286 @@ public class ApplicationResourceTest {
 		assertTrue(System.currentTimeMillis() < (startTime + timeout));
 	}
 
+	@Test
+	public void shouldNotifyListenerOnceAccessible() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_1LOCALHOST_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/health")))
+				.thenReturn("0", "0", "1"); // health ok on 3rd request
+		final IApplication app = domain.getApplicationByName("sample");
+		IApplicationReadinessListener listener = mock(IApplicationReadinessListener.class);
+
+		// operation
+		Future<Boolean> accessible = app.watchAccessible(10 * 1024, listener);
+
+		// verifications
+		assertTrue(accessible.get(10, TimeUnit.SECONDS));
+		verify(listener).accessible(app);
+		verify(listener, never()).notAccessible(any(IApplication.class));
+		verify(mockClient, times(3)).get(urlEndsWith("/health"));
+	}
+
+	@Test
+	public void shouldNotifyListenerOfEndpointError() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_1LOCALHOST_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/health")))
+				.thenThrow(new InternalServerErrorException("mock..."));
+		final IApplication app = domain.getApplicationByName("sample");
+		IApplicationReadinessListener listener = mock(IApplicationReadinessListener.class);
+
+		// operation
+		Future<Boolean> accessible = app.watchAccessible(10 * 1024, listener);
+
+		// verifications
+		try {
+			accessible.get(10, TimeUnit.SECONDS);
+			fail("Expected an exception here...");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(OpenShiftEndpointException.class);
+		}
+		verify(listener).failed(any(IApplication.class), any(OpenShiftEndpointException.class));
+		verify(mockClient, times(1)).get(urlEndsWith("/health"));
+	}
+
+	@Test
+	public void shouldExecuteOverPooledSSHSession() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		Session session = mock(Session.class);
+		when(session.isConnected()).thenReturn(false, true);
+		ChannelExec channel = mock(ChannelExec.class);
+		when(channel.getInputStream()).thenAnswer(new Answer<InputStream>() {
+
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				return new ByteArrayInputStream("OPENSHIFT_APP_NAME=sample\nPATH=/bin\n".getBytes());
+			}
+		});
+		when(channel.isClosed()).thenReturn(true);
+		when(session.openChannel("exec")).thenReturn(channel);
+		ISSHSessionFactory factory = mock(ISSHSessionFactory.class);
+		when(factory.createSession(app)).thenReturn(session);
+		connection.setSSHSessionFactory(factory);
+		try {
+			// operation
+			app.getEnvironmentProperties();
+			List<String> properties = app.getEnvironmentProperties();
+			// verifications
+			assertThat(properties).containsExactly("OPENSHIFT_APP_NAME=sample");
+			verify(factory, times(1)).createSession(app);
+			verify(session, times(2)).openChannel("exec");
+		} finally {
+			connection.setSSHSessionFactory(null);
+		}
+	}
+
+	@Test
+	public void shouldStreamOutputAndErrorOfSSHCommand() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		Session session = mock(Session.class);
+		ChannelExec channel = mock(ChannelExec.class);
+		when(channel.getInputStream()).thenReturn(new ByteArrayInputStream("out1\nout2\n".getBytes()));
+		when(channel.getExtInputStream()).thenReturn(new ByteArrayInputStream("err1\n".getBytes()));
+		when(channel.isClosed()).thenReturn(true);
+		when(channel.getExitStatus()).thenReturn(42);
+		when(session.openChannel("exec")).thenReturn(channel);
+		app.setSSHSession(session);
+		final List<String> output = new ArrayList<String>();
+		final List<String> error = new ArrayList<String>();
+		// operation
+		int exitStatus = app.sshExec("tail", new ISSHCommandListener() {
+
+			public void output(String line) {
+				output.add(line);
+			}
+
+			public void error(String line) {
+				error.add(line);
+			}
+		});
+		// verifications
+		assertThat(exitStatus).isEqualTo(42);
+		assertThat(output).containsExactly("out1", "out2");
+		assertThat(error).containsExactly("err1");
+		verify(channel).setCommand("tail");
+		verify(channel).connect();
+	}
+
+	@Test
+	public void shouldExecuteOnAllGears() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/sample/gears"))).thenReturn(
+				GET_APPLICATION_GEARS_WITH2ELEMENTS_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		final List<IApplicationGear> gears = app.getGears();
+		Session healthySession = createSSHSession("up", 0);
+		Session failingSession = createSSHSession("down", 1);
+		ISSHSessionFactory factory = mock(ISSHSessionFactory.class);
+		when(factory.createSession(gears.get(0))).thenReturn(healthySession);
+		when(factory.createSession(gears.get(1))).thenReturn(failingSession);
+		connection.setSSHSessionFactory(factory);
+		final Map<IApplicationGear, String> output = new HashMap<IApplicationGear, String>();
+		try {
+			// operation
+			List<GearCommandResult> results = app.sshExecOnGears("status", 2, new IGearCommandListener() {
+
+				public void output(IApplicationGear gear, String line) {
+					output.put(gear, line);
+				}
+
+				public void error(IApplicationGear gear, String line) {
+				}
+			});
+			// verifications
+			assertThat(results).hasSize(2);
+			assertThat(results.get(0).getGear()).isSameAs(gears.get(0));
+			assertThat(results.get(0).isSuccessful()).isTrue();
+			assertThat(results.get(1).getExitStatus()).isEqualTo(1);
+			assertThat(results.get(1).isSuccessful()).isFalse();
+			assertThat(results.get(1).getDuration()).isGreaterThanOrEqualTo(0);
+			assertThat(output.get(gears.get(0))).isEqualTo("up");
+			assertThat(output.get(gears.get(1))).isEqualTo("down");
+		} finally {
+			connection.setSSHSessionFactory(null);
+		}
+	}
+
+	private Session createSSHSession(String output, int exitStatus) throws Exception {
+		Session session = mock(Session.class);
+		ChannelExec channel = mock(ChannelExec.class);
+		when(channel.getInputStream()).thenReturn(new ByteArrayInputStream(output.getBytes()));
+		when(channel.isClosed()).thenReturn(true);
+		when(channel.getExitStatus()).thenReturn(exitStatus);
+		when(session.openChannel("exec")).thenReturn(channel);
+		return session;
+	}
+
+	@Test
+	public void shouldForwardPortsAndReestablishDroppedForwards() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		Session session = mock(Session.class);
+		when(session.isConnected()).thenReturn(false, true);
+		ChannelExec channel = mock(ChannelExec.class);
+		when(channel.getExtInputStream()).thenReturn(new ByteArrayInputStream(
+				"mysql -> 127.0.250.1:3306\njava -> 127.0.250.1:8080\n".getBytes()));
+		when(channel.isClosed()).thenReturn(true);
+		when(session.openChannel("exec")).thenReturn(channel);
+		when(session.setPortForwardingL("127.0.0.1", 0, "127.0.250.1", 3306)).thenReturn(50001);
+		when(session.setPortForwardingL("127.0.0.1", 0, "127.0.250.1", 8080)).thenThrow(new JSchException("mock..."));
+		Session reconnectedSession = mock(Session.class);
+		when(reconnectedSession.isConnected()).thenReturn(false, true);
+		when(reconnectedSession.setPortForwardingL("127.0.0.1", 50001, "127.0.250.1", 3306)).thenReturn(50001);
+		when(reconnectedSession.setPortForwardingL("127.0.0.1", 0, "127.0.250.1", 8080)).thenReturn(50002);
+		ISSHSessionFactory factory = mock(ISSHSessionFactory.class);
+		when(factory.createSession(app)).thenReturn(session, reconnectedSession);
+		connection.setSSHSessionFactory(factory);
+		IPortForwardingManager manager = connection.getPortForwardingManager();
+		try {
+			// operation
+			List<PortForwardingStatus> statuses = manager.start(Collections.singletonList(app));
+			// verifications
+			assertThat(statuses).hasSize(2);
+			assertThat(statuses.get(0).isStarted()).isTrue();
+			assertThat(statuses.get(0).getForwarding().getLocalPort()).isEqualTo(50001);
+			assertThat(statuses.get(1).isStarted()).isFalse();
+			assertThat(statuses.get(1).getError()).isNotNull();
+			assertThat(manager.getStatus(app, "127.0.250.1", 3306).isStarted()).isTrue();
+
+			// operation: session drops
+			when(session.isConnected()).thenReturn(false);
+			List<PortForwardingStatus> reconnected = manager.reconnect();
+			// verifications
+			assertThat(reconnected).hasSize(2);
+			assertThat(reconnected.get(0).isStarted()).isTrue();
+			assertThat(reconnected.get(0).getForwarding().getLocalPort()).isEqualTo(50001);
+			assertThat(reconnected.get(1).isStarted()).isTrue();
+			assertThat(reconnected.get(1).getForwarding().getLocalPort()).isEqualTo(50002);
+			verify(factory, times(2)).createSession(app);
+		} finally {
+			manager.stopAll();
+			connection.setSSHSessionFactory(null);
+		}
+	}
+
+	@Test
+	public void shouldReportFailedForwardingIfStartThrowsRuntimeException() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		IApplication app = domain.getApplicationByName("sample");
+		ISSHSessionFactory factory = mock(ISSHSessionFactory.class);
+		when(factory.createSession(app)).thenThrow(new IllegalStateException("mock..."));
+		connection.setSSHSessionFactory(factory);
+		IPortForwardingManager manager = connection.getPortForwardingManager();
+		try {
+			// operation
+			List<PortForwardingStatus> statuses = manager.start(Collections.singletonList(app));
+			// verifications
+			assertThat(statuses).hasSize(1);
+			assertThat(statuses.get(0).getApplication()).isSameAs(app);
+			assertThat(statuses.get(0).isStarted()).isFalse();
+			assertThat(statuses.get(0).getError().getCause()).isInstanceOf(IllegalStateException.class);
+		} finally {
+			manager.stopAll();
+			connection.setSSHSessionFactory(null);
+		}
+	}
+
+	@Test(expected = OpenShiftException.class)
+	public void shouldNotForwardPortsOfApplicationThatIsNotOfConnection() throws Throwable {
+		// pre-conditions
+		IApplication app = mock(IApplication.class);
+		when(app.getName()).thenReturn("mock");
+		IPortForwardingManager manager = connection.getPortForwardingManager();
+		try {
+			// operation
+			manager.start(Collections.singletonList(app));
+		} finally {
+			manager.stopAll();
+		}
+	}
+
+	@Test
+	public void shouldTrackStartedForwardingsWithoutListingSessionForwardings() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		Session session = mock(Session.class);
+		when(session.isConnected()).thenReturn(true);
+		ApplicationPortForwarding mysql = new ApplicationPortForwarding(app, "mysql", "127.0.250.1", 3306);
+		mysql.setLocalAddress("127.0.0.1");
+		mysql.setLocalPort(3306);
+		ApplicationPortForwarding java = new ApplicationPortForwarding(app, "java", "127.0.250.1", 8080);
+		java.setLocalAddress("127.0.0.1");
+		java.setLocalPort(8080);
+		// operation
+		mysql.start(session);
+		java.start(session);
+		// verifications
+		assertThat(mysql.isStarted(session)).isTrue();
+		assertThat(PortForwardingRegistry.get(session).getForwardings()).containsOnly(mysql, java);
+		// operation
+		mysql.stop(session);
+		// verifications
+		assertThat(mysql.isStarted(session)).isFalse();
+		assertThat(java.isStarted(session)).isTrue();
+		assertThat(mysql.isStarted(mock(Session.class))).isFalse();
+		verify(session).setPortForwardingL("127.0.0.1", 3306, "127.0.250.1", 3306);
+		verify(session).delPortForwardingL("127.0.0.1", 3306);
+		verify(session, never()).getPortForwardingL();
+	}
+
 }
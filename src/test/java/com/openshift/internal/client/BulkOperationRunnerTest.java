@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.openshift.client.BulkOperationResult;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationOperation;
+import com.openshift.client.IBulkOperationListener;
+import com.openshift.client.OpenShiftException;
+
+public class BulkOperationRunnerTest {
+
+	@Test
+	public void shouldNotExceedParallelism() throws Throwable {
+		// pre-conditions
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		IApplicationOperation operation = new IApplicationOperation() {
+
+			public void execute(IApplication application) throws OpenShiftException {
+				int current = running.incrementAndGet();
+				synchronized (maxRunning) {
+					maxRunning.set(Math.max(maxRunning.get(), current));
+				}
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+			}
+		};
+
+		// operation
+		BulkOperationResult result =
+				new BulkOperationRunner(3).run(operation, createApplications(12), null);
+
+		// verifications
+		assertThat(result.isSuccessful()).isTrue();
+		assertThat(result.getSucceeded()).hasSize(12);
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+		assertThat(maxRunning.get()).isGreaterThan(1);
+	}
+
+	@Test
+	public void shouldCollectFailuresAndNotifyListener() throws Throwable {
+		// pre-conditions
+		final List<IApplication> applications = createApplications(6);
+		final IApplication failing = applications.get(2);
+		final IApplication throwing = applications.get(4);
+		IApplicationOperation operation = new IApplicationOperation() {
+
+			public void execute(IApplication application) throws OpenShiftException {
+				if (application == failing) {
+					throw new OpenShiftException("failed");
+				} else if (application == throwing) {
+					throw new IllegalStateException("thrown");
+				}
+			}
+		};
+		final AtomicInteger succeeded = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+		final AtomicInteger lastCompleted = new AtomicInteger();
+		IBulkOperationListener listener = new IBulkOperationListener() {
+
+			public void succeeded(IApplication application, int completed, int total) {
+				succeeded.incrementAndGet();
+				lastCompleted.set(Math.max(lastCompleted.get(), completed));
+			}
+
+			public void failed(IApplication application, OpenShiftException e, int completed, int total) {
+				failed.incrementAndGet();
+				lastCompleted.set(Math.max(lastCompleted.get(), completed));
+			}
+		};
+
+		// operation
+		BulkOperationResult result = new BulkOperationRunner(2).run(operation, applications, listener);
+
+		// verifications
+		assertThat(result.isSuccessful()).isFalse();
+		assertThat(result.getSucceeded()).hasSize(4);
+		assertThat(result.getFailed()).containsOnly(failing, throwing);
+		assertThat(result.getError(failing).getMessage()).isEqualTo("failed");
+		assertThat(result.getError(throwing).getCause()).isInstanceOf(IllegalStateException.class);
+		assertThat(result.getError(applications.get(0))).isNull();
+		assertThat(succeeded.get()).isEqualTo(4);
+		assertThat(failed.get()).isEqualTo(2);
+		assertThat(lastCompleted.get()).isEqualTo(6);
+	}
+
+	@Test
+	public void shouldReportErrorsAsFailures() throws Throwable {
+		// pre-conditions
+		final List<IApplication> applications = createApplications(3);
+		final IApplication erroring = applications.get(1);
+		IApplicationOperation operation = new IApplicationOperation() {
+
+			public void execute(IApplication application) throws OpenShiftException {
+				if (application == erroring) {
+					throw new AssertionError("error");
+				}
+			}
+		};
+		final AtomicInteger failed = new AtomicInteger();
+		IBulkOperationListener listener = new IBulkOperationListener() {
+
+			public void succeeded(IApplication application, int completed, int total) {
+			}
+
+			public void failed(IApplication application, OpenShiftException e, int completed, int total) {
+				failed.incrementAndGet();
+			}
+		};
+
+		// operation
+		BulkOperationResult result = new BulkOperationRunner(2).run(operation, applications, listener);
+
+		// verifications
+		assertThat(result.getFailed()).containsOnly(erroring);
+		assertThat(result.getError(erroring).getCause()).isInstanceOf(AssertionError.class);
+		assertThat(result.getSucceeded()).hasSize(2);
+		assertThat(failed.get()).isEqualTo(1);
+	}
+
+	private List<IApplication> createApplications(int count) {
+		List<IApplication> applications = new ArrayList<IApplication>();
+		for (int i = 0; i < count; i++) {
+			IApplication application = mock(IApplication.class);
+			when(application.getName()).thenReturn("app" + i);
+			applications.add(application);
+		}
+		return applications;
+	}
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.fakes.KeepAliveHttpServerFake;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.httpclient.ContentEncoding;
+import com.openshift.internal.client.httpclient.HttpResponse;
+import com.openshift.internal.client.httpclient.IResponseReader;
+import com.openshift.internal.client.httpclient.IStreamingHttpClient;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+
+public class ContentEncodingTest {
+
+	private KeepAliveHttpServerFake serverFake;
+	private String content;
+
+	@Before
+	public void setUp() throws Throwable {
+		this.content = Samples.GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+		this.serverFake = new KeepAliveHttpServerFake();
+		serverFake.start();
+	}
+
+	@After
+	public void tearDown() {
+		serverFake.stop();
+	}
+
+	@Test
+	public void shouldDecodeGzip() throws IOException {
+		// pre-conditions
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		DeflaterOutputStream out = new GZIPOutputStream(encoded);
+		out.write(content.getBytes());
+		out.close();
+		// operation
+		InputStream decoded = ContentEncoding.decode(new ByteArrayInputStream(encoded.toByteArray()), "gzip");
+		// verifications
+		assertThat(IOUtils.toString(decoded)).isEqualTo(content);
+	}
+
+	@Test
+	public void shouldDecodeZlibAndRawDeflate() throws IOException {
+		// pre-conditions
+		byte[] zlib = deflate(content.getBytes(), false);
+		byte[] raw = deflate(content.getBytes(), true);
+		// operation
+		InputStream decodedZlib = ContentEncoding.decode(new ByteArrayInputStream(zlib), "deflate");
+		InputStream decodedRaw = ContentEncoding.decode(new ByteArrayInputStream(raw), "Deflate");
+		// verifications
+		assertThat(IOUtils.toString(decodedZlib)).isEqualTo(content);
+		assertThat(IOUtils.toString(decodedRaw)).isEqualTo(content);
+	}
+
+	@Test
+	public void shouldNotDecodeEmptyOrUnencodedBody() throws IOException {
+		// operation
+		InputStream empty = ContentEncoding.decode(new ByteArrayInputStream(new byte[0]), "gzip");
+		InputStream identity = ContentEncoding.decode(new ByteArrayInputStream(content.getBytes()), "identity");
+		// verifications
+		assertThat(empty.read()).isEqualTo(-1);
+		assertThat(IOUtils.toString(identity)).isEqualTo(content);
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldRejectUnsupportedEncoding() throws IOException {
+		ContentEncoding.decode(new ByteArrayInputStream(content.getBytes()), "br");
+	}
+
+	@Test
+	public void shouldNegotiateCompression() throws Exception {
+		// pre-conditions
+		serverFake.setContent(content);
+		IHttpClient httpClient = new UrlConnectionHttpClientBuilder().client();
+		IHttpClient pooledHttpClient = new UrlConnectionHttpClientBuilder().setPooledConnections(true).client();
+		// operation
+		String response = httpClient.get(new URL(serverFake.getUrl()));
+		String pooledResponse = pooledHttpClient.get(new URL(serverFake.getUrl()));
+		// verifications
+		assertThat(response.trim()).isEqualTo(content.trim());
+		assertThat(pooledResponse.trim()).isEqualTo(content.trim());
+		assertThat(serverFake.getBytesSent()).isLessThan(content.length() / 2);
+	}
+
+	@Test
+	public void shouldNotAcceptCompressionIfDisabled() throws Exception {
+		// pre-conditions
+		serverFake.setContent(content);
+		IHttpClient httpClient = new UrlConnectionHttpClientBuilder().setAcceptCompression(false).client();
+		// operation
+		String response = httpClient.get(new URL(serverFake.getUrl()));
+		// verifications
+		assertThat(response.trim()).isEqualTo(content.trim());
+		assertThat(serverFake.getBytesSent()).isEqualTo(content.getBytes().length);
+	}
+
+	@Test
+	public void shouldStreamDecodedBodyToReader() throws Exception {
+		// pre-conditions
+		serverFake.setContent(content);
+		IStreamingHttpClient httpClient =
+				(IStreamingHttpClient) new UrlConnectionHttpClientBuilder().client();
+		IStreamingHttpClient pooledHttpClient =
+				(IStreamingHttpClient) new UrlConnectionHttpClientBuilder().setPooledConnections(true).client();
+		IResponseReader<String> reader = new IResponseReader<String>() {
+
+			public String read(HttpResponse response, InputStream body) throws IOException {
+				return IOUtils.toString(body);
+			}
+		};
+		// operation
+		String response = httpClient.request(
+				HttpMethod.GET, new URL(serverFake.getUrl()), null, null, null, reader);
+		String pooledResponse = pooledHttpClient.request(
+				HttpMethod.GET, new URL(serverFake.getUrl()), null, null, null, reader);
+		// verifications
+		assertThat(response.trim()).isEqualTo(content.trim());
+		assertThat(pooledResponse.trim()).isEqualTo(content.trim());
+		assertThat(serverFake.getBytesSent()).isLessThan(content.length());
+	}
+
+	private byte[] deflate(byte[] data, boolean raw) throws IOException {
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		DeflaterOutputStream out = new DeflaterOutputStream(encoded, new Deflater(Deflater.DEFAULT_COMPRESSION, raw));
+		out.write(data);
+		out.close();
+		return encoded.toByteArray();
+	}
+}
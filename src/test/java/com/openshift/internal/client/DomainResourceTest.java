@@ -11,9 +11,13 @@
 package com.openshift.internal.client;
 
 import static com.openshift.client.utils.MockUtils.anyForm;
+import static com.openshift.client.utils.Samples.ADD_APPLICATION_JSON;
 import static com.openshift.client.utils.Samples.ADD_DOMAIN_JSON;
 import static com.openshift.client.utils.Samples.DELETE_DOMAIN_JSON;
+import static com.openshift.client.utils.Samples.GET_APPLICATIONS_WITH1APP_JSON;
 import static com.openshift.client.utils.Samples.GET_APPLICATIONS_WITH2APPS_JSON;
+import static com.openshift.client.utils.Samples.GET_APPLICATIONS_WITHNOAPP_JSON;
+import static com.openshift.client.utils.Samples.GET_APPLICATION_GEARS_WITH2ELEMENTS_JSON;
 import static com.openshift.client.utils.Samples.GET_DOMAIN;
 import static com.openshift.client.utils.Samples.GET_DOMAINS_1EXISTING;
 import static com.openshift.client.utils.Samples.GET_DOMAINS_NOEXISTING_JSON;
@@ -29,7 +33,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -37,15 +47,22 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 import org.junit.rules.ExpectedException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationHealth;
+import com.openshift.client.IApplicationHealthProber;
 import com.openshift.client.IDomain;
 import com.openshift.client.IGearProfile;
 import com.openshift.client.IHttpClient;
 import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.IResourceChangeListener;
 import com.openshift.client.IUser;
 import com.openshift.client.OpenShiftConnectionFactory;
 import com.openshift.client.OpenShiftEndpointException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.ResourceChangeEvent;
 import com.openshift.client.utils.Samples;
 import com.openshift.internal.client.httpclient.BadRequestException;
 
@@ -204,6 +221,168 @@ public class DomainResourceTest {
 		verify(mockClient, times(2)).get(urlEndsWith("/domains/foobar/applications")); // two calls, before and while refresh
 	}
 
+	@Test
+	public void shouldRefreshApplicationsInPlaceAndNotifyChanges() throws Throwable {
+		// pre-conditions
+		final String applications = GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+		when(mockClient.get(urlEndsWith("/domains/foobar"))).thenReturn(GET_DOMAIN.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(applications);
+		final IDomain domain = user.getDomain("foobar");
+		final IApplication sample = domain.getApplicationByName("sample");
+		final IApplication scalable = domain.getApplicationByName("scalable");
+		final List<ResourceChangeEvent> events = new ArrayList<ResourceChangeEvent>();
+		domain.addChangeListener(new IResourceChangeListener() {
+
+			public void resourceChanged(ResourceChangeEvent event) {
+				events.add(event);
+			}
+		});
+		// simulate a new git url for scalable on openshift
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				applications.replace("/git/scalable.git/", "/git/scalable-moved.git/"));
+		// operation
+		domain.refresh();
+		// verifications
+		assertThat(domain.getApplicationByName("sample")).isSameAs(sample);
+		assertThat(domain.getApplicationByName("scalable")).isSameAs(scalable);
+		assertThat(scalable.getGitUrl()).endsWith("/git/scalable-moved.git/");
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getType()).isEqualTo(ResourceChangeEvent.Type.CHANGED);
+		assertThat(events.get(0).getSource()).isSameAs(domain);
+		assertThat(events.get(0).getResource()).isSameAs(scalable);
+	}
+
+	@Test
+	public void shouldRefreshLoadedGearsOfChangedApplications() throws Throwable {
+		// pre-conditions
+		final String applications = GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+		when(mockClient.get(urlEndsWith("/domains/foobar"))).thenReturn(GET_DOMAIN.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(applications);
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications/scalable/gears"))).thenReturn(
+				GET_APPLICATION_GEARS_WITH2ELEMENTS_JSON.getContentAsString());
+		final IDomain domain = user.getDomain("foobar");
+		domain.getApplicationByName("scalable").getGears();
+		// simulate a new git url for scalable on openshift
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				applications.replace("/git/scalable.git/", "/git/scalable-moved.git/"));
+		// operation
+		domain.refresh();
+		// verifications
+		verify(mockClient, times(2)).get(urlEndsWith("/domains/foobar/applications/scalable/gears"));
+		verify(mockClient, times(0)).get(urlEndsWith("/domains/foobar/applications/sample/gears"));
+	}
+
+	@Test
+	public void shouldKeepApplicationCreatedWhileRefreshing() throws Throwable {
+		// pre-conditions
+		final String noApplications = GET_APPLICATIONS_WITHNOAPP_JSON.getContentAsString();
+		// the application that gets created, as listed by openshift
+		final String createdApplication = GET_APPLICATIONS_WITH1APP_JSON.getContentAsString()
+				.replace("78337de0b54047e0a8577b0697ace5d6", "d9b99d62ea024e00aa21e41b15e26f46");
+		when(mockClient.get(urlEndsWith("/domains/foobar"))).thenReturn(GET_DOMAIN.getContentAsString());
+		when(mockClient.post(anyForm(), urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				ADD_APPLICATION_JSON.getContentAsString());
+		final IDomain domain = user.getDomain("foobar");
+		final IApplication[] created = new IApplication[1];
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenAnswer(new Answer<String>() {
+
+			private int requests;
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				switch (++requests) {
+				case 1:
+					return noApplications;
+				case 2:
+					// created while the refresh is waiting for the list
+					created[0] = domain.createApplication("sample", new Cartridge("jbossas-7"));
+					return noApplications;
+				default:
+					return createdApplication;
+				}
+			}
+		});
+		domain.getApplications();
+		final List<ResourceChangeEvent> events = new ArrayList<ResourceChangeEvent>();
+		domain.addChangeListener(new IResourceChangeListener() {
+
+			public void resourceChanged(ResourceChangeEvent event) {
+				events.add(event);
+			}
+		});
+		// operation
+		domain.refresh();
+		// verifications
+		assertThat(domain.getApplications()).hasSize(1);
+		assertThat(domain.getApplicationByName("sample")).isSameAs(created[0]);
+		assertThat(events).onProperty("type").excludes(ResourceChangeEvent.Type.REMOVED);
+	}
+
+	@Test
+	public void shouldLoadApplicationsOnceIfRequestedConcurrently() throws Throwable {
+		// pre-conditions
+		final String applications = GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				// keep the other threads waiting for this request
+				Thread.sleep(200);
+				return applications;
+			}
+		});
+		final IDomain domain = user.getDomain("foobar");
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<List<IApplication>>> futures = new ArrayList<Future<List<IApplication>>>();
+		// operation
+		for (int i = 0; i < 8; i++) {
+			futures.add(executor.submit(new Callable<List<IApplication>>() {
+
+				public List<IApplication> call() throws Exception {
+					return domain.getApplications();
+				}
+			}));
+		}
+		// verifications
+		List<IApplication> first = futures.get(0).get(10, TimeUnit.SECONDS);
+		for (Future<List<IApplication>> future : futures) {
+			assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(first);
+		}
+		executor.shutdown();
+		assertThat(first).hasSize(2);
+		verify(mockClient, times(1)).get(urlEndsWith("/domains/foobar/applications"));
+	}
+
+	@Test
+	public void shouldLoadDomainsOnceIfRequestedConcurrently() throws Throwable {
+		// pre-conditions
+		final String domains = GET_DOMAINS_1EXISTING.getContentAsString();
+		when(mockClient.get(urlEndsWith("/domains"))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(200);
+				return domains;
+			}
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<IDomain>> futures = new ArrayList<Future<IDomain>>();
+		// operation
+		for (int i = 0; i < 8; i++) {
+			futures.add(executor.submit(new Callable<IDomain>() {
+
+				public IDomain call() throws Exception {
+					return user.getDomain("foobar");
+				}
+			}));
+		}
+		// verifications
+		IDomain first = futures.get(0).get(10, TimeUnit.SECONDS);
+		for (Future<IDomain> future : futures) {
+			assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(first);
+		}
+		executor.shutdown();
+		assertThat(first).isNotNull();
+		verify(mockClient, times(1)).get(urlEndsWith("/domains"));
+	}
+
 	@Test
 	public void shouldRefreshDomainAndNotReloadApplications() throws Throwable {
 		// pre-conditions
@@ -243,6 +422,87 @@ public class DomainResourceTest {
 		fail("not implemented yet");
 	}
 
+	@Test
+	public void shouldProbeHealthOfAllApplications() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("sample-foobar.stg.rhcloud.com/health"))).thenReturn("1");
+		when(mockClient.get(urlEndsWith("scalable-foobar.stg.rhcloud.com/health"))).thenReturn("0", "1");
+		final IDomain domain = user.getDomain("foobar");
+		final IApplicationHealthProber prober = domain.createHealthProber(50, 2);
+		// operation
+		prober.start();
+		try {
+			waitForProbes(prober, domain.getApplications(), 4, 10 * 1000);
+		} finally {
+			prober.stop();
+		}
+		// verifications
+		assertThat(prober.isRunning()).isFalse();
+		assertThat(prober.getHealth()).hasSize(2);
+		IApplicationHealth sample = prober.getHealth(domain.getApplicationByName("sample"));
+		assertThat(sample.isHealthy()).isTrue();
+		assertThat(sample.getSuccessRatio()).isEqualTo(1d);
+		assertThat(sample.getMedianLatency()).isGreaterThanOrEqualTo(0);
+		assertThat(sample.get99thPercentileLatency()).isGreaterThanOrEqualTo(sample.getMedianLatency());
+		IApplicationHealth scalable = prober.getHealth(domain.getApplicationByName("scalable"));
+		assertThat(scalable.isHealthy()).isTrue();
+		assertThat(scalable.getSuccessRatio()).isLessThan(1d);
+		assertThat(scalable.getLastChange().after(sample.getLastChange())).isTrue();
+	}
+
+	@Test
+	public void shouldProbeAgainIfRestartedWhileProbing() throws Throwable {
+		// pre-conditions
+		final IDomain domain = user.getDomain("foobar");
+		final IApplicationHealthProber prober = domain.createHealthProber(50, 2);
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				// stopped while the first probes get scheduled
+				prober.stop();
+				return GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+			}
+		});
+		when(mockClient.get(urlEndsWith("sample-foobar.stg.rhcloud.com/health"))).thenReturn("1");
+		when(mockClient.get(urlEndsWith("scalable-foobar.stg.rhcloud.com/health"))).thenReturn("1");
+		prober.start();
+		while (prober.isRunning()) {
+			Thread.sleep(10);
+		}
+		// give the stopped prober the time to finish scheduling
+		Thread.sleep(100);
+		// operation
+		prober.start();
+		try {
+			// verifications
+			waitForProbes(prober, domain.getApplications(), 1, 10 * 1000);
+		} finally {
+			prober.stop();
+		}
+	}
+
+	private void waitForProbes(IApplicationHealthProber prober, List<IApplication> applications, int probes,
+			long timeout) throws InterruptedException {
+		long end = System.currentTimeMillis() + timeout;
+		while (System.currentTimeMillis() < end) {
+			int probed = 0;
+			for (IApplication application : applications) {
+				IApplicationHealth health = prober.getHealth(application);
+				if (health != null
+						&& health.getProbes() >= probes) {
+					probed++;
+				}
+			}
+			if (probed == applications.size()) {
+				return;
+			}
+			Thread.sleep(50);
+		}
+		fail("Applications were not probed " + probes + " times within " + timeout + "ms");
+	}
+
 	@Test
 	@Ignore
 	public void shouldNotifyAfterDomainDestroyed() throws Throwable {
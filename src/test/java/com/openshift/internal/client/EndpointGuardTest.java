@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.net.URL;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.internal.client.CircuitBreaker.State;
+import com.openshift.internal.client.response.Link;
+
+public class EndpointGuardTest {
+
+	private long now;
+	private CircuitBreaker circuitBreaker;
+
+	@Before
+	public void setUp() {
+		this.now = 0;
+		this.circuitBreaker = new CircuitBreaker(3, 1000) {
+
+			@Override
+			protected long currentTime() {
+				return now;
+			}
+		};
+	}
+
+	@Test
+	public void shouldOpenAfterConsecutiveFailures() {
+		// pre-conditions
+		failRequests(2);
+		assertThat(circuitBreaker.allowRequest()).isTrue();
+		circuitBreaker.succeeded();
+		failRequests(2);
+		assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+		// operation
+		failRequests(1);
+		// verifications
+		assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+		assertThat(circuitBreaker.allowRequest()).isFalse();
+		assertThat(circuitBreaker.getTrips()).isEqualTo(1);
+		assertThat(circuitBreaker.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldLetSingleProbeThroughOnceOpenTimeoutElapsed() {
+		// pre-conditions
+		failRequests(3);
+		now += 1000;
+		assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+		// operation
+		boolean probe = circuitBreaker.allowRequest();
+		boolean concurrent = circuitBreaker.allowRequest();
+		// verifications
+		assertThat(probe).isTrue();
+		assertThat(concurrent).isFalse();
+		circuitBreaker.succeeded();
+		assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(circuitBreaker.allowRequest()).isTrue();
+	}
+
+	@Test
+	public void shouldReopenIfProbeFails() {
+		// pre-conditions
+		failRequests(3);
+		now += 1000;
+		// operation
+		assertThat(circuitBreaker.allowRequest()).isTrue();
+		circuitBreaker.failed();
+		// verifications
+		assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+		assertThat(circuitBreaker.getTrips()).isEqualTo(2);
+		now += 999;
+		assertThat(circuitBreaker.allowRequest()).isFalse();
+	}
+
+	@Test
+	public void shouldLetNextProbeThroughIfProbeWasReleased() {
+		// pre-conditions
+		failRequests(3);
+		now += 1000;
+		assertThat(circuitBreaker.allowRequest()).isTrue();
+		// operation
+		circuitBreaker.released();
+		// verifications
+		assertThat(circuitBreaker.allowRequest()).isTrue();
+	}
+
+	@Test
+	public void shouldRejectIfBulkheadIsFull() {
+		// pre-conditions
+		Bulkhead bulkhead = new Bulkhead(2, 0);
+		assertThat(bulkhead.acquire()).isTrue();
+		assertThat(bulkhead.acquire()).isTrue();
+		// operation
+		boolean acquired = bulkhead.acquire();
+		// verifications
+		assertThat(acquired).isFalse();
+		assertThat(bulkhead.getInFlight()).isEqualTo(2);
+		assertThat(bulkhead.getRejected()).isEqualTo(1);
+		bulkhead.release();
+		assertThat(bulkhead.acquire()).isTrue();
+	}
+
+	@Test
+	public void shouldShareEndpointForAllLinksOfHost() throws Exception {
+		// pre-conditions
+		EndpointGuard guard = new EndpointGuard();
+		// operation
+		EndpointGuard.Endpoint domains = guard.get(
+				new Link("LIST_DOMAINS", "/broker/rest/domains", HttpMethod.GET, null, null),
+				new URL("https://openshift.redhat.com/broker/rest/domains"));
+		EndpointGuard.Endpoint user = guard.get(
+				new Link("GET_USER", "/broker/rest/user", HttpMethod.GET, null, null),
+				new URL("https://openshift.redhat.com:443/broker/rest/user"));
+		// verifications
+		assertThat(domains).isSameAs(user);
+		assertThat(guard.getEndpoints()).containsOnly("openshift.redhat.com:443");
+		assertThat(guard.getCircuitBreaker("openshift.redhat.com:443")).isSameAs(domains.getCircuitBreaker());
+		assertThat(guard.getState("localhost:8080")).isEqualTo(State.CLOSED);
+	}
+
+	private void failRequests(int failures) {
+		for (int i = 0; i < failures; i++) {
+			assertThat(circuitBreaker.allowRequest()).isTrue();
+			circuitBreaker.failed();
+		}
+	}
+}
@@ -28,6 +28,9 @@ import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,7 +40,9 @@ import com.openshift.client.OpenShiftException;
 import com.openshift.client.fakes.HttpClientFake;
 import com.openshift.client.fakes.HttpServerFake;
 import com.openshift.client.utils.Base64Coder;
+import com.openshift.internal.client.httpclient.FormUrlEncodedMediaType;
 import com.openshift.internal.client.httpclient.HttpClientException;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClient;
 import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
 
 /**
@@ -186,4 +191,35 @@ public class HttpClientTest {
 
 	}
 
+	@Test
+	public void shouldReusePermissiveSSLSocketFactoryPerClient() throws Exception {
+		// pre-conditions
+		URL url = new URL("https://localhost:8443/broker/rest/api");
+		SSLSocketFactoryClient client = new SSLSocketFactoryClient();
+		// operation
+		SSLSocketFactory factory1 = client.getSSLSocketFactory(url);
+		SSLSocketFactory factory2 = client.getSSLSocketFactory(url);
+		SSLSocketFactory otherClientFactory = new SSLSocketFactoryClient().getSSLSocketFactory(url);
+		// verification
+		assertThat(factory1).isNotNull();
+		assertThat(factory1).isNotSameAs(HttpsURLConnection.getDefaultSSLSocketFactory());
+		assertThat(factory2).isSameAs(factory1);
+		assertThat(otherClientFactory).isNotSameAs(factory1);
+	}
+
+	/**
+	 * A client without ssl checks that exposes the socket factory of the
+	 * connections that it creates. No connection is opened.
+	 */
+	private static class SSLSocketFactoryClient extends UrlConnectionHttpClient {
+
+		private SSLSocketFactoryClient() {
+			super(null, null, "com.openshift.client.test", false, new FormUrlEncodedMediaType(),
+					IHttpClient.MEDIATYPE_APPLICATION_JSON, "1.0");
+		}
+
+		private SSLSocketFactory getSSLSocketFactory(URL url) throws IOException {
+			return ((HttpsURLConnection) createConnection(null, null, null, url)).getSSLSocketFactory();
+		}
+	}
 }
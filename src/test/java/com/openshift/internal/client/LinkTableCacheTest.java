@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.response.Link;
+import com.openshift.internal.client.response.LinkParameter;
+import com.openshift.internal.client.response.ResourceDTOFactory;
+
+public class LinkTableCacheTest {
+
+	private static final String SERVER_URL = "http://mock/broker/rest/";
+
+	private File directory;
+	private LinkTableCache cache;
+
+	@Before
+	public void setUp() throws IOException {
+		this.directory = File.createTempFile("linktablecache", null);
+		directory.delete();
+		this.cache = new LinkTableCache(directory);
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldLoadStoredLinks() throws Throwable {
+		// pre-conditions
+		Map<String, Link> links = (Map<String, Link>) ResourceDTOFactory.get(
+				Samples.GET_REST_API_JSON.getContentAsString()).getData();
+		// operation
+		boolean stored = cache.store(SERVER_URL, "1.0", links);
+		Map<String, Link> loaded = cache.load(SERVER_URL, "1.0");
+		// verifications
+		assertThat(stored).isTrue();
+		assertThat(loaded).isNotNull();
+		assertThat(loaded.keySet()).isEqualTo(links.keySet());
+		for (Map.Entry<String, Link> entry : links.entrySet()) {
+			assertLinkEquals(entry.getValue(), loaded.get(entry.getKey()));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldNotLoadLinksOfOtherApiVersion() throws Throwable {
+		// pre-conditions
+		Map<String, Link> links = (Map<String, Link>) ResourceDTOFactory.get(
+				Samples.GET_REST_API_JSON.getContentAsString()).getData();
+		cache.store(SERVER_URL, "1.0", links);
+		// operation
+		Map<String, Link> loaded = cache.load(SERVER_URL, "1.1");
+		// verifications
+		assertThat(loaded).isNull();
+	}
+
+	@Test
+	public void shouldIgnoreCorruptFile() throws Throwable {
+		// pre-conditions
+		directory.mkdirs();
+		FileOutputStream out = new FileOutputStream(cache.getFile(SERVER_URL, "1.0"));
+		try {
+			out.write(new byte[] { 0x4f, 0x53, 0x4c, 0x54, 0, 0 });
+		} finally {
+			out.close();
+		}
+		// operation
+		Map<String, Link> loaded = cache.load(SERVER_URL, "1.0");
+		// verifications
+		assertThat(loaded).isNull();
+	}
+
+	@Test
+	public void shouldIgnoreFileWithInvalidSize() throws Throwable {
+		// pre-conditions
+		directory.mkdirs();
+		for (int size : new int[] { 100 * 1000 * 1000, -5 }) {
+			DataOutputStream out = new DataOutputStream(new FileOutputStream(cache.getFile(SERVER_URL, "1.0")));
+			try {
+				out.writeInt(0x4f534c54);
+				out.writeInt(1);
+				out.writeUTF(SERVER_URL);
+				out.writeUTF("1.0");
+				out.writeInt(size);
+			} finally {
+				out.close();
+			}
+			// operation
+			Map<String, Link> loaded = cache.load(SERVER_URL, "1.0");
+			// verifications
+			assertThat(loaded).isNull();
+		}
+	}
+
+	@Test
+	public void shouldConnectWithCachedLinksAndRevalidate() throws Throwable {
+		// pre-conditions
+		IHttpClient clientMock = mock(IHttpClient.class);
+		when(clientMock.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		OpenShiftConnectionFactory factory = new OpenShiftConnectionFactory();
+		factory.setLinkTableCache(cache);
+		factory.getConnection(new RestService("http://mock", "clientId", clientMock), "foo@redhat.com", "bar");
+		verify(clientMock, times(1)).get(urlEndsWith("/broker/rest/api"));
+		assertThat(cache.load(SERVER_URL, RestService.SERVICE_VERSION)).isNotNull();
+		// operation
+		IOpenShiftConnection connection = factory.getConnection(
+				new RestService("http://mock", "clientId", clientMock), "foo@redhat.com", "bar");
+		// verifications
+		assertThat(((APIResource) connection).getLinks()).isNotEmpty();
+		verify(clientMock, timeout(10 * 1000).times(2)).get(urlEndsWith("/broker/rest/api"));
+	}
+
+	@Test
+	public void shouldRevalidateOnceForConcurrentConnections() throws Throwable {
+		// pre-conditions
+		final CountDownLatch responseLatch = new CountDownLatch(1);
+		final AtomicInteger requests = new AtomicInteger();
+		IHttpClient clientMock = mock(IHttpClient.class);
+		when(clientMock.get(urlEndsWith("/broker/rest/api"))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				if (requests.incrementAndGet() > 1) {
+					// keep the revalidation running
+					responseLatch.await(10, TimeUnit.SECONDS);
+				}
+				return Samples.GET_REST_API_JSON.getContentAsString();
+			}
+		});
+		OpenShiftConnectionFactory factory = new OpenShiftConnectionFactory();
+		factory.setLinkTableCache(cache);
+		factory.getConnection(new RestService("http://mock", "clientId", clientMock), "foo@redhat.com", "bar");
+		// operation
+		for (int i = 0; i < 3; i++) {
+			factory.getConnection(new RestService("http://mock", "clientId", clientMock), "foo@redhat.com", "bar");
+		}
+		responseLatch.countDown();
+		// verifications
+		verify(clientMock, timeout(10 * 1000).times(2)).get(urlEndsWith("/broker/rest/api"));
+		Thread.sleep(200);
+		verify(clientMock, times(2)).get(urlEndsWith("/broker/rest/api"));
+	}
+
+	private void assertLinkEquals(Link expected, Link actual) {
+		assertThat(actual.getRel()).isEqualTo(expected.getRel());
+		assertThat(actual.getHref()).isEqualTo(expected.getHref());
+		assertThat(actual.getHttpMethod()).isEqualTo(expected.getHttpMethod());
+		assertParametersEqual(expected.getRequiredParams(), actual.getRequiredParams());
+		assertParametersEqual(expected.getOptionalParams(), actual.getOptionalParams());
+	}
+
+	private void assertParametersEqual(List<LinkParameter> expected, List<LinkParameter> actual) {
+		if (expected == null) {
+			assertThat(actual).isNull();
+			return;
+		}
+		assertThat(actual).hasSize(expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertThat(actual.get(i).getName()).isEqualTo(expected.get(i).getName());
+			assertThat(actual.get(i).getType()).isEqualTo(expected.get(i).getType());
+			assertThat(actual.get(i).getDefaultValue()).isEqualTo(expected.get(i).getDefaultValue());
+			assertThat(actual.get(i).getDescription()).isEqualTo(expected.get(i).getDescription());
+			assertThat(actual.get(i).getValidOptions()).isEqualTo(expected.get(i).getValidOptions());
+		}
+	}
+}
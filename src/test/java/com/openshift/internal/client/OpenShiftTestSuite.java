@@ -20,7 +20,15 @@ import com.openshift.internal.client.response.ResourceDTOFactoryTest;
 @Suite.SuiteClasses({
 	ConfigurationTest.class,
 	HttpClientTest.class,
+	PooledHttpClientTest.class,
+	ContentEncodingTest.class,
+	StreamUtilsTest.class,
 	RestServiceTest.class,
+	EndpointGuardTest.class,
+	RateLimiterTest.class,
+	LinkTableCacheTest.class,
+	BulkOperationRunnerTest.class,
+	SSHSessionPoolTest.class,
 	ResourceDTOFactoryTest.class,
 	DomainResourceTest.class,
 	ApplicationResourceTest.class,
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ssl.SSLSocketFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IHttpClient;
+import com.openshift.client.fakes.KeepAliveHttpServerFake;
+import com.openshift.internal.client.httpclient.HttpClientException;
+import com.openshift.internal.client.httpclient.HttpConnectionPool;
+import com.openshift.internal.client.httpclient.HttpConnectionPoolStats;
+import com.openshift.internal.client.httpclient.HttpResponse;
+import com.openshift.internal.client.httpclient.PooledHttpClient;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+
+public class PooledHttpClientTest {
+
+	private KeepAliveHttpServerFake serverFake;
+	private PooledHttpClient httpClient;
+
+	@Before
+	public void setUp() throws IOException {
+		this.serverFake = new KeepAliveHttpServerFake();
+		serverFake.start();
+		this.httpClient = (PooledHttpClient) new UrlConnectionHttpClientBuilder()
+				.setUserAgent("com.openshift.client.test")
+				.setCredentials("adietish", "redhat")
+				.setPooledConnections(true)
+				.setMaxConnectionsPerRoute(2)
+				.client();
+	}
+
+	@After
+	public void tearDown() {
+		httpClient.shutdown();
+		serverFake.stop();
+	}
+
+	@Test
+	public void shouldReuseConnection() throws Exception {
+		// pre-conditions
+		URL url = new URL(serverFake.getUrl());
+		// operation
+		String response1 = httpClient.get(url);
+		String response2 = httpClient.get(url);
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("name", "foobar");
+		String response3 = httpClient.post(parameters, url);
+		// verification
+		assertThat(response1).startsWith("GET / HTTP/1.1");
+		assertThat(response2).startsWith("GET / HTTP/1.1");
+		assertThat(response3).startsWith("POST / HTTP/1.1");
+		assertThat(serverFake.getRequestCount()).isEqualTo(3);
+		assertThat(serverFake.getConnectionCount()).isEqualTo(1);
+		HttpConnectionPoolStats stats = httpClient.getConnectionPool().getStats();
+		assertThat(stats.getCreated()).isEqualTo(1);
+		assertThat(stats.getReused()).isEqualTo(2);
+		assertThat(stats.getLeased()).isEqualTo(0);
+		assertThat(stats.getAvailable()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldSendHeaders() throws Exception {
+		// operation
+		String response = httpClient.get(new URL(serverFake.getUrl()));
+		// verification
+		assertThat(response)
+				.contains(IHttpClient.PROPERTY_ACCEPT + ": " + IHttpClient.MEDIATYPE_APPLICATION_JSON + "; version=1.0")
+				.contains(IHttpClient.PROPERTY_AUTHORIZATION + ": Basic")
+				.contains(IHttpClient.PROPERTY_USER_AGENT + ": com.openshift.client.test")
+				.contains("Host: localhost:");
+	}
+
+	@Test
+	public void shouldEvictIdleConnections() throws Exception {
+		// pre-conditions
+		httpClient.get(new URL(serverFake.getUrl()));
+		assertThat(httpClient.getConnectionPool().getStats().getAvailable()).isEqualTo(1);
+		// operation
+		int closed = httpClient.getConnectionPool().closeIdleConnections(0);
+		// verification
+		assertThat(closed).isEqualTo(1);
+		HttpConnectionPoolStats stats = httpClient.getConnectionPool().getStats();
+		assertThat(stats.getAvailable()).isEqualTo(0);
+		assertThat(stats.getEvicted()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldResendGetIfServerClosedConnection() throws Exception {
+		// pre-conditions
+		URL url = new URL(serverFake.getUrl());
+		httpClient.get(url);
+		serverFake.dropNextResponse();
+		// operation
+		String response = httpClient.get(url);
+		// verification
+		assertThat(response).startsWith("GET / HTTP/1.1");
+		// the GET was sent on the kept-alive connection and resent on a new one
+		assertThat(serverFake.getRequestCount()).isEqualTo(3);
+		assertThat(serverFake.getConnectionCount()).isEqualTo(2);
+		HttpConnectionPoolStats stats = httpClient.getConnectionPool().getStats();
+		assertThat(stats.getReused()).isEqualTo(1);
+		assertThat(stats.getCreated()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldNotResendPostIfServerClosedConnection() throws Exception {
+		// pre-conditions
+		URL url = new URL(serverFake.getUrl());
+		httpClient.get(url);
+		serverFake.dropNextResponse();
+		// operation
+		try {
+			httpClient.post(new HashMap<String, Object>(), url);
+			fail("HttpClientException expected, did not occurr");
+		} catch (HttpClientException e) {
+			// expected
+		}
+		// verification
+		assertThat(serverFake.getRequestCount()).isEqualTo(2);
+		assertThat(serverFake.getConnectionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldResendGetWithoutStaleCheckIfConnectionWasUsedRecently() throws Exception {
+		// pre-conditions
+		URL url = new URL(serverFake.getUrl());
+		httpClient.get(url);
+		serverFake.closeConnections();
+		waitForClose();
+		// operation
+		String response = httpClient.get(url);
+		// verification
+		assertThat(response).startsWith("GET / HTTP/1.1");
+		HttpConnectionPoolStats stats = httpClient.getConnectionPool().getStats();
+		// no stale check: the closed connection was leased and the GET resent
+		assertThat(stats.getReused()).isEqualTo(1);
+		assertThat(stats.getEvicted()).isEqualTo(0);
+		assertThat(stats.getCreated()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldResendGetIfServerResetConnection() throws Exception {
+		// pre-conditions
+		URL url = new URL(serverFake.getUrl());
+		httpClient.get(url);
+		serverFake.resetConnections();
+		waitForClose();
+		// operation
+		String response = httpClient.get(url);
+		// verification
+		assertThat(response).startsWith("GET / HTTP/1.1");
+		HttpConnectionPoolStats stats = httpClient.getConnectionPool().getStats();
+		// the GET failed on the reset connection and was resent on a new one
+		assertThat(stats.getReused()).isEqualTo(1);
+		assertThat(stats.getCreated()).isEqualTo(2);
+		assertThat(serverFake.getConnectionCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldCheckConnectionForPostEvenIfUsedRecently() throws Exception {
+		// pre-conditions
+		URL url = new URL(serverFake.getUrl());
+		httpClient.get(url);
+		serverFake.closeConnections();
+		waitForClose();
+		// operation
+		String response = httpClient.post(new HashMap<String, Object>(), url);
+		// verification
+		assertThat(response).startsWith("POST / HTTP/1.1");
+		HttpConnectionPoolStats stats = httpClient.getConnectionPool().getStats();
+		// stale check discarded the closed connection before the POST was sent
+		assertThat(stats.getReused()).isEqualTo(0);
+		assertThat(stats.getEvicted()).isEqualTo(1);
+		assertThat(serverFake.getRequestCount()).isEqualTo(2);
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void shouldTimeoutTlsHandshakeIfServerDoesNotRespond() throws Exception {
+		// pre-conditions
+		ServerSocket silentServer = new ServerSocket(0);
+		HttpConnectionPool connectionPool = new HttpConnectionPool(1, 10 * 1000, 200,
+				(SSLSocketFactory) SSLSocketFactory.getDefault(), null);
+		try {
+			// operation
+			connectionPool.lease(new URL("https://localhost:" + silentServer.getLocalPort() + "/"));
+			fail("IOException expected, did not occurr");
+		} catch (IOException e) {
+			// expected, some jdks wrap the timeout into a SSLException
+		} finally {
+			connectionPool.shutdown();
+			silentServer.close();
+		}
+		// verification
+		assertThat(connectionPool.getStats().getLeased()).isEqualTo(0);
+	}
+
+	/**
+	 * Gives the FIN of a connection that the server closed the time to reach
+	 * the client.
+	 */
+	private void waitForClose() throws InterruptedException {
+		Thread.sleep(100);
+	}
+
+	@Test
+	public void shouldSendValidators() throws Exception {
+		// operation
+		HttpResponse response = httpClient.get(new URL(serverFake.getUrl()), "\"42\"", "Tue, 15 Nov 1994 12:45:26 GMT");
+		// verification
+		assertThat(response.isNotModified()).isFalse();
+		assertThat(response.getBody())
+				.contains(IHttpClient.PROPERTY_IF_NONE_MATCH + ": \"42\"")
+				.contains(IHttpClient.PROPERTY_IF_MODIFIED_SINCE + ": Tue, 15 Nov 1994 12:45:26 GMT");
+	}
+}
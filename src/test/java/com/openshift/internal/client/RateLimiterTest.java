@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RateLimiterTest {
+
+	private static final String ADD_APPLICATION = "Create new application";
+
+	private long now;
+	private RateLimiter fakeClockLimiter;
+
+	@Before
+	public void setUp() {
+		this.now = 0;
+		this.fakeClockLimiter = new RateLimiter() {
+
+			@Override
+			protected long nanoTime() {
+				return now;
+			}
+
+			@Override
+			protected void sleep(long nanos) {
+				now += nanos;
+			}
+		};
+	}
+
+	@Test
+	public void shouldAllowBurstThenRejectNonBlocking() {
+		// pre-conditions
+		fakeClockLimiter.setUserLimit(1, 2);
+		// operation
+		boolean first = fakeClockLimiter.tryAcquire("toto", ADD_APPLICATION);
+		boolean second = fakeClockLimiter.tryAcquire("toto", ADD_APPLICATION);
+		boolean third = fakeClockLimiter.tryAcquire("toto", ADD_APPLICATION);
+		// verifications
+		assertThat(first).isTrue();
+		assertThat(second).isTrue();
+		assertThat(third).isFalse();
+		assertThat(fakeClockLimiter.tryAcquire("titi", ADD_APPLICATION)).isTrue();
+		now += TimeUnit.SECONDS.toNanos(1);
+		assertThat(fakeClockLimiter.tryAcquire("toto", ADD_APPLICATION)).isTrue();
+		assertThat(fakeClockLimiter.getAcquired()).isEqualTo(4);
+		assertThat(fakeClockLimiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldWaitForTokenWhenBlocking() throws Exception {
+		// pre-conditions
+		fakeClockLimiter.setUserLimit("toto", 2, 1);
+		fakeClockLimiter.acquire("toto", ADD_APPLICATION);
+		// operation
+		fakeClockLimiter.acquire("toto", ADD_APPLICATION);
+		// verifications
+		assertThat(now).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+		assertThat(fakeClockLimiter.getThrottled()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotTakeTokensIfTimeoutIsTooShort() throws Exception {
+		// pre-conditions
+		fakeClockLimiter.setRelLimit(ADD_APPLICATION, 1, 1);
+		fakeClockLimiter.acquire("toto", ADD_APPLICATION);
+		// operation
+		boolean acquired = fakeClockLimiter.tryAcquire("titi", ADD_APPLICATION, 500, TimeUnit.MILLISECONDS);
+		// verifications
+		assertThat(acquired).isFalse();
+		assertThat(now).isEqualTo(0);
+		assertThat(fakeClockLimiter.tryAcquire("titi", ADD_APPLICATION, 1, TimeUnit.SECONDS)).isTrue();
+		assertThat(now).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	public void shouldShareRelLimitAcrossUsers() {
+		// pre-conditions
+		fakeClockLimiter.setRelLimit(ADD_APPLICATION, 1, 1);
+		// operation
+		boolean toto = fakeClockLimiter.tryAcquire("toto", ADD_APPLICATION);
+		boolean titi = fakeClockLimiter.tryAcquire("titi", ADD_APPLICATION);
+		// verifications
+		assertThat(toto).isTrue();
+		assertThat(titi).isFalse();
+		assertThat(fakeClockLimiter.tryAcquire("titi", "Get domains")).isTrue();
+	}
+
+	@Test
+	public void shouldLetUsersTakeTurnsAtSharedLimit() throws Exception {
+		// pre-conditions
+		final RateLimiter rateLimiter = new RateLimiter();
+		rateLimiter.setRelLimit(ADD_APPLICATION, 20, 1);
+		final List<String> acquired = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch done = new CountDownLatch(6);
+		// operation
+		for (int i = 0; i < 5; i++) {
+			acquireAsync(rateLimiter, "toto", acquired, done);
+		}
+		Thread.sleep(20);
+		acquireAsync(rateLimiter, "titi", acquired, done);
+		// verifications
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(acquired.indexOf("titi")).isLessThanOrEqualTo(2);
+	}
+
+	private void acquireAsync(final RateLimiter rateLimiter, final String rhlogin, final List<String> acquired,
+			final CountDownLatch done) {
+		new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					rateLimiter.acquire(rhlogin, ADD_APPLICATION);
+					acquired.add(rhlogin);
+				} catch (InterruptedException e) {
+					// ignore
+				} finally {
+					done.countDown();
+				}
+			}
+		}.start();
+	}
+}
@@ -14,31 +14,55 @@ import static com.openshift.client.utils.MockUtils.anyForm;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
+import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.openshift.client.HttpMethod;
 import com.openshift.client.IHttpClient;
+import com.openshift.client.NotFoundOpenShiftException;
 import com.openshift.client.OpenShiftEndpointException;
+import com.openshift.client.OpenShiftEndpointUnavailableException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftRateLimitException;
+import com.openshift.client.OpenShiftTimeoutException;
 import com.openshift.client.utils.MessageAssert;
 import com.openshift.client.utils.OpenShiftTestConfiguration;
 import com.openshift.client.utils.Samples;
 import com.openshift.internal.client.httpclient.HttpClientException;
+import com.openshift.internal.client.httpclient.HttpResponse;
+import com.openshift.internal.client.httpclient.IConditionalHttpClient;
+import com.openshift.internal.client.httpclient.IResponseReader;
+import com.openshift.internal.client.httpclient.IStreamingHttpClient;
+import com.openshift.internal.client.httpclient.InternalServerErrorException;
 import com.openshift.internal.client.httpclient.NotFoundException;
 import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.LinkParameter;
@@ -193,4 +217,606 @@ public class RestServiceTest {
 					.hasParameter(null);
 		}
 	}
+
+	@Test
+	public void shouldRetryGetOnTransientError() throws Throwable {
+		// pre-conditions
+		RetryPolicy retryPolicy = new RetryPolicy(3, 1, 10, 0.1, 10);
+		service.setRetryPolicy(retryPolicy);
+		when(clientMock.get(any(URL.class)))
+				.thenThrow(new HttpClientException("service unavailable", 503))
+				.thenThrow(new HttpClientException(new SocketException("connection reset")))
+				.thenReturn("{}");
+		// operation
+		service.request(new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null));
+		// verifications
+		verify(clientMock, times(3)).get(any(URL.class));
+		RetryStats stats = retryPolicy.getStats();
+		assertThat(stats.getRequests()).isEqualTo(1);
+		assertThat(stats.getRetries()).isEqualTo(2);
+		assertThat(stats.getRecovered()).isEqualTo(1);
+		assertThat(stats.getFailed(1)).isEqualTo(1);
+		assertThat(stats.getFailed(2)).isEqualTo(1);
+		assertThat(stats.getSucceeded(3)).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotRetryNonTransientError() throws Throwable {
+		// pre-conditions
+		service.setRetryPolicy(new RetryPolicy(3, 1, 10, 0.1, 10));
+		when(clientMock.get(any(URL.class))).thenThrow(new InternalServerErrorException("cannot scale"));
+		// operation
+		try {
+			service.request(new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null));
+			fail("OpenShiftEndpointException expected, did not occurr");
+		} catch (OpenShiftEndpointException e) {
+			// expected
+		}
+		// verifications
+		verify(clientMock, times(1)).get(any(URL.class));
+	}
+
+	@Test
+	public void shouldNotRetryTimeoutUnlessOptedIn() throws Throwable {
+		// pre-conditions
+		RetryPolicy retryPolicy = new RetryPolicy(3, 1, 10, 0.1, 10);
+		service.setRetryPolicy(retryPolicy);
+		when(clientMock.get(any(URL.class))).thenThrow(new SocketTimeoutException("mock..."));
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		// operation
+		requestTimingOut(link);
+		retryPolicy.setRetryTimeouts(true);
+		requestTimingOut(link);
+		// verifications
+		verify(clientMock, times(1 + 3)).get(any(URL.class));
+		assertThat(retryPolicy.getStats().getRetries()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldSucceedIfRetriedDeleteIsNotFound() throws Throwable {
+		// pre-conditions
+		RetryPolicy retryPolicy = new RetryPolicy(3, 1, 10, 0.1, 10);
+		service.setRetryPolicy(retryPolicy);
+		when(clientMock.delete(anyForm(), any(URL.class)))
+				.thenThrow(new HttpClientException(new SocketException("connection reset")))
+				.thenThrow(new NotFoundException("not found"));
+		Link link = new Link("DELETE", "/broker/rest/domains/foobar", HttpMethod.DELETE, null, null);
+		// operation
+		RestResponse response = service.request(link);
+		// verifications
+		assertThat(response).isNull();
+		verify(clientMock, times(2)).delete(anyForm(), any(URL.class));
+		assertThat(retryPolicy.getStats().getRecovered()).isEqualTo(1);
+	}
+
+	@Test(expected = NotFoundOpenShiftException.class)
+	public void shouldFailIfDeleteIsNotFound() throws Throwable {
+		// pre-conditions
+		service.setRetryPolicy(new RetryPolicy(3, 1, 10, 0.1, 10));
+		when(clientMock.delete(anyForm(), any(URL.class))).thenThrow(new NotFoundException("not found"));
+		// operation
+		service.request(new Link("DELETE", "/broker/rest/domains/foobar", HttpMethod.DELETE, null, null));
+	}
+
+	@Test
+	public void shouldRetryPostOnlyIfOptedIn() throws Throwable {
+		// pre-conditions
+		RetryPolicy retryPolicy = new RetryPolicy(3, 1, 10, 0.1, 10);
+		retryPolicy.setRetryTimeouts(true);
+		service.setRetryPolicy(retryPolicy);
+		when(clientMock.post(anyForm(), any(URL.class))).thenThrow(new SocketTimeoutException("mock..."));
+		Link link = new Link("ADD_DOMAIN", "/broker/rest/domains", HttpMethod.POST, null, null);
+		// operation
+		requestTimingOut(link);
+		retryPolicy.addRetriablePost("ADD_DOMAIN");
+		requestTimingOut(link);
+		// verifications
+		verify(clientMock, times(1 + 3)).post(anyForm(), any(URL.class));
+		assertThat(retryPolicy.getStats().getExhausted()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotRetryIfBudgetIsSpent() throws Throwable {
+		// pre-conditions
+		RetryPolicy retryPolicy = new RetryPolicy(3, 1, 10, 0, 1);
+		retryPolicy.setRetryTimeouts(true);
+		service.setRetryPolicy(retryPolicy);
+		when(clientMock.delete(anyForm(), any(URL.class))).thenThrow(new SocketTimeoutException("mock..."));
+		Link link = new Link("DELETE", "/broker/rest/domains/foobar", HttpMethod.DELETE, null, null);
+		// operation
+		requestTimingOut(link);
+		requestTimingOut(link);
+		// verifications
+		verify(clientMock, times(2 + 1)).delete(anyForm(), any(URL.class));
+		RetryStats stats = retryPolicy.getStats();
+		assertThat(stats.getRetries()).isEqualTo(1);
+		assertThat(stats.getBudgetRejected()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldFailFastOnceCircuitIsOpen() throws Throwable {
+		// pre-conditions
+		service.setRetryPolicy(null);
+		service.setEndpointGuard(new EndpointGuard(2, 60 * 1000, 4, 0));
+		when(clientMock.get(any(URL.class))).thenThrow(new SocketTimeoutException("mock..."));
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		requestTimingOut(link);
+		requestTimingOut(link);
+		// operation
+		try {
+			service.request(link);
+			fail("OpenShiftEndpointUnavailableException expected, did not occurr");
+		} catch (OpenShiftEndpointUnavailableException e) {
+			// verifications
+			assertThat(service.getEndpointGuard().getState(e.getEndpoint())).isEqualTo(CircuitBreaker.State.OPEN);
+		}
+		verify(clientMock, times(2)).get(any(URL.class));
+	}
+
+	@Test
+	public void shouldNotOpenCircuitIfBrokerResponds() throws Throwable {
+		// pre-conditions
+		service.setRetryPolicy(null);
+		EndpointGuard endpointGuard = new EndpointGuard(2, 60 * 1000, 4, 0);
+		service.setEndpointGuard(endpointGuard);
+		when(clientMock.get(any(URL.class))).thenThrow(new NotFoundException("not found"));
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		// operation
+		for (int i = 0; i < 3; i++) {
+			try {
+				service.request(link);
+				fail("NotFoundOpenShiftException expected, did not occurr");
+			} catch (NotFoundOpenShiftException e) {
+				// expected
+			}
+		}
+		// verifications
+		verify(clientMock, times(3)).get(any(URL.class));
+		for (String endpoint : endpointGuard.getEndpoints()) {
+			assertThat(endpointGuard.getState(endpoint)).isEqualTo(CircuitBreaker.State.CLOSED);
+		}
+	}
+
+	@Test
+	public void shouldNotRejectConcurrentRequestsToSlowBroker() throws Throwable {
+		// pre-conditions
+		final int requests = 20;
+		final CountDownLatch inFlight = new CountDownLatch(requests);
+		when(clientMock.post(anyForm(), any(URL.class))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				// respond once all requests are in flight
+				inFlight.countDown();
+				inFlight.await(10, TimeUnit.SECONDS);
+				return "{}";
+			}
+		});
+		final Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.POST, null, null);
+		ExecutorService executor = Executors.newFixedThreadPool(requests);
+		// operation
+		try {
+			Future<?>[] responses = new Future<?>[requests];
+			for (int i = 0; i < responses.length; i++) {
+				responses[i] = executor.submit(requestCallable(service, link));
+			}
+			// verifications
+			for (Future<?> response : responses) {
+				response.get(20, TimeUnit.SECONDS);
+			}
+			assertThat(inFlight.getCount()).isEqualTo(0);
+			EndpointGuard endpointGuard = service.getEndpointGuard();
+			for (String endpoint : endpointGuard.getEndpoints()) {
+				assertThat(endpointGuard.getBulkhead(endpoint).getRejected()).isEqualTo(0);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldFailIfRateLimitIsReached() throws Throwable {
+		// pre-conditions
+		RateLimiter rateLimiter = new RateLimiter();
+		rateLimiter.setRelLimit("ADD_DOMAIN", 0.001, 1);
+		rateLimiter.setMaxWait(0);
+		service.setRateLimiter(rateLimiter, "toto");
+		Link link = new Link("ADD_DOMAIN", "/broker/rest/domains", HttpMethod.POST, null, null);
+		service.request(link);
+		// operation
+		try {
+			service.request(link);
+			fail("OpenShiftRateLimitException expected, did not occurr");
+		} catch (OpenShiftRateLimitException e) {
+			// expected
+		}
+		// verifications
+		verify(clientMock, times(1)).post(anyForm(), any(URL.class));
+		assertThat(rateLimiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldCoalesceConcurrentIdenticalGets() throws Throwable {
+		// pre-conditions
+		final CountDownLatch respond = new CountDownLatch(1);
+		when(clientMock.get(any(URL.class))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				respond.await(10, TimeUnit.SECONDS);
+				return Samples.GET_DOMAINS_1EXISTING.getContentAsString();
+			}
+		});
+		final Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		// operation
+		try {
+			Future<?>[] responses = new Future<?>[4];
+			for (int i = 0; i < responses.length; i++) {
+				responses[i] = executor.submit(new Callable<RestResponse>() {
+
+					public RestResponse call() throws Exception {
+						return service.request(link);
+					}
+				});
+			}
+			RequestCoalescer requestCoalescer = service.getRequestCoalescer();
+			for (int i = 0; i < 100 && requestCoalescer.getCoalesced() < 3; i++) {
+				Thread.sleep(50);
+			}
+			respond.countDown();
+			// verifications
+			for (Future<?> response : responses) {
+				assertThat(response.get(10, TimeUnit.SECONDS)).isSameAs(responses[0].get());
+			}
+			verify(clientMock, times(1)).get(any(URL.class));
+			assertThat(requestCoalescer.getRequests()).isEqualTo(1);
+			assertThat(requestCoalescer.getCoalesced()).isEqualTo(3);
+			assertThat(requestCoalescer.getInFlight()).isEqualTo(0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldNotCoalesceGetsOfDifferentClients() throws Throwable {
+		// pre-conditions
+		final CountDownLatch respond = new CountDownLatch(1);
+		Answer<String> blockingAnswer = new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				respond.await(10, TimeUnit.SECONDS);
+				return Samples.GET_DOMAINS_1EXISTING.getContentAsString();
+			}
+		};
+		IHttpClient otherClientMock = mock(IHttpClient.class);
+		when(clientMock.get(any(URL.class))).thenAnswer(blockingAnswer);
+		when(otherClientMock.get(any(URL.class))).thenAnswer(blockingAnswer);
+		RequestCoalescer requestCoalescer = new RequestCoalescer();
+		service.setRequestCoalescer(requestCoalescer);
+		IRestService otherService = new RestService("http://localhost", "test", otherClientMock);
+		otherService.setRequestCoalescer(requestCoalescer);
+		Link link = new Link("0 require parameter", "http://localhost/broker/rest/domains", HttpMethod.GET, null, null);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		// operation
+		try {
+			Future<RestResponse> response = executor.submit(requestCallable(service, link));
+			Future<RestResponse> otherResponse = executor.submit(requestCallable(otherService, link));
+			waitForInFlight(requestCoalescer, 2);
+			respond.countDown();
+			// verifications
+			assertThat(response.get(10, TimeUnit.SECONDS)).isNotSameAs(otherResponse.get(10, TimeUnit.SECONDS));
+			verify(clientMock, times(1)).get(any(URL.class));
+			verify(otherClientMock, times(1)).get(any(URL.class));
+			assertThat(requestCoalescer.getRequests()).isEqualTo(2);
+			assertThat(requestCoalescer.getCoalesced()).isEqualTo(0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldNotJoinGetThatWasInFlightBeforeWrite() throws Throwable {
+		// pre-conditions
+		final CountDownLatch respond = new CountDownLatch(1);
+		when(clientMock.get(any(URL.class)))
+				.thenAnswer(new Answer<String>() {
+
+					public String answer(InvocationOnMock invocation) throws Throwable {
+						respond.await(10, TimeUnit.SECONDS);
+						return Samples.GET_DOMAINS_1EXISTING.getContentAsString();
+					}
+				})
+				.thenReturn(Samples.GET_DOMAINS_1EXISTING.getContentAsString());
+		Link get = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		Link post = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.POST, null, null);
+		RequestCoalescer requestCoalescer = service.getRequestCoalescer();
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		// operation
+		try {
+			Future<RestResponse> staleResponse = executor.submit(requestCallable(service, get));
+			waitForInFlight(requestCoalescer, 1);
+			service.request(post);
+			RestResponse response = service.request(get);
+			respond.countDown();
+			// verifications
+			assertThat(response).isNotSameAs(staleResponse.get(10, TimeUnit.SECONDS));
+			verify(clientMock, times(2)).get(any(URL.class));
+			assertThat(requestCoalescer.getRequests()).isEqualTo(2);
+			assertThat(requestCoalescer.getCoalesced()).isEqualTo(0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldReportErrorToAllCoalescedCallers() throws Throwable {
+		// pre-conditions
+		final CountDownLatch respond = new CountDownLatch(1);
+		when(clientMock.get(any(URL.class))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				respond.await(10, TimeUnit.SECONDS);
+				throw new NotFoundException("not found");
+			}
+		});
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		RequestCoalescer requestCoalescer = service.getRequestCoalescer();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		// operation
+		try {
+			Future<?>[] responses = new Future<?>[4];
+			for (int i = 0; i < responses.length; i++) {
+				responses[i] = executor.submit(requestCallable(service, link));
+			}
+			for (int i = 0; i < 100 && requestCoalescer.getCoalesced() < 3; i++) {
+				Thread.sleep(50);
+			}
+			respond.countDown();
+			// verifications
+			for (Future<?> response : responses) {
+				try {
+					response.get(10, TimeUnit.SECONDS);
+					fail("ExecutionException expected, did not occurr");
+				} catch (ExecutionException e) {
+					assertThat(e.getCause()).isInstanceOf(NotFoundOpenShiftException.class);
+				}
+			}
+			verify(clientMock, times(1)).get(any(URL.class));
+			assertThat(requestCoalescer.getCoalesced()).isEqualTo(3);
+			assertThat(requestCoalescer.getInFlight()).isEqualTo(0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Callable<RestResponse> requestCallable(final IRestService service, final Link link) {
+		return new Callable<RestResponse>() {
+
+			public RestResponse call() throws Exception {
+				return service.request(link);
+			}
+		};
+	}
+
+	private void waitForInFlight(RequestCoalescer requestCoalescer, int inFlight) throws InterruptedException {
+		for (int i = 0; i < 100 && requestCoalescer.getInFlight() < inFlight; i++) {
+			Thread.sleep(50);
+		}
+		assertThat(requestCoalescer.getInFlight()).isEqualTo(inFlight);
+	}
+
+	private void requestTimingOut(Link link) throws Throwable {
+		try {
+			service.request(link);
+			fail("OpenShiftTimeoutException expected, did not occurr");
+		} catch (OpenShiftTimeoutException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void shouldRequestAsync() throws Throwable {
+		// pre-conditions
+		when(clientMock.get(any(URL.class))).thenReturn(Samples.GET_DOMAINS_1EXISTING.getContentAsString());
+		// operation
+		Future<RestResponse> future = service.requestAsync(
+				new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null), null);
+		// verifications
+		RestResponse response = future.get(10, TimeUnit.SECONDS);
+		assertThat(response).isNotNull();
+		assertThat(future.isDone()).isTrue();
+		verify(clientMock, times(1)).get(any(URL.class));
+	}
+
+	@Test
+	public void shouldReportAsyncRequestErrorsOnGet() throws Throwable {
+		// pre-conditions
+		when(clientMock.get(any(URL.class))).thenThrow(new NotFoundException("not found"));
+		// operation
+		Future<RestResponse> future = service.requestAsync(
+				new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null), null);
+		// verifications
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("ExecutionException expected, did not occurr");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(OpenShiftException.class);
+		}
+	}
+
+	@Test
+	public void shouldTimeoutAsyncRequest() throws Throwable {
+		// pre-conditions
+		final CountDownLatch responseLatch = new CountDownLatch(1);
+		when(clientMock.get(any(URL.class))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				responseLatch.await(10, TimeUnit.SECONDS);
+				return "{}";
+			}
+		});
+		// operation
+		Future<RestResponse> future = service.requestAsync(
+				new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null), null,
+				100, TimeUnit.MILLISECONDS);
+		// verifications
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("ExecutionException expected, did not occurr");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(OpenShiftTimeoutException.class);
+		} finally {
+			responseLatch.countDown();
+		}
+	}
+
+	@Test
+	public void shouldNotRequestCancelledAsyncRequest() throws Throwable {
+		// pre-conditions
+		final CountDownLatch requestLatch = new CountDownLatch(1);
+		final CountDownLatch responseLatch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		service.setExecutor(executor);
+		when(clientMock.get(any(URL.class))).thenAnswer(new Answer<String>() {
+
+			public String answer(InvocationOnMock invocation) throws Throwable {
+				requestLatch.countDown();
+				responseLatch.await(10, TimeUnit.SECONDS);
+				return "{}";
+			}
+		});
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		Future<RestResponse> blocking = service.requestAsync(link, null);
+		Future<RestResponse> queued = service.requestAsync(link, null);
+		requestLatch.await(10, TimeUnit.SECONDS);
+		// operation
+		boolean cancelled = queued.cancel(true);
+		responseLatch.countDown();
+		blocking.get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+		// verifications
+		assertThat(cancelled).isTrue();
+		assertThat(queued.isCancelled()).isTrue();
+		verify(clientMock, times(1)).get(any(URL.class));
+	}
+
+	@Test
+	public void shouldReuseCachedResponseIfNotModified() throws Throwable {
+		// pre-conditions
+		IConditionalHttpClient conditionalClient = createConditionalClient();
+		IRestService service = new RestService("http://localhost", "test", conditionalClient);
+		String domains = Samples.GET_DOMAINS_1EXISTING.getContentAsString();
+		when(conditionalClient.get(any(URL.class), (String) isNull(), (String) isNull()))
+				.thenReturn(new HttpResponse(200, domains, "\"42\"", null));
+		when(conditionalClient.get(any(URL.class), eq("\"42\""), (String) isNull()))
+				.thenReturn(new HttpResponse(304, null, "\"42\"", null));
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		// operation
+		RestResponse response1 = service.request(link);
+		RestResponse response2 = service.request(link);
+		// verifications
+		assertThat(response2).isSameAs(response1);
+		verify(conditionalClient, times(1)).get(any(URL.class), (String) isNull(), (String) isNull());
+		verify(conditionalClient, times(1)).get(any(URL.class), eq("\"42\""), (String) isNull());
+		RestResponseCache cache = service.getResponseCache();
+		assertThat(cache.getMisses()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotCacheResponseWithoutValidators() throws Throwable {
+		// pre-conditions
+		IConditionalHttpClient conditionalClient = createConditionalClient();
+		IRestService service = new RestService("http://localhost", "test", conditionalClient);
+		when(conditionalClient.get(any(URL.class), (String) isNull(), (String) isNull()))
+				.thenReturn(new HttpResponse(200, "{}", null, null));
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		// operation
+		service.request(link);
+		service.request(link);
+		// verifications
+		verify(conditionalClient, times(2)).get(any(URL.class), (String) isNull(), (String) isNull());
+		assertThat(service.getResponseCache().size()).isEqualTo(0);
+		assertThat(service.getResponseCache().getMisses()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldDropCachedResponseOnPost() throws Throwable {
+		// pre-conditions
+		IConditionalHttpClient conditionalClient = createConditionalClient();
+		IRestService service = new RestService("http://localhost", "test", conditionalClient);
+		when(conditionalClient.get(any(URL.class), (String) isNull(), (String) isNull()))
+				.thenReturn(new HttpResponse(200, "{}", null, "Tue, 15 Nov 1994 12:45:26 GMT"));
+		String url = "http://localhost/broker/rest/domains";
+		service.request(new Link("0 require parameter", url, HttpMethod.GET, null, null));
+		assertThat(service.getResponseCache().get(url)).isNotNull();
+		// operation
+		service.request(new Link("0 require parameter", url, HttpMethod.POST, null, null));
+		// verifications
+		assertThat(service.getResponseCache().get(url)).isNull();
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyUsedResponse() throws Throwable {
+		// pre-conditions
+		IConditionalHttpClient conditionalClient = createConditionalClient();
+		IRestService service = new RestService("http://localhost", "test", conditionalClient);
+		service.setResponseCache(new RestResponseCache(2));
+		when(conditionalClient.get(any(URL.class), (String) isNull(), (String) isNull()))
+				.thenReturn(new HttpResponse(200, "{}", "\"1\"", null));
+		// operation
+		service.request(new Link("0 require parameter", "http://localhost/1", HttpMethod.GET, null, null));
+		service.request(new Link("0 require parameter", "http://localhost/2", HttpMethod.GET, null, null));
+		service.getResponseCache().get("http://localhost/1");
+		service.request(new Link("0 require parameter", "http://localhost/3", HttpMethod.GET, null, null));
+		// verifications
+		RestResponseCache cache = service.getResponseCache();
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getEvictions()).isEqualTo(1);
+		assertThat(cache.get("http://localhost/1")).isNotNull();
+		assertThat(cache.get("http://localhost/2")).isNull();
+		assertThat(cache.get("http://localhost/3")).isNotNull();
+	}
+
+	@Test
+	public void shouldUnmarshallStreamedResponse() throws Throwable {
+		// pre-conditions
+		IStreamingHttpClient streamingClient = mock(IStreamingHttpClient.class);
+		IRestService service = new RestService("http://localhost", "test", streamingClient);
+		final byte[] domains = Samples.GET_DOMAINS_1EXISTING.getContentAsString().getBytes("UTF-8");
+		when(streamingClient.request(eq(HttpMethod.GET), any(URL.class), (Map<String, Object>) isNull(),
+				(String) isNull(), (String) isNull(), any(IResponseReader.class)))
+				.thenAnswer(new Answer<Object>() {
+
+					public Object answer(InvocationOnMock invocation) throws Throwable {
+						return ((IResponseReader<?>) invocation.getArguments()[5]).read(
+								new HttpResponse(200, null, "\"42\"", null), new ByteArrayInputStream(domains));
+					}
+				});
+		when(streamingClient.request(eq(HttpMethod.GET), any(URL.class), (Map<String, Object>) isNull(),
+				eq("\"42\""), (String) isNull(), any(IResponseReader.class)))
+				.thenAnswer(new Answer<Object>() {
+
+					public Object answer(InvocationOnMock invocation) throws Throwable {
+						return ((IResponseReader<?>) invocation.getArguments()[5]).read(
+								new HttpResponse(304, null, "\"42\"", null), new ByteArrayInputStream(new byte[0]));
+					}
+				});
+		Link link = new Link("0 require parameter", "/broker/rest/domains", HttpMethod.GET, null, null);
+		// operation
+		RestResponse response1 = service.request(link);
+		RestResponse response2 = service.request(link);
+		// verifications
+		assertThat(response1.getData()).isNotNull();
+		assertThat(response2).isSameAs(response1);
+		assertThat(service.getResponseCache().getHits()).isEqualTo(1);
+		verify(streamingClient, never()).get(any(URL.class));
+		verify(streamingClient, never()).get(any(URL.class), any(String.class), any(String.class));
+	}
+
+	private IConditionalHttpClient createConditionalClient() throws Throwable {
+		IConditionalHttpClient conditionalClient = mock(IConditionalHttpClient.class);
+		when(conditionalClient.post(anyForm(), any(URL.class))).thenReturn("{}");
+		return conditionalClient;
+	}
 }
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jcraft.jsch.Session;
+import com.openshift.client.IApplication;
+import com.openshift.client.ISSHSessionFactory;
+import com.openshift.internal.client.ssh.SSHSessionPool;
+import com.openshift.internal.client.ssh.SSHSessionPool.PooledSession;
+
+public class SSHSessionPoolTest {
+
+	private ISSHSessionFactory factory;
+	private Session session;
+	private IApplication application;
+	private SSHSessionPool pool;
+
+	@Before
+	public void setUp() throws Exception {
+		this.session = mock(Session.class);
+		when(session.isConnected()).thenReturn(false, true);
+		this.application = mock(IApplication.class);
+		when(application.getUUID()).thenReturn("4242");
+		when(application.getName()).thenReturn("sample");
+		this.factory = mock(ISSHSessionFactory.class);
+		when(factory.createSession(application)).thenReturn(session);
+	}
+
+	@After
+	public void tearDown() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void shouldConnectOnDemandAndReuseSession() throws Exception {
+		// pre-conditions
+		this.pool = new SSHSessionPool(factory);
+		// operation
+		PooledSession first = pool.acquire(application);
+		pool.release(first);
+		PooledSession second = pool.acquire(application);
+		pool.release(second);
+		// verifications
+		assertThat(second.getSession()).isSameAs(session);
+		verify(factory, times(1)).createSession(application);
+		verify(session, times(1)).connect();
+		verify(session).setServerAliveInterval(SSHSessionPool.DEFAULT_KEEP_ALIVE_INTERVAL);
+		assertThat(pool.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldBoundChannelsPerSession() throws Exception {
+		// pre-conditions
+		this.pool = new SSHSessionPool(factory, 1, SSHSessionPool.DEFAULT_IDLE_TIMEOUT,
+				SSHSessionPool.DEFAULT_KEEP_ALIVE_INTERVAL);
+		PooledSession first = pool.acquire(application);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// operation
+			Future<PooledSession> second = executor.submit(new Callable<PooledSession>() {
+
+				public PooledSession call() throws Exception {
+					return pool.acquire(application);
+				}
+			});
+			// verifications
+			try {
+				second.get(200, TimeUnit.MILLISECONDS);
+				throw new AssertionError("Expected 2nd caller to wait for a channel");
+			} catch (TimeoutException e) {
+				// ok, all channels in use
+			}
+			pool.release(first);
+			assertThat(second.get(5, TimeUnit.SECONDS).getSession()).isSameAs(session);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldEvictIdleSessionsOnly() throws Exception {
+		// pre-conditions
+		this.pool = new SSHSessionPool(factory, 2, 0, SSHSessionPool.DEFAULT_KEEP_ALIVE_INTERVAL);
+		PooledSession pooled = pool.acquire(application);
+		// operation
+		pool.evictIdle();
+		// verifications
+		verify(session, never()).disconnect();
+		assertThat(pool.size()).isEqualTo(1);
+		// operation
+		pool.release(pooled);
+		pool.evictIdle();
+		// verifications
+		verify(session).disconnect();
+		assertThat(pool.size()).isEqualTo(0);
+	}
+}
@@ -0,0 +1,121 @@
+/******************************************************************************* 
+ * Copyright (c) 2012 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.openshift.internal.client.utils.BufferPool;
+import com.openshift.internal.client.utils.StreamUtils;
+
+public class StreamUtilsTest {
+
+	private static final int SIZE = 3 * 1024 * 1024 + 17;
+
+	@Test
+	public void shouldWriteToOutputAndReturnUnreadInput() throws IOException {
+		// pre-conditions
+		byte[] data = createData(SIZE);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// operation
+		InputStream unread = StreamUtils.writeTo(new ByteArrayInputStream(data), out);
+		// verifications
+		assertThat(out.toByteArray()).isEqualTo(data);
+		assertThat(IOUtils.toByteArray(unread)).isEqualTo(data);
+	}
+
+	@Test
+	public void shouldWriteEmptyStream() throws IOException {
+		// pre-conditions
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// operation
+		InputStream unread = StreamUtils.writeTo(new ByteArrayInputStream(new byte[0]), out);
+		// verifications
+		assertThat(out.size()).isEqualTo(0);
+		assertThat(unread.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void shouldCopyFileToFile() throws IOException {
+		// pre-conditions
+		byte[] data = createData(SIZE);
+		File source = File.createTempFile("streamutils", ".source");
+		File target = File.createTempFile("streamutils", ".target");
+		try {
+			FileUtils.writeByteArrayToFile(source, data);
+			FileInputStream in = new FileInputStream(source);
+			FileOutputStream out = new FileOutputStream(target);
+			// operation
+			long copied;
+			try {
+				copied = StreamUtils.copy(in, out);
+			} finally {
+				in.close();
+				out.close();
+			}
+			// verifications
+			assertThat(copied).isEqualTo(SIZE);
+			assertThat(FileUtils.readFileToByteArray(target)).isEqualTo(data);
+		} finally {
+			source.delete();
+			target.delete();
+		}
+	}
+
+	@Test
+	public void shouldCopyChannels() throws IOException {
+		// pre-conditions
+		byte[] data = createData(SIZE);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// operation
+		long copied = StreamUtils.copy(
+				Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(out));
+		// verifications
+		assertThat(copied).isEqualTo(SIZE);
+		assertThat(out.toByteArray()).isEqualTo(data);
+	}
+
+	@Test
+	public void shouldReuseReleasedBuffers() {
+		// pre-conditions
+		BufferPool pool = new BufferPool(16, 1);
+		byte[] buffer1 = pool.acquire();
+		byte[] buffer2 = pool.acquire();
+		// operation
+		pool.release(buffer1);
+		pool.release(buffer2);
+		pool.release(new byte[8]);
+		// verifications
+		assertThat(pool.acquire()).isSameAs(buffer1);
+		byte[] buffer3 = pool.acquire();
+		assertThat(buffer3).isNotSameAs(buffer2);
+		assertThat(buffer3).hasSize(16);
+	}
+
+	private byte[] createData(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+}
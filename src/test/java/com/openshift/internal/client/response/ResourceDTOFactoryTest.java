@@ -12,12 +12,20 @@ package com.openshift.internal.client.response;
 
 import static com.openshift.internal.client.response.ILinkNames.ADD_APPLICATION;
 import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.commons.io.FileUtils;
+
 import org.fest.assertions.Condition;
 import org.junit.Test;
 
@@ -328,4 +336,81 @@ public class ResourceDTOFactoryTest {
 		assertThat(link.getRequiredParams().get(0).getValidOptions()).containsExactly("ssh-rsa", "ssh-dss");
 	}
 
+	@Test
+	public void shouldUnmarshallStream() throws Throwable {
+		// pre-conditions
+		String content = Samples.GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+		// operation
+		RestResponse response = ResourceDTOFactory.get(new ByteArrayInputStream(content.getBytes("UTF-8")));
+		// verifications
+		assertSameContent("stream", ModelNodeResourceDTOFactory.get(content), response);
+	}
+
+	@Test
+	public void shouldUnmarshallAllSamplesLikeModelNode() throws Throwable {
+		// pre-conditions
+		File samplesFolder = new File(getClass().getResource("/samples").toURI());
+		File[] samples = samplesFolder.listFiles();
+		assertThat(samples).isNotEmpty();
+		for (File sample : samples) {
+			if (!sample.getName().endsWith(".json")) {
+				continue;
+			}
+			String content = FileUtils.readFileToString(sample, "UTF-8");
+			// operation
+			Object expected = unmarshall(content, true);
+			Object actual = unmarshall(content, false);
+			// verifications
+			assertSameContent(sample.getName(), expected, actual);
+		}
+	}
+
+	private Object unmarshall(String content, boolean modelNode) {
+		try {
+			if (modelNode) {
+				return ModelNodeResourceDTOFactory.get(content);
+			} else {
+				return ResourceDTOFactory.get(content);
+			}
+		} catch (Exception e) {
+			return e.getClass();
+		}
+	}
+
+	private void assertSameContent(String path, Object expected, Object actual) throws IllegalAccessException {
+		if (expected == null
+				|| actual == null) {
+			assertEquals(path, expected, actual);
+			return;
+		}
+		assertEquals(path, expected.getClass(), actual.getClass());
+		if (expected instanceof List) {
+			List<?> expectedList = (List<?>) expected;
+			List<?> actualList = (List<?>) actual;
+			assertEquals(path, expectedList.size(), actualList.size());
+			for (int i = 0; i < expectedList.size(); i++) {
+				assertSameContent(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+			}
+		} else if (expected instanceof Map) {
+			Map<?, ?> expectedMap = (Map<?, ?>) expected;
+			Map<?, ?> actualMap = (Map<?, ?>) actual;
+			assertEquals(path, expectedMap.keySet(), actualMap.keySet());
+			for (Entry<?, ?> entry : expectedMap.entrySet()) {
+				assertSameContent(path + "." + entry.getKey(), entry.getValue(), actualMap.get(entry.getKey()));
+			}
+		} else if (expected.getClass().getName().startsWith("com.openshift")
+				&& !expected.getClass().isEnum()) {
+			for (Class<?> clazz = expected.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+				for (Field field : clazz.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) {
+						continue;
+					}
+					field.setAccessible(true);
+					assertSameContent(path + "." + field.getName(), field.get(expected), field.get(actual));
+				}
+			}
+		} else if (!expected.equals(actual)) {
+			fail(path + ": expected " + expected + " but was " + actual);
+		}
+	}
 }